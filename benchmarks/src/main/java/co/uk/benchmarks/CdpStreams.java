@@ -0,0 +1,37 @@
+package co.uk.benchmarks;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Recorded CDP event streams on the classpath, one wire-format message per line.
+ * <ul>
+ *     <li>{@code network}: a product page load, 41 requests with their responses, one blocked</li>
+ *     <li>{@code log}: {@code Log.entryAdded} and {@code Runtime.consoleAPICalled} from the same page</li>
+ *     <li>{@code websocket}: a price ticker socket, 200 text frames</li>
+ * </ul>
+ */
+final class CdpStreams {
+
+    private CdpStreams() {
+    }
+
+    static List<String> load(String stream) {
+        String resource = "/streams/" + stream + ".jsonl";
+        InputStream in = CdpStreams.class.getResourceAsStream(resource);
+        if (in == null) {
+            throw new IllegalArgumentException("No recorded stream " + resource);
+        }
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            return reader.lines().filter(line -> !line.isBlank()).collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package co.uk.benchmarks;
+
+import co.uk.events.BackpressurePolicy;
+import co.uk.events.DevToolsEventBus;
+import co.uk.events.EventBusConfig;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openqa.selenium.devtools.Event;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Recorded CDP messages through Selenium's decoding and dispatch, straight to a listener and via
+ * {@link DevToolsEventBus}. One invocation replays the whole stream, so scores are per stream.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EventReplayBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Direct {
+
+        @Param({"network", "log", "websocket"})
+        String stream;
+
+        List<String> messages;
+        ReplayConnection connection;
+        final LongAdder delivered = new LongAdder();
+        volatile Object last;
+        long expected;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            messages = CdpStreams.load(stream);
+            connection = new ReplayConnection();
+            RecordedEvents.listenToAll(connection.getDevTools(), event -> {
+                last = event;
+                delivered.increment();
+            });
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            connection.close();
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ViaBus {
+
+        @Param({"network", "log", "websocket"})
+        String stream;
+
+        List<String> messages;
+        ReplayConnection connection;
+        DevToolsEventBus bus;
+        final LongAdder delivered = new LongAdder();
+        volatile Object last;
+        long expected;
+
+        @Setup(Level.Trial)
+        @SuppressWarnings("unchecked")
+        public void setUp() {
+            messages = CdpStreams.load(stream);
+            connection = new ReplayConnection();
+            bus = new DevToolsEventBus(connection.getDevTools(),
+                    EventBusConfig.builder().policy(BackpressurePolicy.BLOCK).build());
+            for (Event<?> event : RecordedEvents.ALL) {
+                bus.subscribe("replay", (Event<Object>) event, value -> {
+                    last = value;
+                    delivered.increment();
+                });
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            bus.close();
+            connection.close();
+        }
+    }
+
+    @Benchmark
+    public Object decodeAndDispatch(Direct state) {
+        state.expected += state.messages.size();
+        state.connection.replay(state.messages);
+        RecordedEvents.await(state.delivered::sum, state.expected);
+        return state.last;
+    }
+
+    @Benchmark
+    public Object decodeAndDispatchViaEventBus(ViaBus state) {
+        state.expected += state.messages.size();
+        state.connection.replay(state.messages);
+        RecordedEvents.await(state.delivered::sum, state.expected);
+        return state.last;
+    }
+}
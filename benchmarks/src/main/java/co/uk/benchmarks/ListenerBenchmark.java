@@ -0,0 +1,113 @@
+package co.uk.benchmarks;
+
+import co.uk.network.HarRecorder;
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openqa.selenium.devtools.v126.network.model.LoadingFailed;
+import org.openqa.selenium.devtools.v126.network.model.LoadingFinished;
+import org.openqa.selenium.devtools.v126.network.model.RequestWillBeSent;
+import org.openqa.selenium.devtools.v126.network.model.ResponseReceived;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Listener bodies on already decoded events from the recorded page load: the header and post-data
+ * handling of {@code captureNetworkCalls} and the HAR recorder. Scores are per page load.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class ListenerBenchmark {
+
+    private static final Gson PRETTY_GSON = new GsonBuilder().setPrettyPrinting().create();
+
+    private List<Object> events;
+    private List<RequestWillBeSent> requests;
+    private Path harFile;
+    private HarRecorder harRecorder;
+
+    @Setup(Level.Trial)
+    public void decode() {
+        events = RecordedEvents.decode(CdpStreams.load("network"));
+        requests = events.stream().filter(RequestWillBeSent.class::isInstance).map(RequestWillBeSent.class::cast)
+                .collect(Collectors.toList());
+    }
+
+    @Setup(Level.Iteration)
+    public void openHar() throws IOException {
+        harFile = Files.createTempFile("listener-benchmark", ".har");
+        harRecorder = new HarRecorder(harFile);
+    }
+
+    @TearDown(Level.Iteration)
+    public void closeHar() throws IOException {
+        harRecorder.close();
+        Files.deleteIfExists(harFile);
+    }
+
+    /**
+     * {@code getHeaders().toJson()} and one string per header, as {@code captureNetworkCalls} prints them.
+     */
+    @Benchmark
+    public void requestHeaders(Blackhole blackhole) {
+        for (RequestWillBeSent request : requests) {
+            Map<String, Object> headers = request.getRequest().getHeaders().toJson();
+            headers.forEach((k, v) -> blackhole.consume(k + ":" + v));
+        }
+    }
+
+    /**
+     * Post data parsed and pretty-printed per event, as {@code captureNetworkCalls} does. Reads the
+     * deprecated {@code getPostData()} on purpose, since that is the call the listener makes.
+     */
+    @Benchmark
+    @SuppressWarnings("deprecation")
+    public void prettyPrintPostData(Blackhole blackhole) {
+        for (RequestWillBeSent request : requests) {
+            request.getRequest().getPostData()
+                    .ifPresent(body -> blackhole.consume(PRETTY_GSON.toJson(JsonParser.parseString(body))));
+        }
+    }
+
+    /**
+     * Joining and streaming HAR entries; every request finishes, so the pending map stays small.
+     */
+    @Benchmark
+    public long harRecorder() {
+        for (Object event : events) {
+            if (event instanceof RequestWillBeSent) {
+                harRecorder.onRequestWillBeSent((RequestWillBeSent) event);
+            } else if (event instanceof ResponseReceived) {
+                harRecorder.onResponseReceived((ResponseReceived) event);
+            } else if (event instanceof LoadingFinished) {
+                harRecorder.onLoadingFinished((LoadingFinished) event);
+            } else if (event instanceof LoadingFailed) {
+                harRecorder.onLoadingFailed((LoadingFailed) event);
+            }
+        }
+        return harRecorder.getWrittenEntries();
+    }
+}
@@ -0,0 +1,69 @@
+package co.uk.benchmarks;
+
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.Event;
+import org.openqa.selenium.devtools.v126.log.Log;
+import org.openqa.selenium.devtools.v126.network.Network;
+import org.openqa.selenium.devtools.v126.runtime.Runtime;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * The CDP events that occur in the recorded streams. Selenium only decodes events that have a
+ * listener, so every benchmark registers all of them.
+ */
+final class RecordedEvents {
+
+    static final List<Event<?>> ALL = List.of(
+            Network.requestWillBeSent(),
+            Network.responseReceived(),
+            Network.loadingFinished(),
+            Network.loadingFailed(),
+            Network.webSocketCreated(),
+            Network.webSocketHandshakeResponseReceived(),
+            Network.webSocketFrameSent(),
+            Network.webSocketFrameReceived(),
+            Network.webSocketClosed(),
+            Log.entryAdded(),
+            Runtime.consoleAPICalled());
+
+    private RecordedEvents() {
+    }
+
+    @SuppressWarnings("unchecked")
+    static void listenToAll(DevTools devTools, Consumer<Object> listener) {
+        for (Event<?> event : ALL) {
+            devTools.addListener((Event<Object>) event, listener);
+        }
+    }
+
+    /**
+     * Decodes a stream once, for benchmarks that start from already decoded events.
+     */
+    static List<Object> decode(List<String> messages) {
+        List<Object> events = Collections.synchronizedList(new ArrayList<>(messages.size()));
+        try (ReplayConnection connection = new ReplayConnection()) {
+            listenToAll(connection.getDevTools(), events::add);
+            connection.replay(messages);
+            await(events::size, messages.size());
+        }
+        return new ArrayList<>(events);
+    }
+
+    /**
+     * Spins until {@code delivered} reaches {@code target}; replayed events are dispatched on another thread.
+     */
+    static void await(LongSupplier delivered, long target) {
+        long deadline = System.nanoTime() + 30_000_000_000L;
+        while (delivered.getAsLong() < target) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("Only " + delivered.getAsLong() + " of " + target + " events were delivered");
+            }
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package co.uk.benchmarks;
+
+import org.openqa.selenium.devtools.Connection;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.v126.v126Domains;
+import org.openqa.selenium.remote.http.HttpClient;
+import org.openqa.selenium.remote.http.HttpRequest;
+import org.openqa.selenium.remote.http.HttpResponse;
+import org.openqa.selenium.remote.http.Message;
+import org.openqa.selenium.remote.http.WebSocket;
+
+import java.util.List;
+
+/**
+ * A real Selenium {@link Connection} whose socket is fed from recorded messages instead of a browser.
+ * Replayed messages go through Selenium's own JSON decoding and listener dispatch, exactly as live
+ * events do; commands sent to it are swallowed.
+ */
+public class ReplayConnection implements AutoCloseable {
+
+    private final ReplayClient client = new ReplayClient();
+    private final Connection connection;
+    private final DevTools devTools;
+
+    public ReplayConnection() {
+        this.connection = new Connection(client, "ws://replay/devtools/browser");
+        this.devTools = new DevTools(v126Domains::new, connection);
+    }
+
+    public DevTools getDevTools() {
+        return devTools;
+    }
+
+    /**
+     * Hands the messages to the connection as if they had arrived on the socket. Dispatch to the
+     * listeners happens asynchronously on Selenium's CDP thread.
+     */
+    public void replay(List<String> messages) {
+        for (String message : messages) {
+            client.listener.onText(message);
+        }
+    }
+
+    @Override
+    public void close() {
+        connection.close();
+    }
+
+    private static class ReplayClient implements HttpClient {
+
+        private WebSocket.Listener listener;
+
+        @Override
+        public WebSocket openSocket(HttpRequest request, WebSocket.Listener listener) {
+            this.listener = listener;
+            return new WebSocket() {
+                @Override
+                public WebSocket send(Message message) {
+                    return this;
+                }
+
+                @Override
+                public void close() {
+                }
+            };
+        }
+
+        @Override
+        public HttpResponse execute(HttpRequest request) {
+            throw new UnsupportedOperationException("Replay connections only carry CDP messages");
+        }
+    }
+}
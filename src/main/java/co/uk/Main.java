@@ -1,7 +1,71 @@
 package co.uk;
 
+import co.uk.audit.AuditConfig;
+import co.uk.audit.AuditSummary;
+import co.uk.audit.SiteAuditor;
+import co.uk.audit.UrlSource;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Command-line site auditor: loads every page of a URL list or sitemap in headless Chrome and writes
+ * network, console and performance data per page as JSON Lines. The logging binding is a test
+ * dependency, so run it on the test classpath to see the progress reports:
+ * <pre>
+ * mvn -q test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=co.uk.Main -Dexec.args="https://example.com/sitemap.xml --tabs 6"
+ * </pre>
+ */
 public class Main {
-    public static void main(String[] args) {
-        System.out.println("Hello world!");
+
+    private static final String USAGE = String.join("\n",
+            "Usage: co.uk.Main <urls.txt | sitemap.xml | https://host/sitemap.xml> [options]",
+            "  --browsers N       browser processes (default 2)",
+            "  --tabs N           tabs per browser (default 4)",
+            "  --timeout SECONDS  navigation timeout per page (default 30)",
+            "  --out FILE         JSON Lines output (default target/audit.jsonl)",
+            "  --report SECONDS   progress report interval (default 10)");
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0 || args[0].startsWith("--")) {
+            System.err.println(USAGE);
+            System.exit(2);
+        }
+        AuditConfig.AuditConfigBuilder config = AuditConfig.builder();
+        try {
+            for (int i = 1; i < args.length; i += 2) {
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("Missing value for " + args[i]);
+                }
+                String value = args[i + 1];
+                switch (args[i]) {
+                    case "--browsers":
+                        config.browsers(Integer.parseInt(value));
+                        break;
+                    case "--tabs":
+                        config.tabsPerBrowser(Integer.parseInt(value));
+                        break;
+                    case "--timeout":
+                        config.navigationTimeout(Duration.ofSeconds(Long.parseLong(value)));
+                        break;
+                    case "--out":
+                        config.output(Path.of(value));
+                        break;
+                    case "--report":
+                        config.reportInterval(Duration.ofSeconds(Long.parseLong(value)));
+                        break;
+                    default:
+                        throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage() + "\n" + USAGE);
+            System.exit(2);
+        }
+        List<String> urls = UrlSource.read(args[0]);
+        AuditSummary summary = new SiteAuditor(config.build()).run(urls);
+        System.out.println(summary);
+        System.exit(summary.getFailed() == 0 ? 0 : 1);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,46 @@
+package co.uk.accessibility;
+
+import lombok.Value;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Violations of one flow step, with how much of the page had to be scanned to get them.
+ */
+@Value
+public class AccessibilityReport {
+    String step;
+    String url;
+    List<AxeViolation> violations;
+    int regions;
+    /** Regions axe actually ran on; the rest came from the cache. */
+    int scannedRegions;
+    /** Whether the page-level rules were run again or reused from the previous scan of the document. */
+    boolean pageRulesScanned;
+    long durationMillis;
+
+    public boolean isViolationFree() {
+        return violations.isEmpty();
+    }
+
+    public Map<String, Long> countByImpact() {
+        return violations.stream().collect(Collectors.groupingBy(violation -> String.valueOf(violation.getImpact()),
+                TreeMap::new, Collectors.counting()));
+    }
+
+    public void assertNoViolations() {
+        if (!violations.isEmpty()) {
+            throw new AssertionError("Accessibility violations in " + step + " (" + url + "):\n"
+                    + violations.stream().map(AxeViolation::toString).collect(Collectors.joining("\n")));
+        }
+    }
+
+    @Override
+    public String toString() {
+        return step + ": " + violations.size() + " violations " + countByImpact() + ", " + scannedRegions + " of "
+                + regions + " regions scanned" + (pageRulesScanned ? " plus page rules" : "") + " in " + durationMillis + " ms";
+    }
+}
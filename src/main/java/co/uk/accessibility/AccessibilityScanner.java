@@ -0,0 +1,114 @@
+package co.uk.accessibility;
+
+import co.uk.cdp.AsyncDevTools;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Incremental axe-core scans of one tab, cheap enough to run on every flow step.
+ * <p>
+ * The page is split into regions ({@link AxeScanConfig#getRegionSelector()}). A {@code MutationObserver}
+ * installed with axe marks the regions that changed, and only those are hashed again. Regions whose
+ * content hash is already in the {@link AxeResultCache} under the same origin and stylesheets are not
+ * scanned at all; the rest go to axe in a single run scoped to them. Page-level rules such as {@code document-title} or {@code region} need the
+ * whole document, so they run separately and only when the document is new or has mutated.
+ * <p>
+ * Rules that look across region borders (duplicate ids, colour contrast against an ancestor's background)
+ * only see the regions scanned together, and selectors of cached results come from the page that was
+ * scanned first; {@link AxeViolation#getRegion()} tells which region of the current page they belong to.
+ * One scanner per tab; scanners of parallel sessions share the cache.
+ */
+@Slf4j
+public class AccessibilityScanner {
+
+    private final AxePage page;
+    private final AxeResultCache cache;
+    private final String keyPrefix;
+    private final List<AccessibilityReport> reports = new ArrayList<>();
+    private String document;
+    private List<AxeViolation> pageViolations;
+
+    public AccessibilityScanner(AxePage page, AxeResultCache cache, AxeScanConfig config) {
+        this.page = page;
+        this.cache = cache;
+        this.keyPrefix = config.getTags() + "|" + config.getRegionSelector() + "|";
+    }
+
+    /**
+     * Registers axe on the session once; it is then present in every document the tab loads.
+     */
+    public static AccessibilityScanner install(AsyncDevTools devTools, AxeResultCache cache, AxeScanConfig config) {
+        return new AccessibilityScanner(CdpAxePage.install(devTools, config), cache, config);
+    }
+
+    public synchronized AccessibilityReport scan(String step) {
+        long start = System.nanoTime();
+        PageRegions regions = page.regions();
+        List<String> hashes = regions.getHashes();
+        String prefix = keyPrefix + regions.getStyles() + "|";
+        List<List<AxeViolation>> perRegion = new ArrayList<>(hashes.size());
+        List<Integer> missing = new ArrayList<>();
+        for (int i = 0; i < hashes.size(); i++) {
+            List<AxeViolation> cached = cache.get(prefix + hashes.get(i));
+            perRegion.add(cached);
+            if (cached == null) {
+                missing.add(i);
+            }
+        }
+        boolean pageRules = pageViolations == null || regions.isChanged() || !regions.getDocument().equals(document);
+        if (!missing.isEmpty() || pageRules) {
+            RegionResults results = page.scan(missing, pageRules);
+            for (int i : missing) {
+                List<AxeViolation> scanned = results.getRegions().get(i);
+                if (scanned != null) {
+                    cache.put(prefix + hashes.get(i), scanned);
+                    perRegion.set(i, scanned);
+                }
+            }
+            if (results.getPage() != null) {
+                pageViolations = results.getPage();
+                document = regions.getDocument();
+            }
+        }
+        // Identical regions share a cache entry; the region path keeps their elements apart.
+        List<AxeViolation> violations = new ArrayList<>(pageViolations == null ? List.of() : pageViolations);
+        for (int i = 0; i < perRegion.size(); i++) {
+            if (perRegion.get(i) != null) {
+                for (AxeViolation violation : perRegion.get(i)) {
+                    violations.add(violation.inRegion(regions.getPaths().get(i)));
+                }
+            }
+        }
+        AccessibilityReport report = new AccessibilityReport(step, regions.getUrl(), List.copyOf(violations),
+                hashes.size(), missing.size(), pageRules, (System.nanoTime() - start) / 1_000_000);
+        reports.add(report);
+        log.debug(report.toString());
+        return report;
+    }
+
+    /**
+     * Every scan of this tab so far, in order.
+     */
+    public synchronized List<AccessibilityReport> getReports() {
+        return new ArrayList<>(reports);
+    }
+
+    /**
+     * Fails with the violations of every step that had any.
+     */
+    public synchronized void assertNoViolations() {
+        StringBuilder failures = new StringBuilder();
+        for (AccessibilityReport report : reports) {
+            try {
+                report.assertNoViolations();
+            } catch (AssertionError e) {
+                failures.append(e.getMessage()).append('\n');
+            }
+        }
+        if (failures.length() > 0) {
+            throw new AssertionError(failures.toString().trim());
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package co.uk.accessibility;
+
+import java.util.List;
+
+/**
+ * The page side of an {@link AccessibilityScanner}: region tracking and axe runs.
+ */
+public interface AxePage {
+
+    PageRegions regions();
+
+    /**
+     * Runs axe on the given indices of the last {@link #regions()} result.
+     *
+     * @param pageRules also run the rules that only make sense for a whole document
+     */
+    RegionResults scan(List<Integer> regions, boolean pageRules);
+}
@@ -0,0 +1,64 @@
+package co.uk.accessibility;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * axe violations per region content, shared by the scanners of all parallel sessions.
+ * <p>
+ * Keys are content hashes together with the origin and stylesheets they were scanned under, so a header
+ * or footer that looks the same on every page of a flow is scanned once for the whole run. The least recently used entries go once the cache is full.
+ */
+public class AxeResultCache {
+
+    private final Map<String, List<AxeViolation>> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public AxeResultCache() {
+        this(10_000);
+    }
+
+    public AxeResultCache(int maxEntries) {
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, List<AxeViolation>> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * @return the cached violations, or {@code null} if the region has not been scanned yet
+     */
+    public List<AxeViolation> get(String key) {
+        List<AxeViolation> violations;
+        synchronized (entries) {
+            violations = entries.get(key);
+        }
+        (violations == null ? misses : hits).increment();
+        return violations;
+    }
+
+    public void put(String key, List<AxeViolation> violations) {
+        synchronized (entries) {
+            entries.put(key, List.copyOf(violations));
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+}
@@ -0,0 +1,31 @@
+package co.uk.accessibility;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Singular;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Settings for {@link AccessibilityScanner}.
+ */
+@Getter
+@Builder
+public class AxeScanConfig {
+
+    /**
+     * Elements that are scanned and cached as a unit. Smaller regions mean smaller rescans but more
+     * rules that cannot see across region borders.
+     */
+    @Builder.Default
+    private final String regionSelector = "body > *";
+
+    /** axe rule tags to run, e.g. {@code wcag2a}; empty means axe's default rule set. */
+    @Singular
+    private final List<String> tags;
+
+    /** Time allowed for one scan; a cold scan of a large page takes a few seconds. */
+    @Builder.Default
+    private final Duration scanTimeout = Duration.ofSeconds(60);
+}
@@ -0,0 +1,33 @@
+package co.uk.accessibility;
+
+import lombok.Value;
+
+/**
+ * One element that failed one axe rule.
+ */
+@Value
+public class AxeViolation {
+    String ruleId;
+    /** {@code minor}, {@code moderate}, {@code serious} or {@code critical}. */
+    String impact;
+    String help;
+    String helpUrl;
+    /** CSS selector of the element in the document that was scanned when the result was cached. */
+    String target;
+    /** CSS selector of the scanned region the element is in, {@code null} for page-level rules. */
+    String region;
+    String html;
+    String failureSummary;
+
+    /**
+     * The same violation, reported for the region at {@code path} of the current document.
+     */
+    public AxeViolation inRegion(String path) {
+        return new AxeViolation(ruleId, impact, help, helpUrl, target, path, html, failureSummary);
+    }
+
+    @Override
+    public String toString() {
+        return "[" + impact + "] " + ruleId + " at " + target + (region == null ? "" : " in " + region) + ": " + help;
+    }
+}
@@ -0,0 +1,205 @@
+package co.uk.accessibility;
+
+import co.uk.cdp.AsyncDevTools;
+import com.deque.html.axecore.providers.EmbeddedResourceAxeProvider;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevToolsException;
+import org.openqa.selenium.devtools.v126.page.Page;
+import org.openqa.selenium.devtools.v126.runtime.Runtime;
+
+import javax.naming.OperationNotSupportedException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Runs axe in the tab through {@code Runtime.evaluate}; the script itself is registered once with
+ * {@code Page.addScriptToEvaluateOnNewDocument}, so navigations do not send it again.
+ */
+class CdpAxePage implements AxePage {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final String TRACKER_RESOURCE = "axe-incremental.js";
+    private static final String SELECTOR_PLACEHOLDER = "__REGION_SELECTOR__";
+
+    private final AsyncDevTools devTools;
+    private final AxeScanConfig config;
+    private final String tags;
+    private final Map<Integer, String> digests = new HashMap<>();
+    private String digestDocument;
+    private String stylesDigest;
+
+    private CdpAxePage(AsyncDevTools devTools, AxeScanConfig config) {
+        this.devTools = devTools;
+        this.config = config;
+        try {
+            this.tags = JSON.writeValueAsString(config.getTags());
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot encode tags " + config.getTags(), e);
+        }
+    }
+
+    /**
+     * Registers axe and the region tracker for every new document and runs them in the current one.
+     */
+    static CdpAxePage install(AsyncDevTools devTools, AxeScanConfig config) {
+        String script;
+        try {
+            script = Scripts.AXE + "\n" + Scripts.TRACKER.replace(SELECTOR_PLACEHOLDER,
+                    JSON.writeValueAsString(config.getRegionSelector()));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot encode selector " + config.getRegionSelector(), e);
+        }
+        CdpAxePage page = new CdpAxePage(devTools, config);
+        page.send(Page.addScriptToEvaluateOnNewDocument(script, Optional.empty(), Optional.empty(), Optional.of(true)));
+        return page;
+    }
+
+    /**
+     * Regions are keyed by the SHA-256 of their markup, since the cache is shared by every session and a
+     * collision would hand one region the results of another. The page only sends the markup of new or
+     * mutated regions; the others keep the digest stored under their id. The same markup can fail colour
+     * contrast under another origin's stylesheets, so the origin and stylesheets get a digest of their own.
+     */
+    @Override
+    public synchronized PageRegions regions() {
+        JsonNode result = evaluate("window.__axeIncremental.regions(false)", false);
+        boolean changed = result.path("changed").asBoolean();
+        List<String> hashes = digests(result);
+        if (hashes == null || stylesDigest == null) {
+            // A lost reply left regions without a digest; have the page send all of them again.
+            result = evaluate("window.__axeIncremental.regions(true)", false);
+            hashes = digests(result);
+        }
+        List<String> paths = new ArrayList<>();
+        result.path("regions").forEach(region -> paths.add(region.path("path").asText()));
+        return new PageRegions(result.path("document").asText(), result.path("url").asText(), stylesDigest, changed,
+                hashes, paths);
+    }
+
+    /**
+     * @return the digest of every region, or {@code null} if one of them was neither sent now nor seen before;
+     * also updates the styles digest
+     */
+    private List<String> digests(JsonNode result) {
+        if (!result.path("document").asText().equals(digestDocument)) {
+            digests.clear();
+            stylesDigest = null;
+            digestDocument = result.path("document").asText();
+        }
+        String styles = result.path("styles").textValue();
+        if (styles != null) {
+            stylesDigest = sha256(result.path("origin").asText() + '\n' + styles);
+        }
+        JsonNode regions = result.path("regions");
+        List<String> hashes = new ArrayList<>(regions.size());
+        for (JsonNode region : regions) {
+            int id = region.path("id").asInt();
+            String html = region.path("html").textValue();
+            if (html != null) {
+                digests.put(id, sha256(html));
+            }
+            String digest = digests.get(id);
+            if (digest == null) {
+                return null;
+            }
+            hashes.add(digest);
+        }
+        return hashes;
+    }
+
+    private static String sha256(String text) {
+        byte[] digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+        StringBuilder hex = new StringBuilder(digest.length * 2);
+        for (byte b : digest) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    @Override
+    public RegionResults scan(List<Integer> regions, boolean pageRules) {
+        JsonNode result = evaluate("window.__axeIncremental.scan(" + regions + ", " + pageRules + ", " + tags + ")", true);
+        Map<Integer, List<AxeViolation>> scanned = new LinkedHashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = result.path("regions").fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            scanned.put(Integer.valueOf(field.getKey()), violations(field.getValue()));
+        }
+        JsonNode page = result.path("page");
+        return new RegionResults(scanned, page.isArray() ? violations(page) : null);
+    }
+
+    private static List<AxeViolation> violations(JsonNode array) {
+        List<AxeViolation> violations = new ArrayList<>(array.size());
+        for (JsonNode node : array) {
+            violations.add(new AxeViolation(node.path("ruleId").asText(), node.path("impact").textValue(),
+                    node.path("help").asText(), node.path("helpUrl").asText(), node.path("target").asText(), null,
+                    node.path("html").asText(), node.path("failureSummary").textValue()));
+        }
+        return violations;
+    }
+
+    private JsonNode evaluate(String expression, boolean awaitPromise) {
+        Runtime.EvaluateResponse response = send(Runtime.evaluate(expression, Optional.empty(), Optional.empty(),
+                Optional.of(true), Optional.empty(), Optional.of(true), Optional.empty(), Optional.empty(),
+                Optional.of(awaitPromise), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(),
+                Optional.empty(), Optional.empty(), Optional.empty()));
+        if (response.getExceptionDetails().isPresent()) {
+            throw new DevToolsException("Accessibility scan failed: " + response.getExceptionDetails().get().getText()
+                    + response.getExceptionDetails().get().getException().flatMap(error -> error.getDescription())
+                    .map(description -> " " + description).orElse(""));
+        }
+        try {
+            return JSON.readTree(String.valueOf(response.getResult().getValue().orElse("{}")));
+        } catch (IOException e) {
+            throw new DevToolsException("Cannot parse accessibility scan result", e);
+        }
+    }
+
+    private <X> X send(Command<X> command) {
+        try {
+            return devTools.send(command, config.getScanTimeout()).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
+
+    /**
+     * The axe bundle is half a megabyte, so it is read once per JVM and shared by every session.
+     */
+    private static class Scripts {
+        static final String AXE;
+        static final String TRACKER;
+
+        static {
+            try (InputStream tracker = CdpAxePage.class.getResourceAsStream(TRACKER_RESOURCE)) {
+                if (tracker == null) {
+                    throw new IllegalStateException("Missing resource " + TRACKER_RESOURCE);
+                }
+                TRACKER = new String(tracker.readAllBytes(), StandardCharsets.UTF_8);
+                AXE = new EmbeddedResourceAxeProvider().getScript();
+            } catch (IOException | OperationNotSupportedException e) {
+                throw new IllegalStateException("Cannot load the axe script", e);
+            }
+        }
+    }
+}
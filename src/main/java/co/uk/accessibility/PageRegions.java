@@ -0,0 +1,22 @@
+package co.uk.accessibility;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * The scan regions of the current document, as content hashes in document order.
+ */
+@Value
+public class PageRegions {
+    /** Changes with every new document in the tab. */
+    String document;
+    String url;
+    /** Digest of the document's origin and stylesheets; region results are only reused under the same one. */
+    String styles;
+    /** Whether anything in the document was mutated since the previous call. */
+    boolean changed;
+    List<String> hashes;
+    /** CSS selector of each region in this document, in the same order as the hashes. */
+    List<String> paths;
+}
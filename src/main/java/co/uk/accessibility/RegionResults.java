@@ -0,0 +1,17 @@
+package co.uk.accessibility;
+
+import lombok.Value;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Violations found by one scan, per region index and for the page-level rules.
+ */
+@Value
+public class RegionResults {
+    /** Only the regions that were scanned; a region that disappeared in the meantime is missing. */
+    Map<Integer, List<AxeViolation>> regions;
+    /** {@code null} when the page-level rules were not run. */
+    List<AxeViolation> page;
+}
@@ -0,0 +1,123 @@
+package co.uk.audit;
+
+import co.uk.cdp.AsyncDevTools;
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.devtools.Connection;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.SeleniumCdpConnection;
+import org.openqa.selenium.devtools.v126.browser.model.BrowserContextID;
+import org.openqa.selenium.devtools.v126.target.Target;
+import org.openqa.selenium.devtools.v126.target.model.TargetID;
+import org.openqa.selenium.devtools.v126.v126Domains;
+
+import java.util.Optional;
+
+/**
+ * One headless browser shared by several tabs. WebDriver is only used to start and stop the process;
+ * tabs are created over a browser-level CDP connection and driven over their worker's
+ * {@link TabConnection}, so they never contend for the driver.
+ */
+@Slf4j
+class AuditBrowser {
+
+    private final String name;
+    private final AuditConfig config;
+    private ChromeDriver driver;
+    private Connection control;
+
+    AuditBrowser(String name, AuditConfig config) {
+        this.name = name;
+        this.config = config;
+    }
+
+    /**
+     * Opens a blank page in a fresh browser context and attaches a session to it on the worker's
+     * connection, starting the browser on first use.
+     */
+    AuditTab openTab(TabConnection tabConnection) {
+        ChromeDriver current;
+        Connection currentControl;
+        synchronized (this) {
+            if (driver == null) {
+                start();
+            }
+            current = driver;
+            currentControl = control;
+        }
+        BrowserContextID context = currentControl.sendAndWait(null, Target.createBrowserContext(Optional.of(true),
+                Optional.empty(), Optional.empty(), Optional.empty()), config.getCommandTimeout());
+        TargetID target = null;
+        try {
+            target = currentControl.sendAndWait(null, Target.createTarget("about:blank", Optional.empty(),
+                    Optional.empty(), Optional.of(context), Optional.empty(), Optional.empty(), Optional.empty(),
+                    Optional.empty()), config.getCommandTimeout());
+            Connection connection = tabConnection.to(current);
+            DevTools devTools = new DevTools(v126Domains::new, connection);
+            devTools.createSession(target.toString());
+            return new AuditTab(this, currentControl, context, target, connection, devTools,
+                    new AsyncDevTools(connection, devTools, config.getCommandTimeout()));
+        } catch (RuntimeException e) {
+            dispose(currentControl, context, target);
+            throw e;
+        }
+    }
+
+    void dispose(Connection tabControl, BrowserContextID context, TargetID target) {
+        try {
+            if (target != null) {
+                tabControl.sendAndWait(null, Target.closeTarget(target), config.getCommandTimeout());
+            }
+            tabControl.sendAndWait(null, Target.disposeBrowserContext(context), config.getCommandTimeout());
+        } catch (RuntimeException e) {
+            log.debug("Could not dispose browser context of " + name, e);
+        }
+    }
+
+    private void start() {
+        long start = System.nanoTime();
+        driver = config.getDriverFactory().get();
+        try {
+            control = SeleniumCdpConnection.create(driver)
+                    .orElseThrow(() -> new IllegalStateException("Browser does not expose a CDP endpoint"));
+        } catch (RuntimeException e) {
+            driver.quit();
+            driver = null;
+            throw e;
+        }
+        log.info("Started " + name + " in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+
+    /**
+     * Replaces the browser if it no longer answers; tabs still open on the old one fail on their own.
+     */
+    synchronized void restartIfDead() {
+        if (driver == null) {
+            return;
+        }
+        try {
+            driver.getWindowHandle();
+        } catch (RuntimeException e) {
+            log.warn(name + " stopped answering, restarting it", e);
+            quit();
+        }
+    }
+
+    synchronized void quit() {
+        if (driver == null) {
+            return;
+        }
+        try {
+            control.close();
+        } catch (RuntimeException e) {
+            log.debug("Closing CDP control connection failed", e);
+        }
+        try {
+            driver.quit();
+        } catch (RuntimeException e) {
+            log.debug("Quitting " + name + " failed", e);
+        }
+        driver = null;
+        control = null;
+    }
+}
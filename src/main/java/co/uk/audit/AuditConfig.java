@@ -0,0 +1,65 @@
+package co.uk.audit;
+
+import lombok.Builder;
+import lombok.Getter;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.function.Supplier;
+
+/**
+ * Settings for {@link SiteAuditor}.
+ */
+@Getter
+@Builder
+public class AuditConfig {
+
+    /** Browser processes started for the run. */
+    @Builder.Default
+    private final int browsers = 2;
+
+    /** Pages loaded at the same time in each browser, each in its own tab and browser context. */
+    @Builder.Default
+    private final int tabsPerBrowser = 4;
+
+    /** A page whose load event has not fired by then is recorded as timed out and stopped. */
+    @Builder.Default
+    private final Duration navigationTimeout = Duration.ofSeconds(30);
+
+    /** After the load event, the page is given this long without network activity before it is measured. */
+    @Builder.Default
+    private final Duration networkQuietPeriod = Duration.ofMillis(500);
+
+    /** Upper bound on the wait for a quiet network, counted from the load event. */
+    @Builder.Default
+    private final Duration maxSettleTime = Duration.ofSeconds(5);
+
+    /** Timeout for each CDP command. */
+    @Builder.Default
+    private final Duration commandTimeout = Duration.ofSeconds(10);
+
+    /** One JSON object per audited page is appended here as soon as the page is done. */
+    @Builder.Default
+    private final Path output = Path.of("target", "audit.jsonl");
+
+    /** How often per-tab throughput and latency are logged while the run is going. */
+    @Builder.Default
+    private final Duration reportInterval = Duration.ofSeconds(10);
+
+    /** Console messages kept per page; the counts cover all of them. */
+    @Builder.Default
+    private final int maxConsoleMessages = 5;
+
+    @Builder.Default
+    private final Supplier<ChromeDriver> driverFactory = () -> new ChromeDriver(headlessOptions());
+
+    /**
+     * Flags for many headless browsers on one Linux host: no GPU, and no /dev/shm, which is small in containers.
+     */
+    public static ChromeOptions headlessOptions() {
+        return new ChromeOptions().addArguments("--headless=new", "--disable-gpu", "--disable-dev-shm-usage",
+                "--disable-extensions", "--no-first-run", "--mute-audio");
+    }
+}
@@ -0,0 +1,17 @@
+package co.uk.audit;
+
+/**
+ * Outcome of auditing one page.
+ */
+public enum AuditStatus {
+    /** Loaded with a 2xx or 3xx document response. */
+    OK,
+    /** Loaded, but the document response was 4xx or 5xx. */
+    HTTP_ERROR,
+    /** The browser could not navigate at all, e.g. DNS or TLS failure. */
+    NAVIGATION_ERROR,
+    /** The load event did not fire within the navigation timeout. */
+    TIMEOUT,
+    /** The audit itself failed, e.g. the browser crashed. */
+    ERROR
+}
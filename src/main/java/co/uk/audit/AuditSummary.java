@@ -0,0 +1,30 @@
+package co.uk.audit;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Totals of one audit run.
+ */
+@Value
+public class AuditSummary {
+    long pages;
+    long failed;
+    long elapsedMillis;
+    /** Pages a tab took from another tab's share after finishing its own. */
+    long steals;
+    List<WorkerSnapshot> workers;
+
+    public double getPagesPerHour() {
+        return elapsedMillis == 0 ? 0 : pages * 3_600_000.0 / elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder(String.format("%d pages (%d failed) in %d s, %.0f pages/h, %d stolen",
+                pages, failed, elapsedMillis / 1000, getPagesPerHour(), steals));
+        workers.forEach(worker -> out.append("\n  ").append(worker));
+        return out.toString();
+    }
+}
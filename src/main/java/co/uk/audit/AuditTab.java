@@ -0,0 +1,48 @@
+package co.uk.audit;
+
+import co.uk.cdp.AsyncDevTools;
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.devtools.Connection;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.v126.browser.model.BrowserContextID;
+import org.openqa.selenium.devtools.v126.target.model.TargetID;
+
+/**
+ * A page in its own browser context with its own session on the worker's CDP connection; closing it
+ * detaches the session, drops the page's listeners and disposes the context. The connection stays open.
+ */
+@Slf4j
+class AuditTab implements AutoCloseable {
+
+    final DevTools devTools;
+    final AsyncDevTools asyncDevTools;
+    final TargetID target;
+
+    private final AuditBrowser browser;
+    private final Connection control;
+    private final Connection connection;
+    private final BrowserContextID context;
+
+    AuditTab(AuditBrowser browser, Connection control, BrowserContextID context, TargetID target,
+             Connection connection, DevTools devTools, AsyncDevTools asyncDevTools) {
+        this.browser = browser;
+        this.control = control;
+        this.connection = connection;
+        this.context = context;
+        this.target = target;
+        this.devTools = devTools;
+        this.asyncDevTools = asyncDevTools;
+    }
+
+    @Override
+    public void close() {
+        try {
+            devTools.disconnectSession();
+        } catch (RuntimeException e) {
+            log.debug("Detaching DevTools session failed", e);
+        }
+        // Selenium keeps listeners per connection, and the worker's next page reuses this one.
+        connection.clearListeners();
+        browser.dispose(control, context, target);
+    }
+}
@@ -0,0 +1,46 @@
+package co.uk.audit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Appends one JSON object per line and flushes it, so the file can be tailed while the audit runs.
+ */
+class JsonLinesWriter implements Closeable {
+
+    private static final ObjectWriter JSON = new ObjectMapper().writer();
+
+    private final BufferedWriter out;
+    private long lines;
+
+    JsonLinesWriter(Path file) throws IOException {
+        Path parent = file.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        out = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+    }
+
+    synchronized void write(Object value) throws IOException {
+        out.write(JSON.writeValueAsString(value));
+        out.newLine();
+        out.flush();
+        lines++;
+    }
+
+    synchronized long getLines() {
+        return lines;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+}
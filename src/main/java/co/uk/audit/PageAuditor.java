@@ -0,0 +1,218 @@
+package co.uk.audit;
+
+import co.uk.events.BackpressurePolicy;
+import co.uk.events.DevToolsEventBus;
+import co.uk.events.EventBusConfig;
+import co.uk.logging.CollectedLogEntry;
+import co.uk.logging.ConsoleLogCollector;
+import co.uk.logging.LogCollectorConfig;
+import co.uk.network.PageWeightAnalyzer;
+import co.uk.network.PageWeightReport;
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.v126.log.model.LogEntry;
+import org.openqa.selenium.devtools.v126.network.Network;
+import org.openqa.selenium.devtools.v126.network.model.ResourceType;
+import org.openqa.selenium.devtools.v126.page.Page;
+import org.openqa.selenium.devtools.v126.performance.Performance;
+import org.openqa.selenium.devtools.v126.performance.model.Metric;
+import org.openqa.selenium.devtools.v126.runtime.Runtime;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Loads one URL in a fresh tab and collects its network, console and performance data.
+ * <p>
+ * The domains are enabled in one pipelined batch, and the Network and Page events go through a
+ * {@link DevToolsEventBus} lane so they are handled in browser order. The page is measured once the load event has fired
+ * and the network has been quiet for a moment; a page that does not load in time is stopped and
+ * reported with whatever it had collected so far.
+ */
+@Slf4j
+class PageAuditor {
+
+    private static final String LANE = "page";
+
+    private final AuditConfig config;
+
+    PageAuditor(AuditConfig config) {
+        this.config = config;
+    }
+
+    PageResult audit(AuditBrowser browser, TabConnection connection, String url, String worker)
+            throws InterruptedException {
+        Instant startedAt = Instant.now();
+        long start = System.nanoTime();
+        try (AuditTab tab = browser.openTab(connection)) {
+            return measure(tab, url, worker, startedAt, start);
+        } catch (RuntimeException e) {
+            log.debug("Audit of " + url + " failed", e);
+            return new PageResult(url, worker, AuditStatus.ERROR, 0, String.valueOf(unwrap(e).getMessage()),
+                    startedAt.toString(), (System.nanoTime() - start) / 1_000_000, null, null, 0, 0, 0,
+                    Map.of(), 0, 0, 0, List.of(), Map.of());
+        }
+    }
+
+    private PageResult measure(AuditTab tab, String url, String worker, Instant startedAt, long start)
+            throws InterruptedException {
+        DevTools devTools = tab.devTools;
+        PageProbe probe = new PageProbe(tab.target.toString());
+        PageWeightAnalyzer weight = new PageWeightAnalyzer(LANE);
+        // One lane, so the probe and the analyzer see the page's events in the order the browser sent them.
+        DevToolsEventBus bus = new DevToolsEventBus(devTools, EventBusConfig.builder()
+                .workers(1)
+                .policy(BackpressurePolicy.BLOCK)
+                .build());
+        ConsoleLogCollector console;
+        AuditStatus status = AuditStatus.OK;
+        String errorText = null;
+        Map<String, Double> metrics;
+        try {
+            weight.subscribe(bus);
+            bus.subscribe(LANE, Network.requestWillBeSent(), event -> probe.onRequest(event.getTimestamp().toJson().doubleValue()));
+            bus.subscribe(LANE, Network.responseReceived(), event -> {
+                if (event.getType() == ResourceType.DOCUMENT) {
+                    probe.onDocumentResponse(event.getFrameId().map(Object::toString).orElse(""), event.getResponse().getStatus());
+                } else {
+                    probe.onActivity();
+                }
+            });
+            bus.subscribe(LANE, Network.loadingFinished(), event -> probe.onActivity());
+            bus.subscribe(LANE, Network.loadingFailed(), event -> probe.onActivity());
+            bus.subscribe(LANE, Page.domContentEventFired(), time -> probe.onDomContentLoaded(time.toJson().doubleValue()));
+            bus.subscribe(LANE, Page.loadEventFired(), time -> probe.onLoad(time.toJson().doubleValue()));
+            bus.subscribe(LANE, Runtime.exceptionThrown(), event -> probe.onException());
+            console = new ConsoleLogCollector(devTools, LogCollectorConfig.builder()
+                    .level(LogEntry.Level.ERROR)
+                    .level(LogEntry.Level.WARNING)
+                    .capacity(Math.max(1, config.getMaxConsoleMessages()))
+                    .build());
+            tab.asyncDevTools.batch()
+                    .add(Page.enable())
+                    .add(Network.enable(Optional.empty(), Optional.empty(), Optional.empty()))
+                    .add(Runtime.enable())
+                    .add(Performance.enable(Optional.empty()))
+                    .execute();
+            console.start();
+
+            long deadline = start + config.getNavigationTimeout().toNanos();
+            try {
+                Page.NavigateResponse navigation = send(tab, Page.navigate(url, Optional.empty(), Optional.empty(),
+                        Optional.empty(), Optional.empty()), config.getNavigationTimeout());
+                if (navigation.getErrorText().isPresent()) {
+                    status = AuditStatus.NAVIGATION_ERROR;
+                    errorText = navigation.getErrorText().get();
+                } else if (!probe.awaitLoad(deadline - System.nanoTime())) {
+                    status = AuditStatus.TIMEOUT;
+                } else {
+                    settle(probe);
+                }
+            } catch (RuntimeException e) {
+                // Page.navigate only returns once the response has started, so a slow server times out here.
+                status = AuditStatus.TIMEOUT;
+                errorText = unwrap(e).getMessage();
+            }
+            if (status == AuditStatus.TIMEOUT) {
+                errorText = errorText == null ? "No load event within " + config.getNavigationTimeout() : errorText;
+                stopLoading(tab);
+            }
+            if (probe.getDocumentStatus() >= 400) {
+                status = AuditStatus.HTTP_ERROR;
+            }
+            metrics = metrics(tab);
+        } finally {
+            bus.close();
+        }
+        console.close();
+        PageWeightReport network = weight.report();
+        return new PageResult(url, worker, status, probe.getDocumentStatus(), errorText, startedAt.toString(),
+                (System.nanoTime() - start) / 1_000_000, orNull(probe.domContentLoadedMillis()),
+                orNull(probe.loadMillis()), network.getTotalRequests(), failedRequests(network),
+                network.getTotalTransferredBytes(), bytesByType(network), console.getCount(LogEntry.Level.ERROR),
+                console.getCount(LogEntry.Level.WARNING), probe.getExceptions(), messages(console), metrics);
+    }
+
+    private void settle(PageProbe probe) throws InterruptedException {
+        long quiet = config.getNetworkQuietPeriod().toNanos();
+        long deadline = System.nanoTime() + config.getMaxSettleTime().toNanos();
+        long idle;
+        while ((idle = probe.nanosSinceLastActivity()) < quiet && System.nanoTime() < deadline) {
+            Thread.sleep(Math.max(1, (quiet - idle) / 1_000_000));
+        }
+    }
+
+    private void stopLoading(AuditTab tab) {
+        try {
+            send(tab, Page.stopLoading(), config.getCommandTimeout());
+        } catch (RuntimeException e) {
+            log.debug("Page.stopLoading failed", e);
+        }
+    }
+
+    private Map<String, Double> metrics(AuditTab tab) {
+        try {
+            Map<String, Double> metrics = new LinkedHashMap<>();
+            for (Metric metric : send(tab, Performance.getMetrics(), config.getCommandTimeout())) {
+                metrics.put(metric.getName(), metric.getValue().doubleValue());
+            }
+            return metrics;
+        } catch (RuntimeException e) {
+            log.debug("Performance.getMetrics failed", e);
+            return Collections.emptyMap();
+        }
+    }
+
+    private static long failedRequests(PageWeightReport network) {
+        long failed = 0;
+        for (ResourceType type : ResourceType.values()) {
+            failed += network.getFailed(type);
+        }
+        return failed;
+    }
+
+    private static Map<String, Long> bytesByType(PageWeightReport network) {
+        Map<String, Long> bytes = new LinkedHashMap<>();
+        for (ResourceType type : ResourceType.values()) {
+            if (network.getRequests(type) > 0) {
+                bytes.put(type.toString(), network.getTransferredBytes(type));
+            }
+        }
+        return bytes;
+    }
+
+    private List<String> messages(ConsoleLogCollector console) {
+        List<String> messages = new ArrayList<>();
+        for (CollectedLogEntry entry : console.getEntries()) {
+            if (messages.size() == config.getMaxConsoleMessages()) {
+                break;
+            }
+            messages.add(entry.toString());
+        }
+        return messages;
+    }
+
+    private static <X> X send(AuditTab tab, Command<X> command, Duration timeout) {
+        try {
+            return tab.asyncDevTools.send(command, timeout).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private static Double orNull(double millis) {
+        return Double.isNaN(millis) ? null : millis;
+    }
+}
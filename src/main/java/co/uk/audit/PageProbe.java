@@ -0,0 +1,90 @@
+package co.uk.audit;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Navigation milestones of one page. Written by the DevTools listener thread, read by the tab's worker.
+ */
+class PageProbe {
+
+    private final String mainFrame;
+    private final CountDownLatch loaded = new CountDownLatch(1);
+    private double firstRequest = Double.NaN;
+    private double domContentLoaded = Double.NaN;
+    private double load = Double.NaN;
+    private long lastActivityNanos = System.nanoTime();
+    private int documentStatus;
+    private long exceptions;
+
+    PageProbe(String mainFrame) {
+        this.mainFrame = mainFrame;
+    }
+
+    synchronized void onRequest(double timestamp) {
+        if (Double.isNaN(firstRequest)) {
+            firstRequest = timestamp;
+        }
+        lastActivityNanos = System.nanoTime();
+    }
+
+    synchronized void onActivity() {
+        lastActivityNanos = System.nanoTime();
+    }
+
+    /**
+     * Redirects do not get a response event of their own, so the first document response of the
+     * main frame is the final one.
+     */
+    synchronized void onDocumentResponse(String frame, int status) {
+        if (documentStatus == 0 && mainFrame.equals(frame)) {
+            documentStatus = status;
+        }
+        lastActivityNanos = System.nanoTime();
+    }
+
+    synchronized void onDomContentLoaded(double timestamp) {
+        if (!Double.isNaN(firstRequest)) {
+            domContentLoaded = timestamp;
+        }
+    }
+
+    void onLoad(double timestamp) {
+        synchronized (this) {
+            // The initial about:blank fires its own load before any request of the real page.
+            if (Double.isNaN(firstRequest)) {
+                return;
+            }
+            load = timestamp;
+        }
+        loaded.countDown();
+    }
+
+    synchronized void onException() {
+        exceptions++;
+    }
+
+    boolean awaitLoad(long timeoutNanos) throws InterruptedException {
+        return loaded.await(Math.max(0, timeoutNanos), TimeUnit.NANOSECONDS);
+    }
+
+    synchronized long nanosSinceLastActivity() {
+        return System.nanoTime() - lastActivityNanos;
+    }
+
+    synchronized int getDocumentStatus() {
+        return documentStatus;
+    }
+
+    synchronized long getExceptions() {
+        return exceptions;
+    }
+
+    synchronized double domContentLoadedMillis() {
+        return (domContentLoaded - firstRequest) * 1000;
+    }
+
+    synchronized double loadMillis() {
+        return (load - firstRequest) * 1000;
+    }
+}
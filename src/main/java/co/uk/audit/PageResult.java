@@ -0,0 +1,42 @@
+package co.uk.audit;
+
+import lombok.Value;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Everything collected for one page; written as one line of the JSON Lines output.
+ * Times are in milliseconds, relative to the first request of the navigation where not stated otherwise.
+ */
+@Value
+public class PageResult {
+    String url;
+    String worker;
+    AuditStatus status;
+    /** Status of the main document response, 0 if there was none. */
+    int httpStatus;
+    String errorText;
+    /** ISO-8601 wall clock time the audit of the page started. */
+    String startedAt;
+    /** Wall time from navigation to the end of the audit, including the settle time. */
+    long durationMillis;
+    /** {@code null} if the event never fired. */
+    Double domContentLoadedMillis;
+    Double loadMillis;
+    long requests;
+    long failedRequests;
+    long transferredBytes;
+    /** Transferred bytes per CDP resource type. */
+    Map<String, Long> transferredBytesByType;
+    long consoleErrors;
+    long consoleWarnings;
+    long uncaughtExceptions;
+    List<String> consoleMessages;
+    /** {@code Performance.getMetrics} after the page settled, e.g. {@code JSHeapUsedSize} or {@code Nodes}. */
+    Map<String, Double> metrics;
+
+    public boolean isSuccess() {
+        return status == AuditStatus.OK;
+    }
+}
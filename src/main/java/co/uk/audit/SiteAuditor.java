@@ -0,0 +1,133 @@
+package co.uk.audit;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Audits a list of pages with several tabs in a few headless browsers.
+ * <p>
+ * Each tab is a worker thread bound to one browser; tabs are spread evenly over the browsers. URLs are
+ * dealt out by a {@link WorkStealingScheduler}, and every page is loaded in a fresh tab and browser
+ * context, so pages never share cookies or cache. Each tab keeps one CDP connection and attaches a new
+ * session to every page it opens. Results are appended to a JSON Lines file as soon as
+ * each page is done, and per-tab throughput and latency percentiles are logged every
+ * {@link AuditConfig#getReportInterval()}.
+ * <p>
+ * A page that fails does not stop its tab; if its browser crashed, the browser is restarted for the
+ * pages that follow.
+ */
+@Slf4j
+public class SiteAuditor {
+
+    private final AuditConfig config;
+
+    public SiteAuditor(AuditConfig config) {
+        if (config.getBrowsers() < 1 || config.getTabsPerBrowser() < 1) {
+            throw new IllegalArgumentException("Need at least one browser and one tab per browser");
+        }
+        this.config = config;
+    }
+
+    public AuditSummary run(List<String> urls) throws IOException, InterruptedException {
+        int tabs = config.getBrowsers() * config.getTabsPerBrowser();
+        WorkStealingScheduler<String> scheduler = new WorkStealingScheduler<>(tabs);
+        scheduler.addAll(urls);
+        List<AuditBrowser> browsers = new ArrayList<>();
+        for (int i = 0; i < config.getBrowsers(); i++) {
+            browsers.add(new AuditBrowser("browser-" + (i + 1), config));
+        }
+        List<WorkerStats> stats = new ArrayList<>();
+        long start = System.nanoTime();
+        for (int i = 0; i < tabs; i++) {
+            stats.add(new WorkerStats("tab-" + (i + 1), start));
+        }
+        log.info("Auditing " + urls.size() + " pages with " + config.getBrowsers() + " browsers x "
+                + config.getTabsPerBrowser() + " tabs into " + config.getOutput());
+
+        AtomicInteger threads = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(tabs,
+                runnable -> new Thread(runnable, "audit-tab-" + threads.incrementAndGet()));
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "audit-progress");
+            thread.setDaemon(true);
+            return thread;
+        });
+        PageAuditor auditor = new PageAuditor(config);
+        try (JsonLinesWriter output = new JsonLinesWriter(config.getOutput())) {
+            long interval = config.getReportInterval().toMillis();
+            reporter.scheduleAtFixedRate(() -> logProgress(stats, scheduler, output), interval, interval,
+                    TimeUnit.MILLISECONDS);
+            List<Future<?>> running = new ArrayList<>();
+            for (int i = 0; i < tabs; i++) {
+                int worker = i;
+                // Tab i goes to browser i % browsers, so every browser gets the same number of tabs.
+                AuditBrowser browser = browsers.get(i % browsers.size());
+                running.add(workers.submit(() -> {
+                    work(worker, browser, scheduler, auditor, stats.get(worker), output);
+                    return null;
+                }));
+            }
+            for (Future<?> future : running) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Audit worker failed", e.getCause());
+                }
+            }
+        } finally {
+            reporter.shutdownNow();
+            workers.shutdownNow();
+            browsers.forEach(AuditBrowser::quit);
+        }
+
+        List<WorkerSnapshot> snapshots = new ArrayList<>();
+        long pages = 0;
+        long failed = 0;
+        for (WorkerStats worker : stats) {
+            WorkerSnapshot snapshot = worker.snapshot();
+            snapshots.add(snapshot);
+            pages += snapshot.getPages();
+            failed += snapshot.getFailed();
+        }
+        AuditSummary summary = new AuditSummary(pages, failed, (System.nanoTime() - start) / 1_000_000,
+                scheduler.getSteals(), snapshots);
+        log.info("Audit finished: " + summary);
+        return summary;
+    }
+
+    private void work(int worker, AuditBrowser browser, WorkStealingScheduler<String> scheduler, PageAuditor auditor,
+                      WorkerStats stats, JsonLinesWriter output) throws IOException, InterruptedException {
+        String name = "tab-" + (worker + 1);
+        String url;
+        try (TabConnection connection = new TabConnection()) {
+            while ((url = scheduler.next(worker)) != null) {
+                PageResult result = auditor.audit(browser, connection, url, name);
+                stats.record(result.getDurationMillis(), result.isSuccess());
+                output.write(result);
+                if (result.getStatus() == AuditStatus.ERROR) {
+                    browser.restartIfDead();
+                }
+            }
+        }
+    }
+
+    private static void logProgress(List<WorkerStats> stats, WorkStealingScheduler<String> scheduler,
+                                    JsonLinesWriter output) {
+        StringBuilder progress = new StringBuilder("Audit progress: " + output.getLines() + " pages written, "
+                + scheduler.remaining() + " queued, " + scheduler.getSteals() + " stolen");
+        for (WorkerStats worker : stats) {
+            progress.append("\n  ").append(worker.snapshot());
+        }
+        log.info(progress.toString());
+    }
+}
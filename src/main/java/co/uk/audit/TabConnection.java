@@ -0,0 +1,45 @@
+package co.uk.audit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.devtools.Connection;
+import org.openqa.selenium.devtools.SeleniumCdpConnection;
+
+/**
+ * The CDP connection of one tab worker. Every page the worker audits is attached as a new session on
+ * it, so a page costs a target and a session instead of a WebSocket handshake. Used by one worker
+ * thread only; a browser restart opens a new connection on the next page.
+ */
+@Slf4j
+class TabConnection implements AutoCloseable {
+
+    private ChromeDriver driver;
+    private Connection connection;
+
+    /**
+     * The connection to {@code current}, opened on first use or when the browser was replaced.
+     */
+    Connection to(ChromeDriver current) {
+        if (connection == null || driver != current) {
+            close();
+            connection = SeleniumCdpConnection.create(current)
+                    .orElseThrow(() -> new IllegalStateException("Browser does not expose a CDP endpoint"));
+            driver = current;
+        }
+        return connection;
+    }
+
+    @Override
+    public void close() {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (RuntimeException e) {
+            log.debug("Closing tab connection failed", e);
+        }
+        connection = null;
+        driver = null;
+    }
+}
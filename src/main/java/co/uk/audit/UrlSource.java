@@ -0,0 +1,147 @@
+package co.uk.audit;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads the URLs to audit from a plain list or a sitemap, local or over HTTP.
+ * <p>
+ * A list has one URL per line; blank lines and lines starting with {@code #} are skipped. Sitemaps
+ * may be gzipped, and sitemap indexes are followed a few levels deep. Duplicates are dropped, the
+ * first occurrence keeps its place.
+ */
+public final class UrlSource {
+
+    private static final int MAX_SITEMAP_DEPTH = 3;
+    private static final HttpClient HTTP = HttpClient.newBuilder()
+            .followRedirects(HttpClient.Redirect.NORMAL)
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+
+    private UrlSource() {
+    }
+
+    /**
+     * @param location a file path or an {@code http(s)} URL
+     */
+    public static List<String> read(String location) throws IOException {
+        Set<String> urls = new LinkedHashSet<>();
+        read(location, urls, 0);
+        return new ArrayList<>(urls);
+    }
+
+    private static void read(String location, Set<String> urls, int depth) throws IOException {
+        byte[] content = load(location);
+        if (!isXml(content)) {
+            for (String line : new String(content, StandardCharsets.UTF_8).split("\\R")) {
+                String url = line.trim();
+                if (!url.isEmpty() && !url.startsWith("#")) {
+                    urls.add(url);
+                }
+            }
+            return;
+        }
+        List<String> locations = new ArrayList<>();
+        boolean index = parseSitemap(content, locations);
+        if (!index) {
+            urls.addAll(locations);
+            return;
+        }
+        if (depth >= MAX_SITEMAP_DEPTH) {
+            throw new IOException("Sitemap indexes nested deeper than " + MAX_SITEMAP_DEPTH + " levels at " + location);
+        }
+        for (String sitemap : locations) {
+            read(sitemap, urls, depth + 1);
+        }
+    }
+
+    /**
+     * Collects every {@code <loc>} of a sitemap or sitemap index.
+     *
+     * @return whether the document was a sitemap index, i.e. the locations are further sitemaps
+     */
+    static boolean parseSitemap(byte[] content, List<String> locations) throws IOException {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        try {
+            XMLStreamReader xml = factory.createXMLStreamReader(new ByteArrayInputStream(content));
+            boolean index = false;
+            boolean root = true;
+            while (xml.hasNext()) {
+                if (xml.next() != XMLStreamReader.START_ELEMENT) {
+                    continue;
+                }
+                if (root) {
+                    index = "sitemapindex".equals(xml.getLocalName());
+                    root = false;
+                } else if ("loc".equals(xml.getLocalName())) {
+                    String loc = xml.getElementText().trim();
+                    if (!loc.isEmpty()) {
+                        locations.add(loc);
+                    }
+                }
+            }
+            xml.close();
+            return index;
+        } catch (XMLStreamException e) {
+            throw new IOException("Invalid sitemap: " + e.getMessage(), e);
+        }
+    }
+
+    private static byte[] load(String location) throws IOException {
+        byte[] content;
+        if (location.startsWith("http://") || location.startsWith("https://")) {
+            try {
+                HttpResponse<byte[]> response = HTTP.send(HttpRequest.newBuilder(URI.create(location))
+                        .timeout(Duration.ofSeconds(30)).GET().build(), HttpResponse.BodyHandlers.ofByteArray());
+                if (response.statusCode() >= 400) {
+                    throw new IOException("HTTP " + response.statusCode() + " for " + location);
+                }
+                content = response.body();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while loading " + location, e);
+            }
+        } else {
+            content = Files.readAllBytes(Path.of(location));
+        }
+        return isGzip(content) ? gunzip(content) : content;
+    }
+
+    private static boolean isGzip(byte[] content) {
+        return content.length > 2 && (content[0] & 0xff) == 0x1f && (content[1] & 0xff) == 0x8b;
+    }
+
+    private static byte[] gunzip(byte[] content) throws IOException {
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(content))) {
+            return in.readAllBytes();
+        }
+    }
+
+    private static boolean isXml(byte[] content) {
+        for (byte b : content) {
+            if (!Character.isWhitespace(b) && (b & 0xff) != 0xef && (b & 0xff) != 0xbb && (b & 0xff) != 0xbf) {
+                return b == '<';
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,71 @@
+package co.uk.audit;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Hands out work items to a fixed set of workers, one deque per worker.
+ * <p>
+ * Items are dealt round-robin. A worker takes from the head of its own deque and, once that is empty,
+ * steals from the tail of the others, so one slow page does not leave the rest of its worker's share
+ * waiting while other tabs sit idle, and workers rarely touch the same end of a deque.
+ */
+public class WorkStealingScheduler<T> {
+
+    private final List<ConcurrentLinkedDeque<T>> deques;
+    private final AtomicInteger nextDeque = new AtomicInteger();
+    private final LongAdder steals = new LongAdder();
+
+    public WorkStealingScheduler(int workers) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("Need at least one worker");
+        }
+        List<ConcurrentLinkedDeque<T>> created = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            created.add(new ConcurrentLinkedDeque<>());
+        }
+        deques = List.copyOf(created);
+    }
+
+    public void add(T item) {
+        deques.get(Math.floorMod(nextDeque.getAndIncrement(), deques.size())).addLast(item);
+    }
+
+    public void addAll(Collection<? extends T> items) {
+        items.forEach(this::add);
+    }
+
+    /**
+     * @return the worker's next item, a stolen one if its own deque is empty, or {@code null} when all work is handed out
+     */
+    public T next(int worker) {
+        T item = deques.get(worker).pollFirst();
+        if (item != null) {
+            return item;
+        }
+        for (int i = 1; i < deques.size(); i++) {
+            item = deques.get((worker + i) % deques.size()).pollLast();
+            if (item != null) {
+                steals.increment();
+                return item;
+            }
+        }
+        return null;
+    }
+
+    public int remaining() {
+        int remaining = 0;
+        for (ConcurrentLinkedDeque<T> deque : deques) {
+            remaining += deque.size();
+        }
+        return remaining;
+    }
+
+    public long getSteals() {
+        return steals.sum();
+    }
+}
@@ -0,0 +1,28 @@
+package co.uk.audit;
+
+import lombok.Value;
+
+/**
+ * Progress of one tab at a point in time; latencies are page durations in milliseconds.
+ */
+@Value
+public class WorkerSnapshot {
+    String worker;
+    long pages;
+    long failed;
+    long elapsedMillis;
+    long p50Millis;
+    long p95Millis;
+    long p99Millis;
+    long maxMillis;
+
+    public double getPagesPerHour() {
+        return elapsedMillis == 0 ? 0 : pages * 3_600_000.0 / elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: %d pages (%d failed), %.0f/h, p50 %d ms, p95 %d ms, p99 %d ms, max %d ms",
+                worker, pages, failed, getPagesPerHour(), p50Millis, p95Millis, p99Millis, maxMillis);
+    }
+}
@@ -0,0 +1,62 @@
+package co.uk.audit;
+
+import java.util.Arrays;
+
+/**
+ * Page count and duration distribution of one tab, recorded by the tab and read by the progress reporter.
+ */
+public class WorkerStats {
+
+    private final String worker;
+    private final long startNanos;
+    private long[] durations = new long[256];
+    private int pages;
+    private long failed;
+
+    public WorkerStats(String worker) {
+        this(worker, System.nanoTime());
+    }
+
+    public WorkerStats(String worker, long startNanos) {
+        this.worker = worker;
+        this.startNanos = startNanos;
+    }
+
+    public synchronized void record(long durationMillis, boolean success) {
+        if (pages == durations.length) {
+            durations = Arrays.copyOf(durations, pages * 2);
+        }
+        durations[pages++] = durationMillis;
+        if (!success) {
+            failed++;
+        }
+    }
+
+    public WorkerSnapshot snapshot() {
+        return snapshot(System.nanoTime());
+    }
+
+    /**
+     * Nearest-rank percentiles over every page so far; a copy is sorted, so recording never waits long.
+     */
+    public WorkerSnapshot snapshot(long nowNanos) {
+        long[] sorted;
+        long failedPages;
+        synchronized (this) {
+            sorted = Arrays.copyOf(durations, pages);
+            failedPages = failed;
+        }
+        Arrays.sort(sorted);
+        return new WorkerSnapshot(worker, sorted.length, failedPages, (nowNanos - startNanos) / 1_000_000,
+                percentile(sorted, 50), percentile(sorted, 95), percentile(sorted, 99),
+                sorted.length == 0 ? 0 : sorted[sorted.length - 1]);
+    }
+
+    private static long percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+}
@@ -0,0 +1,27 @@
+package co.uk.auth;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+
+/**
+ * Settings for {@link AuthStateCache}.
+ */
+@Getter
+@Builder
+public class AuthCacheConfig {
+
+    /** One snapshot file per role lives here, so later test runs skip the login too. */
+    @Builder.Default
+    private final Path directory = Path.of("target", "auth-state");
+
+    /** A snapshot older than this is discarded and the role logs in again. */
+    @Builder.Default
+    private final Duration timeToLive = Duration.ofMinutes(30);
+
+    @Builder.Default
+    private final Clock clock = Clock.systemUTC();
+}
@@ -0,0 +1,11 @@
+package co.uk.auth;
+
+/**
+ * Logs a role in through the real UI and captures the result, e.g. with
+ * {@link AuthSnapshot#capture}. Only called when the cache has no valid snapshot for the role.
+ */
+@FunctionalInterface
+public interface AuthLogin {
+
+    AuthSnapshot logIn(String role) throws Exception;
+}
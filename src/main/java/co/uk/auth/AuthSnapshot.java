@@ -0,0 +1,242 @@
+package co.uk.auth;
+
+import co.uk.cdp.AsyncDevTools;
+import co.uk.cdp.BatchResult;
+import co.uk.cdp.CommandBatch;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.Getter;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.DevToolsException;
+import org.openqa.selenium.devtools.v126.network.Network;
+import org.openqa.selenium.devtools.v126.network.model.Cookie;
+import org.openqa.selenium.devtools.v126.network.model.CookieParam;
+import org.openqa.selenium.devtools.v126.network.model.CookiePriority;
+import org.openqa.selenium.devtools.v126.network.model.CookieSameSite;
+import org.openqa.selenium.devtools.v126.network.model.CookieSourceScheme;
+import org.openqa.selenium.devtools.v126.network.model.TimeSinceEpoch;
+import org.openqa.selenium.devtools.v126.page.Page;
+import org.openqa.selenium.devtools.v126.runtime.Runtime;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The logged-in state of one origin: its cookies plus its localStorage and sessionStorage.
+ * <p>
+ * A snapshot is captured once after a real login and restored into fresh sessions before their first
+ * navigation: the cookies with a single {@code Network.setCookies}, the storage with a script registered
+ * through {@code Page.addScriptToEvaluateOnNewDocument}. The script fills the storage the first time a
+ * document of the origin loads in the tab and leaves a marker in sessionStorage, so later navigations
+ * keep whatever the application changed. Snapshots are immutable and can be restored concurrently.
+ */
+@Getter
+public class AuthSnapshot {
+
+    static final String RESTORED_MARKER = "__authSnapshotRestored";
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final String READ_STORAGE = "JSON.stringify({"
+            + "local: Object.fromEntries(Object.entries(localStorage)),"
+            + "session: Object.fromEntries(Object.entries(sessionStorage))})";
+
+    private final String role;
+    private final String origin;
+    private final Instant capturedAt;
+    private final List<CookieParam> cookies;
+    private final Map<String, String> localStorage;
+    private final Map<String, String> sessionStorage;
+
+    public AuthSnapshot(String role, String origin, Instant capturedAt, List<CookieParam> cookies,
+                        Map<String, String> localStorage, Map<String, String> sessionStorage) {
+        this.role = role;
+        this.origin = origin;
+        this.capturedAt = capturedAt;
+        this.cookies = Collections.unmodifiableList(new ArrayList<>(cookies));
+        this.localStorage = Collections.unmodifiableMap(new LinkedHashMap<>(localStorage));
+        this.sessionStorage = Collections.unmodifiableMap(new LinkedHashMap<>(sessionStorage));
+    }
+
+    /**
+     * Reads the cookies sent to {@code origin} and the storage of the page currently open, which must
+     * be a document of that origin, typically the page the login flow ended on.
+     */
+    public static AuthSnapshot capture(DevTools devTools, String role, String origin, Instant now) {
+        List<CookieParam> cookies = new ArrayList<>();
+        for (Cookie cookie : devTools.send(Network.getCookies(Optional.of(List.of(origin))))) {
+            cookies.add(toParam(cookie));
+        }
+        Runtime.EvaluateResponse response = devTools.send(Runtime.evaluate(READ_STORAGE, Optional.empty(),
+                Optional.empty(), Optional.of(true), Optional.empty(), Optional.of(true), Optional.empty(),
+                Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(),
+                Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty()));
+        if (response.getExceptionDetails().isPresent()) {
+            throw new DevToolsException("Cannot read storage of " + origin + ": " + response.getExceptionDetails().get().getText());
+        }
+        try {
+            JsonNode storage = JSON.readTree(String.valueOf(response.getResult().getValue().orElse("{}")));
+            return new AuthSnapshot(role, origin, now, cookies, toMap(storage.path("local")), toMap(storage.path("session")));
+        } catch (IOException e) {
+            throw new DevToolsException("Cannot parse storage of " + origin, e);
+        }
+    }
+
+    private static CookieParam toParam(Cookie cookie) {
+        Optional<TimeSinceEpoch> expires = cookie.getSession() ? Optional.empty()
+                : Optional.of(new TimeSinceEpoch(cookie.getExpires()));
+        return new CookieParam(cookie.getName(), cookie.getValue(), Optional.empty(), Optional.of(cookie.getDomain()),
+                Optional.of(cookie.getPath()), Optional.of(cookie.getSecure()), Optional.of(cookie.getHttpOnly()),
+                cookie.getSameSite(), expires, Optional.ofNullable(cookie.getPriority()), Optional.empty(),
+                Optional.ofNullable(cookie.getSourceScheme()), Optional.ofNullable(cookie.getSourcePort()),
+                cookie.getPartitionKey());
+    }
+
+    /**
+     * The restore commands: one bulk {@code Network.setCookies} without the cookies that have expired
+     * since the capture, and the storage script if there is any storage.
+     */
+    public List<Command<?>> restoreCommands(Instant now) {
+        double nowSeconds = now.toEpochMilli() / 1000.0;
+        List<CookieParam> live = new ArrayList<>(cookies.size());
+        for (CookieParam cookie : cookies) {
+            if (cookie.getExpires().map(expires -> expires.toJson().doubleValue() > nowSeconds).orElse(true)) {
+                live.add(cookie);
+            }
+        }
+        List<Command<?>> commands = new ArrayList<>(2);
+        commands.add(Network.setCookies(live));
+        if (!localStorage.isEmpty() || !sessionStorage.isEmpty()) {
+            commands.add(Page.addScriptToEvaluateOnNewDocument(storageScript(), Optional.empty(), Optional.empty(),
+                    Optional.empty()));
+        }
+        return commands;
+    }
+
+    /**
+     * Restores the snapshot as one pipelined batch; call before the session's first navigation.
+     * {@code now} should come from the same clock as the capture time, it decides which cookies expired.
+     */
+    public BatchResult restore(AsyncDevTools devTools, Instant now) {
+        CommandBatch batch = devTools.batch();
+        restoreCommands(now).forEach(batch::add);
+        return batch.execute();
+    }
+
+    /**
+     * Blocking fallback for a plain {@link DevTools}, one round trip per command.
+     */
+    public void restore(DevTools devTools, Instant now) {
+        restoreCommands(now).forEach(devTools::send);
+    }
+
+    String storageScript() {
+        ObjectNode data = JSON.createObjectNode().put("origin", origin).put("marker", RESTORED_MARKER);
+        data.set("local", JSON.valueToTree(localStorage));
+        data.set("session", JSON.valueToTree(sessionStorage));
+        return "(function (s) {"
+                + " if (location.origin !== s.origin) return;"
+                + " try {"
+                + " if (sessionStorage.getItem(s.marker)) return;"
+                + " for (var k in s.local) localStorage.setItem(k, s.local[k]);"
+                + " for (var k in s.session) sessionStorage.setItem(k, s.session[k]);"
+                + " sessionStorage.setItem(s.marker, '1');"
+                + " } catch (e) {}"
+                + " })(" + data + ");";
+    }
+
+    /**
+     * Writes the snapshot as gzipped JSON, through a temp file so parallel readers never see half a file.
+     */
+    public void write(Path file) throws IOException {
+        ObjectNode root = JSON.createObjectNode()
+                .put("role", role)
+                .put("origin", origin)
+                .put("capturedAt", capturedAt.toEpochMilli());
+        ArrayNode cookieArray = root.putArray("cookies");
+        for (CookieParam cookie : cookies) {
+            ObjectNode node = cookieArray.addObject().put("name", cookie.getName()).put("value", cookie.getValue());
+            cookie.getDomain().ifPresent(domain -> node.put("domain", domain));
+            cookie.getPath().ifPresent(path -> node.put("path", path));
+            cookie.getSecure().ifPresent(secure -> node.put("secure", secure));
+            cookie.getHttpOnly().ifPresent(httpOnly -> node.put("httpOnly", httpOnly));
+            cookie.getSameSite().ifPresent(sameSite -> node.put("sameSite", sameSite.toString()));
+            cookie.getExpires().ifPresent(expires -> node.put("expires", expires.toJson().doubleValue()));
+            cookie.getPriority().ifPresent(priority -> node.put("priority", priority.toString()));
+            cookie.getSourceScheme().ifPresent(scheme -> node.put("sourceScheme", scheme.toString()));
+            cookie.getSourcePort().ifPresent(port -> node.put("sourcePort", port));
+            cookie.getPartitionKey().ifPresent(key -> node.put("partitionKey", key));
+        }
+        root.set("localStorage", JSON.valueToTree(localStorage));
+        root.set("sessionStorage", JSON.valueToTree(sessionStorage));
+
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(temp))) {
+                JSON.writeValue(out, root);
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    public static AuthSnapshot read(Path file) throws IOException {
+        JsonNode root;
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            root = JSON.readTree(in);
+        }
+        List<CookieParam> cookies = new ArrayList<>();
+        for (JsonNode node : root.path("cookies")) {
+            cookies.add(new CookieParam(node.path("name").asText(), node.path("value").asText(), Optional.empty(),
+                    text(node, "domain"), text(node, "path"),
+                    Optional.ofNullable(node.get("secure")).map(JsonNode::asBoolean),
+                    Optional.ofNullable(node.get("httpOnly")).map(JsonNode::asBoolean),
+                    text(node, "sameSite").map(CookieSameSite::fromString),
+                    Optional.ofNullable(node.get("expires")).map(expires -> new TimeSinceEpoch(expires.asDouble())),
+                    text(node, "priority").map(CookiePriority::fromString), Optional.empty(),
+                    text(node, "sourceScheme").map(CookieSourceScheme::fromString),
+                    Optional.ofNullable(node.get("sourcePort")).map(JsonNode::asInt),
+                    text(node, "partitionKey")));
+        }
+        return new AuthSnapshot(root.path("role").asText(), root.path("origin").asText(),
+                Instant.ofEpochMilli(root.path("capturedAt").asLong()), cookies,
+                toMap(root.path("localStorage")), toMap(root.path("sessionStorage")));
+    }
+
+    private static Optional<String> text(JsonNode node, String field) {
+        return Optional.ofNullable(node.get(field)).map(JsonNode::asText);
+    }
+
+    private static Map<String, String> toMap(JsonNode object) {
+        Map<String, String> map = new LinkedHashMap<>();
+        for (Iterator<Map.Entry<String, JsonNode>> fields = object.fields(); fields.hasNext(); ) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            map.put(field.getKey(), field.getValue().asText());
+        }
+        return map;
+    }
+
+    @Override
+    public String toString() {
+        return role + "@" + origin + " (" + cookies.size() + " cookies, " + localStorage.size() + " localStorage, "
+                + sessionStorage.size() + " sessionStorage items, captured " + capturedAt + ")";
+    }
+}
@@ -0,0 +1,149 @@
+package co.uk.auth;
+
+import co.uk.cdp.AsyncDevTools;
+import co.uk.cdp.BatchResult;
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.devtools.DevTools;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Hands out one {@link AuthSnapshot} per role, logging in only when there is no valid one.
+ * <p>
+ * Lookups go memory first, then the role's file in {@link AuthCacheConfig#getDirectory()}, then
+ * {@link AuthLogin}. Parallel sessions asking for the same role while it logs in wait for that one
+ * login instead of starting their own; other roles are not blocked. A snapshot expires
+ * {@link AuthCacheConfig#getTimeToLive()} after its capture, or earlier through {@link #invalidate(String)},
+ * e.g. when the application rejected it.
+ */
+@Slf4j
+public class AuthStateCache {
+
+    private final AuthCacheConfig config;
+    private final ConcurrentHashMap<String, CompletableFuture<AuthSnapshot>> snapshots = new ConcurrentHashMap<>();
+    private final AtomicInteger logins = new AtomicInteger();
+
+    public AuthStateCache() {
+        this(AuthCacheConfig.builder().build());
+    }
+
+    public AuthStateCache(AuthCacheConfig config) {
+        this.config = config;
+    }
+
+    /**
+     * A valid snapshot for {@code role}, logging in at most once across all threads asking for it.
+     */
+    public AuthSnapshot get(String role, AuthLogin login) {
+        while (true) {
+            CompletableFuture<AuthSnapshot> created = new CompletableFuture<>();
+            CompletableFuture<AuthSnapshot> current = snapshots.putIfAbsent(role, created);
+            if (current == null) {
+                load(role, login, created);
+                current = created;
+            }
+            AuthSnapshot snapshot;
+            try {
+                snapshot = current.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof Error) {
+                    throw (Error) e.getCause();
+                }
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+            // A snapshot from a login that just ran is used as it is, even if its capture time is off.
+            if (current == created || !isExpired(snapshot)) {
+                return snapshot;
+            }
+            snapshots.remove(role, current);
+        }
+    }
+
+    /**
+     * Restores the role's snapshot into a fresh session; call before its first navigation.
+     */
+    public BatchResult restore(String role, AuthLogin login, AsyncDevTools devTools) {
+        return get(role, login).restore(devTools, config.getClock().instant());
+    }
+
+    /**
+     * Blocking variant of {@link #restore(String, AuthLogin, AsyncDevTools)} for a plain {@link DevTools}.
+     */
+    public void restore(String role, AuthLogin login, DevTools devTools) {
+        get(role, login).restore(devTools, config.getClock().instant());
+    }
+
+    /**
+     * The time snapshots are captured and expired against; logins should stamp captures with it.
+     */
+    public Instant now() {
+        return config.getClock().instant();
+    }
+
+    private void load(String role, AuthLogin login, CompletableFuture<AuthSnapshot> result) {
+        Path file = file(role);
+        try {
+            AuthSnapshot snapshot = readValid(file);
+            if (snapshot == null) {
+                logins.incrementAndGet();
+                snapshot = login.logIn(role);
+                snapshot.write(file);
+                log.info("Captured auth snapshot " + snapshot);
+            }
+            result.complete(snapshot);
+        } catch (Throwable e) {
+            // Nobody may wait on a failed login forever, not even after an Error, and the next caller tries again.
+            snapshots.remove(role, result);
+            result.completeExceptionally(e instanceof RuntimeException || e instanceof Error ? e
+                    : new IllegalStateException("Cannot log in as " + role, e));
+        }
+    }
+
+    private AuthSnapshot readValid(Path file) {
+        try {
+            AuthSnapshot snapshot = AuthSnapshot.read(file);
+            return isExpired(snapshot) ? null : snapshot;
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable auth snapshot " + file + ": " + e);
+            return null;
+        }
+    }
+
+    private boolean isExpired(AuthSnapshot snapshot) {
+        Instant expiry = snapshot.getCapturedAt().plus(config.getTimeToLive());
+        return !config.getClock().instant().isBefore(expiry);
+    }
+
+    /**
+     * Forgets the role's snapshot in memory and on disk; the next {@link #get} logs in again.
+     */
+    public void invalidate(String role) {
+        snapshots.remove(role);
+        try {
+            Files.deleteIfExists(file(role));
+        } catch (IOException e) {
+            log.warn("Cannot delete auth snapshot for " + role + ": " + e);
+        }
+    }
+
+    /**
+     * Logins run by this cache, i.e. lookups that found no valid snapshot in memory or on disk.
+     */
+    public int getLogins() {
+        return logins.get();
+    }
+
+    Path file(String role) {
+        return config.getDirectory().resolve(role.replaceAll("[^A-Za-z0-9._-]", "_") + ".json.gz");
+    }
+}
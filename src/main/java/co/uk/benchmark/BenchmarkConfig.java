@@ -0,0 +1,46 @@
+package co.uk.benchmark;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Singular;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Settings for {@link PageLoadBenchmark}.
+ */
+@Getter
+@Builder
+public class BenchmarkConfig {
+
+    /** Unmeasured loads per scenario and cache mode; they warm up the JIT, DNS and, for WARM, the cache. */
+    @Builder.Default
+    private final int warmupIterations = 2;
+
+    /** Measured loads per scenario and cache mode. */
+    @Builder.Default
+    private final int measuredIterations = 10;
+
+    /** Run in the order they were added; COLD then WARM if none are. */
+    @Singular
+    private final Set<CacheMode> cacheModes;
+
+    /** Two-sided confidence level of the reported intervals. */
+    @Builder.Default
+    private final double confidenceLevel = 0.95;
+
+    /** Network activity after the load event is still counted until the network has been quiet this long. */
+    @Builder.Default
+    private final Duration networkQuietPeriod = Duration.ofMillis(500);
+
+    /** Upper bound for waiting on the load event and network quiet. */
+    @Builder.Default
+    private final Duration loadTimeout = Duration.ofSeconds(60);
+
+    public Set<CacheMode> getCacheModes() {
+        return cacheModes.isEmpty() ? Collections.unmodifiableSet(EnumSet.of(CacheMode.COLD, CacheMode.WARM)) : cacheModes;
+    }
+}
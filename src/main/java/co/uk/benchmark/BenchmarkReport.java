@@ -0,0 +1,98 @@
+package co.uk.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Results of a {@link PageLoadBenchmark} run. Written as JSON, the report doubles as the baseline
+ * for the next run.
+ */
+public class BenchmarkReport {
+
+    private static final ObjectMapper JSON = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    @Getter
+    private final List<ScenarioResult> results;
+
+    public BenchmarkReport(List<ScenarioResult> results) {
+        this.results = results;
+    }
+
+    public void writeJson(Path file) throws IOException {
+        JSON.writeValue(file.toFile(), this);
+    }
+
+    /**
+     * Metrics that got slower than the baseline.
+     * <p>
+     * A metric regresses when its mean grew by more than {@code tolerance} (relative) and the whole
+     * confidence interval lies above the baseline interval, so noise alone does not fail a release.
+     * Scenarios and metrics missing from the baseline are skipped.
+     */
+    public List<String> compareTo(Path baseline, double tolerance) throws IOException {
+        JsonNode previous = JSON.readTree(baseline.toFile()).path("results");
+        List<String> regressions = new ArrayList<>();
+        for (ScenarioResult result : results) {
+            JsonNode base = find(previous, result);
+            if (base == null) {
+                continue;
+            }
+            for (Map.Entry<String, SampleStatistics> metric : result.getMetrics().entrySet()) {
+                JsonNode before = base.path("metrics").path(metric.getKey());
+                if (before.isMissingNode() || metric.getValue().getSamples() == 0) {
+                    continue;
+                }
+                SampleStatistics now = metric.getValue();
+                double baseMean = before.path("mean").asDouble();
+                double baseHigh = before.path("confidenceHigh").asDouble();
+                if (now.getMean() > baseMean * (1 + tolerance) && now.getConfidenceLow() > baseHigh) {
+                    regressions.add(String.format("%s %s: %.1f ms [%.1f, %.1f] vs baseline %.1f ms (+%.0f%%)",
+                            result.key(), metric.getKey(), now.getMean(), now.getConfidenceLow(),
+                            now.getConfidenceHigh(), baseMean, (now.getMean() / baseMean - 1) * 100));
+                }
+            }
+        }
+        return regressions;
+    }
+
+    private static JsonNode find(JsonNode previous, ScenarioResult result) {
+        for (JsonNode node : previous) {
+            if (result.getScenario().equals(node.path("scenario").asText())
+                    && result.getCacheMode().name().equals(node.path("cacheMode").asText())) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Release gate: fails with every regressed metric.
+     */
+    public void assertNoRegressions(Path baseline, double tolerance) throws IOException {
+        List<String> regressions = compareTo(baseline, tolerance);
+        if (!regressions.isEmpty()) {
+            throw new AssertionError("Page load regressions:\n" + String.join("\n", regressions));
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder();
+        for (ScenarioResult result : results) {
+            out.append(result.key()).append(" (").append(result.getUrl()).append(")\n");
+            result.getMetrics().forEach((name, stats) -> out.append(String.format(
+                    "  %-20s mean %8.1f ms  CI [%8.1f, %8.1f]  median %8.1f  min %8.1f  max %8.1f  n=%d%n",
+                    name, stats.getMean(), stats.getConfidenceLow(), stats.getConfidenceHigh(),
+                    stats.getMedian(), stats.getMin(), stats.getMax(), stats.getSamples())));
+        }
+        return out.toString();
+    }
+}
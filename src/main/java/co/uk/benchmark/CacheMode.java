@@ -0,0 +1,11 @@
+package co.uk.benchmark;
+
+/**
+ * Browser cache state a page-load scenario is measured in.
+ */
+public enum CacheMode {
+    /** Cache and cookies are cleared before every iteration. */
+    COLD,
+    /** Cache is cleared once, then primed by the warmup iterations. */
+    WARM
+}
@@ -0,0 +1,68 @@
+package co.uk.benchmark;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects the CDP timestamps of one navigation. Written by the DevTools listener thread,
+ * read by the benchmark thread once the load event has arrived.
+ */
+class NavigationProbe {
+
+    private final CountDownLatch loaded = new CountDownLatch(1);
+    private double firstActivity = Double.NaN;
+    private double lastActivity = Double.NaN;
+    private double domContentLoaded = Double.NaN;
+    private double load = Double.NaN;
+    private long lastActivityNanos = System.nanoTime();
+    private int requests;
+
+    synchronized void onRequest(double timestamp) {
+        requests++;
+        onActivity(timestamp);
+    }
+
+    synchronized void onActivity(double timestamp) {
+        if (Double.isNaN(firstActivity) || timestamp < firstActivity) {
+            firstActivity = timestamp;
+        }
+        if (Double.isNaN(lastActivity) || timestamp > lastActivity) {
+            lastActivity = timestamp;
+        }
+        lastActivityNanos = System.nanoTime();
+    }
+
+    // Events from the previous about:blank navigation can arrive late; they come before any request.
+    synchronized void onDomContentLoaded(double timestamp) {
+        if (!Double.isNaN(firstActivity)) {
+            domContentLoaded = timestamp;
+        }
+    }
+
+    void onLoad(double timestamp) {
+        synchronized (this) {
+            if (Double.isNaN(firstActivity)) {
+                return;
+            }
+            load = timestamp;
+        }
+        loaded.countDown();
+    }
+
+    boolean awaitLoad(long timeoutNanos) throws InterruptedException {
+        return loaded.await(timeoutNanos, TimeUnit.NANOSECONDS);
+    }
+
+    synchronized long nanosSinceLastActivity() {
+        return System.nanoTime() - lastActivityNanos;
+    }
+
+    synchronized NavigationTiming toTiming(long wallNanos) {
+        return new NavigationTiming(wallNanos / 1e6, relative(domContentLoaded), relative(load),
+                relative(lastActivity), requests);
+    }
+
+    private double relative(double timestamp) {
+        return (timestamp - firstActivity) * 1000;
+    }
+}
@@ -0,0 +1,18 @@
+package co.uk.benchmark;
+
+import lombok.Value;
+
+/**
+ * Timings of one measured page load, in milliseconds.
+ * <p>
+ * {@code wall} is measured around {@code driver.get} with {@link System#nanoTime()}. The other
+ * values are CDP monotonic timestamps relative to the first network request of the navigation.
+ */
+@Value
+public class NavigationTiming {
+    double wall;
+    double domContentLoaded;
+    double load;
+    double lastNetworkActivity;
+    int requests;
+}
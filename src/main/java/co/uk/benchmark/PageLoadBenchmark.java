@@ -0,0 +1,126 @@
+package co.uk.benchmark;
+
+import co.uk.events.DevToolsListeners;
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.v126.network.Network;
+import org.openqa.selenium.devtools.v126.page.Page;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Measures page loads with warmup, repeated measured iterations and cold or warm cache.
+ * <p>
+ * Each load is timed with {@link System#nanoTime()} around {@code driver.get} and broken down with the
+ * browser's own timestamps: first network request, {@code Page.domContentEventFired},
+ * {@code Page.loadEventFired} and the last network activity before the network went quiet.
+ * Results come with Student-t confidence intervals and can be compared with a stored baseline.
+ * Close the benchmark to remove its listeners from the session.
+ */
+@Slf4j
+public class PageLoadBenchmark implements AutoCloseable {
+
+    private static final String BLANK = "about:blank";
+
+    private final WebDriver driver;
+    private final DevTools devTools;
+    private final BenchmarkConfig config;
+    private final DevToolsListeners listeners;
+    private volatile NavigationProbe probe = new NavigationProbe();
+
+    public PageLoadBenchmark(WebDriver driver, DevTools devTools, BenchmarkConfig config) {
+        this.driver = driver;
+        this.devTools = devTools;
+        this.config = config;
+        this.listeners = new DevToolsListeners(devTools);
+        devTools.send(Page.enable());
+        devTools.send(Network.enable(Optional.empty(), Optional.empty(), Optional.empty()));
+        listeners.add(Network.requestWillBeSent(), event -> probe.onRequest(event.getTimestamp().toJson().doubleValue()));
+        listeners.add(Network.responseReceived(), event -> probe.onActivity(event.getTimestamp().toJson().doubleValue()));
+        listeners.add(Network.loadingFinished(), event -> probe.onActivity(event.getTimestamp().toJson().doubleValue()));
+        listeners.add(Network.loadingFailed(), event -> probe.onActivity(event.getTimestamp().toJson().doubleValue()));
+        listeners.add(Page.domContentEventFired(), time -> probe.onDomContentLoaded(time.toJson().doubleValue()));
+        listeners.add(Page.loadEventFired(), time -> probe.onLoad(time.toJson().doubleValue()));
+    }
+
+    /**
+     * Benchmarks each scenario (name to URL) in every configured cache mode.
+     */
+    public BenchmarkReport run(Map<String, String> scenarios) throws InterruptedException {
+        List<ScenarioResult> results = new ArrayList<>();
+        for (Map.Entry<String, String> scenario : scenarios.entrySet()) {
+            for (CacheMode mode : config.getCacheModes()) {
+                results.add(measure(scenario.getKey(), scenario.getValue(), mode));
+            }
+        }
+        BenchmarkReport report = new BenchmarkReport(results);
+        log.info("Page load benchmark:\n" + report);
+        return report;
+    }
+
+    public ScenarioResult measure(String scenario, String url, CacheMode mode) throws InterruptedException {
+        clearCache();
+        for (int i = 0; i < config.getWarmupIterations(); i++) {
+            load(url, mode);
+        }
+        List<NavigationTiming> samples = new ArrayList<>();
+        for (int i = 0; i < config.getMeasuredIterations(); i++) {
+            samples.add(load(url, mode));
+        }
+        return new ScenarioResult(scenario, url, mode, summarize(samples), samples);
+    }
+
+    private NavigationTiming load(String url, CacheMode mode) throws InterruptedException {
+        // Leave the page first so the next driver.get is a full navigation, not a same-document no-op.
+        driver.get(BLANK);
+        if (mode == CacheMode.COLD) {
+            clearCache();
+        }
+        NavigationProbe current = new NavigationProbe();
+        probe = current;
+        long start = System.nanoTime();
+        driver.get(url);
+        long wall = System.nanoTime() - start;
+
+        long timeout = config.getLoadTimeout().toNanos();
+        if (!current.awaitLoad(timeout)) {
+            throw new IllegalStateException("No Page.loadEventFired for " + url + " within " + config.getLoadTimeout());
+        }
+        long quiet = config.getNetworkQuietPeriod().toNanos();
+        long deadline = System.nanoTime() + timeout;
+        while (current.nanosSinceLastActivity() < quiet && System.nanoTime() < deadline) {
+            Thread.sleep(Math.max(1, (quiet - current.nanosSinceLastActivity()) / 1_000_000));
+        }
+        return current.toTiming(wall);
+    }
+
+    private void clearCache() {
+        devTools.send(Network.clearBrowserCache());
+        devTools.send(Network.clearBrowserCookies());
+    }
+
+    private Map<String, SampleStatistics> summarize(List<NavigationTiming> samples) {
+        Map<String, SampleStatistics> metrics = new LinkedHashMap<>();
+        metrics.put("wall", statistics(samples, NavigationTiming::getWall));
+        metrics.put("domContentLoaded", statistics(samples, NavigationTiming::getDomContentLoaded));
+        metrics.put("load", statistics(samples, NavigationTiming::getLoad));
+        metrics.put("lastNetworkActivity", statistics(samples, NavigationTiming::getLastNetworkActivity));
+        return metrics;
+    }
+
+    private SampleStatistics statistics(List<NavigationTiming> samples, ToDoubleFunction<NavigationTiming> metric) {
+        return SampleStatistics.of(samples.stream().mapToDouble(metric).filter(value -> !Double.isNaN(value)).toArray(),
+                config.getConfidenceLevel());
+    }
+
+    @Override
+    public void close() {
+        listeners.close();
+    }
+}
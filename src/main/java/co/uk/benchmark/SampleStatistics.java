@@ -0,0 +1,88 @@
+package co.uk.benchmark;
+
+import lombok.Value;
+
+import java.util.Arrays;
+
+/**
+ * Mean, spread and Student-t confidence interval of one metric over the measured iterations.
+ */
+@Value
+public class SampleStatistics {
+    int samples;
+    double mean;
+    double standardDeviation;
+    double confidenceLow;
+    double confidenceHigh;
+    double min;
+    double median;
+    double max;
+
+    public static SampleStatistics of(double[] values, double confidenceLevel) {
+        int n = values.length;
+        if (n == 0) {
+            return new SampleStatistics(0, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN);
+        }
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        double mean = Arrays.stream(values).average().orElse(Double.NaN);
+        double squares = 0;
+        for (double value : values) {
+            squares += (value - mean) * (value - mean);
+        }
+        double deviation = n > 1 ? Math.sqrt(squares / (n - 1)) : 0;
+        double halfWidth = n > 1 ? studentT(1 - (1 - confidenceLevel) / 2, n - 1) * deviation / Math.sqrt(n) : 0;
+        double median = n % 2 == 1 ? sorted[n / 2] : (sorted[n / 2 - 1] + sorted[n / 2]) / 2;
+        return new SampleStatistics(n, mean, deviation, mean - halfWidth, mean + halfWidth,
+                sorted[0], median, sorted[n - 1]);
+    }
+
+    /**
+     * Quantile of Student's t distribution, using the Cornish-Fisher expansion around the normal quantile.
+     * Within 1% of the exact value from 3 degrees of freedom upwards, which covers any useful iteration count.
+     */
+    static double studentT(double p, int degreesOfFreedom) {
+        double z = normal(p);
+        double v = degreesOfFreedom;
+        double z2 = z * z;
+        double z3 = z2 * z;
+        double z5 = z3 * z2;
+        double z7 = z5 * z2;
+        double z9 = z7 * z2;
+        return z
+                + (z3 + z) / (4 * v)
+                + (5 * z5 + 16 * z3 + 3 * z) / (96 * v * v)
+                + (3 * z7 + 19 * z5 + 17 * z3 - 15 * z) / (384 * v * v * v)
+                + (79 * z9 + 776 * z7 + 1482 * z5 - 1920 * z3 - 945 * z) / (92160 * v * v * v * v);
+    }
+
+    /**
+     * Quantile of the standard normal distribution (Acklam's rational approximation).
+     */
+    static double normal(double p) {
+        if (p <= 0 || p >= 1) {
+            throw new IllegalArgumentException("Probability must be in (0, 1): " + p);
+        }
+        double[] a = {-3.969683028665376e+01, 2.209460984245205e+02, -2.759285104469687e+02,
+                1.383577518672690e+02, -3.066479806614716e+01, 2.506628277459239e+00};
+        double[] b = {-5.447609879822406e+01, 1.615858368580409e+02, -1.556989798598866e+02,
+                6.680131188771972e+01, -1.328068155288572e+01};
+        double[] c = {-7.784894002430293e-03, -3.223964580411365e-01, -2.400758277161838e+00,
+                -2.549732539343734e+00, 4.374664141464968e+00, 2.938163982698783e+00};
+        double[] d = {7.784695709041462e-03, 3.224671290700398e-01, 2.445134137142996e+00,
+                3.754408661907416e+00};
+        double low = 0.02425;
+        if (p < low) {
+            double q = Math.sqrt(-2 * Math.log(p));
+            return (((((c[0] * q + c[1]) * q + c[2]) * q + c[3]) * q + c[4]) * q + c[5])
+                    / ((((d[0] * q + d[1]) * q + d[2]) * q + d[3]) * q + 1);
+        }
+        if (p > 1 - low) {
+            return -normal(1 - p);
+        }
+        double q = p - 0.5;
+        double r = q * q;
+        return (((((a[0] * r + a[1]) * r + a[2]) * r + a[3]) * r + a[4]) * r + a[5]) * q
+                / (((((b[0] * r + b[1]) * r + b[2]) * r + b[3]) * r + b[4]) * r + 1);
+    }
+}
@@ -0,0 +1,22 @@
+package co.uk.benchmark;
+
+import lombok.Value;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Measured loads of one scenario in one cache mode, with statistics per timing metric.
+ */
+@Value
+public class ScenarioResult {
+    String scenario;
+    String url;
+    CacheMode cacheMode;
+    Map<String, SampleStatistics> metrics;
+    List<NavigationTiming> samples;
+
+    public String key() {
+        return scenario + "/" + cacheMode;
+    }
+}
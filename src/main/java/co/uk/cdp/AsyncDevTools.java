@@ -0,0 +1,174 @@
+package co.uk.cdp;
+
+import lombok.Getter;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.Connection;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.DevToolsException;
+import org.openqa.selenium.devtools.SeleniumCdpConnection;
+import org.openqa.selenium.devtools.idealized.target.model.SessionID;
+import org.openqa.selenium.devtools.v126.v126Domains;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Non-blocking counterpart of {@link DevTools#send}: commands return a {@link CompletableFuture}
+ * as soon as they are written to the socket, so independent commands share one round trip instead
+ * of paying one each.
+ * <p>
+ * Commands sent on one session are executed by the browser in the order they were sent; a
+ * {@link CommandBatch} relies on that. Each future fails with a {@link DevToolsException} naming
+ * the command, whether the browser returned an error or the command timed out.
+ * <p>
+ * Futures complete on Selenium's CDP thread; keep continuations short or move them to an executor.
+ * <p>
+ * A timeout only fails the returned future: Selenium keeps its reply callback until the browser answers
+ * and offers no way to remove it. Timed-out commands are therefore tracked until their late reply
+ * arrives, and once {@value #MAX_UNANSWERED} of them are outstanding further commands fail at once
+ * instead of piling up more callbacks on a connection that has stopped answering.
+ */
+public class AsyncDevTools implements AutoCloseable {
+
+    public static final int MAX_UNANSWERED = 256;
+
+    private final Connection connection;
+    private final SessionID session;
+    /** Where listeners for this session's events go; {@code null} when built from a bare session id. */
+    @Getter
+    private final DevTools devTools;
+    private final Duration defaultTimeout;
+    private final boolean ownsConnection;
+    private final Map<CompletableFuture<?>, String> unanswered = new ConcurrentHashMap<>();
+    private final AtomicLong lateReplies = new AtomicLong();
+
+    /**
+     * Sends on an existing session; {@code devTools} must be attached through {@code connection}.
+     */
+    public AsyncDevTools(Connection connection, DevTools devTools, Duration defaultTimeout) {
+        this(connection, session(devTools), devTools, defaultTimeout, false);
+    }
+
+    /**
+     * Sends on a session attached by other means; {@code null} sends browser-level commands.
+     */
+    public AsyncDevTools(Connection connection, SessionID session, Duration defaultTimeout) {
+        this(connection, session, null, defaultTimeout, false);
+    }
+
+    private AsyncDevTools(Connection connection, SessionID session, DevTools devTools, Duration defaultTimeout,
+                          boolean ownsConnection) {
+        this.connection = connection;
+        this.session = session;
+        this.devTools = devTools;
+        this.defaultTimeout = defaultTimeout;
+        this.ownsConnection = ownsConnection;
+    }
+
+    private static SessionID session(DevTools devTools) {
+        if (devTools.getCdpSession() == null) {
+            throw new IllegalStateException("DevTools has no session, call createSession() first");
+        }
+        return devTools.getCdpSession();
+    }
+
+    /**
+     * Opens a dedicated connection and session on the driver's current window. Listeners for the
+     * events this session enables must be added to {@link #getDevTools()}.
+     */
+    public static AsyncDevTools open(WebDriver driver, Duration defaultTimeout) {
+        Connection connection = SeleniumCdpConnection.create(driver)
+                .orElseThrow(() -> new IllegalStateException("Browser does not expose a CDP endpoint"));
+        DevTools devTools = new DevTools(v126Domains::new, connection);
+        devTools.createSession(driver.getWindowHandle());
+        return new AsyncDevTools(connection, devTools.getCdpSession(), devTools, defaultTimeout, true);
+    }
+
+    public <X> CompletableFuture<X> send(Command<X> command) {
+        return send(command, defaultTimeout);
+    }
+
+    public <X> CompletableFuture<X> send(Command<X> command, Duration timeout) {
+        if (unanswered.size() >= MAX_UNANSWERED) {
+            return CompletableFuture.failedFuture(new DevToolsException(command.getMethod() + " not sent: "
+                    + unanswered.size() + " earlier commands never got a reply"));
+        }
+        CompletableFuture<X> sent;
+        try {
+            sent = connection.send(session, command);
+        } catch (RuntimeException e) {
+            sent = CompletableFuture.failedFuture(e);
+        }
+        CompletableFuture<X> reply = sent;
+        // Time out a copy, so the late reply still completes the original and can be recognised.
+        return sent.copy().orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
+                .handle((result, error) -> {
+                    if (error != null) {
+                        if (unwrap(error) instanceof TimeoutException) {
+                            awaitLateReply(reply, command);
+                        }
+                        throw failure(command, timeout, error);
+                    }
+                    return result;
+                });
+    }
+
+    private void awaitLateReply(CompletableFuture<?> reply, Command<?> command) {
+        unanswered.put(reply, command.getMethod());
+        reply.whenComplete((result, error) -> {
+            if (unanswered.remove(reply) != null) {
+                lateReplies.incrementAndGet();
+            }
+        });
+    }
+
+    /**
+     * Timed-out commands whose reply has not arrived yet; each still holds a callback in Selenium.
+     */
+    public int getUnansweredCommands() {
+        return unanswered.size();
+    }
+
+    /**
+     * Replies that arrived after their command had already timed out, and were ignored.
+     */
+    public long getLateReplies() {
+        return lateReplies.get();
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private static DevToolsException failure(Command<?> command, Duration timeout, Throwable error) {
+        Throwable cause = unwrap(error);
+        if (cause instanceof TimeoutException) {
+            return new DevToolsException(command.getMethod() + " timed out after " + timeout.toMillis() + " ms", cause);
+        }
+        return new DevToolsException(command.getMethod() + " failed: " + cause.getMessage(), cause);
+    }
+
+    /**
+     * Starts an ordered batch of commands that are pipelined and complete together.
+     */
+    public CommandBatch batch() {
+        return new CommandBatch(this, defaultTimeout);
+    }
+
+    /**
+     * Closes the connection if {@link #open} created it; otherwise the owner of the session closes it.
+     */
+    @Override
+    public void close() {
+        if (ownsConnection) {
+            devTools.close();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package co.uk.cdp;
+
+import lombok.Getter;
+import org.openqa.selenium.devtools.DevToolsException;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Outcomes of a {@link CommandBatch}, in the order the commands were added.
+ */
+@Getter
+public class BatchResult {
+
+    private final List<CommandOutcome> outcomes;
+    private final long elapsedNanos;
+
+    BatchResult(List<CommandOutcome> outcomes, long elapsedNanos) {
+        this.outcomes = outcomes;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public List<CommandOutcome> getFailures() {
+        return outcomes.stream().filter(outcome -> !outcome.isSuccess()).collect(Collectors.toList());
+    }
+
+    public boolean isSuccess() {
+        return getFailures().isEmpty();
+    }
+
+    /**
+     * Result of the command at {@code index}, cast to the caller's expected type.
+     */
+    @SuppressWarnings("unchecked")
+    public <X> X get(int index) {
+        CommandOutcome outcome = outcomes.get(index);
+        if (!outcome.isSuccess()) {
+            throw new DevToolsException(outcome.getMethod() + " failed", outcome.getError());
+        }
+        return (X) outcome.getResult();
+    }
+
+    /**
+     * Throws one exception listing every failed command, with the first failure as its cause.
+     */
+    public BatchResult throwIfFailed() {
+        List<CommandOutcome> failures = getFailures();
+        if (!failures.isEmpty()) {
+            String message = failures.stream()
+                    .map(failure -> "#" + failure.getIndex() + " " + failure.getError().getMessage())
+                    .collect(Collectors.joining("; "));
+            throw new DevToolsException(failures.size() + " of " + outcomes.size() + " commands failed: " + message,
+                    failures.get(0).getError());
+        }
+        return this;
+    }
+}
@@ -0,0 +1,78 @@
+package co.uk.cdp;
+
+import org.openqa.selenium.devtools.Command;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+/**
+ * Commands sent back to back without waiting for replies and completed together.
+ * <p>
+ * The browser runs them in the order they were added, so {@code Network.enable} followed by
+ * {@code Network.setBlockedURLs} works as it does with blocking sends. A failing command does not
+ * stop the commands after it, which were already sent; its error is reported in the
+ * {@link BatchResult} next to the others' results.
+ */
+public class CommandBatch {
+
+    private final AsyncDevTools devTools;
+    private final List<Command<?>> commands = new ArrayList<>();
+    private final List<Duration> timeouts = new ArrayList<>();
+    private final Duration defaultTimeout;
+
+    CommandBatch(AsyncDevTools devTools, Duration defaultTimeout) {
+        this.devTools = devTools;
+        this.defaultTimeout = defaultTimeout;
+    }
+
+    public CommandBatch add(Command<?> command) {
+        return add(command, defaultTimeout);
+    }
+
+    public CommandBatch add(Command<?> command, Duration timeout) {
+        commands.add(command);
+        timeouts.add(timeout);
+        return this;
+    }
+
+    public int size() {
+        return commands.size();
+    }
+
+    /**
+     * Sends every command and completes once all of them have replied, failed or timed out.
+     * The returned future itself never fails.
+     */
+    public CompletableFuture<BatchResult> send() {
+        long start = System.nanoTime();
+        List<CompletableFuture<CommandOutcome>> outcomes = new ArrayList<>(commands.size());
+        for (int i = 0; i < commands.size(); i++) {
+            int index = i;
+            Command<?> command = commands.get(i);
+            long sent = System.nanoTime();
+            outcomes.add(devTools.send(command, timeouts.get(i)).handle((result, error) ->
+                    new CommandOutcome(index, command.getMethod(), result, unwrap(error), System.nanoTime() - sent)));
+        }
+        return CompletableFuture.allOf(outcomes.toArray(new CompletableFuture<?>[0])).thenApply(done -> {
+            List<CommandOutcome> results = new ArrayList<>(outcomes.size());
+            for (CompletableFuture<CommandOutcome> outcome : outcomes) {
+                results.add(outcome.join());
+            }
+            return new BatchResult(results, System.nanoTime() - start);
+        });
+    }
+
+    /**
+     * Sends the batch, waits for it and throws if any command failed.
+     */
+    public BatchResult execute() {
+        return send().join().throwIfFailed();
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+}
@@ -0,0 +1,19 @@
+package co.uk.cdp;
+
+import lombok.Value;
+
+/**
+ * Result or failure of one command in a {@link CommandBatch}.
+ */
+@Value
+public class CommandOutcome {
+    int index;
+    String method;
+    Object result;
+    Throwable error;
+    long latencyNanos;
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+}
@@ -0,0 +1,88 @@
+package co.uk.emulation;
+
+import co.uk.cdp.AsyncDevTools;
+import co.uk.cdp.BatchResult;
+import co.uk.cdp.CommandBatch;
+import lombok.Getter;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.v126.emulation.Emulation;
+import org.openqa.selenium.devtools.v126.emulation.model.ScreenOrientation;
+import org.openqa.selenium.devtools.v126.network.Network;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A validated {@link DeviceProfile} turned into its CDP commands once. The commands are immutable,
+ * so one compiled profile can be applied to any number of sessions, concurrently.
+ */
+public class CompiledProfile {
+
+    @Getter
+    private final DeviceProfile profile;
+    @Getter
+    private final List<Command<?>> commands;
+
+    private CompiledProfile(DeviceProfile profile, List<Command<?>> commands) {
+        this.profile = profile;
+        this.commands = Collections.unmodifiableList(commands);
+    }
+
+    public static CompiledProfile compile(DeviceProfile profile) {
+        List<String> errors = profile.validate();
+        if (!errors.isEmpty()) {
+            throw new IllegalArgumentException("Invalid device profile " + profile.getName() + ": " + String.join("; ", errors));
+        }
+        List<Command<?>> commands = new ArrayList<>();
+        commands.add(Emulation.setDeviceMetricsOverride(profile.getWidth(), profile.getHeight(),
+                profile.getDeviceScaleFactor(), profile.isMobile(), Optional.empty(),
+                Optional.of(profile.getWidth()), Optional.of(profile.getHeight()), Optional.empty(), Optional.empty(),
+                Optional.empty(), Optional.of(new ScreenOrientation(profile.getOrientation(), profile.getOrientationAngle())),
+                Optional.empty(), Optional.empty(), Optional.empty()));
+        commands.add(Emulation.setTouchEmulationEnabled(profile.getMaxTouchPoints() > 0,
+                profile.getMaxTouchPoints() > 0 ? Optional.of(profile.getMaxTouchPoints()) : Optional.empty()));
+        if (profile.getUserAgent() != null) {
+            commands.add(Emulation.setUserAgentOverride(profile.getUserAgent(),
+                    Optional.ofNullable(profile.getAcceptLanguage()), Optional.ofNullable(profile.getPlatform()),
+                    Optional.empty()));
+        }
+        if (profile.getLatitude() != null) {
+            commands.add(Emulation.setGeolocationOverride(Optional.of(profile.getLatitude()),
+                    Optional.of(profile.getLongitude()), Optional.of(profile.getLocationAccuracyMeters())));
+        }
+        if (profile.getCpuThrottlingRate() > 1) {
+            commands.add(Emulation.setCPUThrottlingRate(profile.getCpuThrottlingRate()));
+        }
+        NetworkConditions network = profile.getNetwork();
+        if (network != null) {
+            commands.add(Network.enable(Optional.empty(), Optional.empty(), Optional.empty()));
+            commands.add(Network.emulateNetworkConditions(network.isOffline(), network.getLatencyMillis(),
+                    network.getDownloadBytesPerSecond(), network.getUploadBytesPerSecond(),
+                    Optional.ofNullable(network.getConnectionType()), Optional.empty(), Optional.empty(), Optional.empty()));
+        }
+        return new CompiledProfile(profile, commands);
+    }
+
+    /**
+     * Sends the whole profile as one pipelined batch and waits for it; apply before the first navigation.
+     */
+    public BatchResult applyTo(AsyncDevTools devTools) {
+        CommandBatch batch = devTools.batch();
+        commands.forEach(batch::add);
+        return batch.execute();
+    }
+
+    /**
+     * Blocking fallback for a plain {@link DevTools}, one round trip per command.
+     */
+    public void applyTo(DevTools devTools) {
+        commands.forEach(devTools::send);
+    }
+
+    public String getName() {
+        return profile.getName();
+    }
+}
@@ -0,0 +1,95 @@
+package co.uk.emulation;
+
+import lombok.Builder;
+import lombok.Getter;
+import org.openqa.selenium.devtools.v126.emulation.model.ScreenOrientation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Everything a test needs to look like a given device: viewport metrics, user agent, touch,
+ * location, CPU speed and network. Unset optional parts are left as the browser has them.
+ */
+@Getter
+@Builder(toBuilder = true)
+public class DeviceProfile {
+
+    private final String name;
+    private final int width;
+    private final int height;
+    /** Device pixels per CSS pixel, e.g. 3 for an iPhone; not a zoom factor. */
+    @Builder.Default
+    private final double deviceScaleFactor = 1;
+    private final boolean mobile;
+    @Builder.Default
+    private final ScreenOrientation.Type orientation = ScreenOrientation.Type.PORTRAITPRIMARY;
+
+    private final String userAgent;
+    private final String platform;
+    private final String acceptLanguage;
+
+    /** Zero disables touch emulation. */
+    private final int maxTouchPoints;
+
+    private final Double latitude;
+    private final Double longitude;
+    @Builder.Default
+    private final double locationAccuracyMeters = 100;
+
+    /** Slowdown factor, 1 is the machine's own speed. */
+    @Builder.Default
+    private final double cpuThrottlingRate = 1;
+
+    private final NetworkConditions network;
+
+    public int getOrientationAngle() {
+        switch (orientation) {
+            case LANDSCAPEPRIMARY:
+                return 90;
+            case PORTRAITSECONDARY:
+                return 180;
+            case LANDSCAPESECONDARY:
+                return 270;
+            case PORTRAITPRIMARY:
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Problems that would make the browser reject the profile or emulate something no device has.
+     */
+    public List<String> validate() {
+        List<String> errors = new ArrayList<>();
+        if (name == null || name.isBlank()) {
+            errors.add("name is required");
+        }
+        if (width < 1 || width > 10_000_000 || height < 1 || height > 10_000_000) {
+            errors.add("width and height must be between 1 and 10000000, got " + width + "x" + height);
+        }
+        if (deviceScaleFactor <= 0 || deviceScaleFactor > 5) {
+            errors.add("deviceScaleFactor must be in (0, 5], got " + deviceScaleFactor);
+        }
+        if (maxTouchPoints < 0 || maxTouchPoints > 16) {
+            errors.add("maxTouchPoints must be between 0 and 16, got " + maxTouchPoints);
+        }
+        if (mobile && maxTouchPoints == 0) {
+            errors.add("a mobile profile needs touch");
+        }
+        if ((latitude == null) != (longitude == null)) {
+            errors.add("latitude and longitude must be set together");
+        }
+        if (latitude != null && longitude != null && (latitude < -90 || latitude > 90 || longitude < -180 || longitude > 180)) {
+            errors.add("location out of range: " + latitude + ", " + longitude);
+        }
+        if (cpuThrottlingRate < 1) {
+            errors.add("cpuThrottlingRate must be at least 1, got " + cpuThrottlingRate);
+        }
+        if (network != null && (network.getLatencyMillis() < 0 || network.getDownloadBytesPerSecond() < 0
+                || network.getUploadBytesPerSecond() < 0)) {
+            errors.add("network latency and throughput must not be negative");
+        }
+        return errors;
+    }
+}
@@ -0,0 +1,56 @@
+package co.uk.emulation;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Named, compiled device profiles. Profiles are validated and compiled when registered, so a bad
+ * profile fails at startup instead of in the middle of a run. Safe to share between threads.
+ */
+public class DeviceProfileRegistry {
+
+    private final Map<String, CompiledProfile> profiles = new ConcurrentHashMap<>();
+
+    /**
+     * A registry holding {@link DeviceProfiles#ALL}.
+     */
+    public static DeviceProfileRegistry withDefaults() {
+        DeviceProfileRegistry registry = new DeviceProfileRegistry();
+        DeviceProfiles.ALL.forEach(registry::register);
+        return registry;
+    }
+
+    /**
+     * Compiles and registers the profile, replacing one with the same name.
+     *
+     * @throws IllegalArgumentException if the profile is invalid
+     */
+    public CompiledProfile register(DeviceProfile profile) {
+        CompiledProfile compiled = CompiledProfile.compile(profile);
+        profiles.put(profile.getName(), compiled);
+        return compiled;
+    }
+
+    public CompiledProfile get(String name) {
+        CompiledProfile profile = profiles.get(name);
+        if (profile == null) {
+            throw new IllegalArgumentException("Unknown device profile " + name + ", known: " + names());
+        }
+        return profile;
+    }
+
+    public List<CompiledProfile> get(List<String> names) {
+        List<CompiledProfile> out = new ArrayList<>(names.size());
+        names.forEach(name -> out.add(get(name)));
+        return out;
+    }
+
+    public List<String> names() {
+        List<String> names = new ArrayList<>(profiles.keySet());
+        Collections.sort(names);
+        return names;
+    }
+}
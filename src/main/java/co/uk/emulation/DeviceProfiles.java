@@ -0,0 +1,54 @@
+package co.uk.emulation;
+
+import org.openqa.selenium.devtools.v126.emulation.model.ScreenOrientation;
+import org.openqa.selenium.devtools.v126.network.model.ConnectionType;
+
+import java.util.List;
+
+/**
+ * Built-in profiles with the metrics and user agents the devices really report.
+ */
+public final class DeviceProfiles {
+
+    public static final DeviceProfile DESKTOP_1080P = DeviceProfile.builder()
+            .name("desktop-1080p").width(1920).height(1080).deviceScaleFactor(1)
+            .orientation(ScreenOrientation.Type.LANDSCAPEPRIMARY)
+            .build();
+
+    public static final DeviceProfile PIXEL_7 = DeviceProfile.builder()
+            .name("pixel-7").width(412).height(915).deviceScaleFactor(2.625).mobile(true).maxTouchPoints(5)
+            .userAgent("Mozilla/5.0 (Linux; Android 14; Pixel 7) AppleWebKit/537.36 (KHTML, like Gecko) "
+                    + "Chrome/126.0.0.0 Mobile Safari/537.36")
+            .platform("Linux armv8l")
+            .build();
+
+    public static final DeviceProfile IPHONE_14 = DeviceProfile.builder()
+            .name("iphone-14").width(390).height(844).deviceScaleFactor(3).mobile(true).maxTouchPoints(5)
+            .userAgent("Mozilla/5.0 (iPhone; CPU iPhone OS 17_5 like Mac OS X) AppleWebKit/605.1.15 "
+                    + "(KHTML, like Gecko) Version/17.5 Mobile/15E148 Safari/604.1")
+            .platform("iPhone")
+            .build();
+
+    public static final DeviceProfile IPAD_AIR = DeviceProfile.builder()
+            .name("ipad-air").width(820).height(1180).deviceScaleFactor(2).mobile(true).maxTouchPoints(5)
+            .userAgent("Mozilla/5.0 (iPad; CPU OS 17_5 like Mac OS X) AppleWebKit/605.1.15 "
+                    + "(KHTML, like Gecko) Version/17.5 Mobile/15E148 Safari/604.1")
+            .platform("iPad")
+            .build();
+
+    /** Lighthouse's mobile test device: mid-range Android, 4x CPU slowdown, slow 4G. */
+    public static final DeviceProfile MOTO_G_POWER_SLOW_4G = DeviceProfile.builder()
+            .name("moto-g-power-slow-4g").width(412).height(823).deviceScaleFactor(1.75).mobile(true).maxTouchPoints(5)
+            .userAgent("Mozilla/5.0 (Linux; Android 11; moto g power (2022)) AppleWebKit/537.36 "
+                    + "(KHTML, like Gecko) Chrome/126.0.0.0 Mobile Safari/537.36")
+            .platform("Linux armv8l")
+            .cpuThrottlingRate(4)
+            .network(new NetworkConditions(false, 150, 204_800, 96_000,
+                    ConnectionType.CELLULAR4G))
+            .build();
+
+    public static final List<DeviceProfile> ALL = List.of(DESKTOP_1080P, PIXEL_7, IPHONE_14, IPAD_AIR, MOTO_G_POWER_SLOW_4G);
+
+    private DeviceProfiles() {
+    }
+}
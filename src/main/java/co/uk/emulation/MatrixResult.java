@@ -0,0 +1,17 @@
+package co.uk.emulation;
+
+import lombok.Value;
+
+/**
+ * Outcome of one profile in a {@link ProfileMatrix} run.
+ */
+@Value
+public class MatrixResult {
+    String profile;
+    long elapsedMillis;
+    Throwable error;
+
+    public boolean isSuccess() {
+        return error == null;
+    }
+}
@@ -0,0 +1,24 @@
+package co.uk.emulation;
+
+import lombok.Value;
+import org.openqa.selenium.devtools.v126.network.model.ConnectionType;
+
+/**
+ * Throttled network for {@code Network.emulateNetworkConditions}; throughput in bytes per second.
+ */
+@Value
+public class NetworkConditions {
+
+    /** The DevTools "Slow 3G" preset. */
+    public static final NetworkConditions SLOW_3G = new NetworkConditions(false, 2000, 50_000, 50_000, ConnectionType.CELLULAR3G);
+    /** The DevTools "Fast 3G" preset. */
+    public static final NetworkConditions FAST_3G = new NetworkConditions(false, 562.5, 180_000, 84_375, ConnectionType.CELLULAR3G);
+    public static final NetworkConditions FAST_4G = new NetworkConditions(false, 150, 1_500_000, 750_000, ConnectionType.CELLULAR4G);
+    public static final NetworkConditions OFFLINE = new NetworkConditions(true, 0, 0, 0, ConnectionType.NONE);
+
+    boolean offline;
+    double latencyMillis;
+    double downloadBytesPerSecond;
+    double uploadBytesPerSecond;
+    ConnectionType connectionType;
+}
@@ -0,0 +1,92 @@
+package co.uk.emulation;
+
+import co.uk.session.BrowserSessionPool;
+import co.uk.session.PooledSession;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+/**
+ * Runs one scenario under several device profiles at once, each in its own pooled browser context.
+ * The profile's command batch is applied right after the lease, before the scenario navigates.
+ */
+@Slf4j
+public class ProfileMatrix {
+
+    private final BrowserSessionPool pool;
+    private final int parallelism;
+
+    public ProfileMatrix(BrowserSessionPool pool, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("Parallelism must be at least 1");
+        }
+        this.pool = pool;
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Runs the scenario for every profile and waits for all of them.
+     *
+     * @return one result per profile, in the order given
+     */
+    public List<MatrixResult> run(List<CompiledProfile> profiles, ProfileScenario scenario) throws InterruptedException {
+        AtomicInteger threads = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(parallelism, Math.max(1, profiles.size())),
+                runnable -> new Thread(runnable, "profile-matrix-" + threads.incrementAndGet()));
+        try {
+            List<Future<MatrixResult>> futures = new ArrayList<>(profiles.size());
+            for (CompiledProfile profile : profiles) {
+                futures.add(executor.submit(() -> runOne(profile, scenario)));
+            }
+            List<MatrixResult> results = new ArrayList<>(futures.size());
+            for (Future<MatrixResult> future : futures) {
+                try {
+                    results.add(future.get());
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Profile task failed unexpectedly", e.getCause());
+                }
+            }
+            return results;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private MatrixResult runOne(CompiledProfile profile, ProfileScenario scenario) {
+        long start = System.nanoTime();
+        Throwable error = null;
+        try (PooledSession session = pool.lease()) {
+            profile.applyTo(session.getAsyncDevTools());
+            scenario.run(session, profile.getProfile());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            error = e;
+        } catch (Exception | AssertionError e) {
+            error = e;
+        }
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+        log.info(profile.getName() + (error == null ? " passed" : " failed") + " in " + elapsed + " ms");
+        return new MatrixResult(profile.getName(), elapsed, error);
+    }
+
+    /**
+     * Fails with every profile that did not pass, the first failure attached as the cause.
+     */
+    public static void assertAllPassed(List<MatrixResult> results) {
+        List<MatrixResult> failed = results.stream().filter(result -> !result.isSuccess()).collect(Collectors.toList());
+        if (!failed.isEmpty()) {
+            String message = failed.stream()
+                    .map(result -> result.getProfile() + ": " + result.getError())
+                    .collect(Collectors.joining("\n"));
+            throw new AssertionError(failed.size() + " of " + results.size() + " profiles failed:\n" + message,
+                    failed.get(0).getError());
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package co.uk.emulation;
+
+import co.uk.session.PooledSession;
+
+/**
+ * A test flow run once per device profile by {@link ProfileMatrix}; the profile is already applied.
+ */
+@FunctionalInterface
+public interface ProfileScenario {
+    void run(PooledSession session, DeviceProfile profile) throws Exception;
+}
@@ -0,0 +1,24 @@
+package co.uk.events;
+
+/**
+ * What {@link DevToolsEventBus} does when a worker queue cannot keep up with the CDP connection.
+ */
+public enum BackpressurePolicy {
+
+    /**
+     * Wait up to {@link EventBusConfig#getBlockTimeout()} for space, then drop the event.
+     * Holds up Selenium's dispatch thread instead of losing events.
+     */
+    BLOCK,
+
+    /**
+     * Evict the oldest queued event to make room for the new one.
+     */
+    DROP_OLDEST,
+
+    /**
+     * Once a queue is half full, only every {@link EventBusConfig#getSampleRate()}-th event is kept.
+     * A full queue drops the new event.
+     */
+    SAMPLE
+}
@@ -0,0 +1,366 @@
+package co.uk.events;
+
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.Event;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Sits between {@link DevTools#addListener} and the listeners, so Selenium's dispatch threads only copy
+ * the event into a bounded queue and go back to the connection.
+ * <p>
+ * Listeners run on a small pool of worker threads ("lanes"). Selenium hands every incoming message to
+ * its own task on a cached thread pool, so events can reach the bus out of order. Each lane therefore
+ * queues its events by the CDP sequence number Selenium stamps on them and holds each one for
+ * {@link EventBusConfig#getReorderWindow()} before delivery, so listeners subscribed with the same lane
+ * name see their events in the order the browser sent them. An event that arrives even later is still
+ * delivered and counted in {@link EventBusMetrics#getLateEvents()}. Listeners on different lanes run in
+ * parallel. What happens when a lane's queue is full is decided by {@link BackpressurePolicy}.
+ * <p>
+ * Listeners may block, including on {@code devTools.send(...)}, without stalling event delivery.
+ * {@link #close()} drains the lanes and removes the bus's DevTools listeners.
+ */
+@Slf4j
+public class DevToolsEventBus implements AutoCloseable {
+
+    private static final long IDLE_POLL_MILLIS = 100;
+    private static final long DRAIN_TIMEOUT_MILLIS = 5_000;
+
+    private final DevToolsListeners devToolsListeners;
+    private final EventBusConfig config;
+    private final Lane[] lanes;
+    private final List<Subscription<?>> subscriptions = new CopyOnWriteArrayList<>();
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder sampledOut = new LongAdder();
+    private final AtomicLong pending = new AtomicLong();
+    private final AtomicInteger maxQueueDepth = new AtomicInteger();
+    private final AtomicBoolean dropLogged = new AtomicBoolean();
+
+    private volatile boolean closed;
+
+    public DevToolsEventBus(DevTools devTools) {
+        this(devTools, EventBusConfig.builder().build());
+    }
+
+    public DevToolsEventBus(DevTools devTools, EventBusConfig config) {
+        if (config.getWorkers() < 1 || config.getCapacity() < config.getWorkers() || config.getSampleRate() < 1
+                || config.getReorderWindow().isNegative()) {
+            throw new IllegalArgumentException(
+                    "Need workers >= 1, capacity >= workers, sampleRate >= 1 and a non-negative reorderWindow");
+        }
+        this.devToolsListeners = new DevToolsListeners(devTools);
+        this.config = config;
+        this.lanes = new Lane[config.getWorkers()];
+        for (int i = 0; i < lanes.length; i++) {
+            lanes[i] = new Lane(i, config.getCapacity() / config.getWorkers());
+            lanes[i].start();
+        }
+    }
+
+    /**
+     * Delivers {@code event} to {@code listener} on the lane named after the event.
+     */
+    public <X> void subscribe(Event<X> event, Consumer<X> listener) {
+        subscribe(event.getMethod(), event, listener);
+    }
+
+    /**
+     * Delivers {@code event} to {@code listener} on the given lane. Use one lane name for listeners
+     * that must see their events in browser order, e.g. all the Network events of one recorder.
+     */
+    public <X> void subscribe(String lane, Event<X> event, Consumer<X> listener) {
+        Subscription<X> subscription = new Subscription<>(lane + ":" + event.getMethod(), listener);
+        subscriptions.add(subscription);
+        Lane target = lanes[Math.floorMod(lane.hashCode(), lanes.length)];
+        devToolsListeners.add(event, (Long sequence, X value) ->
+                target.publish(new Envelope<>(subscription, value, sequence, System.nanoTime())));
+    }
+
+    public EventBusMetrics getMetrics() {
+        int depth = 0;
+        long late = 0;
+        for (Lane lane : lanes) {
+            depth += lane.depth();
+            late += lane.late();
+        }
+        List<ListenerStats> listeners = new ArrayList<>(subscriptions.size());
+        for (Subscription<?> subscription : subscriptions) {
+            listeners.add(subscription.stats());
+        }
+        return new EventBusMetrics(depth, maxQueueDepth.get(), published.sum(), dropped.sum(), sampledOut.sum(), late,
+                listeners);
+    }
+
+    /**
+     * Waits until every accepted event has been handled, e.g. before asserting on what listeners collected.
+     *
+     * @return {@code false} if events were still queued when the timeout expired
+     */
+    public boolean awaitIdle(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (pending.get() > 0) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            Thread.sleep(5);
+        }
+        return true;
+    }
+
+    /**
+     * Stops accepting events, removes the DevTools listeners, lets the workers drain their queues and
+     * logs the final metrics.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        devToolsListeners.close();
+        for (Lane lane : lanes) {
+            try {
+                lane.join(DRAIN_TIMEOUT_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        for (Lane lane : lanes) {
+            lane.interrupt();
+        }
+        EventBusMetrics metrics = getMetrics();
+        log.info("Event bus closed: published=" + metrics.getPublished() + ", dropped=" + metrics.getDropped()
+                + ", sampledOut=" + metrics.getSampledOut() + ", late=" + metrics.getLateEvents()
+                + ", maxQueueDepth=" + metrics.getMaxQueueDepth());
+    }
+
+    /**
+     * Warns on the first lost event; the total is in the metrics and in the log line written on close.
+     */
+    private void drop() {
+        dropped.increment();
+        if (dropLogged.compareAndSet(false, true)) {
+            log.warn("Event bus is full and dropping events under " + config.getPolicy()
+                    + "; raise the capacity or speed up the listeners");
+        }
+    }
+
+    private class Lane extends Thread {
+        private final int capacity;
+        private final SequenceBuffer<Envelope<?>> queue = new SequenceBuffer<>(config.getReorderWindow().toNanos());
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition notEmpty = lock.newCondition();
+        private final Condition notFull = lock.newCondition();
+        private final AtomicLong overflowCounter = new AtomicLong();
+
+        Lane(int index, int capacity) {
+            super("cdp-events-" + index);
+            setDaemon(true);
+            this.capacity = capacity;
+        }
+
+        int depth() {
+            lock.lock();
+            try {
+                return queue.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        long late() {
+            lock.lock();
+            try {
+                return queue.getLate();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        /**
+         * Runs on Selenium's dispatch thread: must stay cheap.
+         */
+        void publish(Envelope<?> envelope) {
+            if (closed) {
+                return;
+            }
+            published.increment();
+            lock.lock();
+            try {
+                boolean accepted;
+                switch (config.getPolicy()) {
+                    case BLOCK:
+                        accepted = offerBlocking(envelope);
+                        break;
+                    case SAMPLE:
+                        accepted = offerSampled(envelope);
+                        break;
+                    case DROP_OLDEST:
+                    default:
+                        accepted = offerEvictingOldest(envelope);
+                        break;
+                }
+                if (accepted) {
+                    maxQueueDepth.accumulateAndGet(queue.size(), Math::max);
+                    notEmpty.signal();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void add(Envelope<?> envelope) {
+            pending.incrementAndGet();
+            queue.add(envelope.sequence, envelope, System.nanoTime());
+        }
+
+        private boolean offerBlocking(Envelope<?> envelope) {
+            long remaining = config.getBlockTimeout().toNanos();
+            try {
+                while (queue.size() >= capacity && remaining > 0) {
+                    remaining = notFull.awaitNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (queue.size() >= capacity) {
+                drop();
+                return false;
+            }
+            add(envelope);
+            return true;
+        }
+
+        /**
+         * The oldest event is the one with the lowest sequence, even if it reached the bus last.
+         */
+        private boolean offerEvictingOldest(Envelope<?> envelope) {
+            while (queue.size() >= capacity) {
+                queue.pollFirst();
+                pending.decrementAndGet();
+                drop();
+            }
+            add(envelope);
+            return true;
+        }
+
+        private boolean offerSampled(Envelope<?> envelope) {
+            if (capacity - queue.size() < queue.size()
+                    && overflowCounter.getAndIncrement() % config.getSampleRate() != 0) {
+                sampledOut.increment();
+                return false;
+            }
+            if (queue.size() >= capacity) {
+                drop();
+                return false;
+            }
+            add(envelope);
+            return true;
+        }
+
+        /**
+         * Waits until the lowest queued sequence has been held for the reorder window, or for anything
+         * at all once the bus is closing.
+         */
+        private Envelope<?> take() throws InterruptedException {
+            lock.lock();
+            try {
+                while (true) {
+                    long now = System.nanoTime();
+                    Envelope<?> envelope = closed ? queue.pollFirst() : queue.poll(now);
+                    if (envelope != null) {
+                        notFull.signal();
+                        return envelope;
+                    }
+                    if (closed) {
+                        return null;
+                    }
+                    long wait = Math.min(queue.nanosUntilReady(now), TimeUnit.MILLISECONDS.toNanos(IDLE_POLL_MILLIS));
+                    notEmpty.awaitNanos(wait);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                Envelope<?> envelope;
+                try {
+                    envelope = take();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                if (envelope == null) {
+                    return;
+                }
+                envelope.deliver();
+                pending.decrementAndGet();
+            }
+        }
+    }
+
+    private static class Envelope<X> {
+        final Subscription<X> subscription;
+        final X value;
+        final long sequence;
+        final long publishedNanos;
+
+        Envelope(Subscription<X> subscription, X value, long sequence, long publishedNanos) {
+            this.subscription = subscription;
+            this.value = value;
+            this.sequence = sequence;
+            this.publishedNanos = publishedNanos;
+        }
+
+        void deliver() {
+            subscription.deliver(value, publishedNanos);
+        }
+    }
+
+    private static class Subscription<X> {
+        final String name;
+        final Consumer<X> listener;
+        final LongAdder delivered = new LongAdder();
+        final LongAdder failed = new LongAdder();
+        final LongAdder totalLatencyNanos = new LongAdder();
+        final AtomicLong maxLatencyNanos = new AtomicLong();
+
+        Subscription(String name, Consumer<X> listener) {
+            this.name = name;
+            this.listener = listener;
+        }
+
+        void deliver(X value, long publishedNanos) {
+            try {
+                listener.accept(value);
+            } catch (RuntimeException e) {
+                failed.increment();
+                log.warn("Listener " + name + " failed", e);
+            }
+            long latency = System.nanoTime() - publishedNanos;
+            delivered.increment();
+            totalLatencyNanos.add(latency);
+            maxLatencyNanos.accumulateAndGet(latency, Math::max);
+        }
+
+        ListenerStats stats() {
+            long count = delivered.sum();
+            long average = count == 0 ? 0 : totalLatencyNanos.sum() / count / 1_000;
+            return new ListenerStats(name, count, failed.sum(), average, maxLatencyNanos.get() / 1_000);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package co.uk.events;
+
+import co.uk.session.ListenerTrackingDevTools;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.Event;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * A group of listeners on one {@link DevTools} that its owner can remove again.
+ * <p>
+ * Selenium can only drop every listener of a connection at once with {@link DevTools#clearListeners()},
+ * which would take other components' listeners with it. {@link #close()} therefore mutes the group's
+ * callbacks and, on a {@link ListenerTrackingDevTools}, reports them as removed so they are not taken
+ * for a leak.
+ */
+public class DevToolsListeners implements AutoCloseable {
+
+    private final DevTools devTools;
+    private final List<String> methods = new CopyOnWriteArrayList<>();
+    private volatile boolean closed;
+
+    public DevToolsListeners(DevTools devTools) {
+        this.devTools = devTools;
+    }
+
+    public <X> void add(Event<X> event, Consumer<X> listener) {
+        add(event, (Long sequence, X value) -> listener.accept(value));
+    }
+
+    /**
+     * Registers a listener that also receives the message's CDP sequence number, see {@link SequenceBuffer}.
+     */
+    public <X> void add(Event<X> event, BiConsumer<Long, X> listener) {
+        if (closed) {
+            throw new IllegalStateException("Listeners already removed");
+        }
+        methods.add(event.getMethod());
+        devTools.addListener(event, (Long sequence, X value) -> {
+            if (!closed) {
+                listener.accept(sequence, value);
+            }
+        });
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (devTools instanceof ListenerTrackingDevTools) {
+            ((ListenerTrackingDevTools) devTools).removeListeners(methods);
+        }
+        methods.clear();
+    }
+}
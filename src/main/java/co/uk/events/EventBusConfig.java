@@ -0,0 +1,40 @@
+package co.uk.events;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Settings for {@link DevToolsEventBus}.
+ */
+@Getter
+@Builder
+public class EventBusConfig {
+
+    /** Total number of events buffered across all workers. */
+    @Builder.Default
+    private final int capacity = 8192;
+
+    /** Number of worker threads that run listeners. */
+    @Builder.Default
+    private final int workers = 2;
+
+    @Builder.Default
+    private final BackpressurePolicy policy = BackpressurePolicy.DROP_OLDEST;
+
+    /** Used by {@link BackpressurePolicy#BLOCK}. */
+    @Builder.Default
+    private final Duration blockTimeout = Duration.ofSeconds(1);
+
+    /** Used by {@link BackpressurePolicy#SAMPLE}: keep one event out of this many under pressure. */
+    @Builder.Default
+    private final int sampleRate = 10;
+
+    /**
+     * How long each event waits for events with a lower CDP sequence before it is delivered. Selenium
+     * dispatches messages on a thread pool, so siblings usually show up within a millisecond or two.
+     */
+    @Builder.Default
+    private final Duration reorderWindow = Duration.ofMillis(10);
+}
@@ -0,0 +1,20 @@
+package co.uk.events;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Snapshot of {@link DevToolsEventBus} counters.
+ */
+@Value
+public class EventBusMetrics {
+    int queueDepth;
+    int maxQueueDepth;
+    long published;
+    long dropped;
+    long sampledOut;
+    /** Events delivered after a later event of the same lane, because they arrived past the reorder window. */
+    long lateEvents;
+    List<ListenerStats> listeners;
+}
@@ -0,0 +1,17 @@
+package co.uk.events;
+
+import lombok.Value;
+
+/**
+ * Delivery figures for one listener registered on {@link DevToolsEventBus}.
+ * Latency is measured from the moment the event reached the bus until the listener returned, so it
+ * includes the reorder window.
+ */
+@Value
+public class ListenerStats {
+    String name;
+    long delivered;
+    long failed;
+    long averageLatencyMicros;
+    long maxLatencyMicros;
+}
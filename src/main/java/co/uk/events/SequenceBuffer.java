@@ -0,0 +1,95 @@
+package co.uk.events;
+
+import java.util.PriorityQueue;
+
+/**
+ * Puts CDP messages back into the order the browser sent them.
+ * <p>
+ * Selenium numbers every incoming message on its socket reader and then hands it to a cached thread
+ * pool, so listeners can run in any order. The numbers are shared by all connections and commands, so
+ * a gap does not mean a message is missing: each value is held for a short window, and the lowest
+ * sequence is released once it has waited that long. A value that shows up after a higher sequence
+ * was already released is still returned, but counted as late.
+ * <p>
+ * Not thread-safe; callers hold their own lock.
+ */
+public class SequenceBuffer<T> {
+
+    private final long windowNanos;
+    private final PriorityQueue<Held<T>> held = new PriorityQueue<>();
+    private long lastReleased = Long.MIN_VALUE;
+    private long late;
+
+    public SequenceBuffer(long windowNanos) {
+        this.windowNanos = windowNanos;
+    }
+
+    public void add(long sequence, T value, long nowNanos) {
+        if (sequence < lastReleased) {
+            late++;
+        }
+        held.add(new Held<>(sequence, value, nowNanos));
+    }
+
+    /**
+     * The lowest sequence if it has been held for the whole window, otherwise {@code null}.
+     */
+    public T poll(long nowNanos) {
+        return nanosUntilReady(nowNanos) == 0 ? pollFirst() : null;
+    }
+
+    /**
+     * The lowest sequence without waiting, e.g. when the consumer is shutting down or evicting.
+     */
+    public T pollFirst() {
+        Held<T> first = held.poll();
+        if (first == null) {
+            return null;
+        }
+        lastReleased = Math.max(lastReleased, first.sequence);
+        return first.value;
+    }
+
+    /**
+     * How long until {@link #poll} returns something: 0 if it would now, {@code Long.MAX_VALUE} if empty.
+     */
+    public long nanosUntilReady(long nowNanos) {
+        Held<T> first = held.peek();
+        if (first == null) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, first.addedNanos + windowNanos - nowNanos);
+    }
+
+    public int size() {
+        return held.size();
+    }
+
+    public boolean isEmpty() {
+        return held.isEmpty();
+    }
+
+    /**
+     * Values that arrived after a higher sequence had been released.
+     */
+    public long getLate() {
+        return late;
+    }
+
+    private static final class Held<T> implements Comparable<Held<T>> {
+        final long sequence;
+        final T value;
+        final long addedNanos;
+
+        Held(long sequence, T value, long addedNanos) {
+            this.sequence = sequence;
+            this.value = value;
+            this.addedNanos = addedNanos;
+        }
+
+        @Override
+        public int compareTo(Held<T> other) {
+            return Long.compare(sequence, other.sequence);
+        }
+    }
+}
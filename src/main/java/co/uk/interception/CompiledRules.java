@@ -0,0 +1,138 @@
+package co.uk.interception;
+
+import org.openqa.selenium.devtools.v126.fetch.model.RequestPattern;
+import org.openqa.selenium.devtools.v126.fetch.model.RequestStage;
+import org.openqa.selenium.devtools.v126.network.model.ResourceType;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A rule list split into what the browser can filter by itself and what the client has to decide.
+ * <ul>
+ *     <li>Plain URL blocks (no resource type, request stage, only {@code *} wildcards) become
+ *     {@code Network.setBlockedURLs} entries: those requests never pause. A block that an earlier
+ *     non-block rule could shadow stays on the Fetch path, so first-match-wins still holds.</li>
+ *     <li>Every other rule becomes a {@code Fetch.RequestPattern}, so only requests some rule could
+ *     match are paused, and is added to one {@link GlobAutomaton} that finds the first matching rule.</li>
+ * </ul>
+ */
+public class CompiledRules {
+
+    private final List<String> blockedUrls = new ArrayList<>();
+    private final List<InterceptRule> blockedRules = new ArrayList<>();
+    private final List<InterceptRule> fetchRules = new ArrayList<>();
+    private final List<RequestPattern> fetchPatterns;
+    private final GlobAutomaton automaton;
+    private final GlobAutomaton blockedAutomaton;
+
+    private CompiledRules(List<InterceptRule> rules) {
+        Map<String, RequestPattern> patterns = new LinkedHashMap<>();
+        List<String> shadowingGlobs = new ArrayList<>();
+        for (InterceptRule rule : rules) {
+            validate(rule);
+            if (canPushToNetwork(rule) && !isShadowed(rule, shadowingGlobs)) {
+                blockedUrls.add(rule.getUrlGlob());
+                blockedRules.add(rule);
+                continue;
+            }
+            fetchRules.add(rule);
+            if (rule.getAction() != RuleAction.BLOCK && rule.getStage() == RequestStage.REQUEST) {
+                shadowingGlobs.add(rule.getUrlGlob());
+            }
+            String key = rule.getUrlGlob() + '|' + rule.getResourceType() + '|' + rule.getStage();
+            patterns.putIfAbsent(key, new RequestPattern(Optional.of(rule.getUrlGlob()),
+                    Optional.ofNullable(rule.getResourceType()), Optional.of(rule.getStage())));
+        }
+        List<String> globs = new ArrayList<>(fetchRules.size());
+        for (InterceptRule rule : fetchRules) {
+            globs.add(rule.getUrlGlob());
+        }
+        this.fetchPatterns = new ArrayList<>(patterns.values());
+        this.automaton = new GlobAutomaton(globs);
+        this.blockedAutomaton = new GlobAutomaton(blockedUrls);
+    }
+
+    public static CompiledRules compile(List<InterceptRule> rules) {
+        return new CompiledRules(rules);
+    }
+
+    private static void validate(InterceptRule rule) {
+        if (rule.getAction() == null || rule.getUrlGlob() == null) {
+            throw new IllegalArgumentException("Rule needs an action and a URL glob: " + rule);
+        }
+        if (rule.getAction() == RuleAction.REWRITE && rule.getStage() != RequestStage.REQUEST) {
+            throw new IllegalArgumentException("Rewrite rules only apply at the request stage: " + rule);
+        }
+    }
+
+    private static boolean canPushToNetwork(InterceptRule rule) {
+        return rule.getAction() == RuleAction.BLOCK
+                && rule.getResourceType() == null
+                && rule.getStage() == RequestStage.REQUEST
+                && rule.getUrlGlob().indexOf('?') < 0
+                && rule.getUrlGlob().indexOf('\\') < 0;
+    }
+
+    /**
+     * Network blocking happens before Fetch ever sees a request, so it would skip any earlier
+     * request-stage rule that lets the same URL through or answers it differently.
+     */
+    private static boolean isShadowed(InterceptRule block, List<String> earlierGlobs) {
+        for (String glob : earlierGlobs) {
+            if (GlobAutomaton.overlaps(glob, block.getUrlGlob())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * First rule, in declaration order, that matches the paused request.
+     */
+    public Optional<InterceptRule> match(String url, ResourceType resourceType, RequestStage stage) {
+        BitSet candidates = automaton.match(url);
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            InterceptRule rule = fetchRules.get(i);
+            if (rule.getStage() == stage && (rule.getResourceType() == null || rule.getResourceType() == resourceType)) {
+                return Optional.of(rule);
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * First rule pushed to {@code Network.setBlockedURLs} that matches a request the browser blocked.
+     */
+    public Optional<InterceptRule> matchBlocked(String url) {
+        int first = blockedAutomaton.match(url).nextSetBit(0);
+        return first < 0 ? Optional.empty() : Optional.of(blockedRules.get(first));
+    }
+
+    /**
+     * URL patterns for {@code Network.setBlockedURLs}.
+     */
+    public List<String> getBlockedUrls() {
+        return Collections.unmodifiableList(blockedUrls);
+    }
+
+    /**
+     * Patterns for {@code Fetch.enable}; empty means Fetch does not need to be enabled at all.
+     */
+    public List<RequestPattern> getFetchPatterns() {
+        return Collections.unmodifiableList(fetchPatterns);
+    }
+
+    List<InterceptRule> getFetchRules() {
+        return fetchRules;
+    }
+
+    List<InterceptRule> getBlockedRules() {
+        return blockedRules;
+    }
+}
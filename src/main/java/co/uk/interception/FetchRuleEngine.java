@@ -0,0 +1,244 @@
+package co.uk.interception;
+
+import co.uk.events.DevToolsListeners;
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.v126.fetch.Fetch;
+import org.openqa.selenium.devtools.v126.fetch.model.HeaderEntry;
+import org.openqa.selenium.devtools.v126.fetch.model.RequestPaused;
+import org.openqa.selenium.devtools.v126.fetch.model.RequestStage;
+import org.openqa.selenium.devtools.v126.network.Network;
+import org.openqa.selenium.devtools.v126.network.model.ErrorReason;
+import org.openqa.selenium.devtools.v126.network.model.LoadingFailed;
+import org.openqa.selenium.devtools.v126.network.model.RequestWillBeSent;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Applies a list of {@link InterceptRule}s to the page's traffic.
+ * <p>
+ * As much filtering as possible happens in the browser (see {@link CompiledRules}); requests that no
+ * rule can match never pause. For the ones that do, the decision is a single automaton lookup on the
+ * CDP thread, and the continuation is sent without waiting for Chrome's reply, so the reader thread
+ * is never blocked by interception.
+ * <p>
+ * Requests blocked by the browser itself never reach Fetch; they are counted as hits of their rule
+ * when {@code Network.loadingFailed} reports a {@code blockedReason}. That event carries no URL, so the
+ * URL comes from {@code requestWillBeSent}, which Selenium may deliver before or after it.
+ */
+@Slf4j
+public class FetchRuleEngine implements AutoCloseable {
+
+    private static final int MAX_TRACKED_REQUESTS = 4096;
+
+    private final DevTools devTools;
+    private final CompiledRules rules;
+    private final Map<InterceptRule, MockResponse> mocks = new IdentityHashMap<>();
+    private final Map<InterceptRule, AtomicLong> hits = new IdentityHashMap<>();
+    private final AtomicLong paused = new AtomicLong();
+    private final AtomicLong unmatched = new AtomicLong();
+    private final DevToolsListeners listeners;
+    private final Map<String, String> urls = boundedMap();
+    private final Map<String, Boolean> blockedBeforeSent = boundedMap();
+
+    private boolean fetchEnabled;
+    private boolean blockedUrlsSet;
+
+    public FetchRuleEngine(DevTools devTools, List<InterceptRule> rules) {
+        this.devTools = devTools;
+        this.rules = CompiledRules.compile(rules);
+        this.listeners = new DevToolsListeners(devTools);
+        for (InterceptRule rule : this.rules.getBlockedRules()) {
+            hits.put(rule, new AtomicLong());
+        }
+        for (InterceptRule rule : this.rules.getFetchRules()) {
+            hits.put(rule, new AtomicLong());
+            if (rule.getAction() == RuleAction.MOCK) {
+                mocks.put(rule, new MockResponse(rule));
+            }
+        }
+    }
+
+    /**
+     * Pushes the blocked URLs and Fetch patterns to the browser and starts handling paused requests.
+     */
+    public void start() {
+        if (!rules.getBlockedUrls().isEmpty()) {
+            listeners.add(Network.requestWillBeSent(), this::onRequestWillBeSent);
+            listeners.add(Network.loadingFailed(), this::onLoadingFailed);
+            devTools.send(Network.enable(Optional.empty(), Optional.empty(), Optional.empty()));
+            devTools.send(Network.setBlockedURLs(rules.getBlockedUrls()));
+            blockedUrlsSet = true;
+        }
+        if (!rules.getFetchPatterns().isEmpty()) {
+            listeners.add(Fetch.requestPaused(), this::onRequestPaused);
+            devTools.send(Fetch.enable(Optional.of(rules.getFetchPatterns()), Optional.of(false)));
+            fetchEnabled = true;
+        }
+        log.info("Interception started: " + rules.getBlockedUrls().size() + " URL blocks in the browser, "
+                + rules.getFetchPatterns().size() + " Fetch patterns");
+    }
+
+    public void onRequestPaused(RequestPaused request) {
+        paused.incrementAndGet();
+        RequestStage stage = request.getResponseStatusCode().isPresent() || request.getResponseErrorReason().isPresent()
+                ? RequestStage.RESPONSE : RequestStage.REQUEST;
+        Optional<InterceptRule> match = rules.match(request.getRequest().getUrl(), request.getResourceType(), stage);
+        if (match.isEmpty()) {
+            unmatched.incrementAndGet();
+            sendWithoutWaiting(stage == RequestStage.RESPONSE ? continueResponse(request) : continueRequest(request));
+            return;
+        }
+        InterceptRule rule = match.get();
+        hits.get(rule).incrementAndGet();
+        switch (rule.getAction()) {
+            case MOCK:
+                MockResponse mock = mocks.get(rule);
+                sendWithoutWaiting(Fetch.fulfillRequest(request.getRequestId(), rule.getStatus(),
+                        Optional.of(mock.headers), Optional.empty(), mock.body, Optional.empty()));
+                break;
+            case BLOCK:
+                sendWithoutWaiting(Fetch.failRequest(request.getRequestId(), ErrorReason.BLOCKEDBYCLIENT));
+                break;
+            case REWRITE:
+                sendWithoutWaiting(Fetch.continueRequest(request.getRequestId(), Optional.ofNullable(rule.getRewriteUrl()),
+                        Optional.empty(), Optional.empty(), rewrittenHeaders(request, rule), Optional.empty()));
+                break;
+            case CONTINUE:
+            default:
+                sendWithoutWaiting(stage == RequestStage.RESPONSE ? continueResponse(request) : continueRequest(request));
+                break;
+        }
+    }
+
+    public void onRequestWillBeSent(RequestWillBeSent event) {
+        String id = event.getRequestId().toString();
+        String url = event.getRequest().getUrl();
+        synchronized (urls) {
+            if (blockedBeforeSent.remove(id) == null) {
+                urls.put(id, url);
+                return;
+            }
+        }
+        countBlocked(url);
+    }
+
+    public void onLoadingFailed(LoadingFailed event) {
+        if (event.getBlockedReason().isEmpty()) {
+            return;
+        }
+        String id = event.getRequestId().toString();
+        String url;
+        synchronized (urls) {
+            url = urls.remove(id);
+            if (url == null) {
+                blockedBeforeSent.put(id, Boolean.TRUE);
+                return;
+            }
+        }
+        countBlocked(url);
+    }
+
+    private void countBlocked(String url) {
+        rules.matchBlocked(url).ifPresent(rule -> hits.get(rule).incrementAndGet());
+    }
+
+    private static <V> Map<String, V> boundedMap() {
+        return new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                return size() > MAX_TRACKED_REQUESTS;
+            }
+        };
+    }
+
+    private static Command<Void> continueRequest(RequestPaused request) {
+        return Fetch.continueRequest(request.getRequestId(), Optional.empty(), Optional.empty(), Optional.empty(),
+                Optional.empty(), Optional.empty());
+    }
+
+    private static Command<Void> continueResponse(RequestPaused request) {
+        return Fetch.continueResponse(request.getRequestId(), Optional.empty(), Optional.empty(), Optional.empty(),
+                Optional.empty());
+    }
+
+    private static Optional<List<HeaderEntry>> rewrittenHeaders(RequestPaused request, InterceptRule rule) {
+        if (rule.getHeaders().isEmpty()) {
+            return Optional.empty();
+        }
+        List<HeaderEntry> headers = new ArrayList<>();
+        request.getRequest().getHeaders().toJson().forEach((name, value) -> {
+            if (!rule.getHeaders().containsKey(name)) {
+                headers.add(new HeaderEntry(name, String.valueOf(value)));
+            }
+        });
+        rule.getHeaders().forEach((name, value) -> headers.add(new HeaderEntry(name, value)));
+        return Optional.of(headers);
+    }
+
+    /**
+     * Writes the command to the socket and returns; Chrome's (empty) reply is ignored.
+     */
+    private void sendWithoutWaiting(Command<Void> command) {
+        try {
+            devTools.send(command.doesNotSendResponse());
+        } catch (RuntimeException e) {
+            log.warn("Could not send " + command.getMethod(), e);
+        }
+    }
+
+    public long getPausedRequests() {
+        return paused.get();
+    }
+
+    public long getUnmatchedRequests() {
+        return unmatched.get();
+    }
+
+    /**
+     * Requests the rule handled, on the Fetch path or blocked by the browser.
+     */
+    public long getHits(InterceptRule rule) {
+        AtomicLong count = hits.get(rule);
+        return count == null ? 0 : count.get();
+    }
+
+    public CompiledRules getRules() {
+        return rules;
+    }
+
+    @Override
+    public void close() {
+        listeners.close();
+        if (fetchEnabled) {
+            devTools.send(Fetch.disable());
+        }
+        if (blockedUrlsSet) {
+            devTools.send(Network.setBlockedURLs(List.of()));
+        }
+        log.info("Interception stopped: " + paused.get() + " requests paused, " + unmatched.get() + " without a matching rule");
+    }
+
+    /**
+     * Headers and base64 body of a mock rule, prepared once instead of per request.
+     */
+    private static class MockResponse {
+        final List<HeaderEntry> headers = new ArrayList<>();
+        final Optional<String> body;
+
+        MockResponse(InterceptRule rule) {
+            rule.getHeaders().forEach((name, value) -> headers.add(new HeaderEntry(name, value)));
+            body = Optional.ofNullable(rule.getBody())
+                    .map(text -> Base64.getEncoder().encodeToString(text.getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+}
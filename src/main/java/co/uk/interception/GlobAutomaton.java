@@ -0,0 +1,156 @@
+package co.uk.interception;
+
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Matches a URL against many {@code Fetch.RequestPattern} style globs in a single pass.
+ * <p>
+ * All globs are laid out in one token array and simulated together as an NFA: the active set holds
+ * one bit per (glob, position) pair and advances once per URL character. Matching costs
+ * O(url length x total glob length) in the worst case and stops early once no glob can match any more.
+ */
+class GlobAutomaton {
+
+    private static final int STAR = -1;
+    private static final int ANY = -2;
+    private static final int END = -3;
+
+    private final int[] tokens;
+    private final int[] acceptPositions;
+    private final BitSet starts = new BitSet();
+
+    GlobAutomaton(List<String> globs) {
+        int size = 0;
+        int[][] compiled = new int[globs.size()][];
+        for (int i = 0; i < compiled.length; i++) {
+            compiled[i] = tokenize(globs.get(i));
+            size += compiled[i].length + 1;
+        }
+        tokens = new int[size];
+        acceptPositions = new int[compiled.length];
+        int position = 0;
+        for (int i = 0; i < compiled.length; i++) {
+            starts.set(position);
+            System.arraycopy(compiled[i], 0, tokens, position, compiled[i].length);
+            position += compiled[i].length;
+            tokens[position] = END;
+            acceptPositions[i] = position;
+            position++;
+        }
+        closeOverStars(starts);
+    }
+
+    /**
+     * @return the indexes of every glob that matches the whole URL
+     */
+    BitSet match(CharSequence url) {
+        BitSet active = (BitSet) starts.clone();
+        BitSet next = new BitSet(tokens.length);
+        for (int i = 0; i < url.length() && !active.isEmpty(); i++) {
+            char c = url.charAt(i);
+            next.clear();
+            for (int p = active.nextSetBit(0); p >= 0; p = active.nextSetBit(p + 1)) {
+                int token = tokens[p];
+                if (token == STAR) {
+                    next.set(p);
+                } else if (token == ANY || token == c) {
+                    next.set(p + 1);
+                }
+            }
+            closeOverStars(next);
+            BitSet swap = active;
+            active = next;
+            next = swap;
+        }
+        BitSet matches = new BitSet(acceptPositions.length);
+        for (int rule = 0; rule < acceptPositions.length; rule++) {
+            if (active.get(acceptPositions[rule])) {
+                matches.set(rule);
+            }
+        }
+        return matches;
+    }
+
+    /**
+     * Whether some URL matches both globs, decided by walking the product of their token sequences.
+     * A state is a pair of positions; stars may be skipped on either side, and both sides advance
+     * together whenever their next tokens can accept a common character.
+     */
+    static boolean overlaps(String first, String second) {
+        int[] a = tokenize(first);
+        int[] b = tokenize(second);
+        int width = b.length + 1;
+        boolean[] seen = new boolean[(a.length + 1) * width];
+        Deque<int[]> pending = new ArrayDeque<>();
+        pending.add(new int[]{0, 0});
+        seen[0] = true;
+        while (!pending.isEmpty()) {
+            int[] state = pending.poll();
+            int i = state[0];
+            int j = state[1];
+            if (i == a.length && j == b.length) {
+                return true;
+            }
+            boolean starA = i < a.length && a[i] == STAR;
+            boolean starB = j < b.length && b[j] == STAR;
+            if (starA) {
+                visit(i + 1, j, width, seen, pending);
+            }
+            if (starB) {
+                visit(i, j + 1, width, seen, pending);
+            }
+            if (i < a.length && j < b.length && !(starA && starB) && acceptCommonChar(a[i], b[j])) {
+                visit(starA ? i : i + 1, starB ? j : j + 1, width, seen, pending);
+            }
+        }
+        return false;
+    }
+
+    private static boolean acceptCommonChar(int a, int b) {
+        return a < 0 || b < 0 || a == b;
+    }
+
+    private static void visit(int i, int j, int width, boolean[] seen, Deque<int[]> pending) {
+        if (!seen[i * width + j]) {
+            seen[i * width + j] = true;
+            pending.add(new int[]{i, j});
+        }
+    }
+
+    /**
+     * A star may match nothing, so reaching it also reaches the position after it.
+     */
+    private void closeOverStars(BitSet positions) {
+        for (int p = positions.nextSetBit(0); p >= 0; p = positions.nextSetBit(p + 1)) {
+            if (tokens[p] == STAR) {
+                positions.set(p + 1);
+            }
+        }
+    }
+
+    private static int[] tokenize(String glob) {
+        int[] out = new int[glob.length()];
+        int n = 0;
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            if (c == '\\' && i + 1 < glob.length()) {
+                out[n++] = glob.charAt(++i);
+            } else if (c == '*') {
+                // Consecutive stars behave like one.
+                if (n == 0 || out[n - 1] != STAR) {
+                    out[n++] = STAR;
+                }
+            } else if (c == '?') {
+                out[n++] = ANY;
+            } else {
+                out[n++] = c;
+            }
+        }
+        int[] trimmed = new int[n];
+        System.arraycopy(out, 0, trimmed, 0, n);
+        return trimmed;
+    }
+}
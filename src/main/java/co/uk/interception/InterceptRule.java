@@ -0,0 +1,68 @@
+package co.uk.interception;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Singular;
+import org.openqa.selenium.devtools.v126.fetch.model.RequestStage;
+import org.openqa.selenium.devtools.v126.network.model.ResourceType;
+
+import java.util.Map;
+
+/**
+ * One declarative interception rule for {@link FetchRuleEngine}.
+ * <p>
+ * {@code urlGlob} uses the same syntax as {@code Fetch.RequestPattern}: {@code *} matches any run of
+ * characters, {@code ?} exactly one, and a backslash escapes the next character. Rules are tried in
+ * the order they were given, the first match wins.
+ */
+@Getter
+@Builder(toBuilder = true)
+public class InterceptRule {
+
+    private final RuleAction action;
+    private final String urlGlob;
+    /** Restricts the rule to one resource type; {@code null} matches every type. */
+    private final ResourceType resourceType;
+    @Builder.Default
+    private final RequestStage stage = RequestStage.REQUEST;
+
+    // MOCK
+    @Builder.Default
+    private final int status = 200;
+    @Singular
+    private final Map<String, String> headers;
+    private final String body;
+
+    // REWRITE
+    private final String rewriteUrl;
+
+    public static InterceptRule block(String urlGlob) {
+        return builder().action(RuleAction.BLOCK).urlGlob(urlGlob).build();
+    }
+
+    public static InterceptRule mock(String urlGlob, int status, String contentType, String body) {
+        return builder().action(RuleAction.MOCK).urlGlob(urlGlob).status(status)
+                .header("Content-Type", contentType).body(body).build();
+    }
+
+    public static InterceptRule rewrite(String urlGlob, String rewriteUrl) {
+        return builder().action(RuleAction.REWRITE).urlGlob(urlGlob).rewriteUrl(rewriteUrl).build();
+    }
+
+    public static InterceptRule pass(String urlGlob) {
+        return builder().action(RuleAction.CONTINUE).urlGlob(urlGlob).build();
+    }
+
+    public InterceptRule forResourceType(ResourceType type) {
+        return toBuilder().resourceType(type).build();
+    }
+
+    public InterceptRule atStage(RequestStage requestStage) {
+        return toBuilder().stage(requestStage).build();
+    }
+
+    @Override
+    public String toString() {
+        return action + " " + urlGlob + (resourceType == null ? "" : " [" + resourceType + "]") + " @" + stage;
+    }
+}
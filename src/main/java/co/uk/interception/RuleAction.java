@@ -0,0 +1,15 @@
+package co.uk.interception;
+
+/**
+ * What an {@link InterceptRule} does with a request it matches.
+ */
+public enum RuleAction {
+    /** Answer the request from the rule without touching the network. */
+    MOCK,
+    /** Fail the request as blocked by the client. */
+    BLOCK,
+    /** Send the request on with a different URL and/or extra headers. */
+    REWRITE,
+    /** Let the request through unchanged; shadows later rules for the same URLs. */
+    CONTINUE
+}
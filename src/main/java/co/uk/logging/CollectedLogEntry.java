@@ -0,0 +1,47 @@
+package co.uk.logging;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.openqa.selenium.devtools.v126.log.model.LogEntry;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One distinct log message and how often it was logged.
+ */
+@Getter
+public class CollectedLogEntry {
+
+    private final LogEntry.Source source;
+    private final LogEntry.Level level;
+    private final String text;
+    private final String url;
+    private final Integer lineNumber;
+    /** Browser timestamp of the first occurrence, milliseconds since epoch. */
+    private final double firstTimestamp;
+    private final LongAdder occurrences = new LongAdder();
+    /** Level, source and text, as the collector folds repeats by them. */
+    @Getter(AccessLevel.NONE)
+    final String key;
+
+    CollectedLogEntry(LogEntry entry, String key) {
+        this.key = key;
+        this.source = entry.getSource();
+        this.level = entry.getLevel();
+        this.text = entry.getText();
+        this.url = entry.getUrl().orElse(null);
+        this.lineNumber = entry.getLineNumber().orElse(null);
+        this.firstTimestamp = entry.getTimestamp().toJson().doubleValue();
+        occurrences.increment();
+    }
+
+    public long getCount() {
+        return occurrences.sum();
+    }
+
+    @Override
+    public String toString() {
+        return "[" + level + "] " + source + (getCount() > 1 ? " x" + getCount() : "") + ": " + text
+                + (url == null ? "" : " (" + url + (lineNumber == null ? "" : ":" + lineNumber) + ")");
+    }
+}
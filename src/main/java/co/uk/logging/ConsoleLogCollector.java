@@ -0,0 +1,170 @@
+package co.uk.logging;
+
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.v126.log.Log;
+import org.openqa.selenium.devtools.v126.log.model.LogEntry;
+import org.openqa.selenium.devtools.v126.log.model.ViolationSetting;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps a session's {@code Log.entryAdded} messages in memory instead of printing them.
+ * <p>
+ * The listener filters by level and source, folds repeats of a message into a count and stores new
+ * messages in a fixed-size lock-free ring, so a noisy page costs a map lookup per entry and no I/O.
+ * A message pushed out of the ring is forgotten, so its next repeat is stored again as a new entry.
+ * The buffer is written out with {@link #writeReport(Path)}, typically only when the test failed.
+ */
+@Slf4j
+public class ConsoleLogCollector implements AutoCloseable {
+
+    private final DevTools devTools;
+    private final LogCollectorConfig config;
+    private final boolean[] keepLevel = new boolean[LogEntry.Level.values().length];
+    private final boolean[] keepSource = new boolean[LogEntry.Source.values().length];
+    private final LogRing<CollectedLogEntry> ring;
+    private final Map<String, CollectedLogEntry> distinct = new ConcurrentHashMap<>();
+
+    private final LongAdder received = new LongAdder();
+    private final LongAdder filtered = new LongAdder();
+    private final LongAdder[] perLevel = new LongAdder[LogEntry.Level.values().length];
+
+    private boolean started;
+
+    public ConsoleLogCollector(DevTools devTools) {
+        this(devTools, LogCollectorConfig.builder().build());
+    }
+
+    public ConsoleLogCollector(DevTools devTools, LogCollectorConfig config) {
+        this.devTools = devTools;
+        this.config = config;
+        this.ring = new LogRing<>(config.getCapacity());
+        for (LogEntry.Level level : LogEntry.Level.values()) {
+            keepLevel[level.ordinal()] = config.getLevels().isEmpty() || config.getLevels().contains(level);
+            perLevel[level.ordinal()] = new LongAdder();
+        }
+        for (LogEntry.Source source : LogEntry.Source.values()) {
+            keepSource[source.ordinal()] = config.getSources().isEmpty() || config.getSources().contains(source);
+        }
+    }
+
+    /**
+     * Enables the Log domain, the violations report if configured, and starts collecting.
+     */
+    public ConsoleLogCollector start() {
+        devTools.send(Log.enable());
+        if (!config.getViolations().isEmpty()) {
+            List<ViolationSetting> settings = new ArrayList<>();
+            config.getViolations().forEach((name, threshold) -> settings.add(new ViolationSetting(name, threshold)));
+            devTools.send(Log.startViolationsReport(settings));
+        }
+        devTools.addListener(Log.entryAdded(), this::onEntryAdded);
+        started = true;
+        return this;
+    }
+
+    public void onEntryAdded(LogEntry entry) {
+        received.increment();
+        perLevel[entry.getLevel().ordinal()].increment();
+        if (!keepLevel[entry.getLevel().ordinal()] || !keepSource[entry.getSource().ordinal()]) {
+            filtered.increment();
+            return;
+        }
+        String key = entry.getLevel() + "\u0000" + entry.getSource() + "\u0000" + entry.getText();
+        CollectedLogEntry known = distinct.get(key);
+        if (known != null) {
+            known.getOccurrences().increment();
+            return;
+        }
+        CollectedLogEntry collected = new CollectedLogEntry(entry, key);
+        if (distinct.size() < config.getMaxDistinctMessages()) {
+            known = distinct.putIfAbsent(key, collected);
+            if (known != null) {
+                known.getOccurrences().increment();
+                return;
+            }
+        }
+        CollectedLogEntry overwritten = ring.add(collected);
+        if (overwritten != null) {
+            // Otherwise later repeats would only count into an entry nobody can see any more.
+            distinct.remove(overwritten.key, overwritten);
+        }
+    }
+
+    /**
+     * Distinct messages still in the buffer, oldest first, with their counts.
+     */
+    public List<CollectedLogEntry> getEntries() {
+        return ring.snapshot();
+    }
+
+    public long getReceived() {
+        return received.sum();
+    }
+
+    public long getFiltered() {
+        return filtered.sum();
+    }
+
+    public long getCount(LogEntry.Level level) {
+        return perLevel[level.ordinal()].sum();
+    }
+
+    /**
+     * Distinct messages that no longer fit in the ring.
+     */
+    public long getOverwritten() {
+        return Math.max(0, ring.written() - ring.capacity());
+    }
+
+    public String summary() {
+        StringBuilder out = new StringBuilder();
+        out.append(received.sum()).append(" entries");
+        for (LogEntry.Level level : LogEntry.Level.values()) {
+            out.append(", ").append(level).append('=').append(perLevel[level.ordinal()].sum());
+        }
+        return out.append(", ").append(filtered.sum()).append(" filtered, ")
+                .append(getOverwritten()).append(" overwritten").toString();
+    }
+
+    public void writeReport(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write(summary());
+            out.newLine();
+            for (CollectedLogEntry entry : getEntries()) {
+                out.write(entry.toString());
+                out.newLine();
+            }
+        }
+    }
+
+    /**
+     * Stops the violations report and the Log domain; the collected entries stay readable.
+     */
+    @Override
+    public void close() {
+        if (!started) {
+            return;
+        }
+        started = false;
+        try {
+            if (!config.getViolations().isEmpty()) {
+                devTools.send(Log.stopViolationsReport());
+            }
+            devTools.send(Log.disable());
+        } catch (RuntimeException e) {
+            log.debug("Disabling the Log domain failed", e);
+        }
+    }
+}
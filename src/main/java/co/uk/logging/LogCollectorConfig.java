@@ -0,0 +1,41 @@
+package co.uk.logging;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Singular;
+import org.openqa.selenium.devtools.v126.log.model.LogEntry;
+import org.openqa.selenium.devtools.v126.log.model.ViolationSetting;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Settings for {@link ConsoleLogCollector}.
+ */
+@Getter
+@Builder
+public class LogCollectorConfig {
+
+    /** Distinct messages kept per session, rounded up to a power of two; the oldest are overwritten. */
+    @Builder.Default
+    private final int capacity = 1024;
+
+    /** Repeats of a message already seen only bump its count; beyond this many distinct messages they are stored again. */
+    @Builder.Default
+    private final int maxDistinctMessages = 4096;
+
+    /** Levels to keep; empty keeps all. */
+    @Singular
+    private final Set<LogEntry.Level> levels;
+
+    /** Sources to keep; empty keeps all. */
+    @Singular
+    private final Set<LogEntry.Source> sources;
+
+    /**
+     * {@code Log.startViolationsReport} thresholds in milliseconds, e.g. {@code LONGTASK -> 50};
+     * empty leaves the violations report off.
+     */
+    @Singular
+    private final Map<ViolationSetting.Name, Double> violations;
+}
@@ -0,0 +1,66 @@
+package co.uk.logging;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fixed-size, multi-producer ring without locks. Each writer claims a sequence number and owns that
+ * slot until the ring wraps; readers skip slots that were overwritten while they were reading.
+ */
+class LogRing<T> {
+
+    private final int mask;
+    private final AtomicReferenceArray<Slot<T>> slots;
+    private final AtomicLong next = new AtomicLong();
+
+    LogRing(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.mask = size - 1;
+        this.slots = new AtomicReferenceArray<>(size);
+    }
+
+    /**
+     * @return the value this one overwrote, or {@code null} while the ring has not wrapped yet
+     */
+    T add(T value) {
+        long sequence = next.getAndIncrement();
+        Slot<T> previous = slots.getAndSet((int) (sequence & mask), new Slot<>(sequence, value));
+        return previous == null ? null : previous.value;
+    }
+
+    /**
+     * Values still held, oldest first.
+     */
+    List<T> snapshot() {
+        long end = next.get();
+        long start = Math.max(0, end - slots.length());
+        List<T> out = new ArrayList<>((int) (end - start));
+        for (long sequence = start; sequence < end; sequence++) {
+            Slot<T> slot = slots.get((int) (sequence & mask));
+            if (slot != null && slot.sequence == sequence) {
+                out.add(slot.value);
+            }
+        }
+        return out;
+    }
+
+    long written() {
+        return next.get();
+    }
+
+    int capacity() {
+        return slots.length();
+    }
+
+    private static final class Slot<T> {
+        final long sequence;
+        final T value;
+
+        Slot(long sequence, T value) {
+            this.sequence = sequence;
+            this.value = value;
+        }
+    }
+}
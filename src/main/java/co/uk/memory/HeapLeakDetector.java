@@ -0,0 +1,96 @@
+package co.uk.memory;
+
+import co.uk.cdp.AsyncDevTools;
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.v126.heapprofiler.HeapProfiler;
+import org.openqa.selenium.devtools.v126.memory.Memory;
+import org.openqa.selenium.devtools.v126.runtime.Runtime;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Runs a flow repeatedly and checks whether it leaves memory behind.
+ * <p>
+ * After every iteration the detector forces garbage collection with {@code HeapProfiler.collectGarbage}
+ * and records the retained JS heap ({@code Runtime.getHeapUsage}) and the DOM document, node and
+ * listener counts ({@code Memory.getDOMCounters}). Once the warmup iterations are done, a least-squares
+ * trend is fitted to each series. A series is a leak when its slope exceeds the configured growth and it
+ * rose in most iterations. Only those counters stay in the JVM; on a confirmed leak the detector can
+ * stream a heap snapshot to disk for the DevTools Memory panel.
+ */
+@Slf4j
+public class HeapLeakDetector {
+
+    private final DevTools devTools;
+    private final LeakDetectorConfig config;
+    private final HeapSnapshotWriter snapshots;
+
+    public HeapLeakDetector(AsyncDevTools devTools) {
+        this(devTools, LeakDetectorConfig.builder().build());
+    }
+
+    /**
+     * Counters are read with blocking calls on {@code devTools.getDevTools()}; the snapshot goes through
+     * the async path so it can run longer than the blocking command timeout.
+     */
+    public HeapLeakDetector(AsyncDevTools devTools, LeakDetectorConfig config) {
+        if (config.getIterations() < 3 || config.getWarmupIterations() < 0 || config.getGcPasses() < 1) {
+            throw new IllegalArgumentException("Need iterations >= 3, warmupIterations >= 0 and gcPasses >= 1");
+        }
+        if (devTools.getDevTools() == null) {
+            throw new IllegalArgumentException("Leak detection needs an AsyncDevTools built with a DevTools instance");
+        }
+        this.devTools = devTools.getDevTools();
+        this.config = config;
+        this.snapshots = new HeapSnapshotWriter(devTools);
+    }
+
+    public LeakReport run(String name, LeakFlow flow) throws Exception {
+        devTools.send(HeapProfiler.enable());
+        try {
+            List<MemorySample> samples = new ArrayList<>(config.getIterations());
+            int total = config.getWarmupIterations() + config.getIterations();
+            for (int iteration = 0; iteration < total; iteration++) {
+                flow.run(iteration);
+                MemorySample sample = measure(iteration);
+                log.debug(name + " " + sample);
+                if (iteration >= config.getWarmupIterations()) {
+                    samples.add(sample);
+                }
+            }
+            LeakReport report = LeakReport.evaluate(name, samples, config);
+            if (report.isLeaking()) {
+                log.warn("Flow " + name + " leaks: " + String.join("; ", report.getReasons()));
+                if (config.isSnapshotOnLeak()) {
+                    report = report.withSnapshot(snapshot(name));
+                }
+            }
+            return report;
+        } finally {
+            devTools.send(HeapProfiler.disable());
+        }
+    }
+
+    /**
+     * Forces garbage collection and reads the counters on the calling thread.
+     */
+    public MemorySample measure(int iteration) {
+        for (int i = 0; i < config.getGcPasses(); i++) {
+            devTools.send(HeapProfiler.collectGarbage());
+        }
+        Runtime.GetHeapUsageResponse heap = devTools.send(Runtime.getHeapUsage());
+        Memory.GetDOMCountersResponse dom = devTools.send(Memory.getDOMCounters());
+        return new MemorySample(iteration, heap.getUsedSize().longValue(), heap.getTotalSize().longValue(),
+                dom.getDocuments(), dom.getNodes(), dom.getJsEventListeners());
+    }
+
+    private Path snapshot(String name) throws IOException {
+        Path file = config.getSnapshotDirectory()
+                .resolve(name.replaceAll("[^A-Za-z0-9._-]", "_") + "-" + System.currentTimeMillis() + ".heapsnapshot");
+        return snapshots.take(file, config.getSnapshotTimeout());
+    }
+}
@@ -0,0 +1,180 @@
+package co.uk.memory;
+
+import co.uk.cdp.AsyncDevTools;
+import co.uk.events.SequenceBuffer;
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.DevToolsException;
+import org.openqa.selenium.devtools.v126.heapprofiler.HeapProfiler;
+import org.openqa.selenium.devtools.v126.heapprofiler.model.ReportHeapSnapshotProgress;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Writes {@code HeapProfiler.addHeapSnapshotChunk} events straight to a {@code .heapsnapshot} file that
+ * the DevTools Memory panel can load. Chunks are written as they arrive, so the snapshot is never
+ * assembled in the JVM.
+ * <p>
+ * Selenium runs each chunk event on its own pool thread, so chunks can reach the writer out of order.
+ * They are put back into the order the browser sent them by CDP sequence number, each held for a short
+ * window in case an earlier one is still on its way. A chunk that shows up after a later one was
+ * already written would leave invalid JSON behind, so the snapshot fails instead.
+ * <p>
+ * The snapshot is sent with progress reports and the caller's timeout rather than the blocking 10 s
+ * {@link DevTools#send} default. It counts as complete once the browser reported it finished and answered
+ * the command; a snapshot that misses the deadline fails and its partial file is deleted.
+ */
+@Slf4j
+class HeapSnapshotWriter {
+
+    private static final long QUIET_MILLIS = 500;
+    private static final long REORDER_NANOS = TimeUnit.MILLISECONDS.toNanos(50);
+
+    private final AsyncDevTools devTools;
+    private final Object lock = new Object();
+    private Writer out;
+    private SequenceBuffer<String> chunks;
+    private long chars;
+    private long lastChunkNanos;
+    private CompletableFuture<Void> finished = new CompletableFuture<>();
+    private boolean listening;
+
+    HeapSnapshotWriter(AsyncDevTools devTools) {
+        this.devTools = devTools;
+    }
+
+    Path take(Path file, Duration timeout) throws IOException {
+        if (!listening) {
+            devTools.getDevTools().addListener(HeapProfiler.addHeapSnapshotChunk(),
+                    (Long sequence, String chunk) -> onChunk(sequence, chunk));
+            devTools.getDevTools().addListener(HeapProfiler.reportHeapSnapshotProgress(), this::onProgress);
+            listening = true;
+        }
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        synchronized (lock) {
+            out = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+            chunks = new SequenceBuffer<>(REORDER_NANOS);
+            chars = 0;
+            lastChunkNanos = System.nanoTime();
+            finished = done;
+        }
+        long deadline = System.nanoTime() + timeout.toNanos();
+        boolean complete = false;
+        try {
+            CompletableFuture<Void> command = devTools.send(HeapProfiler.takeHeapSnapshot(Optional.of(true),
+                    Optional.of(false), Optional.of(false), Optional.of(false)), timeout);
+            await(command, deadline, timeout);
+            await(done, deadline, timeout);
+            awaitQuiet(deadline, timeout);
+            synchronized (lock) {
+                writeChunks(true);
+                if (chunks.getLate() > 0) {
+                    throw new DevToolsException("Heap snapshot chunks arrived out of order by more than "
+                            + TimeUnit.NANOSECONDS.toMillis(REORDER_NANOS) + " ms");
+                }
+            }
+            complete = true;
+        } finally {
+            synchronized (lock) {
+                out.close();
+                out = null;
+                chunks = null;
+            }
+            if (!complete) {
+                Files.deleteIfExists(file);
+            }
+        }
+        log.info("Heap snapshot written to " + file + ": " + chars / 1024 + " K characters");
+        return file;
+    }
+
+    private static void await(CompletableFuture<Void> future, long deadline, Duration timeout) {
+        try {
+            future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new DevToolsException("Heap snapshot not finished after " + timeout.toMillis() + " ms", e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof DevToolsException ? (DevToolsException) e.getCause()
+                    : new DevToolsException("Heap snapshot failed", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DevToolsException("Interrupted while writing heap snapshot", e);
+        }
+    }
+
+    /**
+     * Chunk events are dispatched separately from the command response, so the last ones can arrive
+     * after {@code takeHeapSnapshot} returned; wait until they stop.
+     */
+    private void awaitQuiet(long deadline, Duration timeout) {
+        while (true) {
+            long idle;
+            synchronized (lock) {
+                writeChunks(false);
+                idle = (System.nanoTime() - lastChunkNanos) / 1_000_000;
+            }
+            if (idle >= QUIET_MILLIS) {
+                return;
+            }
+            if (System.nanoTime() > deadline) {
+                throw new DevToolsException("Heap snapshot still streaming after " + timeout.toMillis() + " ms");
+            }
+            try {
+                Thread.sleep(QUIET_MILLIS - idle);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new DevToolsException("Interrupted while writing heap snapshot", e);
+            }
+        }
+    }
+
+    private void onProgress(ReportHeapSnapshotProgress progress) {
+        if (progress.getFinished().orElse(false)) {
+            CompletableFuture<Void> current;
+            synchronized (lock) {
+                current = finished;
+            }
+            current.complete(null);
+        }
+    }
+
+    private void onChunk(long sequence, String chunk) {
+        synchronized (lock) {
+            if (out == null) {
+                return;
+            }
+            lastChunkNanos = System.nanoTime();
+            chunks.add(sequence, chunk, lastChunkNanos);
+            writeChunks(false);
+        }
+    }
+
+    /**
+     * Writes the chunks whose reorder window has passed, or all of them once the stream has ended.
+     * Called with {@code lock} held.
+     */
+    private void writeChunks(boolean all) {
+        long now = System.nanoTime();
+        try {
+            String chunk;
+            while ((chunk = all ? chunks.pollFirst() : chunks.poll(now)) != null) {
+                out.write(chunk);
+                chars += chunk.length();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write heap snapshot chunk", e);
+        }
+    }
+}
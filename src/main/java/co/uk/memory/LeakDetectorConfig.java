@@ -0,0 +1,52 @@
+package co.uk.memory;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Settings for {@link HeapLeakDetector}.
+ */
+@Getter
+@Builder
+public class LeakDetectorConfig {
+
+    /** Iterations run first and left out of the trend, while caches and lazy modules settle. */
+    @Builder.Default
+    private final int warmupIterations = 2;
+
+    /** Iterations measured after the warmup. */
+    @Builder.Default
+    private final int iterations = 8;
+
+    /** {@code HeapProfiler.collectGarbage} calls before each measurement; a second pass frees what finalizers released. */
+    @Builder.Default
+    private final int gcPasses = 2;
+
+    /** Retained heap must grow at least this much per iteration to count as a leak. */
+    @Builder.Default
+    private final long minHeapGrowthBytes = 100 * 1024;
+
+    @Builder.Default
+    private final double minNodeGrowth = 50;
+
+    @Builder.Default
+    private final double minListenerGrowth = 5;
+
+    /** Share of iterations that must end higher than the previous one, so one-off allocations are not flagged. */
+    @Builder.Default
+    private final double minIncreasingShare = 0.75;
+
+    /** Take a heap snapshot when a leak is confirmed. */
+    @Builder.Default
+    private final boolean snapshotOnLeak = false;
+
+    @Builder.Default
+    private final Path snapshotDirectory = Path.of("target", "heap-snapshots");
+
+    /** How long the snapshot may take, including the chunks still in flight after the command returns. */
+    @Builder.Default
+    private final Duration snapshotTimeout = Duration.ofMinutes(2);
+}
@@ -0,0 +1,10 @@
+package co.uk.memory;
+
+/**
+ * One pass through the flow under test, run repeatedly by {@link HeapLeakDetector}. It should end where
+ * it started (e.g. back on the same route), so anything it leaves behind is a leak.
+ */
+@FunctionalInterface
+public interface LeakFlow {
+    void run(int iteration) throws Exception;
+}
@@ -0,0 +1,65 @@
+package co.uk.memory;
+
+import lombok.Value;
+import lombok.With;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of a {@link HeapLeakDetector} run: the measured samples, their trends and why the flow
+ * was flagged, if it was.
+ */
+@Value
+public class LeakReport {
+    String flow;
+    List<MemorySample> samples;
+    LinearTrend heapTrend;
+    LinearTrend nodeTrend;
+    LinearTrend listenerTrend;
+    List<String> reasons;
+    /** Heap snapshot taken because of the leak, {@code null} if none was taken. */
+    @With
+    Path snapshot;
+
+    public static LeakReport evaluate(String flow, List<MemorySample> samples, LeakDetectorConfig config) {
+        double[] heap = new double[samples.size()];
+        double[] nodes = new double[samples.size()];
+        double[] listeners = new double[samples.size()];
+        for (int i = 0; i < samples.size(); i++) {
+            heap[i] = samples.get(i).getUsedHeapBytes();
+            nodes[i] = samples.get(i).getNodes();
+            listeners[i] = samples.get(i).getJsEventListeners();
+        }
+        LinearTrend heapTrend = LinearTrend.fit(heap);
+        LinearTrend nodeTrend = LinearTrend.fit(nodes);
+        LinearTrend listenerTrend = LinearTrend.fit(listeners);
+        List<String> reasons = new ArrayList<>();
+        check(reasons, "retained heap", "bytes", heapTrend, config.getMinHeapGrowthBytes(), config);
+        check(reasons, "DOM nodes", "nodes", nodeTrend, config.getMinNodeGrowth(), config);
+        check(reasons, "JS event listeners", "listeners", listenerTrend, config.getMinListenerGrowth(), config);
+        return new LeakReport(flow, Collections.unmodifiableList(new ArrayList<>(samples)), heapTrend, nodeTrend,
+                listenerTrend, Collections.unmodifiableList(reasons), null);
+    }
+
+    private static void check(List<String> reasons, String what, String unit, LinearTrend trend, double minGrowth,
+                              LeakDetectorConfig config) {
+        if (trend.getSlope() >= minGrowth && trend.getIncreasingShare() >= config.getMinIncreasingShare()) {
+            reasons.add(String.format("%s: +%.0f %s per iteration (up in %.0f%% of iterations, r² %.2f)",
+                    what, trend.getSlope(), unit, trend.getIncreasingShare() * 100, trend.getRSquared()));
+        }
+    }
+
+    public boolean isLeaking() {
+        return !reasons.isEmpty();
+    }
+
+    public void assertNoLeak() {
+        if (isLeaking()) {
+            throw new AssertionError("Flow " + flow + " leaks:\n" + String.join("\n", reasons)
+                    + (snapshot != null ? "\nHeap snapshot: " + snapshot : ""));
+        }
+    }
+}
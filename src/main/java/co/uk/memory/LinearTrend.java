@@ -0,0 +1,47 @@
+package co.uk.memory;
+
+import lombok.Value;
+
+/**
+ * Least-squares line through a series, plus the share of steps that went up.
+ */
+@Value
+public class LinearTrend {
+    /** Growth per iteration. */
+    double slope;
+    double intercept;
+    /** How well the line explains the series, 0 to 1. */
+    double rSquared;
+    /** Share of consecutive pairs where the value increased. */
+    double increasingShare;
+
+    public static LinearTrend fit(double[] values) {
+        int n = values.length;
+        if (n < 2) {
+            return new LinearTrend(0, n == 1 ? values[0] : 0, 0, 0);
+        }
+        double meanX = (n - 1) / 2.0;
+        double meanY = 0;
+        for (double value : values) {
+            meanY += value;
+        }
+        meanY /= n;
+        double covariance = 0;
+        double varianceX = 0;
+        double varianceY = 0;
+        int increases = 0;
+        for (int i = 0; i < n; i++) {
+            double dx = i - meanX;
+            double dy = values[i] - meanY;
+            covariance += dx * dy;
+            varianceX += dx * dx;
+            varianceY += dy * dy;
+            if (i > 0 && values[i] > values[i - 1]) {
+                increases++;
+            }
+        }
+        double slope = covariance / varianceX;
+        double rSquared = varianceY == 0 ? 0 : covariance * covariance / (varianceX * varianceY);
+        return new LinearTrend(slope, meanY - slope * meanX, rSquared, (double) increases / (n - 1));
+    }
+}
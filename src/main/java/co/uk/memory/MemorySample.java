@@ -0,0 +1,16 @@
+package co.uk.memory;
+
+import lombok.Value;
+
+/**
+ * Heap and DOM counters after one iteration and a forced GC.
+ */
+@Value
+public class MemorySample {
+    int iteration;
+    long usedHeapBytes;
+    long totalHeapBytes;
+    int documents;
+    int nodes;
+    int jsEventListeners;
+}
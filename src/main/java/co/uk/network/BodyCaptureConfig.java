@@ -0,0 +1,57 @@
+package co.uk.network;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Singular;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Settings for {@link ResponseBodyCapture}.
+ */
+@Getter
+@Builder
+public class BodyCaptureConfig {
+
+    /** Only responses whose URL contains a match are fetched. */
+    @Builder.Default
+    private final Pattern urlPattern = Pattern.compile(".*");
+
+    /** MIME type prefixes to fetch, e.g. {@code application/json}; empty means every type. */
+    @Singular
+    private final Set<String> mimeTypes;
+
+    /** Maximum number of {@code Network.getResponseBody} calls outstanding at once. */
+    @Builder.Default
+    private final int maxInFlight = 4;
+
+    /** Bodies waiting for a fetch slot; further matches are skipped and reported as failed. */
+    @Builder.Default
+    private final int maxQueued = 256;
+
+    /** Bodies are truncated to this many decoded bytes. */
+    @Builder.Default
+    private final long maxBodyBytes = 16L * 1024 * 1024;
+
+    /** Bodies larger than this go to a memory-mapped temp file instead of the heap. */
+    @Builder.Default
+    private final long spillThresholdBytes = 256 * 1024;
+
+    /** Heap budget for all in-memory bodies together; beyond it every body spills. */
+    @Builder.Default
+    private final long maxHeapBytes = 32L * 1024 * 1024;
+
+    /** Where spilled bodies are written; {@code null} means the system temp directory. */
+    private final Path spillDirectory;
+
+    /** How long a handle waits for its body before giving up. */
+    @Builder.Default
+    private final Duration fetchTimeout = Duration.ofSeconds(30);
+
+    /** Event bus lane the capture listens on. */
+    @Builder.Default
+    private final String lane = "bodies";
+}
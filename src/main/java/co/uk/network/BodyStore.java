@@ -0,0 +1,165 @@
+package co.uk.network;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decodes response bodies into a size-capped store.
+ * Small bodies stay on the heap while the heap budget, counted in decoded bytes, allows it; everything
+ * else is decoded chunk by chunk into a temp file which is then memory-mapped, so a large body never
+ * exists as a second full-size copy in the JVM.
+ */
+@Slf4j
+class BodyStore implements AutoCloseable {
+
+    // Multiple of 4 so every chunk of a base64 string decodes on its own.
+    private static final int CHUNK_CHARS = 64 * 1024;
+
+    private final BodyCaptureConfig config;
+    private final Path directory;
+    private final AtomicLong heapBytes = new AtomicLong();
+    private final List<Path> files = new CopyOnWriteArrayList<>();
+
+    BodyStore(BodyCaptureConfig config) {
+        this.config = config;
+        try {
+            Path parent = config.getSpillDirectory() != null ? config.getSpillDirectory()
+                    : Path.of(System.getProperty("java.io.tmpdir"));
+            this.directory = Files.createTempDirectory(Files.createDirectories(parent), "response-bodies");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot create spill directory", e);
+        }
+    }
+
+    void store(CapturedBody handle, String body, boolean base64) throws IOException {
+        long decoded = base64 ? base64Length(body) : utf8Length(body);
+        long expected = Math.min(decoded, config.getMaxBodyBytes());
+        if (expected <= config.getSpillThresholdBytes() && reserveHeap(expected)) {
+            storeOnHeap(handle, body, base64);
+        } else {
+            storeInFile(handle, body, base64);
+        }
+    }
+
+    /**
+     * Decoded size of a padded base64 string, without decoding it.
+     */
+    private static long base64Length(String body) {
+        int padding = 0;
+        for (int i = body.length() - 1; i >= 0 && padding < 2 && body.charAt(i) == '='; i--) {
+            padding++;
+        }
+        return body.length() / 4L * 3 - padding;
+    }
+
+    /**
+     * UTF-8 size of a string, without encoding it; unpaired surrogates count as the one-byte '?' they encode to.
+     */
+    private static long utf8Length(String body) {
+        long bytes = 0;
+        for (int i = 0; i < body.length(); i++) {
+            char c = body.charAt(i);
+            if (c < 0x80) {
+                bytes++;
+            } else if (c < 0x800) {
+                bytes += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < body.length() && Character.isLowSurrogate(body.charAt(i + 1))) {
+                bytes += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                bytes++;
+            } else {
+                bytes += 3;
+            }
+        }
+        return bytes;
+    }
+
+    private boolean reserveHeap(long bytes) {
+        long used;
+        do {
+            used = heapBytes.get();
+            if (used + bytes > config.getMaxHeapBytes()) {
+                return false;
+            }
+        } while (!heapBytes.compareAndSet(used, used + bytes));
+        return true;
+    }
+
+    private void storeOnHeap(CapturedBody handle, String body, boolean base64) {
+        byte[] decoded = base64 ? Base64.getDecoder().decode(body) : body.getBytes(StandardCharsets.UTF_8);
+        boolean truncated = decoded.length > config.getMaxBodyBytes();
+        int length = truncated ? (int) config.getMaxBodyBytes() : decoded.length;
+        handle.complete(ByteBuffer.wrap(decoded, 0, length).slice(), truncated, false);
+    }
+
+    private void storeInFile(CapturedBody handle, String body, boolean base64) throws IOException {
+        Path file = Files.createTempFile(directory, "body", ".bin");
+        files.add(file);
+        long limit = config.getMaxBodyBytes();
+        long written = 0;
+        boolean truncated = false;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            for (int start = 0; start < body.length() && !truncated; ) {
+                int end = Math.min(start + CHUNK_CHARS, body.length());
+                if (!base64 && end < body.length() && Character.isHighSurrogate(body.charAt(end - 1))) {
+                    end--;
+                }
+                String chunk = body.substring(start, end);
+                byte[] bytes = base64 ? Base64.getDecoder().decode(chunk) : chunk.getBytes(StandardCharsets.UTF_8);
+                int length = bytes.length;
+                if (written + length > limit) {
+                    length = (int) (limit - written);
+                    truncated = true;
+                }
+                ByteBuffer buffer = ByteBuffer.wrap(bytes, 0, length);
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                written += length;
+                start = end;
+            }
+            // The mapping stays valid after the channel is closed.
+            handle.complete(channel.map(FileChannel.MapMode.READ_ONLY, 0, written), truncated, true);
+        }
+    }
+
+    long getHeapBytes() {
+        return heapBytes.get();
+    }
+
+    int getSpilledFiles() {
+        return files.size();
+    }
+
+    /**
+     * Deletes the spill files. Handles backed by them must not be read afterwards.
+     */
+    @Override
+    public void close() {
+        for (Path file : files) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.debug("Could not delete " + file, e);
+            }
+        }
+        try {
+            Files.deleteIfExists(directory);
+        } catch (IOException e) {
+            log.debug("Could not delete " + directory, e);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package co.uk.network;
+
+import lombok.Getter;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Lazy handle to a response body fetched by {@link ResponseBodyCapture}.
+ * The metadata is available straight away; the content methods wait until the body has been fetched.
+ * Large bodies are backed by a memory-mapped file, so reading them does not copy them to the heap
+ * unless {@link #bytes()} or {@link #asString()} is called.
+ */
+public class CapturedBody {
+
+    @Getter
+    private final String requestId;
+    @Getter
+    private final String url;
+    @Getter
+    private final int status;
+    @Getter
+    private final String mimeType;
+    /** Set once the body is done: it was longer than the configured cap. */
+    @Getter
+    private volatile boolean truncated;
+    /** Set once the body is done: it lives in a memory-mapped temp file. */
+    @Getter
+    private volatile boolean spilled;
+
+    private final CompletableFuture<ByteBuffer> content = new CompletableFuture<>();
+    private final Duration timeout;
+
+    CapturedBody(String requestId, String url, int status, String mimeType, Duration timeout) {
+        this.requestId = requestId;
+        this.url = url;
+        this.status = status;
+        this.mimeType = mimeType;
+        this.timeout = timeout;
+    }
+
+    void complete(ByteBuffer buffer, boolean truncated, boolean spilled) {
+        this.truncated = truncated;
+        this.spilled = spilled;
+        content.complete(buffer);
+    }
+
+    void fail(Throwable cause) {
+        content.completeExceptionally(cause);
+    }
+
+    public boolean isDone() {
+        return content.isDone();
+    }
+
+    /**
+     * Read-only view of the decoded body.
+     */
+    public ByteBuffer buffer() {
+        try {
+            return content.get(timeout.toMillis(), TimeUnit.MILLISECONDS).asReadOnlyBuffer();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for body of " + url, e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Could not capture body of " + url, e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("Body of " + url + " not captured within " + timeout, e);
+        }
+    }
+
+    public long size() {
+        return buffer().remaining();
+    }
+
+    public byte[] bytes() {
+        ByteBuffer buffer = buffer();
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    public String asString() {
+        return new String(bytes(), StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public String toString() {
+        return "CapturedBody{" + status + " " + mimeType + " " + url + "}";
+    }
+}
@@ -0,0 +1,57 @@
+package co.uk.network;
+
+import org.openqa.selenium.devtools.v126.network.model.Headers;
+import org.openqa.selenium.devtools.v126.network.model.ResourceTiming;
+
+import java.util.Map;
+
+/**
+ * One request/response exchange being assembled by {@link HarRecorder}.
+ * Only the fields the archive needs are copied out of the CDP events.
+ */
+class HarEntry {
+
+    // Request, from requestWillBeSent
+    String method;
+    String url;
+    Headers requestHeaders;
+    String postData;
+    String postDataMimeType;
+    String resourceType;
+    double wallTimeSeconds;
+    double startMonotonicSeconds;
+
+    // Response, from responseReceived or a redirect
+    int status;
+    String statusText = "";
+    String protocol = "";
+    Headers responseHeaders;
+    String mimeType = "";
+    String remoteIPAddress;
+    boolean fromDiskCache;
+    ResourceTiming timing;
+
+    // Completion, from loadingFinished / loadingFailed
+    double endMonotonicSeconds = -1;
+    long encodedDataLength = -1;
+    String error;
+
+    /**
+     * Header lookup ignoring case, HTTP/2 sends lower-case names and HTTP/1 usually does not.
+     */
+    static String header(Headers headers, String name) {
+        if (headers == null) {
+            return null;
+        }
+        for (Map.Entry<String, Object> header : headers.toJson().entrySet()) {
+            if (header.getKey().equalsIgnoreCase(name)) {
+                return String.valueOf(header.getValue());
+            }
+        }
+        return null;
+    }
+
+    long totalMillis() {
+        return endMonotonicSeconds < 0 ? 0 : Math.round((endMonotonicSeconds - startMonotonicSeconds) * 1000);
+    }
+}
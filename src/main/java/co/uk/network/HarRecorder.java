@@ -0,0 +1,267 @@
+package co.uk.network;
+
+import co.uk.events.DevToolsEventBus;
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.devtools.v126.network.Network;
+import org.openqa.selenium.devtools.v126.network.model.LoadingFailed;
+import org.openqa.selenium.devtools.v126.network.model.LoadingFinished;
+import org.openqa.selenium.devtools.v126.network.model.PostDataEntry;
+import org.openqa.selenium.devtools.v126.network.model.Request;
+import org.openqa.selenium.devtools.v126.network.model.RequestWillBeSent;
+import org.openqa.selenium.devtools.v126.network.model.Response;
+import org.openqa.selenium.devtools.v126.network.model.ResponseReceived;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Records Network traffic to a HAR 1.2 file while the test runs.
+ * <p>
+ * {@code requestWillBeSent}, {@code responseReceived}, {@code loadingFinished} and {@code loadingFailed}
+ * are joined by {@code RequestId}. An entry is written as soon as its request finishes or fails and is
+ * then forgotten, so memory only grows with the number of requests in flight. Requests that never
+ * complete are evicted (oldest first, or after {@link HarRecorderConfig#getPendingTimeout()}) and
+ * written with an {@code _error} marker.
+ * <p>
+ * A response or completion that shows up before its request is kept, up to the same limit, and joined
+ * once the request arrives. Events that never find their request are counted as orphaned and logged
+ * when the recorder closes, together with the events the bus dropped.
+ * <p>
+ * The Network domain must be enabled by the caller.
+ */
+@Slf4j
+public class HarRecorder implements AutoCloseable {
+
+    private final HarRecorderConfig config;
+    private final HarWriter writer;
+    private final LinkedHashMap<String, HarEntry> pending;
+    private final LinkedHashMap<String, EarlyEvents> early;
+    private DevToolsEventBus bus;
+
+    private long written;
+    private long evicted;
+    private long orphaned;
+    private boolean closed;
+
+    public HarRecorder(Path harFile) {
+        this(harFile, HarRecorderConfig.builder().build());
+    }
+
+    public HarRecorder(Path harFile, HarRecorderConfig config) {
+        this.config = config;
+        this.writer = new HarWriter(harFile);
+        this.pending = new LinkedHashMap<>(Math.min(config.getMaxPendingEntries(), 1024), 0.75f, false);
+        this.early = new LinkedHashMap<>();
+    }
+
+    /**
+     * Starts listening on the bus; all four events share one lane so they arrive in browser order.
+     */
+    public void subscribe(DevToolsEventBus bus) {
+        synchronized (this) {
+            this.bus = bus;
+        }
+        bus.subscribe(config.getLane(), Network.requestWillBeSent(), this::onRequestWillBeSent);
+        bus.subscribe(config.getLane(), Network.responseReceived(), this::onResponseReceived);
+        bus.subscribe(config.getLane(), Network.loadingFinished(), this::onLoadingFinished);
+        bus.subscribe(config.getLane(), Network.loadingFailed(), this::onLoadingFailed);
+    }
+
+    public synchronized void onRequestWillBeSent(RequestWillBeSent event) {
+        if (closed) {
+            return;
+        }
+        String id = event.getRequestId().toString();
+        double timestamp = event.getTimestamp().toJson().doubleValue();
+        // A redirect reuses the RequestId: the previous hop is complete now.
+        HarEntry previous = pending.remove(id);
+        if (previous != null) {
+            event.getRedirectResponse().ifPresent(response -> applyResponse(previous, response));
+            previous.endMonotonicSeconds = timestamp;
+            write(previous);
+        }
+
+        HarEntry entry = new HarEntry();
+        entry.method = event.getRequest().getMethod();
+        entry.url = event.getRequest().getUrl();
+        entry.requestHeaders = event.getRequest().getHeaders();
+        entry.postData = postData(event.getRequest());
+        if (entry.postData != null) {
+            entry.postDataMimeType = HarEntry.header(entry.requestHeaders, "Content-Type");
+        }
+        entry.resourceType = event.getType().map(type -> type.toString()).orElse(null);
+        entry.wallTimeSeconds = event.getWallTime().toJson().doubleValue();
+        entry.startMonotonicSeconds = timestamp;
+        pending.put(id, entry);
+        EarlyEvents arrivedFirst = early.remove(id);
+        if (arrivedFirst != null) {
+            if (arrivedFirst.response != null) {
+                onResponseReceived(arrivedFirst.response);
+            }
+            if (arrivedFirst.finished != null) {
+                onLoadingFinished(arrivedFirst.finished);
+            } else if (arrivedFirst.failed != null) {
+                onLoadingFailed(arrivedFirst.failed);
+            }
+        }
+        evictStale(timestamp);
+    }
+
+    /**
+     * The request body from its base64 entries, cut at the configured length. Chrome leaves the entries
+     * out when the body is too large to send with the event.
+     */
+    private String postData(Request request) {
+        if (!request.getHasPostData().orElse(false)) {
+            return null;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        for (PostDataEntry part : request.getPostDataEntries().orElse(List.of())) {
+            part.getBytes().ifPresent(data -> bytes.writeBytes(Base64.getDecoder().decode(data)));
+        }
+        String body = new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+        if (body.isEmpty()) {
+            return null;
+        }
+        return body.length() > config.getMaxPostDataChars() ? body.substring(0, config.getMaxPostDataChars()) : body;
+    }
+
+    public synchronized void onResponseReceived(ResponseReceived event) {
+        HarEntry entry = pending.get(event.getRequestId().toString());
+        if (entry != null) {
+            applyResponse(entry, event.getResponse());
+        } else if (!closed) {
+            early(event.getRequestId().toString()).response = event;
+        }
+    }
+
+    public synchronized void onLoadingFinished(LoadingFinished event) {
+        HarEntry entry = pending.remove(event.getRequestId().toString());
+        if (entry != null) {
+            entry.endMonotonicSeconds = event.getTimestamp().toJson().doubleValue();
+            entry.encodedDataLength = event.getEncodedDataLength().longValue();
+            write(entry);
+        } else if (!closed) {
+            early(event.getRequestId().toString()).finished = event;
+        }
+    }
+
+    public synchronized void onLoadingFailed(LoadingFailed event) {
+        HarEntry entry = pending.remove(event.getRequestId().toString());
+        if (entry == null) {
+            if (!closed) {
+                early(event.getRequestId().toString()).failed = event;
+            }
+        } else {
+            entry.endMonotonicSeconds = event.getTimestamp().toJson().doubleValue();
+            entry.error = event.getBlockedReason()
+                    .map(reason -> event.getErrorText() + " (" + reason + ")")
+                    .orElse(event.getErrorText());
+            write(entry);
+        }
+    }
+
+    /**
+     * Holds events of a request that has not been seen yet; the oldest are given up beyond the pending limit.
+     */
+    private EarlyEvents early(String id) {
+        EarlyEvents events = early.computeIfAbsent(id, key -> new EarlyEvents());
+        Iterator<EarlyEvents> oldest = early.values().iterator();
+        while (early.size() > config.getMaxPendingEntries()) {
+            oldest.next();
+            oldest.remove();
+            orphaned++;
+        }
+        return events;
+    }
+
+    private static void applyResponse(HarEntry entry, Response response) {
+        entry.status = response.getStatus();
+        entry.statusText = response.getStatusText();
+        entry.protocol = response.getProtocol().orElse("");
+        entry.responseHeaders = response.getHeaders();
+        entry.mimeType = response.getMimeType();
+        entry.remoteIPAddress = response.getRemoteIPAddress().orElse(null);
+        entry.fromDiskCache = response.getFromDiskCache().orElse(false);
+        entry.timing = response.getTiming().orElse(null);
+        entry.encodedDataLength = response.getEncodedDataLength().longValue();
+    }
+
+    private void evictStale(double now) {
+        double cutoff = now - config.getPendingTimeout().toMillis() / 1000.0;
+        Iterator<Map.Entry<String, HarEntry>> oldest = pending.entrySet().iterator();
+        while (oldest.hasNext()) {
+            HarEntry entry = oldest.next().getValue();
+            if (pending.size() <= config.getMaxPendingEntries() && entry.startMonotonicSeconds >= cutoff) {
+                break;
+            }
+            oldest.remove();
+            entry.error = "Evicted before completion";
+            evicted++;
+            write(entry);
+        }
+    }
+
+    private void write(HarEntry entry) {
+        writer.write(entry);
+        written++;
+    }
+
+    public synchronized long getWrittenEntries() {
+        return written;
+    }
+
+    public synchronized int getPendingEntries() {
+        return pending.size();
+    }
+
+    /**
+     * Responses and completions whose request never arrived, so they are missing from the archive.
+     */
+    public synchronized long getOrphanedEvents() {
+        return orphaned + early.size();
+    }
+
+    /**
+     * Writes whatever is still pending as incomplete entries and closes the archive.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        for (HarEntry entry : pending.values()) {
+            entry.error = "Not finished when recording stopped";
+            write(entry);
+        }
+        pending.clear();
+        orphaned += early.size();
+        early.clear();
+        try {
+            writer.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot finish HAR file", e);
+        }
+        log.info("HAR recording closed: " + written + " entries written, " + evicted + " evicted while pending");
+        long dropped = bus == null ? 0 : bus.getMetrics().getDropped();
+        if (orphaned > 0 || dropped > 0) {
+            log.warn("HAR may be incomplete: " + orphaned + " events never matched a request"
+                    + (bus == null ? "" : ", event bus dropped " + dropped + " events"));
+        }
+    }
+
+    private static final class EarlyEvents {
+        ResponseReceived response;
+        LoadingFinished finished;
+        LoadingFailed failed;
+    }
+}
@@ -0,0 +1,30 @@
+package co.uk.network;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Settings for {@link HarRecorder}.
+ */
+@Getter
+@Builder
+public class HarRecorderConfig {
+
+    /** Requests still waiting for their response or completion; the oldest is evicted beyond this. */
+    @Builder.Default
+    private final int maxPendingEntries = 5_000;
+
+    /** A pending request older than this is evicted even if the map is not full. */
+    @Builder.Default
+    private final Duration pendingTimeout = Duration.ofMinutes(2);
+
+    /** Longer request bodies are truncated in the archive. */
+    @Builder.Default
+    private final int maxPostDataChars = 64 * 1024;
+
+    /** Event bus lane the recorder listens on; one lane keeps the Network events in order. */
+    @Builder.Default
+    private final String lane = "har";
+}
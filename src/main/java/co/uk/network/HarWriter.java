@@ -0,0 +1,200 @@
+package co.uk.network;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.openqa.selenium.devtools.v126.network.model.Headers;
+import org.openqa.selenium.devtools.v126.network.model.ResourceTiming;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Writes a HAR 1.2 archive one entry at a time.
+ * The log header goes out when the file is opened, the closing brackets when it is closed,
+ * so the entries never have to be held in memory together.
+ */
+class HarWriter implements Closeable {
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private final JsonGenerator json;
+
+    HarWriter(Path file) {
+        try {
+            json = JSON.createGenerator(Files.newOutputStream(file), JsonEncoding.UTF8);
+            json.writeStartObject();
+            json.writeObjectFieldStart("log");
+            json.writeStringField("version", "1.2");
+            json.writeObjectFieldStart("creator");
+            json.writeStringField("name", "Selenium4CDP");
+            json.writeStringField("version", "1.0");
+            json.writeEndObject();
+            json.writeArrayFieldStart("pages");
+            json.writeEndArray();
+            json.writeArrayFieldStart("entries");
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open HAR file " + file, e);
+        }
+    }
+
+    void write(HarEntry entry) {
+        try {
+            json.writeStartObject();
+            json.writeStringField("startedDateTime",
+                    Instant.ofEpochMilli(Math.round(entry.wallTimeSeconds * 1000)).toString());
+            json.writeNumberField("time", entry.totalMillis());
+            writeRequest(entry);
+            writeResponse(entry);
+            json.writeObjectFieldStart("cache");
+            json.writeEndObject();
+            writeTimings(entry);
+            if (entry.remoteIPAddress != null) {
+                json.writeStringField("serverIPAddress", entry.remoteIPAddress);
+            }
+            if (entry.resourceType != null) {
+                json.writeStringField("_resourceType", entry.resourceType);
+            }
+            if (entry.error != null) {
+                json.writeStringField("_error", entry.error);
+            }
+            json.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write HAR entry for " + entry.url, e);
+        }
+    }
+
+    private void writeRequest(HarEntry entry) throws IOException {
+        json.writeObjectFieldStart("request");
+        json.writeStringField("method", entry.method);
+        json.writeStringField("url", entry.url);
+        json.writeStringField("httpVersion", httpVersion(entry.protocol));
+        json.writeArrayFieldStart("cookies");
+        json.writeEndArray();
+        writeHeaders(entry.requestHeaders);
+        writeQueryString(entry.url);
+        if (entry.postData != null) {
+            json.writeObjectFieldStart("postData");
+            json.writeStringField("mimeType", entry.postDataMimeType == null ? "" : entry.postDataMimeType);
+            json.writeStringField("text", entry.postData);
+            json.writeEndObject();
+        }
+        json.writeNumberField("headersSize", -1);
+        json.writeNumberField("bodySize", entry.postData == null ? 0 : entry.postData.length());
+        json.writeEndObject();
+    }
+
+    private void writeResponse(HarEntry entry) throws IOException {
+        json.writeObjectFieldStart("response");
+        json.writeNumberField("status", entry.status);
+        json.writeStringField("statusText", entry.statusText);
+        json.writeStringField("httpVersion", httpVersion(entry.protocol));
+        json.writeArrayFieldStart("cookies");
+        json.writeEndArray();
+        writeHeaders(entry.responseHeaders);
+        json.writeObjectFieldStart("content");
+        json.writeNumberField("size", Math.max(entry.encodedDataLength, 0));
+        json.writeStringField("mimeType", entry.mimeType);
+        json.writeEndObject();
+        String location = HarEntry.header(entry.responseHeaders, "Location");
+        json.writeStringField("redirectURL", location == null ? "" : location);
+        json.writeNumberField("headersSize", -1);
+        json.writeNumberField("bodySize", entry.encodedDataLength);
+        if (entry.fromDiskCache) {
+            json.writeBooleanField("_fromDiskCache", true);
+        }
+        json.writeEndObject();
+    }
+
+    /**
+     * Converts the CDP ResourceTiming offsets (milliseconds relative to requestTime) into HAR phases.
+     */
+    private void writeTimings(HarEntry entry) throws IOException {
+        ResourceTiming t = entry.timing;
+        json.writeObjectFieldStart("timings");
+        if (t == null) {
+            json.writeNumberField("send", 0);
+            json.writeNumberField("wait", entry.totalMillis());
+            json.writeNumberField("receive", 0);
+        } else {
+            double dnsStart = t.getDnsStart().doubleValue();
+            double connectStart = t.getConnectStart().doubleValue();
+            double sslStart = t.getSslStart().doubleValue();
+            double sendStart = t.getSendStart().doubleValue();
+            double sendEnd = t.getSendEnd().doubleValue();
+            double headersEnd = t.getReceiveHeadersEnd().doubleValue();
+            double firstPhase = dnsStart >= 0 ? dnsStart : connectStart >= 0 ? connectStart : sendStart;
+            json.writeNumberField("blocked", round(Math.max(firstPhase, 0)));
+            json.writeNumberField("dns", phase(dnsStart, t.getDnsEnd().doubleValue()));
+            json.writeNumberField("connect", phase(connectStart, t.getConnectEnd().doubleValue()));
+            json.writeNumberField("ssl", phase(sslStart, t.getSslEnd().doubleValue()));
+            json.writeNumberField("send", round(Math.max(sendEnd - sendStart, 0)));
+            json.writeNumberField("wait", round(Math.max(headersEnd - sendEnd, 0)));
+            double receive = entry.endMonotonicSeconds < 0 ? 0
+                    : (entry.endMonotonicSeconds - t.getRequestTime().doubleValue()) * 1000 - headersEnd;
+            json.writeNumberField("receive", round(Math.max(receive, 0)));
+        }
+        json.writeEndObject();
+    }
+
+    private void writeHeaders(Headers headers) throws IOException {
+        json.writeArrayFieldStart("headers");
+        if (headers != null) {
+            for (Map.Entry<String, Object> header : headers.toJson().entrySet()) {
+                json.writeStartObject();
+                json.writeStringField("name", header.getKey());
+                json.writeStringField("value", String.valueOf(header.getValue()));
+                json.writeEndObject();
+            }
+        }
+        json.writeEndArray();
+    }
+
+    private void writeQueryString(String url) throws IOException {
+        json.writeArrayFieldStart("queryString");
+        int start = url.indexOf('?');
+        if (start >= 0) {
+            int end = url.indexOf('#', start);
+            String query = url.substring(start + 1, end < 0 ? url.length() : end);
+            for (String pair : query.split("&")) {
+                if (pair.isEmpty()) {
+                    continue;
+                }
+                int eq = pair.indexOf('=');
+                json.writeStartObject();
+                json.writeStringField("name", eq < 0 ? pair : pair.substring(0, eq));
+                json.writeStringField("value", eq < 0 ? "" : pair.substring(eq + 1));
+                json.writeEndObject();
+            }
+        }
+        json.writeEndArray();
+    }
+
+    private static double phase(double start, double end) {
+        return start < 0 || end < 0 ? -1 : round(end - start);
+    }
+
+    private static double round(double millis) {
+        return Math.round(millis * 1000) / 1000.0;
+    }
+
+    private static String httpVersion(String protocol) {
+        if (protocol == null || protocol.isEmpty()) {
+            return "HTTP/1.1";
+        }
+        return protocol.startsWith("http/") ? protocol.toUpperCase() : protocol;
+    }
+
+    @Override
+    public void close() throws IOException {
+        json.writeEndArray();
+        json.writeEndObject();
+        json.writeEndObject();
+        json.close();
+    }
+}
@@ -0,0 +1,186 @@
+package co.uk.network;
+
+import co.uk.events.DevToolsEventBus;
+import org.openqa.selenium.devtools.v126.network.Network;
+import org.openqa.selenium.devtools.v126.network.model.DataReceived;
+import org.openqa.selenium.devtools.v126.network.model.LoadingFailed;
+import org.openqa.selenium.devtools.v126.network.model.LoadingFinished;
+import org.openqa.selenium.devtools.v126.network.model.RequestId;
+import org.openqa.selenium.devtools.v126.network.model.ResourceType;
+import org.openqa.selenium.devtools.v126.network.model.ResponseReceived;
+
+import java.util.Arrays;
+
+/**
+ * Counts page weight and cache use per {@link ResourceType} while pages load.
+ * <p>
+ * {@code requestServedFromCache} and {@code responseReceived} record the request's type and cache source
+ * in a packed {@code int} per request in flight; {@code dataReceived} adds decoded bytes and
+ * {@code loadingFinished} / {@code loadingFailed} settle the request into counters indexed by the
+ * type's ordinal. The handlers only touch primitive arrays, so they do not allocate in steady state.
+ * <p>
+ * A request counts as a memory cache hit when Chrome reported {@code requestServedFromCache} for it,
+ * and as a disk cache hit when its response says {@code fromDiskCache}. The Network domain must be
+ * enabled by the caller.
+ * <p>
+ * The handlers expect a request's events in browser order, which {@link DevToolsEventBus} restores from
+ * the CDP sequence numbers. An event that still arrives after its request was settled is ignored and
+ * counted in {@link #getLateEvents()}, so it cannot leave a request in flight forever.
+ */
+public class PageWeightAnalyzer {
+
+    private static final int TYPES = ResourceType.values().length;
+    private static final int TYPE_MASK = 0xFF;
+    private static final int SERVED_FROM_CACHE = 1 << 8;
+    private static final int FROM_DISK_CACHE = 1 << 9;
+    private static final int UNKNOWN = -1;
+    private static final int SETTLED_IDS = 1024;
+
+    private final String lane;
+    private final RequestStateTable inFlight = new RequestStateTable(512);
+    /** The last {@value #SETTLED_IDS} finished or failed requests, oldest overwritten first. */
+    private final RequestStateTable settled = new RequestStateTable(SETTLED_IDS);
+    private final String[] settledRing = new String[SETTLED_IDS];
+    private int settledNext;
+    private long lateEvents;
+
+    private final long[] requests = new long[TYPES];
+    private final long[] transferredBytes = new long[TYPES];
+    private final long[] decodedBytes = new long[TYPES];
+    private final long[] memoryCacheHits = new long[TYPES];
+    private final long[] diskCacheHits = new long[TYPES];
+    private final long[] blocked = new long[TYPES];
+    private final long[] failed = new long[TYPES];
+
+    public PageWeightAnalyzer() {
+        this("page-weight");
+    }
+
+    /**
+     * @param lane event bus lane; the bus delivers one lane's events in CDP sequence order
+     */
+    public PageWeightAnalyzer(String lane) {
+        this.lane = lane;
+    }
+
+    public void subscribe(DevToolsEventBus bus) {
+        bus.subscribe(lane, Network.requestServedFromCache(), this::onRequestServedFromCache);
+        bus.subscribe(lane, Network.responseReceived(), this::onResponseReceived);
+        bus.subscribe(lane, Network.dataReceived(), this::onDataReceived);
+        bus.subscribe(lane, Network.loadingFinished(), this::onLoadingFinished);
+        bus.subscribe(lane, Network.loadingFailed(), this::onLoadingFailed);
+    }
+
+    public synchronized void onRequestServedFromCache(RequestId requestId) {
+        String id = requestId.toString();
+        if (isLate(id)) {
+            return;
+        }
+        inFlight.put(id, inFlight.get(id, 0) | SERVED_FROM_CACHE);
+    }
+
+    public synchronized void onResponseReceived(ResponseReceived event) {
+        String id = event.getRequestId().toString();
+        if (isLate(id)) {
+            return;
+        }
+        int state = (inFlight.get(id, 0) & ~TYPE_MASK) | (event.getType().ordinal() + 1);
+        if (event.getResponse().getFromDiskCache().orElse(false)) {
+            state |= FROM_DISK_CACHE;
+        }
+        inFlight.put(id, state);
+    }
+
+    public synchronized void onDataReceived(DataReceived event) {
+        int state = inFlight.get(event.getRequestId().toString(), UNKNOWN);
+        if (state != UNKNOWN) {
+            decodedBytes[type(state)] += event.getDataLength();
+        } else {
+            isLate(event.getRequestId().toString());
+        }
+    }
+
+    public synchronized void onLoadingFinished(LoadingFinished event) {
+        String id = event.getRequestId().toString();
+        int state = inFlight.remove(id, UNKNOWN);
+        if (state == UNKNOWN) {
+            // Started before the analyzer was listening.
+            return;
+        }
+        settle(id);
+        int type = type(state);
+        requests[type]++;
+        transferredBytes[type] += event.getEncodedDataLength().longValue();
+        if ((state & FROM_DISK_CACHE) != 0) {
+            diskCacheHits[type]++;
+        } else if ((state & SERVED_FROM_CACHE) != 0) {
+            memoryCacheHits[type]++;
+        }
+    }
+
+    public synchronized void onLoadingFailed(LoadingFailed event) {
+        String id = event.getRequestId().toString();
+        inFlight.remove(id, UNKNOWN);
+        settle(id);
+        int type = event.getType().ordinal();
+        requests[type]++;
+        if (event.getBlockedReason().isPresent()) {
+            blocked[type]++;
+        } else {
+            failed[type]++;
+        }
+    }
+
+    private void settle(String id) {
+        String oldest = settledRing[settledNext];
+        if (oldest != null) {
+            settled.remove(oldest, 0);
+        }
+        settledRing[settledNext] = id;
+        settledNext = (settledNext + 1) % SETTLED_IDS;
+        settled.put(id, 1);
+    }
+
+    private boolean isLate(String id) {
+        if (settled.get(id, 0) == 0) {
+            return false;
+        }
+        lateEvents++;
+        return true;
+    }
+
+    private static int type(int state) {
+        int ordinal = (state & TYPE_MASK) - 1;
+        return ordinal >= 0 ? ordinal : ResourceType.OTHER.ordinal();
+    }
+
+    public synchronized PageWeightReport report() {
+        return new PageWeightReport(requests, transferredBytes, decodedBytes, memoryCacheHits, diskCacheHits,
+                blocked, failed);
+    }
+
+    /**
+     * Zeroes the counters, e.g. between a cold and a warm load of the same page.
+     */
+    public synchronized void reset() {
+        for (long[] counters : new long[][]{requests, transferredBytes, decodedBytes, memoryCacheHits,
+                diskCacheHits, blocked, failed}) {
+            Arrays.fill(counters, 0);
+        }
+        inFlight.clear();
+        settled.clear();
+        Arrays.fill(settledRing, null);
+        lateEvents = 0;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight.size();
+    }
+
+    /**
+     * Events that arrived after their request had already finished or failed, and were ignored.
+     */
+    public synchronized long getLateEvents() {
+        return lateEvents;
+    }
+}
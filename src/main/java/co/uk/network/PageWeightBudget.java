@@ -0,0 +1,35 @@
+package co.uk.network;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Singular;
+import org.openqa.selenium.devtools.v126.network.model.ResourceType;
+
+import java.util.Map;
+
+/**
+ * Limits checked by {@link PageWeightReport#assertWithin(PageWeightBudget)}; unset limits are not checked.
+ */
+@Getter
+@Builder
+public class PageWeightBudget {
+
+    /** Bytes transferred over the network for the whole page. */
+    @Builder.Default
+    private final long maxTransferredBytes = Long.MAX_VALUE;
+
+    /** Transferred bytes per resource type, e.g. {@code maxTransferredBytesFor(IMAGE, 500_000)}. */
+    @Singular("maxTransferredBytesFor")
+    private final Map<ResourceType, Long> maxTransferredBytesByType;
+
+    @Builder.Default
+    private final long maxRequests = Long.MAX_VALUE;
+
+    /** Share of finished requests served from the memory or disk cache, from 0 to 1. */
+    @Builder.Default
+    private final double minCacheHitRatio = 0;
+
+    /** Cache hit ratio per resource type; types without requests are skipped. */
+    @Singular("minCacheHitRatioFor")
+    private final Map<ResourceType, Double> minCacheHitRatioByType;
+}
@@ -0,0 +1,162 @@
+package co.uk.network;
+
+import org.openqa.selenium.devtools.v126.network.model.ResourceType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Snapshot of {@link PageWeightAnalyzer}'s counters, one slot per {@link ResourceType}.
+ */
+public class PageWeightReport {
+
+    private static final ResourceType[] TYPES = ResourceType.values();
+
+    private final long[] requests;
+    private final long[] transferredBytes;
+    private final long[] decodedBytes;
+    private final long[] memoryCacheHits;
+    private final long[] diskCacheHits;
+    private final long[] blocked;
+    private final long[] failed;
+
+    PageWeightReport(long[] requests, long[] transferredBytes, long[] decodedBytes, long[] memoryCacheHits,
+                     long[] diskCacheHits, long[] blocked, long[] failed) {
+        this.requests = requests.clone();
+        this.transferredBytes = transferredBytes.clone();
+        this.decodedBytes = decodedBytes.clone();
+        this.memoryCacheHits = memoryCacheHits.clone();
+        this.diskCacheHits = diskCacheHits.clone();
+        this.blocked = blocked.clone();
+        this.failed = failed.clone();
+    }
+
+    /** Requests that finished or failed, including blocked ones. */
+    public long getRequests(ResourceType type) {
+        return requests[type.ordinal()];
+    }
+
+    public long getTransferredBytes(ResourceType type) {
+        return transferredBytes[type.ordinal()];
+    }
+
+    public long getDecodedBytes(ResourceType type) {
+        return decodedBytes[type.ordinal()];
+    }
+
+    public long getMemoryCacheHits(ResourceType type) {
+        return memoryCacheHits[type.ordinal()];
+    }
+
+    public long getDiskCacheHits(ResourceType type) {
+        return diskCacheHits[type.ordinal()];
+    }
+
+    public long getCacheHits(ResourceType type) {
+        return memoryCacheHits[type.ordinal()] + diskCacheHits[type.ordinal()];
+    }
+
+    public long getBlocked(ResourceType type) {
+        return blocked[type.ordinal()];
+    }
+
+    /** Failures other than blocking, e.g. aborted or refused requests. */
+    public long getFailed(ResourceType type) {
+        return failed[type.ordinal()];
+    }
+
+    /**
+     * Cache hits over finished requests, blocked and failed ones excluded; 0 without requests.
+     */
+    public double getCacheHitRatio(ResourceType type) {
+        int i = type.ordinal();
+        return ratio(memoryCacheHits[i] + diskCacheHits[i], requests[i] - blocked[i] - failed[i]);
+    }
+
+    public long getTotalRequests() {
+        return sum(requests);
+    }
+
+    public long getTotalTransferredBytes() {
+        return sum(transferredBytes);
+    }
+
+    public long getTotalDecodedBytes() {
+        return sum(decodedBytes);
+    }
+
+    public long getTotalBlocked() {
+        return sum(blocked);
+    }
+
+    public double getCacheHitRatio() {
+        return ratio(sum(memoryCacheHits) + sum(diskCacheHits), sum(requests) - sum(blocked) - sum(failed));
+    }
+
+    private static long sum(long[] values) {
+        long total = 0;
+        for (long value : values) {
+            total += value;
+        }
+        return total;
+    }
+
+    private static double ratio(long hits, long finished) {
+        return finished > 0 ? (double) hits / finished : 0;
+    }
+
+    /**
+     * Every budget this page exceeded, empty if it is within budget.
+     */
+    public List<String> violations(PageWeightBudget budget) {
+        List<String> violations = new ArrayList<>();
+        if (getTotalTransferredBytes() > budget.getMaxTransferredBytes()) {
+            violations.add("transferred " + getTotalTransferredBytes() + " bytes > " + budget.getMaxTransferredBytes());
+        }
+        if (getTotalRequests() > budget.getMaxRequests()) {
+            violations.add("requests " + getTotalRequests() + " > " + budget.getMaxRequests());
+        }
+        if (getTotalRequests() > 0 && getCacheHitRatio() < budget.getMinCacheHitRatio()) {
+            violations.add(String.format("cache hit ratio %.3f < %.3f", getCacheHitRatio(), budget.getMinCacheHitRatio()));
+        }
+        for (Map.Entry<ResourceType, Long> limit : budget.getMaxTransferredBytesByType().entrySet()) {
+            long actual = getTransferredBytes(limit.getKey());
+            if (actual > limit.getValue()) {
+                violations.add(limit.getKey() + " transferred " + actual + " bytes > " + limit.getValue());
+            }
+        }
+        for (Map.Entry<ResourceType, Double> limit : budget.getMinCacheHitRatioByType().entrySet()) {
+            double actual = getCacheHitRatio(limit.getKey());
+            if (getRequests(limit.getKey()) > 0 && actual < limit.getValue()) {
+                violations.add(String.format("%s cache hit ratio %.3f < %.3f", limit.getKey(), actual, limit.getValue()));
+            }
+        }
+        return violations;
+    }
+
+    public void assertWithin(PageWeightBudget budget) {
+        List<String> violations = violations(budget);
+        if (!violations.isEmpty()) {
+            throw new AssertionError("Page weight budget exceeded:\n" + String.join("\n", violations) + "\n" + this);
+        }
+    }
+
+    /**
+     * One line per resource type that had requests.
+     */
+    @Override
+    public String toString() {
+        StringBuilder out = new StringBuilder(String.format("%-18s %8s %12s %12s %7s %7s %8s %7s%n",
+                "type", "requests", "transferred", "decoded", "memory", "disk", "blocked", "failed"));
+        for (ResourceType type : TYPES) {
+            int i = type.ordinal();
+            if (requests[i] > 0) {
+                out.append(String.format("%-18s %8d %12d %12d %7d %7d %8d %7d%n", type, requests[i],
+                        transferredBytes[i], decodedBytes[i], memoryCacheHits[i], diskCacheHits[i], blocked[i], failed[i]));
+            }
+        }
+        return out.append(String.format("%-18s %8d %12d %12d   cache hit ratio %.3f", "total", getTotalRequests(),
+                getTotalTransferredBytes(), getTotalDecodedBytes(), getCacheHitRatio())).toString();
+    }
+}
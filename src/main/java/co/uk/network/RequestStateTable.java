@@ -0,0 +1,102 @@
+package co.uk.network;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing map from request id to a packed {@code int}, so tracking requests in flight does
+ * not box or allocate entries. The arrays only grow (by doubling) when the table is more than half full.
+ */
+class RequestStateTable {
+
+    private String[] keys;
+    private int[] values;
+    private int size;
+
+    RequestStateTable(int expected) {
+        int capacity = Integer.highestOneBit(Math.max(16, expected * 2 - 1)) << 1;
+        keys = new String[capacity];
+        values = new int[capacity];
+    }
+
+    /**
+     * @return the value, or {@code missing} if the id is not tracked
+     */
+    int get(String key, int missing) {
+        int mask = keys.length - 1;
+        for (int slot = key.hashCode() & mask; keys[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot].equals(key)) {
+                return values[slot];
+            }
+        }
+        return missing;
+    }
+
+    void put(String key, int value) {
+        if (size * 2 >= keys.length) {
+            resize();
+        }
+        int mask = keys.length - 1;
+        int slot = key.hashCode() & mask;
+        while (keys[slot] != null) {
+            if (keys[slot].equals(key)) {
+                values[slot] = value;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+    }
+
+    /**
+     * @return the removed value, or {@code missing}
+     */
+    int remove(String key, int missing) {
+        int mask = keys.length - 1;
+        int slot = key.hashCode() & mask;
+        while (keys[slot] != null && !keys[slot].equals(key)) {
+            slot = (slot + 1) & mask;
+        }
+        if (keys[slot] == null) {
+            return missing;
+        }
+        int removed = values[slot];
+        keys[slot] = null;
+        size--;
+        // Backward-shift the rest of the cluster so lookups never need tombstones.
+        for (int next = (slot + 1) & mask; keys[next] != null; next = (next + 1) & mask) {
+            int home = keys[next].hashCode() & mask;
+            boolean movable = slot <= next ? home <= slot || home > next : home <= slot && home > next;
+            if (movable) {
+                keys[slot] = keys[next];
+                values[slot] = values[next];
+                keys[next] = null;
+                slot = next;
+            }
+        }
+        return removed;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        Arrays.fill(keys, null);
+        size = 0;
+    }
+
+    private void resize() {
+        String[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new String[oldKeys.length * 2];
+        values = new int[oldKeys.length * 2];
+        size = 0;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                put(oldKeys[i], oldValues[i]);
+            }
+        }
+    }
+}
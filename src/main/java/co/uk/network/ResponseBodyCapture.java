@@ -0,0 +1,174 @@
+package co.uk.network;
+
+import co.uk.events.DevToolsEventBus;
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.v126.network.Network;
+import org.openqa.selenium.devtools.v126.network.model.LoadingFailed;
+import org.openqa.selenium.devtools.v126.network.model.LoadingFinished;
+import org.openqa.selenium.devtools.v126.network.model.RequestId;
+import org.openqa.selenium.devtools.v126.network.model.ResponseReceived;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Captures response bodies for the responses a test cares about.
+ * <p>
+ * URL and MIME type are checked on {@code responseReceived}, before anything is fetched. Matching
+ * bodies are requested with {@code Network.getResponseBody} once {@code loadingFinished} says they are
+ * complete, on a small executor that caps the number of requests in flight. Decoded bodies go to a
+ * {@link BodyStore}; the test gets {@link CapturedBody} handles straight away and reads them when it needs to.
+ * <p>
+ * The Network domain must be enabled by the caller; the default buffer sizes are enough because
+ * bodies are fetched as soon as they finish loading.
+ */
+@Slf4j
+public class ResponseBodyCapture implements AutoCloseable {
+
+    private final DevTools devTools;
+    private final BodyCaptureConfig config;
+    private final BodyStore store;
+    private final ThreadPoolExecutor fetchers;
+
+    private final Map<String, CapturedBody> loading = new ConcurrentHashMap<>();
+    private final List<CapturedBody> captured = new CopyOnWriteArrayList<>();
+    private final AtomicInteger skipped = new AtomicInteger();
+
+    public ResponseBodyCapture(DevTools devTools, BodyCaptureConfig config) {
+        this.devTools = devTools;
+        this.config = config;
+        this.store = new BodyStore(config);
+        AtomicInteger threads = new AtomicInteger();
+        this.fetchers = new ThreadPoolExecutor(config.getMaxInFlight(), config.getMaxInFlight(), 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(config.getMaxQueued()), runnable -> {
+                    Thread thread = new Thread(runnable, "body-capture-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.fetchers.allowCoreThreadTimeOut(true);
+    }
+
+    public void subscribe(DevToolsEventBus bus) {
+        bus.subscribe(config.getLane(), Network.responseReceived(), this::onResponseReceived);
+        bus.subscribe(config.getLane(), Network.loadingFinished(), this::onLoadingFinished);
+        bus.subscribe(config.getLane(), Network.loadingFailed(), this::onLoadingFailed);
+    }
+
+    public void onResponseReceived(ResponseReceived event) {
+        String url = event.getResponse().getUrl();
+        String mimeType = event.getResponse().getMimeType();
+        if (!matches(url, mimeType)) {
+            return;
+        }
+        CapturedBody body = new CapturedBody(event.getRequestId().toString(), url, event.getResponse().getStatus(),
+                mimeType, config.getFetchTimeout());
+        loading.put(body.getRequestId(), body);
+        captured.add(body);
+    }
+
+    public void onLoadingFinished(LoadingFinished event) {
+        CapturedBody body = loading.remove(event.getRequestId().toString());
+        if (body == null) {
+            return;
+        }
+        try {
+            fetchers.execute(() -> fetch(body));
+        } catch (RejectedExecutionException e) {
+            skipped.incrementAndGet();
+            body.fail(new IllegalStateException("Body capture queue is full, skipped " + body.getUrl()));
+        }
+    }
+
+    public void onLoadingFailed(LoadingFailed event) {
+        CapturedBody body = loading.remove(event.getRequestId().toString());
+        if (body != null) {
+            body.fail(new IllegalStateException("Loading failed: " + event.getErrorText()));
+        }
+    }
+
+    private boolean matches(String url, String mimeType) {
+        if (!config.getUrlPattern().matcher(url).find()) {
+            return false;
+        }
+        if (config.getMimeTypes().isEmpty()) {
+            return true;
+        }
+        for (String prefix : config.getMimeTypes()) {
+            if (mimeType != null && mimeType.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void fetch(CapturedBody body) {
+        try {
+            Network.GetResponseBodyResponse response = devTools.send(Network.getResponseBody(new RequestId(body.getRequestId())));
+            store.store(body, response.getBody(), response.getBase64Encoded());
+        } catch (Exception e) {
+            body.fail(e);
+        }
+    }
+
+    /**
+     * Handles for every matching response seen so far, in arrival order.
+     */
+    public List<CapturedBody> getBodies() {
+        return new ArrayList<>(captured);
+    }
+
+    public List<CapturedBody> find(Predicate<String> url) {
+        return captured.stream().filter(body -> url.test(body.getUrl())).collect(Collectors.toList());
+    }
+
+    /**
+     * Waits until every body whose response has been seen is fetched or has failed.
+     *
+     * @return {@code false} on timeout
+     */
+    public boolean awaitAll(Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        for (CapturedBody body : captured) {
+            while (!body.isDone()) {
+                if (System.nanoTime() > deadline) {
+                    return false;
+                }
+                Thread.sleep(10);
+            }
+        }
+        return true;
+    }
+
+    public int getSkipped() {
+        return skipped.get();
+    }
+
+    /**
+     * Stops fetching and deletes the spill files; handles must not be read afterwards.
+     */
+    @Override
+    public void close() {
+        fetchers.shutdownNow();
+        try {
+            fetchers.awaitTermination(config.getFetchTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.info("Response body capture closed: " + captured.size() + " matched, " + skipped.get()
+                + " skipped, " + store.getSpilledFiles() + " spilled to disk, "
+                + store.getHeapBytes() / 1024 + " KB on heap");
+        store.close();
+    }
+}
@@ -0,0 +1,106 @@
+package co.uk.performance;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fixed-size sample history with one primitive column per metric.
+ * <p>
+ * Samples are addressed by their absolute sequence number; once more than {@code capacity} samples
+ * have been written the oldest ones are overwritten. A metric missing from a sample is stored as NaN.
+ */
+class MetricRingBuffer {
+
+    private final int capacity;
+    private final long[] timestamps;
+    private final List<String> names = new ArrayList<>();
+    private final Map<String, Integer> columns = new HashMap<>();
+    private final List<double[]> values = new ArrayList<>();
+    private long written;
+
+    MetricRingBuffer(int capacity) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("Capacity must be at least 2");
+        }
+        this.capacity = capacity;
+        this.timestamps = new long[capacity];
+    }
+
+    synchronized long add(long timestampMillis, List<String> metricNames, double[] metricValues) {
+        int slot = (int) (written % capacity);
+        timestamps[slot] = timestampMillis;
+        for (double[] column : values) {
+            column[slot] = Double.NaN;
+        }
+        for (int i = 0; i < metricNames.size(); i++) {
+            values.get(column(metricNames.get(i)))[slot] = metricValues[i];
+        }
+        return written++;
+    }
+
+    private int column(String name) {
+        Integer index = columns.get(name);
+        if (index == null) {
+            index = values.size();
+            double[] column = new double[capacity];
+            Arrays.fill(column, Double.NaN);
+            values.add(column);
+            names.add(name);
+            columns.put(name, index);
+        }
+        return index;
+    }
+
+    /**
+     * Sequence number the next sample will get.
+     */
+    synchronized long next() {
+        return written;
+    }
+
+    /**
+     * Oldest sequence number still held.
+     */
+    synchronized long oldest() {
+        return Math.max(0, written - capacity);
+    }
+
+    synchronized List<String> names() {
+        return new ArrayList<>(names);
+    }
+
+    synchronized long timestamp(long sequence) {
+        return timestamps[(int) (sequence % capacity)];
+    }
+
+    /**
+     * Non-NaN values of {@code metric} for samples {@code from} (inclusive) to {@code to} (exclusive),
+     * clamped to what is still held.
+     */
+    synchronized double[] column(String metric, long from, long to) {
+        Integer index = columns.get(metric);
+        long start = Math.max(from, oldest());
+        long end = Math.min(to, written);
+        if (index == null || start >= end) {
+            return new double[0];
+        }
+        double[] column = values.get(index);
+        double[] out = new double[(int) (end - start)];
+        int n = 0;
+        for (long sequence = start; sequence < end; sequence++) {
+            double value = column[(int) (sequence % capacity)];
+            if (!Double.isNaN(value)) {
+                out[n++] = value;
+            }
+        }
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    synchronized double value(String metric, long sequence) {
+        Integer index = columns.get(metric);
+        return index == null ? Double.NaN : values.get(index)[(int) (sequence % capacity)];
+    }
+}
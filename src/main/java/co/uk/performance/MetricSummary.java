@@ -0,0 +1,57 @@
+package co.uk.performance;
+
+import lombok.Value;
+
+import java.util.Arrays;
+
+/**
+ * Aggregates of one metric over one phase.
+ */
+@Value
+public class MetricSummary {
+    String metric;
+    int samples;
+    double min;
+    double max;
+    double p50;
+    double p95;
+    double p99;
+    double delta;
+
+    public double get(Statistic statistic) {
+        switch (statistic) {
+            case MIN:
+                return min;
+            case MAX:
+                return max;
+            case P50:
+                return p50;
+            case P95:
+                return p95;
+            case P99:
+                return p99;
+            case DELTA:
+            default:
+                return delta;
+        }
+    }
+
+    static MetricSummary of(String metric, double[] values) {
+        if (values.length == 0) {
+            return new MetricSummary(metric, 0, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN, Double.NaN);
+        }
+        double delta = values[values.length - 1] - values[0];
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return new MetricSummary(metric, sorted.length, sorted[0], sorted[sorted.length - 1],
+                percentile(sorted, 50), percentile(sorted, 95), percentile(sorted, 99), delta);
+    }
+
+    /**
+     * Nearest-rank percentile of an already sorted array.
+     */
+    static double percentile(double[] sorted, double percentile) {
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+    }
+}
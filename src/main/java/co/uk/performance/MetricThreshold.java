@@ -0,0 +1,23 @@
+package co.uk.performance;
+
+import lombok.Value;
+
+/**
+ * Upper bound for one statistic of one metric, checked by {@link PerformanceSampler#assertThresholds}.
+ * A {@code null} phase applies the bound to every phase.
+ */
+@Value
+public class MetricThreshold {
+    String phase;
+    String metric;
+    Statistic statistic;
+    double limit;
+
+    public static MetricThreshold of(String phase, String metric, Statistic statistic, double limit) {
+        return new MetricThreshold(phase, metric, statistic, limit);
+    }
+
+    public static MetricThreshold everyPhase(String metric, Statistic statistic, double limit) {
+        return new MetricThreshold(null, metric, statistic, limit);
+    }
+}
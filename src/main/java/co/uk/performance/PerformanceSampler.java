@@ -0,0 +1,235 @@
+package co.uk.performance;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.v126.performance.Performance;
+import org.openqa.selenium.devtools.v126.performance.model.Metric;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Polls {@code Performance.getMetrics} in the background while a user flow runs.
+ * <p>
+ * Samples go into a {@link MetricRingBuffer} (one {@code double[]} column per metric), so a long flow
+ * costs a fixed amount of memory. Named {@link Phase}s mark the flow steps; each phase gets min, max,
+ * p50/p95/p99 and first-to-last delta per metric, which can be exported and checked against thresholds.
+ */
+@Slf4j
+public class PerformanceSampler implements AutoCloseable {
+
+    private static final ObjectMapper JSON = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private final DevTools devTools;
+    private final Duration interval;
+    private final MetricRingBuffer buffer;
+    private final List<Phase> phases = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "performance-sampler");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private ScheduledFuture<?> task;
+
+    public PerformanceSampler(DevTools devTools, Duration interval) {
+        this(devTools, interval, 4096);
+    }
+
+    public PerformanceSampler(DevTools devTools, Duration interval, int capacity) {
+        this.devTools = devTools;
+        this.interval = interval;
+        this.buffer = new MetricRingBuffer(capacity);
+    }
+
+    /**
+     * Enables the Performance domain and starts polling.
+     */
+    public void start() {
+        devTools.send(Performance.enable(Optional.empty()));
+        task = scheduler.scheduleAtFixedRate(this::sampleQuietly, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    private void sampleQuietly() {
+        try {
+            sampleNow();
+        } catch (RuntimeException e) {
+            log.debug("Performance sample failed", e);
+        }
+    }
+
+    /**
+     * Takes one sample on the calling thread.
+     *
+     * @return the sample's sequence number
+     */
+    public long sampleNow() {
+        return record(System.currentTimeMillis(), devTools.send(Performance.getMetrics()));
+    }
+
+    /**
+     * Stores one sample; public so recorded metrics can be fed in without a browser.
+     *
+     * @return the sample's sequence number
+     */
+    public long record(long timestampMillis, List<Metric> metrics) {
+        List<String> names = new ArrayList<>(metrics.size());
+        double[] values = new double[metrics.size()];
+        for (int i = 0; i < values.length; i++) {
+            names.add(metrics.get(i).getName());
+            values[i] = metrics.get(i).getValue().doubleValue();
+        }
+        return buffer.add(timestampMillis, names, values);
+    }
+
+    /**
+     * Starts a named flow step. A sample is taken at both ends, so even a short step has data.
+     */
+    public Phase phase(String name) {
+        Phase phase = new Phase(name, boundarySample());
+        phases.add(phase);
+        return phase;
+    }
+
+    private long boundarySample() {
+        try {
+            return sampleNow();
+        } catch (RuntimeException e) {
+            log.debug("Boundary sample failed", e);
+            return buffer.next();
+        }
+    }
+
+    public List<PhaseSummary> summarize() {
+        List<PhaseSummary> summaries = new ArrayList<>();
+        for (Phase phase : phases) {
+            summaries.add(summarize(phase));
+        }
+        return summaries;
+    }
+
+    public PhaseSummary summarize(Phase phase) {
+        long end = phase.end < 0 ? buffer.next() : phase.end;
+        Map<String, MetricSummary> metrics = new LinkedHashMap<>();
+        for (String metric : buffer.names()) {
+            metrics.put(metric, MetricSummary.of(metric, buffer.column(metric, phase.start, end)));
+        }
+        long first = Math.max(phase.start, buffer.oldest());
+        long last = Math.max(first, end - 1);
+        return new PhaseSummary(phase.name, buffer.timestamp(first), buffer.timestamp(last), metrics);
+    }
+
+    /**
+     * Fails with every threshold that a phase exceeded.
+     */
+    public void assertThresholds(List<MetricThreshold> thresholds) {
+        List<String> violations = new ArrayList<>();
+        for (PhaseSummary summary : summarize()) {
+            for (MetricThreshold threshold : thresholds) {
+                if (threshold.getPhase() != null && !threshold.getPhase().equals(summary.getName())) {
+                    continue;
+                }
+                MetricSummary metric = summary.getMetrics().get(threshold.getMetric());
+                if (metric == null || metric.getSamples() == 0) {
+                    continue;
+                }
+                double actual = metric.get(threshold.getStatistic());
+                if (actual > threshold.getLimit()) {
+                    violations.add(summary.getName() + ": " + threshold.getMetric() + " " + threshold.getStatistic()
+                            + " = " + actual + " > " + threshold.getLimit());
+                }
+            }
+        }
+        if (!violations.isEmpty()) {
+            throw new AssertionError("Performance thresholds exceeded:\n" + String.join("\n", violations));
+        }
+    }
+
+    /**
+     * Every retained sample, one row per sample and one column per metric.
+     */
+    public void writeCsv(Path file) throws IOException {
+        List<String> names = buffer.names();
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            out.write("timestamp");
+            for (String name : names) {
+                out.write(',');
+                out.write(name);
+            }
+            out.newLine();
+            for (long sequence = buffer.oldest(); sequence < buffer.next(); sequence++) {
+                out.write(Long.toString(buffer.timestamp(sequence)));
+                for (String name : names) {
+                    out.write(',');
+                    double value = buffer.value(name, sequence);
+                    if (!Double.isNaN(value)) {
+                        out.write(Double.toString(value));
+                    }
+                }
+                out.newLine();
+            }
+        }
+    }
+
+    /**
+     * Phase summaries as JSON.
+     */
+    public void writeJson(Path file) throws IOException {
+        JSON.writeValue(file.toFile(), summarize());
+    }
+
+    @Override
+    public void close() {
+        if (task != null) {
+            task.cancel(false);
+        }
+        scheduler.shutdown();
+        try {
+            scheduler.awaitTermination(interval.toMillis() + 1000, TimeUnit.MILLISECONDS);
+            devTools.send(Performance.disable());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            log.debug("Disabling Performance domain failed", e);
+        }
+    }
+
+    /**
+     * A named flow step, closed with try-with-resources.
+     */
+    public class Phase implements AutoCloseable {
+        @Getter
+        private final String name;
+        private final long start;
+        private long end = -1;
+
+        Phase(String name, long start) {
+            this.name = name;
+            this.start = start;
+        }
+
+        @Override
+        public void close() {
+            if (end < 0) {
+                boundarySample();
+                end = buffer.next();
+            }
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package co.uk.performance;
+
+import lombok.Value;
+
+import java.util.Map;
+
+/**
+ * Metric aggregates for one named step of a user flow.
+ */
+@Value
+public class PhaseSummary {
+    String name;
+    long startMillis;
+    long endMillis;
+    Map<String, MetricSummary> metrics;
+}
@@ -0,0 +1,10 @@
+package co.uk.performance;
+
+/**
+ * Aggregates reported per metric and phase by {@link PerformanceSampler}.
+ */
+public enum Statistic {
+    MIN, MAX, P50, P95, P99,
+    /** Last sample minus first sample of the phase. */
+    DELTA
+}
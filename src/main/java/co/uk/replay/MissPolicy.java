@@ -0,0 +1,11 @@
+package co.uk.replay;
+
+/**
+ * What replay mode does with a request that was never recorded.
+ */
+public enum MissPolicy {
+    /** Answer with 404, so the run stays hermetic. */
+    NOT_FOUND,
+    /** Let the request go to the network. */
+    PASS_THROUGH
+}
@@ -0,0 +1,160 @@
+package co.uk.replay;
+
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.NetworkInterceptor;
+import org.openqa.selenium.remote.http.Contents;
+import org.openqa.selenium.remote.http.Filter;
+import org.openqa.selenium.remote.http.HttpHandler;
+import org.openqa.selenium.remote.http.HttpRequest;
+import org.openqa.selenium.remote.http.HttpResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records real responses to disk, or serves a previous recording, through Selenium's {@link NetworkInterceptor}.
+ * <p>
+ * Requests are keyed by {@link RequestFingerprint}. In {@link ReplayMode#REPLAY} no request reaches the
+ * network unless {@link MissPolicy#PASS_THROUGH} is configured, which makes runs deterministic and lets
+ * them run on agents without internet access.
+ */
+@Slf4j
+public class RecordReplayInterceptor implements AutoCloseable {
+
+    // The recorded body is already decoded, so these would describe the wire format, not what we serve.
+    private static final Set<String> UNREPLAYABLE_HEADERS = Set.of("content-encoding", "content-length", "transfer-encoding");
+
+    private final ReplayConfig config;
+    private final RecordingStore store;
+    private final NetworkInterceptor interceptor;
+
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public RecordReplayInterceptor(WebDriver driver, ReplayConfig config) {
+        this.config = config;
+        try {
+            this.store = config.getMode() == ReplayMode.RECORD
+                    ? RecordingStore.create(config.getDirectory())
+                    : RecordingStore.open(config.getDirectory());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open recording in " + config.getDirectory(), e);
+        }
+        Filter filter = next -> request -> config.getMode() == ReplayMode.RECORD ? record(next, request) : replay(next, request);
+        this.interceptor = new NetworkInterceptor(driver, filter);
+        log.info(config.getMode() + " network traffic in " + config.getDirectory()
+                + (config.getMode() == ReplayMode.REPLAY ? " (" + store.size() + " responses)" : ""));
+    }
+
+    private HttpResponse record(HttpHandler next, HttpRequest request) {
+        HttpResponse response = next.execute(request);
+        byte[] body = Contents.bytes(response.getContent());
+        List<String[]> headers = new ArrayList<>();
+        response.forEachHeader((name, value) -> {
+            if (!UNREPLAYABLE_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                headers.add(new String[]{name, value});
+            }
+        });
+        try {
+            store.append(RequestFingerprint.of(request, config), request.getMethod().toString(), request.getUri(),
+                    response.getStatus(), headers, body);
+            recorded.increment();
+        } catch (IOException e) {
+            log.warn("Could not record " + request.getUri(), e);
+        }
+        return response.setContent(Contents.bytes(body));
+    }
+
+    private HttpResponse replay(HttpHandler next, HttpRequest request) {
+        RecordedExchange exchange = store.find(RequestFingerprint.of(request, config));
+        if (exchange == null) {
+            misses.increment();
+            if (config.getMissPolicy() == MissPolicy.PASS_THROUGH) {
+                return next.execute(request);
+            }
+            log.debug("No recording for " + request.getMethod() + " " + request.getUri());
+            return new HttpResponse().setStatus(404).addHeader("Content-Type", "text/plain")
+                    .setContent(Contents.utf8String("Not recorded: " + request.getUri()));
+        }
+        hits.increment();
+        HttpResponse response = new HttpResponse().setStatus(exchange.status);
+        for (String[] header : exchange.headers) {
+            response.addHeader(header[0], header[1]);
+        }
+        return response.setContent(new MappedContents(store.body(exchange)));
+    }
+
+    public long getRecorded() {
+        return recorded.sum();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    @Override
+    public void close() {
+        interceptor.close();
+        try {
+            store.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot close recording in " + config.getDirectory(), e);
+        }
+        log.info("Network " + config.getMode() + " finished: recorded=" + recorded.sum() + ", hits=" + hits.sum()
+                + ", misses=" + misses.sum());
+    }
+
+    /**
+     * Response content backed by a slice of the memory-mapped bodies file.
+     */
+    private static class MappedContents implements Contents.Supplier {
+        private final ByteBuffer body;
+
+        MappedContents(ByteBuffer body) {
+            this.body = body;
+        }
+
+        @Override
+        public InputStream get() {
+            ByteBuffer buffer = body.duplicate();
+            return new InputStream() {
+                @Override
+                public int read() {
+                    return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+                }
+
+                @Override
+                public int read(byte[] target, int offset, int length) {
+                    if (!buffer.hasRemaining()) {
+                        return -1;
+                    }
+                    int count = Math.min(length, buffer.remaining());
+                    buffer.get(target, offset, count);
+                    return count;
+                }
+            };
+        }
+
+        @Override
+        public int length() {
+            return body.remaining();
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
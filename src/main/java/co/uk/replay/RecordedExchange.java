@@ -0,0 +1,27 @@
+package co.uk.replay;
+
+import java.util.List;
+
+/**
+ * One line of the recording index: the response metadata and where its body sits in {@code bodies.bin}.
+ */
+class RecordedExchange {
+
+    final String key;
+    final String method;
+    final String url;
+    final int status;
+    final List<String[]> headers;
+    final long offset;
+    final int length;
+
+    RecordedExchange(String key, String method, String url, int status, List<String[]> headers, long offset, int length) {
+        this.key = key;
+        this.method = method;
+        this.url = url;
+        this.status = status;
+        this.headers = headers;
+        this.offset = offset;
+        this.length = length;
+    }
+}
@@ -0,0 +1,142 @@
+package co.uk.replay;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * On-disk layout of a recording: {@code index.jsonl} (one JSON line per response) next to
+ * {@code bodies.bin} (all bodies back to back).
+ * <p>
+ * Recording appends to both files. Replay reads the index into a hash map once and memory-maps
+ * the bodies, so serving a response is a map lookup plus a slice of the mapping.
+ */
+class RecordingStore implements Closeable {
+
+    static final String INDEX_FILE = "index.jsonl";
+    static final String BODIES_FILE = "bodies.bin";
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    // Recording
+    private final BufferedWriter index;
+    private final FileChannel bodies;
+
+    // Replay
+    private final Map<String, RecordedExchange> exchanges;
+    private final MappedByteBuffer mappedBodies;
+
+    private RecordingStore(BufferedWriter index, FileChannel bodies, Map<String, RecordedExchange> exchanges,
+                           MappedByteBuffer mappedBodies) {
+        this.index = index;
+        this.bodies = bodies;
+        this.exchanges = exchanges;
+        this.mappedBodies = mappedBodies;
+    }
+
+    /**
+     * Starts a new recording, replacing whatever the directory held.
+     */
+    static RecordingStore create(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        BufferedWriter index = Files.newBufferedWriter(directory.resolve(INDEX_FILE), StandardCharsets.UTF_8);
+        FileChannel bodies = FileChannel.open(directory.resolve(BODIES_FILE), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        return new RecordingStore(index, bodies, null, null);
+    }
+
+    static RecordingStore open(Path directory) throws IOException {
+        Map<String, RecordedExchange> exchanges = new HashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(directory.resolve(INDEX_FILE), StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank()) {
+                    RecordedExchange exchange = parse(JSON.readTree(line));
+                    // A later recording of the same request replaces the earlier one.
+                    exchanges.put(exchange.key, exchange);
+                }
+            }
+        }
+        try (FileChannel channel = FileChannel.open(directory.resolve(BODIES_FILE), StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Recording bodies larger than 2 GB are not supported: " + directory);
+            }
+            return new RecordingStore(null, null, exchanges, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    synchronized void append(String key, String method, String url, int status, List<String[]> headers, byte[] body)
+            throws IOException {
+        long offset = bodies.position();
+        ByteBuffer buffer = ByteBuffer.wrap(body);
+        while (buffer.hasRemaining()) {
+            bodies.write(buffer);
+        }
+        ObjectNode line = JSON.createObjectNode()
+                .put("key", key)
+                .put("method", method)
+                .put("url", url)
+                .put("status", status)
+                .put("offset", offset)
+                .put("length", body.length);
+        ArrayNode headerArray = line.putArray("headers");
+        for (String[] header : headers) {
+            headerArray.addArray().add(header[0]).add(header[1]);
+        }
+        index.write(JSON.writeValueAsString(line));
+        index.newLine();
+        index.flush();
+    }
+
+    RecordedExchange find(String key) {
+        return exchanges.get(key);
+    }
+
+    int size() {
+        return exchanges == null ? 0 : exchanges.size();
+    }
+
+    /**
+     * Read-only slice of the mapped bodies file; no bytes are copied.
+     */
+    ByteBuffer body(RecordedExchange exchange) {
+        ByteBuffer slice = mappedBodies.duplicate();
+        slice.position((int) exchange.offset);
+        slice.limit((int) exchange.offset + exchange.length);
+        return slice.slice().asReadOnlyBuffer();
+    }
+
+    private static RecordedExchange parse(JsonNode node) {
+        List<String[]> headers = new ArrayList<>();
+        for (JsonNode header : node.path("headers")) {
+            headers.add(new String[]{header.get(0).asText(), header.get(1).asText()});
+        }
+        return new RecordedExchange(node.path("key").asText(), node.path("method").asText(), node.path("url").asText(),
+                node.path("status").asInt(), headers, node.path("offset").asLong(), node.path("length").asInt());
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (index != null) {
+            index.close();
+            bodies.close();
+        }
+    }
+}
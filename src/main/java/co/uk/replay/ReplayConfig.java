@@ -0,0 +1,32 @@
+package co.uk.replay;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.Singular;
+
+import java.nio.file.Path;
+import java.util.Set;
+
+/**
+ * Settings for {@link RecordReplayInterceptor}.
+ */
+@Getter
+@Builder
+public class ReplayConfig {
+
+    private final ReplayMode mode;
+
+    /** Holds {@code index.jsonl} and {@code bodies.bin}. */
+    private final Path directory;
+
+    /** Request headers that take part in the fingerprint, e.g. {@code Accept}. Matched ignoring case. */
+    @Singular
+    private final Set<String> fingerprintHeaders;
+
+    /** Query parameters left out of the fingerprint, e.g. cache busters and timestamps. */
+    @Singular
+    private final Set<String> ignoredQueryParameters;
+
+    @Builder.Default
+    private final MissPolicy missPolicy = MissPolicy.NOT_FOUND;
+}
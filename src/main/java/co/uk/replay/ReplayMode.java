@@ -0,0 +1,11 @@
+package co.uk.replay;
+
+/**
+ * Whether {@link RecordReplayInterceptor} talks to the real network or serves a recording.
+ */
+public enum ReplayMode {
+    /** Requests go to the network; every response is saved to the store. */
+    RECORD,
+    /** Requests are answered from the store; see {@link MissPolicy} for requests it does not know. */
+    REPLAY
+}
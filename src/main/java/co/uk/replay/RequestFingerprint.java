@@ -0,0 +1,104 @@
+package co.uk.replay;
+
+import org.openqa.selenium.remote.http.Contents;
+import org.openqa.selenium.remote.http.HttpRequest;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Stable key for a request: method, normalized URL, selected headers and a hash of the body.
+ * <p>
+ * The URL is normalized so that equivalent requests share a key: scheme and host are lower-cased,
+ * default ports and the fragment are dropped, and query parameters are sorted, minus the ignored ones.
+ */
+public final class RequestFingerprint {
+
+    private RequestFingerprint() {
+    }
+
+    public static String of(HttpRequest request, ReplayConfig config) {
+        return of(request.getMethod().toString(), request.getUri(), selectedHeaders(request, config.getFingerprintHeaders()),
+                Contents.bytes(request.getContent()), config.getIgnoredQueryParameters());
+    }
+
+    static String of(String method, String url, List<String> headers, byte[] body, Set<String> ignoredQueryParameters) {
+        MessageDigest sha = sha256();
+        StringBuilder canonical = new StringBuilder(method.toUpperCase(Locale.ROOT)).append(' ')
+                .append(normalizeUrl(url, ignoredQueryParameters)).append('\n');
+        for (String header : headers) {
+            canonical.append(header).append('\n');
+        }
+        sha.update(canonical.toString().getBytes(StandardCharsets.UTF_8));
+        if (body != null && body.length > 0) {
+            sha.update(sha256().digest(body));
+        }
+        return toHex(sha.digest());
+    }
+
+    public static String normalizeUrl(String url, Set<String> ignoredQueryParameters) {
+        URI uri;
+        try {
+            uri = URI.create(url);
+        } catch (IllegalArgumentException e) {
+            return url;
+        }
+        if (uri.getScheme() == null || uri.getHost() == null) {
+            return url;
+        }
+        String scheme = uri.getScheme().toLowerCase(Locale.ROOT);
+        StringBuilder out = new StringBuilder(scheme).append("://").append(uri.getHost().toLowerCase(Locale.ROOT));
+        int port = uri.getPort();
+        if (port != -1 && !(port == 80 && "http".equals(scheme)) && !(port == 443 && "https".equals(scheme))) {
+            out.append(':').append(port);
+        }
+        out.append(uri.getRawPath() == null || uri.getRawPath().isEmpty() ? "/" : uri.getRawPath());
+        if (uri.getRawQuery() != null) {
+            TreeSet<String> parameters = new TreeSet<>();
+            for (String pair : uri.getRawQuery().split("&")) {
+                String name = pair.contains("=") ? pair.substring(0, pair.indexOf('=')) : pair;
+                if (!pair.isEmpty() && !ignoredQueryParameters.contains(name)) {
+                    parameters.add(pair);
+                }
+            }
+            if (!parameters.isEmpty()) {
+                out.append('?').append(String.join("&", parameters));
+            }
+        }
+        return out.toString();
+    }
+
+    private static List<String> selectedHeaders(HttpRequest request, Set<String> names) {
+        List<String> selected = new ArrayList<>();
+        for (String name : new TreeSet<>(names)) {
+            String value = request.getHeader(name);
+            if (value != null) {
+                selected.add(name.toLowerCase(Locale.ROOT) + ": " + value);
+            }
+        }
+        return selected;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+}
@@ -0,0 +1,15 @@
+package co.uk.screencast;
+
+import lombok.Value;
+
+/**
+ * One decoded screencast frame.
+ */
+@Value
+public class CapturedFrame {
+    /** Browser timestamp of the frame, or the arrival time if the browser sent none. */
+    long timestampMillis;
+    int width;
+    int height;
+    byte[] jpeg;
+}
@@ -0,0 +1,44 @@
+package co.uk.screencast;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Duration;
+
+/**
+ * Settings for {@link ScreencastRecorder}.
+ */
+@Getter
+@Builder
+public class ScreencastConfig {
+
+    /** How much of the most recent screencast is kept in memory. */
+    @Builder.Default
+    private final Duration retention = Duration.ofSeconds(15);
+
+    /** Memory budget for retained frames; the oldest go first once it is exceeded. */
+    @Builder.Default
+    private final long maxBufferedBytes = 16L * 1024 * 1024;
+
+    /** JPEG quality the browser encodes with, 0 to 100. */
+    @Builder.Default
+    private final int quality = 50;
+
+    @Builder.Default
+    private final int maxWidth = 1024;
+
+    @Builder.Default
+    private final int maxHeight = 768;
+
+    /** Lets the browser skip frames before they are even sent. */
+    @Builder.Default
+    private final int everyNthFrame = 1;
+
+    /** Frames waiting for the decoder; when it fills up, frames are dropped. */
+    @Builder.Default
+    private final int queueCapacity = 16;
+
+    /** Upper bound for the adaptive stride, i.e. at worst every {@code maxStride}-th frame is kept. */
+    @Builder.Default
+    private final int maxStride = 16;
+}
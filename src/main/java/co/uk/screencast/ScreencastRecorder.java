@@ -0,0 +1,255 @@
+package co.uk.screencast;
+
+import co.uk.cdp.AsyncDevTools;
+import co.uk.events.DevToolsListeners;
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.v126.page.Page;
+import org.openqa.selenium.devtools.v126.page.model.ScreencastFrame;
+import org.openqa.selenium.devtools.v126.page.model.ScreencastFrameMetadata;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Keeps the last few seconds of a page as JPEG frames from {@code Page.startScreencast}.
+ * <p>
+ * Every frame is acknowledged with a pipelined {@code Page.screencastFrameAck} before anything else
+ * happens, so the browser never waits on the test. Base64 decoding runs on a single background thread
+ * behind a bounded queue; when the queue backs up only every n-th frame is admitted, and n halves again
+ * once the decoder has caught up. Decoded frames go into a ring limited by age and size, and nothing
+ * touches the disk until {@link #writeFrames(Path)} is called, typically only when the test failed.
+ * <p>
+ * Selenium dispatches frame events on a thread pool, so frames can be decoded out of order; they are
+ * handed out sorted by the browser's timestamp.
+ */
+@Slf4j
+public class ScreencastRecorder implements AutoCloseable {
+
+    private static final double FRAME_SECONDS = 0.04;
+
+    private final AsyncDevTools devTools;
+    private final ScreencastConfig config;
+    private final ThreadPoolExecutor decoder;
+    private final int highWater;
+
+    private final ArrayDeque<CapturedFrame> frames = new ArrayDeque<>();
+    private long bufferedBytes;
+    private long newestMillis = Long.MIN_VALUE;
+    private DevToolsListeners listeners;
+
+    private final LongAdder received = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+    private final AtomicLong arrivals = new AtomicLong();
+    private volatile int stride = 1;
+    private volatile boolean started;
+    private volatile boolean closed;
+
+    public ScreencastRecorder(AsyncDevTools devTools) {
+        this(devTools, ScreencastConfig.builder().build());
+    }
+
+    public ScreencastRecorder(AsyncDevTools devTools, ScreencastConfig config) {
+        if (config.getQueueCapacity() < 1 || config.getMaxStride() < 1) {
+            throw new IllegalArgumentException("Need queueCapacity >= 1 and maxStride >= 1");
+        }
+        this.devTools = devTools;
+        this.config = config;
+        this.highWater = Math.max(1, config.getQueueCapacity() * 3 / 4);
+        AtomicInteger threads = new AtomicInteger();
+        this.decoder = new ThreadPoolExecutor(1, 1, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(config.getQueueCapacity()), runnable -> {
+                    Thread thread = new Thread(runnable, "screencast-decoder-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.decoder.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Listens for frames on the session's {@link DevTools} and starts the screencast.
+     */
+    public ScreencastRecorder start() {
+        DevTools events = devTools.getDevTools();
+        if (events == null) {
+            throw new IllegalStateException("Screencast frames need an AsyncDevTools built with a DevTools instance");
+        }
+        listeners = new DevToolsListeners(events);
+        listeners.add(Page.screencastFrame(), this::onScreencastFrame);
+        devTools.send(Page.startScreencast(Optional.of(Page.StartScreencastFormat.JPEG),
+                Optional.of(config.getQuality()), Optional.of(config.getMaxWidth()), Optional.of(config.getMaxHeight()),
+                Optional.of(config.getEveryNthFrame()))).join();
+        started = true;
+        return this;
+    }
+
+    public void onScreencastFrame(ScreencastFrame frame) {
+        devTools.send(Page.screencastFrameAck(frame.getSessionId())).whenComplete((ignored, error) -> {
+            if (error != null) {
+                log.debug("Screencast frame ack failed", error);
+            }
+        });
+        received.increment();
+        long arrivedMillis = System.currentTimeMillis();
+        int current = stride;
+        if (closed || arrivals.getAndIncrement() % current != 0) {
+            dropped.increment();
+            return;
+        }
+        int depth = decoder.getQueue().size();
+        if (depth >= highWater) {
+            stride = Math.min(current * 2, config.getMaxStride());
+        } else if (depth == 0 && current > 1) {
+            stride = current / 2;
+        }
+        try {
+            decoder.execute(() -> decode(frame, arrivedMillis));
+        } catch (RejectedExecutionException e) {
+            dropped.increment();
+            stride = Math.min(current * 2, config.getMaxStride());
+        }
+    }
+
+    private void decode(ScreencastFrame frame, long arrivedMillis) {
+        ScreencastFrameMetadata metadata = frame.getMetadata();
+        long timestamp = metadata.getTimestamp()
+                .map(seconds -> Math.round(seconds.toJson().doubleValue() * 1000))
+                .orElse(arrivedMillis);
+        byte[] jpeg;
+        try {
+            jpeg = Base64.getDecoder().decode(frame.getData());
+        } catch (IllegalArgumentException e) {
+            log.debug("Screencast frame is not valid base64", e);
+            dropped.increment();
+            return;
+        }
+        store(new CapturedFrame(timestamp, metadata.getDeviceWidth().intValue(),
+                metadata.getDeviceHeight().intValue(), jpeg));
+    }
+
+    private synchronized void store(CapturedFrame frame) {
+        frames.addLast(frame);
+        bufferedBytes += frame.getJpeg().length;
+        newestMillis = Math.max(newestMillis, frame.getTimestampMillis());
+        long oldest = newestMillis - config.getRetention().toMillis();
+        while (frames.size() > 1
+                && (frames.peekFirst().getTimestampMillis() < oldest || bufferedBytes > config.getMaxBufferedBytes())) {
+            bufferedBytes -= frames.removeFirst().getJpeg().length;
+            evicted.increment();
+        }
+    }
+
+    /**
+     * Retained frames, oldest first by the browser's timestamp.
+     */
+    public synchronized List<CapturedFrame> getFrames() {
+        List<CapturedFrame> sorted = new ArrayList<>(frames);
+        sorted.sort(Comparator.comparingLong(CapturedFrame::getTimestampMillis));
+        return sorted;
+    }
+
+    /**
+     * Writes the retained frames as numbered JPEGs plus a {@code frames.ffconcat} index with each frame's
+     * duration, so {@code ffmpeg -i frames.ffconcat} turns them into a video at the original pace.
+     *
+     * @return the number of frames written
+     */
+    public int writeFrames(Path directory) throws IOException {
+        List<CapturedFrame> snapshot = getFrames();
+        Files.createDirectories(directory);
+        try (BufferedWriter index = Files.newBufferedWriter(directory.resolve("frames.ffconcat"), StandardCharsets.UTF_8)) {
+            index.write("ffconcat version 1.0");
+            index.newLine();
+            for (int i = 0; i < snapshot.size(); i++) {
+                String name = String.format("frame-%05d.jpg", i);
+                Files.write(directory.resolve(name), snapshot.get(i).getJpeg());
+                double seconds = i + 1 < snapshot.size()
+                        ? (snapshot.get(i + 1).getTimestampMillis() - snapshot.get(i).getTimestampMillis()) / 1000.0
+                        : FRAME_SECONDS;
+                index.write("file '" + name + "'");
+                index.newLine();
+                index.write(String.format("duration %.3f", seconds));
+                index.newLine();
+            }
+        }
+        return snapshot.size();
+    }
+
+    public long getReceived() {
+        return received.sum();
+    }
+
+    /**
+     * Frames acknowledged but not kept, because of the stride, a full queue or a bad payload.
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Decoded frames pushed out of the ring by age or size.
+     */
+    public long getEvicted() {
+        return evicted.sum();
+    }
+
+    public synchronized long getBufferedBytes() {
+        return bufferedBytes;
+    }
+
+    /**
+     * Current adaptive stride; 1 means every frame is decoded.
+     */
+    public int getStride() {
+        return stride;
+    }
+
+    public String summary() {
+        return received.sum() + " frames received, " + dropped.sum() + " dropped, " + evicted.sum() + " evicted, "
+                + getFrames().size() + " retained (" + getBufferedBytes() / 1024 + " KB)";
+    }
+
+    /**
+     * Stops the screencast, removes the frame listener and lets the decoder drain; retained frames stay readable.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (listeners != null) {
+            listeners.close();
+        }
+        if (started) {
+            devTools.send(Page.stopScreencast()).whenComplete((ignored, error) -> {
+                if (error != null) {
+                    log.debug("Stopping the screencast failed", error);
+                }
+            });
+        }
+        decoder.shutdown();
+        try {
+            decoder.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package co.uk.session;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Works out how many browsers this machine can run side by side.
+ * <p>
+ * The cap is the smaller of the CPU count and the physical memory currently free divided by the
+ * expected footprint of one headless Chrome. Both inputs can be overridden with system properties:
+ * {@code chrome.maxParallel} forces a value, {@code chrome.memoryPerBrowserMb} changes the footprint.
+ */
+public final class BrowserCapacity {
+
+    public static final String MAX_PARALLEL_PROPERTY = "chrome.maxParallel";
+    public static final String MEMORY_PER_BROWSER_PROPERTY = "chrome.memoryPerBrowserMb";
+
+    static final long DEFAULT_MEMORY_PER_BROWSER_MB = 512;
+
+    // Leave some headroom for the JVM, chromedriver and the OS page cache.
+    private static final double USABLE_MEMORY_FRACTION = 0.8;
+
+    private BrowserCapacity() {
+    }
+
+    public static int maxParallelBrowsers() {
+        Integer forced = Integer.getInteger(MAX_PARALLEL_PROPERTY);
+        if (forced != null) {
+            return Math.max(1, forced);
+        }
+        long perBrowserMb = Long.getLong(MEMORY_PER_BROWSER_PROPERTY, DEFAULT_MEMORY_PER_BROWSER_MB);
+        return compute(Runtime.getRuntime().availableProcessors(), freePhysicalMemoryMb(), perBrowserMb);
+    }
+
+    static int compute(int cpus, long freeMemoryMb, long perBrowserMb) {
+        if (perBrowserMb <= 0 || freeMemoryMb < 0) {
+            return Math.max(1, cpus);
+        }
+        long byMemory = (long) (freeMemoryMb * USABLE_MEMORY_FRACTION) / perBrowserMb;
+        return (int) Math.max(1, Math.min(cpus, byMemory));
+    }
+
+    /**
+     * Free physical memory in MB, or -1 if the JVM does not expose it.
+     */
+    @SuppressWarnings("deprecation")
+    static long freePhysicalMemoryMb() {
+        java.lang.management.OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.OperatingSystemMXBean) {
+            return ((com.sun.management.OperatingSystemMXBean) os).getFreePhysicalMemorySize() / (1024 * 1024);
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,163 @@
+package co.uk.session;
+
+import co.uk.cdp.AsyncDevTools;
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.devtools.Connection;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.SeleniumCdpConnection;
+import org.openqa.selenium.devtools.v126.browser.model.BrowserContextID;
+import org.openqa.selenium.devtools.v126.target.model.TargetID;
+
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps a few Chrome processes warm and hands each caller a fresh, isolated browser context
+ * (its own cookies, cache and storage) instead of a new browser.
+ * <p>
+ * A browser is quit and replaced after {@link SessionPoolConfig#getMaxUsesPerBrowser()} leases,
+ * or as soon as it stops answering. Closing the pool logs how much startup time it saved.
+ */
+@Slf4j
+public class BrowserSessionPool implements AutoCloseable {
+
+    private final SessionPoolConfig config;
+    private final BlockingDeque<WarmBrowser> idle = new LinkedBlockingDeque<>();
+    private final Semaphore permits;
+
+    private final AtomicLong leases = new AtomicLong();
+    private final AtomicLong browserStarts = new AtomicLong();
+    private final AtomicLong recycledAfterMaxUses = new AtomicLong();
+    private final AtomicLong recycledOnCrash = new AtomicLong();
+    private final AtomicLong totalStartupNanos = new AtomicLong();
+
+    private volatile boolean closed;
+
+    public BrowserSessionPool(SessionPoolConfig config) {
+        if (config.getMaxBrowsers() < 1 || config.getWarmBrowsers() > config.getMaxBrowsers()) {
+            throw new IllegalArgumentException("Need 1 <= maxBrowsers and warmBrowsers <= maxBrowsers");
+        }
+        this.config = config;
+        this.permits = new Semaphore(config.getMaxBrowsers(), true);
+        for (int i = 0; i < config.getWarmBrowsers(); i++) {
+            idle.offer(startBrowser());
+        }
+    }
+
+    /**
+     * Leases an isolated browser context, blocking until a browser is free.
+     */
+    public PooledSession lease() throws InterruptedException {
+        if (closed) {
+            throw new IllegalStateException("Pool is closed");
+        }
+        if (!permits.tryAcquire(config.getLeaseTimeout().toMillis(), TimeUnit.MILLISECONDS)) {
+            throw new IllegalStateException("No browser became free within " + config.getLeaseTimeout());
+        }
+        try {
+            PooledSession session = openSession(takeHealthyBrowser());
+            leases.incrementAndGet();
+            return session;
+        } catch (RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    public PoolStats getStats() {
+        return new PoolStats(leases.get(), browserStarts.get(), recycledAfterMaxUses.get(),
+                recycledOnCrash.get(), totalStartupNanos.get());
+    }
+
+    private WarmBrowser takeHealthyBrowser() {
+        WarmBrowser browser;
+        while ((browser = idle.pollFirst()) != null) {
+            if (browser.isAlive()) {
+                return browser;
+            }
+            log.warn("Discarding crashed browser from the pool");
+            recycledOnCrash.incrementAndGet();
+            browser.quit();
+        }
+        return startBrowser();
+    }
+
+    private WarmBrowser startBrowser() {
+        WarmBrowser browser = WarmBrowser.start(config);
+        browserStarts.incrementAndGet();
+        totalStartupNanos.addAndGet(browser.startupNanos);
+        log.info("Started browser in " + browser.startupNanos / 1_000_000 + " ms");
+        return browser;
+    }
+
+    private PooledSession openSession(WarmBrowser browser) {
+        BrowserContextID context = null;
+        TargetID page = null;
+        try {
+            context = browser.createContext();
+            page = browser.createPage(context);
+            browser.driver.switchTo().window(page.toString());
+            // A dedicated connection keeps this lease's listeners away from the next lease.
+            Connection connection = SeleniumCdpConnection.create(browser.driver)
+                    .orElseThrow(() -> new IllegalStateException("Browser does not expose a CDP endpoint"));
+            DevTools devTools = config.getDevToolsFactory().apply(connection);
+            devTools.createSession(page.toString());
+            return new PooledSession(this, browser, devTools,
+                    new AsyncDevTools(connection, devTools, config.getCommandTimeout()), context, page);
+        } catch (RuntimeException e) {
+            log.warn("Could not open a browser context, recycling browser", e);
+            recycledOnCrash.incrementAndGet();
+            browser.quit();
+            throw e;
+        }
+    }
+
+    void release(PooledSession session) {
+        WarmBrowser browser = session.getBrowser();
+        try {
+            session.getDevTools().close();
+        } catch (RuntimeException e) {
+            log.debug("Closing DevTools session failed", e);
+        }
+        try {
+            browser.disposeContext(session.getBrowserContextId(), session.getTargetId());
+            browser.driver.switchTo().window(browser.homeHandle);
+        } catch (RuntimeException e) {
+            log.warn("Could not dispose browser context, recycling browser", e);
+            session.markBroken();
+        }
+        browser.uses++;
+        try {
+            if (closed) {
+                browser.quit();
+            } else if (session.isBroken()) {
+                recycledOnCrash.incrementAndGet();
+                browser.quit();
+            } else if (browser.uses >= config.getMaxUsesPerBrowser()) {
+                recycledAfterMaxUses.incrementAndGet();
+                browser.quit();
+            } else {
+                idle.offerFirst(browser);
+            }
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Quits idle browsers and logs the run's pool statistics.
+     * Browsers still leased are quit when their session is closed.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        WarmBrowser browser;
+        while ((browser = idle.pollFirst()) != null) {
+            browser.quit();
+        }
+        log.info("Browser session pool: " + getStats());
+    }
+}
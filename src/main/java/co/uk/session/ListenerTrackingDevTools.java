@@ -0,0 +1,90 @@
+package co.uk.session;
+
+import org.openqa.selenium.devtools.Connection;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.Event;
+import org.openqa.selenium.devtools.v126.v126Domains;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * {@link DevTools} that remembers which listeners were registered on it, so a test harness can tell
+ * when a test leaves listeners behind and can mute them once the owning test has finished.
+ */
+public class ListenerTrackingDevTools extends DevTools {
+
+    private final List<String> registered = new CopyOnWriteArrayList<>();
+    private final AtomicLong lateDeliveries = new AtomicLong();
+    private volatile boolean retired;
+
+    public ListenerTrackingDevTools(Connection connection) {
+        super(v126Domains::new, connection);
+    }
+
+    @Override
+    public <X> void addListener(Event<X> event, Consumer<X> handler) {
+        registered.add(event.getMethod());
+        super.addListener(event, (X value) -> {
+            if (retired) {
+                lateDeliveries.incrementAndGet();
+                return;
+            }
+            handler.accept(value);
+        });
+    }
+
+    @Override
+    public <X> void addListener(Event<X> event, BiConsumer<Long, X> handler) {
+        registered.add(event.getMethod());
+        super.addListener(event, (Long sequence, X value) -> {
+            if (retired) {
+                lateDeliveries.incrementAndGet();
+                return;
+            }
+            handler.accept(sequence, value);
+        });
+    }
+
+    @Override
+    public void clearListeners() {
+        registered.clear();
+        super.clearListeners();
+    }
+
+    /**
+     * Forgets one registration per name, for owners that muted their own listeners because Selenium
+     * cannot remove a single one.
+     */
+    public void removeListeners(List<String> methods) {
+        methods.forEach(registered::remove);
+    }
+
+    /**
+     * Event names of listeners registered and not yet cleared.
+     */
+    public List<String> getRegisteredListeners() {
+        return new ArrayList<>(registered);
+    }
+
+    /**
+     * Number of events that arrived for listeners after {@link #retire()} and were dropped.
+     */
+    public long getLateDeliveries() {
+        return lateDeliveries.get();
+    }
+
+    /**
+     * Mutes every listener registered so far and returns the ones the owner did not clear itself.
+     */
+    public List<String> retire() {
+        retired = true;
+        List<String> leaked = getRegisteredListeners();
+        registered.clear();
+        return leaked;
+    }
+}
@@ -0,0 +1,34 @@
+package co.uk.session;
+
+import lombok.Value;
+
+/**
+ * Point-in-time counters for a {@link BrowserSessionPool}.
+ */
+@Value
+public class PoolStats {
+    long leases;
+    long browserStarts;
+    long recycledAfterMaxUses;
+    long recycledOnCrash;
+    long totalStartupNanos;
+
+    public long averageStartupMillis() {
+        return browserStarts == 0 ? 0 : totalStartupNanos / browserStarts / 1_000_000;
+    }
+
+    /**
+     * Startup time avoided by serving leases from warm browsers instead of starting one per lease.
+     */
+    public long savedStartupMillis() {
+        return Math.max(0, leases - browserStarts) * averageStartupMillis();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("leases=%d, browserStarts=%d, recycledAfterMaxUses=%d, recycledOnCrash=%d, "
+                        + "avgStartup=%dms, savedStartup=%dms",
+                leases, browserStarts, recycledAfterMaxUses, recycledOnCrash,
+                averageStartupMillis(), savedStartupMillis());
+    }
+}
@@ -0,0 +1,68 @@
+package co.uk.session;
+
+import co.uk.cdp.AsyncDevTools;
+import lombok.Getter;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.v126.browser.model.BrowserContextID;
+import org.openqa.selenium.devtools.v126.target.model.TargetID;
+
+/**
+ * A browser context leased from {@link BrowserSessionPool}.
+ * The driver is switched to the context's page and the DevTools session is attached to it.
+ * Closing the session disposes the context and returns the browser to the pool.
+ */
+public class PooledSession implements AutoCloseable {
+
+    @Getter
+    private final ChromeDriver driver;
+    @Getter
+    private final DevTools devTools;
+    /** Pipelined commands on the same session as {@link #getDevTools()}. */
+    @Getter
+    private final AsyncDevTools asyncDevTools;
+    @Getter
+    private final BrowserContextID browserContextId;
+    @Getter
+    private final TargetID targetId;
+
+    private final BrowserSessionPool pool;
+    private final WarmBrowser browser;
+    private boolean broken;
+    private boolean closed;
+
+    PooledSession(BrowserSessionPool pool, WarmBrowser browser, DevTools devTools, AsyncDevTools asyncDevTools,
+                  BrowserContextID browserContextId, TargetID targetId) {
+        this.pool = pool;
+        this.browser = browser;
+        this.driver = browser.driver;
+        this.devTools = devTools;
+        this.asyncDevTools = asyncDevTools;
+        this.browserContextId = browserContextId;
+        this.targetId = targetId;
+    }
+
+    /**
+     * Marks the underlying browser as unusable so it is quit instead of being reused.
+     */
+    public void markBroken() {
+        broken = true;
+    }
+
+    boolean isBroken() {
+        return broken;
+    }
+
+    WarmBrowser getBrowser() {
+        return browser;
+    }
+
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        pool.release(this);
+    }
+}
@@ -0,0 +1,49 @@
+package co.uk.session;
+
+import lombok.Builder;
+import lombok.Getter;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.devtools.Connection;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.v126.v126Domains;
+
+import java.time.Duration;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Settings for {@link BrowserSessionPool}.
+ * Every value has a default, so {@code SessionPoolConfig.builder().build()} is a usable pool.
+ */
+@Getter
+@Builder
+public class SessionPoolConfig {
+
+    /** Creates a new browser process when the pool needs one. */
+    @Builder.Default
+    private final Supplier<ChromeDriver> driverFactory = ChromeDriver::new;
+
+    /** Wraps the per-lease CDP connection; override to decorate {@link DevTools}. */
+    @Builder.Default
+    private final Function<Connection, DevTools> devToolsFactory = connection -> new DevTools(v126Domains::new, connection);
+
+    /** Number of browsers started eagerly when the pool is created. */
+    @Builder.Default
+    private final int warmBrowsers = 1;
+
+    /** Upper bound on browsers alive at the same time (idle plus leased). */
+    @Builder.Default
+    private final int maxBrowsers = 2;
+
+    /** A browser is quit and replaced after it has served this many leases. */
+    @Builder.Default
+    private final int maxUsesPerBrowser = 25;
+
+    /** How long {@link BrowserSessionPool#lease()} waits for a free browser. */
+    @Builder.Default
+    private final Duration leaseTimeout = Duration.ofMinutes(2);
+
+    /** Timeout for the Target commands that create and dispose browser contexts. */
+    @Builder.Default
+    private final Duration commandTimeout = Duration.ofSeconds(10);
+}
@@ -0,0 +1,93 @@
+package co.uk.session;
+
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.devtools.Connection;
+import org.openqa.selenium.devtools.SeleniumCdpConnection;
+import org.openqa.selenium.devtools.v126.browser.model.BrowserContextID;
+import org.openqa.selenium.devtools.v126.target.Target;
+import org.openqa.selenium.devtools.v126.target.model.TargetID;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * One browser process owned by the pool, plus a browser-level CDP connection
+ * used to create and dispose the isolated contexts handed out to tests.
+ */
+@Slf4j
+class WarmBrowser {
+
+    final ChromeDriver driver;
+    final String homeHandle;
+    final long startupNanos;
+    int uses;
+
+    private final Connection control;
+    private final Duration timeout;
+
+    private WarmBrowser(ChromeDriver driver, Connection control, long startupNanos, Duration timeout) {
+        this.driver = driver;
+        this.control = control;
+        this.homeHandle = driver.getWindowHandle();
+        this.startupNanos = startupNanos;
+        this.timeout = timeout;
+    }
+
+    static WarmBrowser start(SessionPoolConfig config) {
+        long start = System.nanoTime();
+        ChromeDriver driver = config.getDriverFactory().get();
+        try {
+            Connection control = SeleniumCdpConnection.create(driver)
+                    .orElseThrow(() -> new IllegalStateException("Browser does not expose a CDP endpoint"));
+            return new WarmBrowser(driver, control, System.nanoTime() - start, config.getCommandTimeout());
+        } catch (RuntimeException e) {
+            driver.quit();
+            throw e;
+        }
+    }
+
+    /**
+     * Creates a fresh browser context (own cookies, cache and storage) with a single blank page in it.
+     */
+    BrowserContextID createContext() {
+        // A null session id sends the command to the browser target rather than to a page.
+        return control.sendAndWait(null, Target.createBrowserContext(Optional.of(true), Optional.empty(),
+                Optional.empty(), Optional.empty()), timeout);
+    }
+
+    TargetID createPage(BrowserContextID context) {
+        return control.sendAndWait(null, Target.createTarget("about:blank", Optional.empty(), Optional.empty(),
+                Optional.of(context), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty()), timeout);
+    }
+
+    void disposeContext(BrowserContextID context, TargetID page) {
+        control.sendAndWait(null, Target.closeTarget(page), timeout);
+        control.sendAndWait(null, Target.disposeBrowserContext(context), timeout);
+    }
+
+    /**
+     * Cheap liveness probe: a crashed browser or dead chromedriver fails the round trip.
+     */
+    boolean isAlive() {
+        try {
+            driver.getWindowHandle();
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    void quit() {
+        try {
+            control.close();
+        } catch (RuntimeException e) {
+            log.debug("Closing CDP control connection failed", e);
+        }
+        try {
+            driver.quit();
+        } catch (RuntimeException e) {
+            log.debug("Quitting browser failed", e);
+        }
+    }
+}
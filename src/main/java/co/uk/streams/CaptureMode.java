@@ -0,0 +1,11 @@
+package co.uk.streams;
+
+/**
+ * How much of each frame {@link FrameRecorder} writes to its file.
+ */
+public enum CaptureMode {
+    /** Frame header and payload, truncated to {@link FrameRecorderConfig#getMaxPayloadBytes()}. */
+    FULL,
+    /** Frame header only: stream, direction, timestamp, opcode and payload length. */
+    METADATA_ONLY
+}
@@ -0,0 +1,141 @@
+package co.uk.streams;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The append-only binary file behind {@link FrameRecorder}.
+ * <p>
+ * The file starts with the magic {@code CDPF} and a version byte. Every record after it is a fixed
+ * 22-byte big-endian header followed by the stored payload:
+ * <pre>
+ * kind:u8 stream:i32 timestamp:f64 opcode:u8 length:i32 stored:i32 payload:byte[stored]
+ * </pre>
+ * Records are collected in a direct buffer and written when it fills up, so the lane thread does one
+ * system call per few hundred frames. Reopening an existing file appends to it.
+ */
+public class FrameFile implements AutoCloseable {
+
+    private static final int MAGIC = 0x43444046;
+    private static final byte VERSION = 1;
+    static final int HEADER_BYTES = 1 + 4 + 8 + 1 + 4 + 4;
+
+    private final Path file;
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private long records;
+    private long bytes;
+
+    FrameFile(Path file, int bufferBytes) {
+        this.file = file;
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+            this.buffer = ByteBuffer.allocateDirect(Math.max(bufferBytes, HEADER_BYTES + 16));
+            if (channel.size() == 0) {
+                buffer.putInt(MAGIC).put(VERSION);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot open frame file " + file, e);
+        }
+    }
+
+    synchronized void append(RecordedFrame.Kind kind, int stream, double timestamp, int opcode, int length,
+                             byte[] payload, int stored) {
+        if (!channel.isOpen()) {
+            return;
+        }
+        try {
+            if (buffer.remaining() < HEADER_BYTES) {
+                flush();
+            }
+            buffer.put((byte) kind.ordinal()).putInt(stream).putDouble(timestamp).put((byte) opcode)
+                    .putInt(length).putInt(stored);
+            int offset = 0;
+            while (offset < stored) {
+                if (!buffer.hasRemaining()) {
+                    flush();
+                }
+                int chunk = Math.min(buffer.remaining(), stored - offset);
+                buffer.put(payload, offset, chunk);
+                offset += chunk;
+            }
+            records++;
+            bytes += HEADER_BYTES + stored;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot write frame record to " + file, e);
+        }
+    }
+
+    private void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    synchronized long getRecords() {
+        return records;
+    }
+
+    synchronized long getBytes() {
+        return bytes;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (!channel.isOpen()) {
+            return;
+        }
+        try {
+            flush();
+            channel.close();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot finish frame file " + file, e);
+        }
+    }
+
+    /**
+     * Reads every record of a frame file; a record cut short by a crash ends the list.
+     */
+    public static List<RecordedFrame> read(Path file) throws IOException {
+        List<RecordedFrame> frames = new ArrayList<>();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readByte() != VERSION) {
+                throw new IOException(file + " is not a frame file");
+            }
+            while (true) {
+                int kind = in.read();
+                if (kind < 0) {
+                    return frames;
+                }
+                try {
+                    int stream = in.readInt();
+                    double timestamp = in.readDouble();
+                    int opcode = in.readUnsignedByte();
+                    int length = in.readInt();
+                    byte[] payload = new byte[in.readInt()];
+                    in.readFully(payload);
+                    frames.add(new RecordedFrame(RecordedFrame.Kind.of(kind), stream, timestamp, opcode, length, payload));
+                } catch (EOFException e) {
+                    return frames;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package co.uk.streams;
+
+import co.uk.events.DevToolsEventBus;
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.devtools.v126.network.Network;
+import org.openqa.selenium.devtools.v126.network.model.EventSourceMessageReceived;
+import org.openqa.selenium.devtools.v126.network.model.MonotonicTime;
+import org.openqa.selenium.devtools.v126.network.model.WebSocketClosed;
+import org.openqa.selenium.devtools.v126.network.model.WebSocketCreated;
+import org.openqa.selenium.devtools.v126.network.model.WebSocketFrame;
+import org.openqa.selenium.devtools.v126.network.model.WebSocketFrameError;
+import org.openqa.selenium.devtools.v126.network.model.WebSocketFrameReceived;
+import org.openqa.selenium.devtools.v126.network.model.WebSocketFrameSent;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Records WebSocket and EventSource traffic without logging each frame.
+ * <p>
+ * Each stream is tracked from {@code webSocketCreated} to {@code webSocketClosed} (EventSource streams
+ * from their first message) with live counters: frames and bytes per direction, rates, a payload size
+ * histogram, gaps between frames and {@code webSocketFrameError}s. Frames are also appended to a compact
+ * binary {@link FrameFile}, with payloads, sampled payloads or headers only depending on
+ * {@link FrameRecorderConfig}.
+ * <p>
+ * Payload sizes are worked out from the CDP strings without copying them unless the payload is stored.
+ * The Network domain must be enabled by the caller.
+ */
+@Slf4j
+public class FrameRecorder implements AutoCloseable {
+
+    private static final byte[] NO_PAYLOAD = new byte[0];
+    private static final int OPCODE_TEXT = 1;
+    private static final int OPCODE_BINARY = 2;
+
+    private final FrameRecorderConfig config;
+    private final FrameFile file;
+    private final Map<String, StreamCounter> streams = new ConcurrentHashMap<>();
+    private final AtomicInteger nextStream = new AtomicInteger();
+    private volatile double latest = Double.NaN;
+    private volatile boolean closed;
+
+    public FrameRecorder(FrameRecorderConfig config) {
+        if (config.getSampleRate() < 1 || config.getMaxPayloadBytes() < 0) {
+            throw new IllegalArgumentException("Need sampleRate >= 1 and maxPayloadBytes >= 0");
+        }
+        this.config = config;
+        this.file = config.getFile() == null ? null : new FrameFile(config.getFile(), config.getBufferBytes());
+    }
+
+    /**
+     * Starts listening on the bus; all events share one lane, which the bus delivers in CDP sequence
+     * order, so each stream's frames stay in order.
+     */
+    public void subscribe(DevToolsEventBus bus) {
+        bus.subscribe(config.getLane(), Network.webSocketCreated(), this::onWebSocketCreated);
+        bus.subscribe(config.getLane(), Network.webSocketFrameSent(), this::onFrameSent);
+        bus.subscribe(config.getLane(), Network.webSocketFrameReceived(), this::onFrameReceived);
+        bus.subscribe(config.getLane(), Network.webSocketFrameError(), this::onFrameError);
+        bus.subscribe(config.getLane(), Network.webSocketClosed(), this::onWebSocketClosed);
+        bus.subscribe(config.getLane(), Network.eventSourceMessageReceived(), this::onEventSourceMessage);
+    }
+
+    public void onWebSocketCreated(WebSocketCreated event) {
+        StreamCounter stream = stream(event.getRequestId().toString(), StreamType.WEBSOCKET, latest, event.getUrl());
+        if (stream.url(event.getUrl())) {
+            // A frame got here first and opened the stream without a URL; the later record wins.
+            byte[] url = event.getUrl().getBytes(StandardCharsets.UTF_8);
+            write(RecordedFrame.Kind.OPENED, stream, latest, 0, url.length, url, url.length);
+        }
+    }
+
+    public void onFrameSent(WebSocketFrameSent event) {
+        frame(RecordedFrame.Kind.SENT, event.getRequestId().toString(), event.getTimestamp(), event.getResponse());
+    }
+
+    public void onFrameReceived(WebSocketFrameReceived event) {
+        frame(RecordedFrame.Kind.RECEIVED, event.getRequestId().toString(), event.getTimestamp(), event.getResponse());
+    }
+
+    public void onFrameError(WebSocketFrameError event) {
+        double timestamp = advance(event.getTimestamp());
+        StreamCounter stream = stream(event.getRequestId().toString(), StreamType.WEBSOCKET, timestamp, null);
+        stream.error(event.getErrorMessage());
+        byte[] message = event.getErrorMessage().getBytes(StandardCharsets.UTF_8);
+        write(RecordedFrame.Kind.ERROR, stream, timestamp, 0, message.length, message, message.length);
+    }
+
+    public void onWebSocketClosed(WebSocketClosed event) {
+        double timestamp = advance(event.getTimestamp());
+        StreamCounter stream = stream(event.getRequestId().toString(), StreamType.WEBSOCKET, timestamp, null);
+        stream.close(timestamp);
+        write(RecordedFrame.Kind.CLOSED, stream, timestamp, 0, 0, NO_PAYLOAD, 0);
+    }
+
+    public void onEventSourceMessage(EventSourceMessageReceived event) {
+        double timestamp = advance(event.getTimestamp());
+        StreamCounter stream = stream(event.getRequestId().toString(), StreamType.EVENT_SOURCE, timestamp, null);
+        String data = event.getData();
+        int size = utf8Length(data);
+        long number = stream.frame(false, timestamp, size);
+        if (storePayload(number)) {
+            byte[] payload = data.getBytes(StandardCharsets.UTF_8);
+            write(RecordedFrame.Kind.EVENT_SOURCE, stream, timestamp, OPCODE_TEXT, size, payload, stored(size));
+        } else {
+            write(RecordedFrame.Kind.EVENT_SOURCE, stream, timestamp, OPCODE_TEXT, size, NO_PAYLOAD, 0);
+        }
+    }
+
+    private void frame(RecordedFrame.Kind kind, String requestId, MonotonicTime time, WebSocketFrame frame) {
+        double timestamp = advance(time);
+        StreamCounter stream = stream(requestId, StreamType.WEBSOCKET, timestamp, null);
+        int opcode = frame.getOpcode().intValue();
+        String data = frame.getPayloadData();
+        boolean binary = opcode == OPCODE_BINARY;
+        int size = binary ? base64Length(data) : utf8Length(data);
+        long number = stream.frame(kind == RecordedFrame.Kind.SENT, timestamp, size);
+        if (storePayload(number)) {
+            byte[] payload = binary ? Base64.getDecoder().decode(data) : data.getBytes(StandardCharsets.UTF_8);
+            write(kind, stream, timestamp, opcode, size, payload, stored(size));
+        } else {
+            write(kind, stream, timestamp, opcode, size, NO_PAYLOAD, 0);
+        }
+    }
+
+    /**
+     * Finds the stream, or opens it with an {@link RecordedFrame.Kind#OPENED} record. Frames of a socket
+     * created before the recorder started, or whose creation event is late, open their stream without
+     * a URL; a late creation event then adds a second OPENED record with it.
+     */
+    private StreamCounter stream(String requestId, StreamType type, double timestamp, String url) {
+        StreamCounter known = streams.get(requestId);
+        if (known != null) {
+            return known;
+        }
+        StreamCounter created = new StreamCounter(nextStream.getAndIncrement(), requestId, type, url);
+        known = streams.putIfAbsent(requestId, created);
+        if (known != null) {
+            return known;
+        }
+        byte[] payload = url == null ? NO_PAYLOAD : url.getBytes(StandardCharsets.UTF_8);
+        write(RecordedFrame.Kind.OPENED, created, timestamp, 0, payload.length, payload, payload.length);
+        return created;
+    }
+
+    private boolean storePayload(long frameNumber) {
+        return file != null && config.getCaptureMode() == CaptureMode.FULL
+                && (frameNumber - 1) % config.getSampleRate() == 0;
+    }
+
+    private int stored(int size) {
+        return Math.min(size, config.getMaxPayloadBytes());
+    }
+
+    private double advance(MonotonicTime time) {
+        double timestamp = time.toJson().doubleValue();
+        if (Double.isNaN(latest) || timestamp > latest) {
+            latest = timestamp;
+        }
+        return timestamp;
+    }
+
+    private void write(RecordedFrame.Kind kind, StreamCounter stream, double timestamp, int opcode, int length,
+                       byte[] payload, int stored) {
+        if (file != null && !closed) {
+            file.append(kind, stream.index, timestamp, opcode, length, payload, stored);
+        }
+    }
+
+    /**
+     * Counters of every stream seen so far, in order of first appearance.
+     */
+    public List<StreamStats> getStats() {
+        List<StreamCounter> counters = new ArrayList<>(streams.values());
+        counters.sort(Comparator.comparingInt(counter -> counter.index));
+        List<StreamStats> stats = new ArrayList<>(counters.size());
+        for (StreamCounter counter : counters) {
+            stats.add(counter.snapshot(latest));
+        }
+        return stats;
+    }
+
+    public Optional<StreamStats> getStats(String requestId) {
+        return Optional.ofNullable(streams.get(requestId)).map(counter -> counter.snapshot(latest));
+    }
+
+    public long getRecordedBytes() {
+        return file == null ? 0 : file.getBytes();
+    }
+
+    private static int utf8Length(String text) {
+        int length = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    private static int base64Length(String base64) {
+        int length = base64.length();
+        int padding = 0;
+        while (padding < 2 && length - padding > 0 && base64.charAt(length - padding - 1) == '=') {
+            padding++;
+        }
+        return length / 4 * 3 - padding;
+    }
+
+    /**
+     * Flushes and closes the frame file; the statistics stay readable.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (file != null) {
+            file.close();
+        }
+        long frames = 0;
+        long bytes = 0;
+        for (StreamStats stats : getStats()) {
+            frames += stats.getFrames();
+            bytes += stats.getBytes();
+        }
+        log.info("Frame recording closed: " + streams.size() + " streams, " + frames + " frames, " + bytes
+                + " payload bytes, " + getRecordedBytes() + " bytes written");
+    }
+}
@@ -0,0 +1,36 @@
+package co.uk.streams;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.nio.file.Path;
+
+/**
+ * Settings for {@link FrameRecorder}.
+ */
+@Getter
+@Builder
+public class FrameRecorderConfig {
+
+    /** Append-only frame file; {@code null} keeps statistics only. */
+    private final Path file;
+
+    @Builder.Default
+    private final CaptureMode captureMode = CaptureMode.FULL;
+
+    /** In {@link CaptureMode#FULL} only every n-th frame of a stream keeps its payload; the others are written as metadata. */
+    @Builder.Default
+    private final int sampleRate = 1;
+
+    /** Payloads are truncated to this many bytes in the file; statistics always use the full size. */
+    @Builder.Default
+    private final int maxPayloadBytes = 64 * 1024;
+
+    /** Records are buffered in memory and written in chunks of this size. */
+    @Builder.Default
+    private final int bufferBytes = 256 * 1024;
+
+    /** Event bus lane the recorder listens on; the bus delivers a lane in CDP sequence order. */
+    @Builder.Default
+    private final String lane = "frames";
+}
@@ -0,0 +1,45 @@
+package co.uk.streams;
+
+import lombok.Value;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * One record read back from a frame file.
+ */
+@Value
+public class RecordedFrame {
+
+    public enum Kind {
+        OPENED, SENT, RECEIVED, EVENT_SOURCE, ERROR, CLOSED;
+
+        private static final Kind[] VALUES = values();
+
+        static Kind of(int ordinal) {
+            return VALUES[ordinal];
+        }
+    }
+
+    Kind kind;
+    /**
+     * Stream number in order of first appearance; the last {@link Kind#OPENED} record of a stream carries
+     * its URL.
+     */
+    int stream;
+    /** CDP monotonic time in seconds; a WebSocket's OPENED record has the newest time seen before it, or NaN. */
+    double timestamp;
+    /** WebSocket opcode; 1 for EventSource messages, 0 for records without a frame. */
+    int opcode;
+    /** Payload size in the browser, before any truncation. */
+    int length;
+    /** Stored payload bytes, empty for metadata-only records. */
+    byte[] payload;
+
+    public boolean hasPayload() {
+        return payload.length > 0;
+    }
+
+    public String payloadText() {
+        return new String(payload, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,146 @@
+package co.uk.streams;
+
+/**
+ * Live counters for one stream; updated on the recorder's lane and read from the test thread.
+ * <p>
+ * Gaps are measured in timestamp order. The newest {@value #REORDER_FRAMES} timestamps are kept sorted
+ * and a gap is only settled once a frame leaves that window, so frames that arrive slightly out of
+ * order still land between the right neighbours. A frame older than the window is counted, but left
+ * out of the gap figures and counted as late.
+ */
+class StreamCounter {
+
+    static final int REORDER_FRAMES = 64;
+
+    final int index;
+    final String requestId;
+    final StreamType type;
+    private String url;
+    private boolean open = true;
+
+    private long framesSent;
+    private long framesReceived;
+    private long bytesSent;
+    private long bytesReceived;
+    private long errors;
+    private String lastError;
+    private final long[] sizeHistogram = new long[32];
+
+    private double firstFrame = Double.NaN;
+    private double lastFrame = Double.NaN;
+    private double closedAt = Double.NaN;
+    private double minGap = Double.POSITIVE_INFINITY;
+    private double maxGap;
+    private double gapSum;
+    private long gapCount;
+    private long lateFrames;
+    /** Timestamp of the last frame whose gap has been settled. */
+    private double settled = Double.NaN;
+    private final double[] recent = new double[REORDER_FRAMES];
+    private int recentSize;
+
+    StreamCounter(int index, String requestId, StreamType type, String url) {
+        this.index = index;
+        this.requestId = requestId;
+        this.type = type;
+        this.url = url;
+    }
+
+    synchronized long frame(boolean sent, double timestamp, int size) {
+        if (sent) {
+            framesSent++;
+            bytesSent += size;
+        } else {
+            framesReceived++;
+            bytesReceived += size;
+        }
+        sizeHistogram[StreamStats.bucket(size)]++;
+        if (Double.isNaN(firstFrame) || timestamp < firstFrame) {
+            firstFrame = timestamp;
+        }
+        if (Double.isNaN(lastFrame) || timestamp > lastFrame) {
+            lastFrame = timestamp;
+        }
+        if (timestamp < settled) {
+            lateFrames++;
+        } else {
+            insertRecent(timestamp);
+            if (recentSize > REORDER_FRAMES - 1) {
+                settle(recent[0]);
+                System.arraycopy(recent, 1, recent, 0, --recentSize);
+            }
+        }
+        return framesSent + framesReceived;
+    }
+
+    private void insertRecent(double timestamp) {
+        int at = recentSize;
+        while (at > 0 && recent[at - 1] > timestamp) {
+            recent[at] = recent[at - 1];
+            at--;
+        }
+        recent[at] = timestamp;
+        recentSize++;
+    }
+
+    private void settle(double timestamp) {
+        if (!Double.isNaN(settled)) {
+            double gap = timestamp - settled;
+            minGap = Math.min(minGap, gap);
+            maxGap = Math.max(maxGap, gap);
+            gapSum += gap;
+            gapCount++;
+        }
+        settled = timestamp;
+    }
+
+    synchronized void error(String message) {
+        errors++;
+        lastError = message;
+    }
+
+    /**
+     * @return {@code true} if the stream had no URL yet
+     */
+    synchronized boolean url(String url) {
+        boolean wasMissing = this.url == null;
+        this.url = url;
+        return wasMissing;
+    }
+
+    synchronized void close(double timestamp) {
+        open = false;
+        closedAt = timestamp;
+    }
+
+    synchronized StreamStats snapshot(double now) {
+        long frames = framesSent + framesReceived;
+        double end = !open ? closedAt : Math.max(now, lastFrame);
+        double duration = Double.isNaN(firstFrame) || Double.isNaN(end) ? 0 : Math.max(0, end - firstFrame);
+        // Gaps still in the reorder window are added to a copy, so taking a snapshot changes nothing.
+        double min = minGap;
+        double max = maxGap;
+        double sum = gapSum;
+        long gaps = gapCount;
+        double previous = settled;
+        for (int i = 0; i < recentSize; i++) {
+            if (!Double.isNaN(previous)) {
+                double gap = recent[i] - previous;
+                min = Math.min(min, gap);
+                max = Math.max(max, gap);
+                sum += gap;
+                gaps++;
+            }
+            previous = recent[i];
+        }
+        return new StreamStats(requestId, url, type, open, framesSent, framesReceived, bytesSent, bytesReceived,
+                errors, lastError, duration,
+                duration > 0 ? frames / duration : 0,
+                duration > 0 ? (bytesSent + bytesReceived) / duration : 0,
+                gaps > 0 ? min * 1000 : 0,
+                max * 1000,
+                gaps > 0 ? sum / gaps * 1000 : 0,
+                lateFrames,
+                sizeHistogram.clone());
+    }
+}
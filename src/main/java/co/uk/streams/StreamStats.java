@@ -0,0 +1,49 @@
+package co.uk.streams;
+
+import lombok.Value;
+
+/**
+ * Snapshot of one stream's counters, taken by {@link FrameRecorder#getStats()}.
+ * Rates cover the time from the stream's first frame to its close, or to the newest event the
+ * recorder has seen while it is still open.
+ */
+@Value
+public class StreamStats {
+
+    String requestId;
+    /** {@code null} for an EventSource, which has no creation event. */
+    String url;
+    StreamType type;
+    boolean open;
+    long framesSent;
+    long framesReceived;
+    long bytesSent;
+    long bytesReceived;
+    long errors;
+    String lastError;
+    double durationSeconds;
+    double framesPerSecond;
+    double bytesPerSecond;
+    double minGapMillis;
+    double maxGapMillis;
+    double meanGapMillis;
+    /** Frames that arrived after newer ones had left the reorder window; they are not in the gap figures. */
+    long lateFrames;
+    /**
+     * Payload sizes in power-of-two buckets: bucket 0 counts empty payloads and bucket {@code i}
+     * counts sizes from {@code 2^(i-1)} to {@code 2^i - 1} bytes.
+     */
+    long[] sizeHistogram;
+
+    public long getFrames() {
+        return framesSent + framesReceived;
+    }
+
+    public long getBytes() {
+        return bytesSent + bytesReceived;
+    }
+
+    static int bucket(int size) {
+        return 32 - Integer.numberOfLeadingZeros(size);
+    }
+}
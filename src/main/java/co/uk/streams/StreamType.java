@@ -0,0 +1,6 @@
+package co.uk.streams;
+
+public enum StreamType {
+    WEBSOCKET,
+    EVENT_SOURCE
+}
@@ -0,0 +1,24 @@
+package co.uk.tracing;
+
+import lombok.Value;
+
+/**
+ * Main-thread work of one flow step, from {@link TraceAnalyzer}. Durations are sums of trace event
+ * durations in milliseconds, so concurrent renderers add up.
+ */
+@Value
+public class StepTiming {
+
+    String name;
+    /** From the step's mark to the next mark, or to the last event of the trace. */
+    double durationMillis;
+    int longTasks;
+    double longTaskMillis;
+    double longestTaskMillis;
+    /** Time beyond 50 ms in every long task, as in Total Blocking Time. */
+    double blockingMillis;
+    double scriptMillis;
+    double styleMillis;
+    double layoutMillis;
+    double paintMillis;
+}
@@ -0,0 +1,203 @@
+package co.uk.tracing;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Extracts per-step main-thread timings from a gzipped trace written by {@link TraceCapture}.
+ * <p>
+ * The file is streamed twice and never loaded whole. The first pass finds the renderer main threads
+ * (Chrome writes the {@code thread_name} metadata at the end) and the step marks. The second pass adds
+ * each complete event on a main thread to the step it started in:
+ * <ul>
+ *     <li>{@code RunTask} longer than the threshold is a long task;</li>
+ *     <li>{@code EvaluateScript}, {@code v8.evaluateModule} and {@code FunctionCall} are script time;</li>
+ *     <li>{@code UpdateLayoutTree} is style, {@code Layout} is layout, {@code PrePaint} and {@code Paint} are paint.</li>
+ * </ul>
+ */
+public class TraceAnalyzer {
+
+    /** Events before the first step mark. */
+    public static final String BEFORE_FIRST_STEP = "(before first step)";
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final String MAIN_THREAD = "CrRendererMain";
+    private static final double BLOCKING_THRESHOLD_MILLIS = 50;
+
+    // Columns of the per-step totals.
+    private static final int LONG_TASKS = 0;
+    private static final int LONG_TASK_MILLIS = 1;
+    private static final int LONGEST_TASK = 2;
+    private static final int BLOCKING = 3;
+    private static final int SCRIPT = 4;
+    private static final int STYLE = 5;
+    private static final int LAYOUT = 6;
+    private static final int PAINT = 7;
+
+    private final double longTaskMillis;
+
+    public TraceAnalyzer() {
+        this(Duration.ofMillis(50));
+    }
+
+    public TraceAnalyzer(Duration longTaskThreshold) {
+        this.longTaskMillis = longTaskThreshold.toNanos() / 1_000_000.0;
+    }
+
+    public List<StepTiming> analyze(Path trace) throws IOException {
+        Set<Long> mainThreads = new HashSet<>();
+        TreeMap<Long, String> marks = new TreeMap<>();
+        long[] range = {Long.MAX_VALUE, Long.MIN_VALUE};
+        forEachEvent(trace, event -> {
+            String phase = event.path("ph").asText();
+            if ("M".equals(phase)) {
+                if ("thread_name".equals(event.path("name").asText())
+                        && MAIN_THREAD.equals(event.path("args").path("name").asText())) {
+                    mainThreads.add(thread(event));
+                }
+                return;
+            }
+            long ts = event.path("ts").asLong();
+            range[0] = Math.min(range[0], ts);
+            range[1] = Math.max(range[1], ts + event.path("dur").asLong());
+            String name = event.path("name").asText();
+            if (name.startsWith(TraceCapture.STEP_MARK_PREFIX) && event.path("cat").asText().contains("blink.user_timing")) {
+                marks.putIfAbsent(ts, name.substring(TraceCapture.STEP_MARK_PREFIX.length()));
+            }
+        });
+        if (range[0] > range[1]) {
+            return List.of();
+        }
+
+        List<String> names = new ArrayList<>();
+        List<long[]> bounds = new ArrayList<>();
+        if (marks.isEmpty() || marks.firstKey() > range[0]) {
+            names.add(BEFORE_FIRST_STEP);
+            bounds.add(new long[]{range[0], marks.isEmpty() ? range[1] : marks.firstKey()});
+        }
+        marks.forEach((ts, name) -> {
+            Long next = marks.higherKey(ts);
+            names.add(name);
+            bounds.add(new long[]{ts, next != null ? next : range[1]});
+        });
+        double[][] totals = new double[names.size()][PAINT + 1];
+
+        forEachEvent(trace, event -> {
+            if (!"X".equals(event.path("ph").asText())
+                    || (!mainThreads.isEmpty() && !mainThreads.contains(thread(event)))) {
+                return;
+            }
+            int step = step(bounds, event.path("ts").asLong());
+            if (step < 0) {
+                return;
+            }
+            double millis = event.path("dur").asLong() / 1000.0;
+            double[] total = totals[step];
+            switch (event.path("name").asText()) {
+                case "RunTask":
+                    if (millis >= longTaskMillis) {
+                        total[LONG_TASKS]++;
+                        total[LONG_TASK_MILLIS] += millis;
+                        total[LONGEST_TASK] = Math.max(total[LONGEST_TASK], millis);
+                        total[BLOCKING] += Math.max(0, millis - BLOCKING_THRESHOLD_MILLIS);
+                    }
+                    break;
+                case "EvaluateScript":
+                case "v8.evaluateModule":
+                case "FunctionCall":
+                    total[SCRIPT] += millis;
+                    break;
+                case "UpdateLayoutTree":
+                    total[STYLE] += millis;
+                    break;
+                case "Layout":
+                    total[LAYOUT] += millis;
+                    break;
+                case "PrePaint":
+                case "Paint":
+                    total[PAINT] += millis;
+                    break;
+                default:
+                    break;
+            }
+        });
+
+        List<StepTiming> steps = new ArrayList<>(names.size());
+        for (int i = 0; i < names.size(); i++) {
+            double[] total = totals[i];
+            steps.add(new StepTiming(names.get(i), (bounds.get(i)[1] - bounds.get(i)[0]) / 1000.0, (int) total[LONG_TASKS],
+                    total[LONG_TASK_MILLIS], total[LONGEST_TASK], total[BLOCKING], total[SCRIPT], total[STYLE],
+                    total[LAYOUT], total[PAINT]));
+        }
+        return steps;
+    }
+
+    private static int step(List<long[]> bounds, long ts) {
+        int low = 0;
+        int high = bounds.size() - 1;
+        int found = -1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (bounds.get(mid)[0] <= ts) {
+                found = mid;
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return found;
+    }
+
+    private static long thread(JsonNode event) {
+        return event.path("pid").asLong() << 32 | (event.path("tid").asLong() & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Streams the events of a gzipped trace, either a bare array or an object with {@code traceEvents}.
+     */
+    static void forEachEvent(Path trace, Consumer<JsonNode> consumer) throws IOException {
+        try (InputStream in = new GZIPInputStream(new BufferedInputStream(Files.newInputStream(trace), 64 * 1024));
+             JsonParser parser = JSON.createParser(in)) {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.START_OBJECT) {
+                while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                    if ("traceEvents".equals(parser.currentName())) {
+                        parser.nextToken();
+                        readArray(parser, consumer);
+                    } else {
+                        parser.nextToken();
+                        parser.skipChildren();
+                    }
+                }
+            } else if (token == JsonToken.START_ARRAY) {
+                readArray(parser, consumer);
+            }
+        }
+    }
+
+    private static void readArray(JsonParser parser, Consumer<JsonNode> consumer) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return;
+        }
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            consumer.accept(parser.readValueAsTree());
+        }
+    }
+}
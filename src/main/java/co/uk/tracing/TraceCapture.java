@@ -0,0 +1,171 @@
+package co.uk.tracing;
+
+import lombok.extern.slf4j.Slf4j;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.DevToolsException;
+import org.openqa.selenium.devtools.v126.io.IO;
+import org.openqa.selenium.devtools.v126.io.model.StreamHandle;
+import org.openqa.selenium.devtools.v126.runtime.Runtime;
+import org.openqa.selenium.devtools.v126.tracing.Tracing;
+import org.openqa.selenium.devtools.v126.tracing.model.StreamCompression;
+import org.openqa.selenium.devtools.v126.tracing.model.StreamFormat;
+import org.openqa.selenium.devtools.v126.tracing.model.TraceConfig;
+import org.openqa.selenium.devtools.v126.tracing.model.TracingComplete;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Records a full Chrome trace of a flow straight to a gzip file.
+ * <p>
+ * Tracing runs with {@code transferMode: ReturnAsStream}, so the browser keeps the events and hands
+ * over a stream handle on {@code tracingComplete}. The stream is read with {@code IO.read} one chunk at a
+ * time and each chunk is written to disk before the next is requested; a trace of several hundred MB
+ * never has more than one chunk on the heap. {@link #step(String)} marks flow steps in the trace for
+ * {@link TraceAnalyzer}.
+ */
+@Slf4j
+public class TraceCapture implements AutoCloseable {
+
+    /** Prefix of the {@code performance.mark} names that separate flow steps. */
+    public static final String STEP_MARK_PREFIX = "flow-step:";
+
+    private final DevTools devTools;
+    private final TraceCaptureConfig config;
+    private volatile CompletableFuture<TracingComplete> complete;
+    private boolean listening;
+    private boolean running;
+
+    public TraceCapture(DevTools devTools) {
+        this(devTools, TraceCaptureConfig.builder().build());
+    }
+
+    public TraceCapture(DevTools devTools, TraceCaptureConfig config) {
+        this.devTools = devTools;
+        this.config = config;
+    }
+
+    public void start() {
+        if (running) {
+            throw new IllegalStateException("Tracing is already running");
+        }
+        if (!listening) {
+            devTools.addListener(Tracing.tracingComplete(), event -> {
+                CompletableFuture<TracingComplete> pending = complete;
+                if (pending != null) {
+                    pending.complete(event);
+                }
+            });
+            listening = true;
+        }
+        complete = new CompletableFuture<>();
+        TraceConfig traceConfig = new TraceConfig(Optional.of(TraceConfig.RecordMode.RECORDUNTILFULL),
+                config.getBufferSizeKb() > 0 ? Optional.of(config.getBufferSizeKb()) : Optional.empty(),
+                Optional.empty(), Optional.empty(), Optional.empty(), Optional.of(config.getCategories()),
+                Optional.empty(), Optional.empty(), Optional.empty());
+        devTools.send(Tracing.start(Optional.empty(), Optional.empty(), Optional.empty(),
+                Optional.of(Tracing.StartTransferMode.RETURNASSTREAM), Optional.of(StreamFormat.JSON),
+                Optional.of(config.isBrowserCompression() ? StreamCompression.GZIP : StreamCompression.NONE),
+                Optional.of(traceConfig), Optional.empty(), Optional.empty()));
+        running = true;
+    }
+
+    /**
+     * Marks the start of a flow step; the step lasts until the next mark or the end of the trace.
+     */
+    public void step(String name) {
+        String expression = "performance.mark(" + quote(STEP_MARK_PREFIX + name) + ")";
+        devTools.send(Runtime.evaluate(expression, Optional.empty(), Optional.empty(), Optional.of(true),
+                Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(),
+                Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(),
+                Optional.empty(), Optional.empty()));
+    }
+
+    private static String quote(String text) {
+        return "'" + text.replace("\\", "\\\\").replace("'", "\\'") + "'";
+    }
+
+    /**
+     * Ends tracing and streams the trace into {@code file}, gzipped.
+     */
+    public TraceFile stop(Path file) throws IOException {
+        if (!running) {
+            throw new IllegalStateException("Tracing is not running");
+        }
+        running = false;
+        devTools.send(Tracing.end());
+        TracingComplete done = awaitComplete();
+        StreamHandle stream = done.getStream()
+                .orElseThrow(() -> new DevToolsException("Tracing completed without a stream"));
+        boolean compressed = done.getStreamCompression().orElse(StreamCompression.NONE) == StreamCompression.GZIP;
+
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        int chunks = 0;
+        try (OutputStream out = compressed ? Files.newOutputStream(file)
+                : new GZIPOutputStream(Files.newOutputStream(file), 64 * 1024)) {
+            while (true) {
+                IO.ReadResponse chunk = devTools.send(IO.read(stream, Optional.empty(),
+                        Optional.of(config.getReadChunkBytes())));
+                String data = chunk.getData();
+                if (!data.isEmpty()) {
+                    out.write(chunk.getBase64Encoded().orElse(false) ? Base64.getDecoder().decode(data)
+                            : data.getBytes(StandardCharsets.UTF_8));
+                    chunks++;
+                }
+                if (chunk.getEof()) {
+                    break;
+                }
+            }
+        } finally {
+            try {
+                devTools.send(IO.close(stream));
+            } catch (RuntimeException e) {
+                log.debug("Closing the trace stream failed", e);
+            }
+        }
+        TraceFile trace = new TraceFile(file, Files.size(file), chunks, done.getDataLossOccurred());
+        if (trace.isDataLossOccurred()) {
+            log.warn("Trace buffer overflowed, " + file + " is missing events");
+        }
+        log.info("Trace written to " + file + ": " + trace.getBytes() / 1024 + " KB in " + chunks + " chunks");
+        return trace;
+    }
+
+    private TracingComplete awaitComplete() {
+        try {
+            return complete.get(config.getCompleteTimeout().toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DevToolsException("Interrupted waiting for Tracing.tracingComplete", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new DevToolsException("Tracing.tracingComplete not received within " + config.getCompleteTimeout(), e);
+        }
+    }
+
+    /**
+     * Ends a trace that was never stopped and discards it.
+     */
+    @Override
+    public void close() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            devTools.send(Tracing.end());
+            awaitComplete().getStream().ifPresent(stream -> devTools.send(IO.close(stream)));
+        } catch (RuntimeException e) {
+            log.debug("Discarding the trace failed", e);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package co.uk.tracing;
+
+import lombok.Builder;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Settings for {@link TraceCapture}.
+ */
+@Getter
+@Builder
+public class TraceCaptureConfig {
+
+    /** Trace categories; the defaults cover what the DevTools Performance panel records for the main thread. */
+    @Builder.Default
+    private final List<String> categories = List.of(
+            "devtools.timeline",
+            "disabled-by-default-devtools.timeline",
+            "disabled-by-default-devtools.timeline.frame",
+            "toplevel",
+            "v8.execute",
+            "blink.user_timing",
+            "loading");
+
+    /** Let Chrome gzip the stream, so the chunks are written to disk as they are; otherwise the JVM compresses. */
+    @Builder.Default
+    private final boolean browserCompression = true;
+
+    /** Bytes requested per {@code IO.read}; bounds the memory held per chunk. */
+    @Builder.Default
+    private final int readChunkBytes = 1024 * 1024;
+
+    /** Trace buffer in the browser; 0 leaves Chrome's default. */
+    @Builder.Default
+    private final int bufferSizeKb = 0;
+
+    /** How long {@link TraceCapture#stop} waits for {@code Tracing.tracingComplete}. */
+    @Builder.Default
+    private final Duration completeTimeout = Duration.ofSeconds(60);
+}
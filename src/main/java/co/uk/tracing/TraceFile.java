@@ -0,0 +1,19 @@
+package co.uk.tracing;
+
+import lombok.Value;
+
+import java.nio.file.Path;
+
+/**
+ * A gzipped trace written by {@link TraceCapture#stop(Path)}.
+ */
+@Value
+public class TraceFile {
+
+    Path path;
+    /** Compressed bytes on disk. */
+    long bytes;
+    int chunks;
+    /** Chrome's trace buffer overflowed and some events are missing. */
+    boolean dataLossOccurred;
+}
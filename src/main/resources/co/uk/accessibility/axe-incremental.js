@@ -0,0 +1,153 @@
+/*
+ * Tracks which scan regions changed between accessibility scans. Loaded right after axe.min.js on
+ * every new document; __REGION_SELECTOR__ is replaced with the configured selector.
+ */
+(function () {
+    if (window.__axeIncremental || window.top !== window) {
+        return;
+    }
+    var selector = __REGION_SELECTOR__;
+    var ids = new WeakMap();
+    var nextId = 0;
+    var dirty = new WeakSet();
+    var current = [];
+    var changed = true;
+    var sentStyles = null;
+    var documentId = Date.now().toString(36) + '-' + Math.random().toString(36).slice(2);
+
+    /* A selector for the region in this document, so results of identical regions stay apart. */
+    function path(element) {
+        var steps = [];
+        for (; element && element !== document.documentElement; element = element.parentElement) {
+            if (element.id) {
+                steps.unshift('#' + CSS.escape(element.id));
+                break;
+            }
+            var index = 1;
+            for (var sibling = element.previousElementSibling; sibling; sibling = sibling.previousElementSibling) {
+                if (sibling.localName === element.localName) {
+                    index++;
+                }
+            }
+            steps.unshift(element.localName + ':nth-of-type(' + index + ')');
+        }
+        return steps.join(' > ');
+    }
+
+    /* Stylesheet URLs and inline CSS, which decide what colour contrast and similar rules see. */
+    function styles() {
+        return Array.prototype.map.call(document.styleSheets, function (sheet) {
+            return sheet.href || (sheet.ownerNode ? sheet.ownerNode.textContent : '');
+        }).join('\n');
+    }
+
+    new MutationObserver(function (records) {
+        changed = true;
+        for (var i = 0; i < records.length; i++) {
+            var node = records[i].target;
+            var element = node.nodeType === Node.ELEMENT_NODE ? node : node.parentElement;
+            var region = element && element.closest(selector);
+            if (region) {
+                dirty.add(region);
+            }
+        }
+    }).observe(document, {subtree: true, childList: true, attributes: true, characterData: true});
+
+    function violations(rules) {
+        var found = [];
+        rules.forEach(function (rule) {
+            rule.nodes.forEach(function (node) {
+                found.push({
+                    element: node.element,
+                    violation: {
+                        ruleId: rule.id,
+                        impact: node.impact || rule.impact || null,
+                        help: rule.help,
+                        helpUrl: rule.helpUrl,
+                        target: node.target.map(String).join(' '),
+                        html: node.html,
+                        failureSummary: node.failureSummary || null
+                    }
+                });
+            });
+        });
+        return found;
+    }
+
+    function pageRules(tags) {
+        return axe._audit.rules.filter(function (rule) {
+            return rule.pageLevel && rule.enabled !== false && (tags.length === 0
+                || rule.tags.some(function (tag) { return tags.indexOf(tag) >= 0; }));
+        }).map(function (rule) { return rule.id; });
+    }
+
+    window.__axeIncremental = {
+        /*
+         * Lists every region with a stable id. The markup is included only for regions that are new or
+         * mutated since the last call, or for all of them if asked; the caller hashes it. The styles
+         * are sent the same way, only when they differ from the last call.
+         */
+        regions: function (all) {
+            current = Array.prototype.slice.call(document.querySelectorAll(selector));
+            var css = styles();
+            var result = {
+                document: documentId,
+                url: location.href,
+                origin: location.origin,
+                styles: css !== sentStyles || all ? css : undefined,
+                changed: changed,
+                regions: current.map(function (region) {
+                    var entry = {id: ids.get(region), path: path(region)};
+                    if (entry.id === undefined || dirty.has(region) || all) {
+                        if (entry.id === undefined) {
+                            entry.id = nextId++;
+                            ids.set(region, entry.id);
+                        }
+                        entry.html = region.outerHTML;
+                        dirty.delete(region);
+                    }
+                    return entry;
+                })
+            };
+            changed = false;
+            sentStyles = css;
+            return JSON.stringify(result);
+        },
+
+        /* Runs axe on the given regions of the last regions() call, and the page-level rules if asked. */
+        scan: function (indices, withPageRules, tags) {
+            var targets = indices.filter(function (i) { return current[i] && current[i].isConnected; });
+            var result = {regions: {}, page: null};
+            var options = {resultTypes: ['violations'], elementRef: true};
+            if (tags.length) {
+                options.runOnly = {type: 'tag', values: tags};
+            }
+            var run = Promise.resolve();
+            if (targets.length) {
+                run = run.then(function () {
+                    return axe.run({include: targets.map(function (i) { return current[i]; })}, options);
+                }).then(function (results) {
+                    targets.forEach(function (i) { result.regions[i] = []; });
+                    violations(results.violations).forEach(function (found) {
+                        for (var t = 0; t < targets.length; t++) {
+                            if (current[targets[t]].contains(found.element)) {
+                                result.regions[targets[t]].push(found.violation);
+                                return;
+                            }
+                        }
+                    });
+                });
+            }
+            if (withPageRules) {
+                var ids = pageRules(tags);
+                run = run.then(function () {
+                    return ids.length ? axe.run(document, {resultTypes: ['violations'], elementRef: true,
+                        runOnly: {type: 'rule', values: ids}}) : {violations: []};
+                }).then(function (results) {
+                    result.page = violations(results.violations).map(function (found) { return found.violation; });
+                });
+            }
+            return run.then(function () { return JSON.stringify(result); });
+        }
+    };
+})();
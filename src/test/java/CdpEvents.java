@@ -0,0 +1,83 @@
+import org.openqa.selenium.devtools.v126.network.model.BlockedReason;
+import org.openqa.selenium.devtools.v126.network.model.DataReceived;
+import org.openqa.selenium.devtools.v126.network.model.Headers;
+import org.openqa.selenium.devtools.v126.network.model.Initiator;
+import org.openqa.selenium.devtools.v126.network.model.LoaderId;
+import org.openqa.selenium.devtools.v126.network.model.LoadingFailed;
+import org.openqa.selenium.devtools.v126.network.model.LoadingFinished;
+import org.openqa.selenium.devtools.v126.network.model.MonotonicTime;
+import org.openqa.selenium.devtools.v126.network.model.PostDataEntry;
+import org.openqa.selenium.devtools.v126.network.model.Request;
+import org.openqa.selenium.devtools.v126.network.model.RequestId;
+import org.openqa.selenium.devtools.v126.network.model.RequestWillBeSent;
+import org.openqa.selenium.devtools.v126.network.model.ResourcePriority;
+import org.openqa.selenium.devtools.v126.network.model.ResourceType;
+import org.openqa.selenium.devtools.v126.network.model.Response;
+import org.openqa.selenium.devtools.v126.network.model.ResponseReceived;
+import org.openqa.selenium.devtools.v126.network.model.TimeSinceEpoch;
+import org.openqa.selenium.devtools.v126.security.model.SecurityState;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Builds CDP Network events by hand, for tests that exercise listener code without a browser.
+ */
+final class CdpEvents {
+
+    private CdpEvents() {
+    }
+
+    static RequestWillBeSent requestWillBeSent(String id, String method, String url, double timestamp) {
+        return requestWillBeSent(id, method, url, timestamp, Optional.empty(), Optional.empty());
+    }
+
+    static RequestWillBeSent requestWillBeSent(String id, String method, String url, double timestamp,
+                                               Optional<String> postData, Optional<Response> redirectResponse) {
+        Request request = new Request(url, Optional.empty(), method,
+                new Headers(Map.of("Content-Type", "application/json")), postData, Optional.of(postData.isPresent()),
+                postData.map(body -> List.of(new PostDataEntry(Optional.of(
+                        Base64.getEncoder().encodeToString(body.getBytes(StandardCharsets.UTF_8)))))), Optional.empty(), ResourcePriority.HIGH, Request.ReferrerPolicy.NO_REFERRER,
+                Optional.empty(), Optional.empty(), Optional.empty());
+        return new RequestWillBeSent(new RequestId(id), new LoaderId("loader"), url, request,
+                new MonotonicTime(timestamp), new TimeSinceEpoch(1_700_000_000 + timestamp),
+                new Initiator(Initiator.Type.OTHER, Optional.empty(), Optional.empty(), Optional.empty(),
+                        Optional.empty(), Optional.empty()),
+                false, redirectResponse, Optional.of(ResourceType.XHR), Optional.empty(), Optional.empty());
+    }
+
+    static Response response(String url, int status, String mimeType, Map<String, Object> headers) {
+        return response(url, status, mimeType, headers, false);
+    }
+
+    static Response response(String url, int status, String mimeType, Map<String, Object> headers,
+                             boolean fromDiskCache) {
+        return new Response(url, status, "", new Headers(headers), Optional.empty(), mimeType, "utf-8",
+                Optional.empty(), Optional.empty(), false, 1, Optional.of("127.0.0.1"), Optional.of(443),
+                Optional.of(fromDiskCache), Optional.of(false), Optional.of(false), Optional.of(false), Optional.empty(),
+                0, Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.of("h2"),
+                Optional.empty(), SecurityState.SECURE, Optional.empty());
+    }
+
+    static ResponseReceived responseReceived(String id, ResourceType type, Response response, double timestamp) {
+        return new ResponseReceived(new RequestId(id), new LoaderId("loader"), new MonotonicTime(timestamp),
+                type, response, false, Optional.empty());
+    }
+
+    static DataReceived dataReceived(String id, double timestamp, int dataLength) {
+        return new DataReceived(new RequestId(id), new MonotonicTime(timestamp), dataLength, 0, Optional.empty());
+    }
+
+    static LoadingFinished loadingFinished(String id, double timestamp, long encodedDataLength) {
+        return new LoadingFinished(new RequestId(id), new MonotonicTime(timestamp), encodedDataLength);
+    }
+
+    static LoadingFailed loadingFailed(String id, double timestamp, ResourceType type, String error,
+                                       Optional<BlockedReason> blockedReason) {
+        return new LoadingFailed(new RequestId(id), new MonotonicTime(timestamp), type, error,
+                Optional.of(false), blockedReason, Optional.empty());
+    }
+}
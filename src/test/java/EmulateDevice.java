@@ -1,89 +1,110 @@
-
-import java.util.HashMap;
-
-import io.github.bonigarcia.wdm.WebDriverManager;
+import co.uk.accessibility.AccessibilityReport;
+import co.uk.accessibility.AccessibilityScanner;
+import co.uk.accessibility.AxeViolation;
+import co.uk.emulation.DeviceProfileRegistry;
+import co.uk.emulation.MatrixResult;
+import co.uk.emulation.ProfileMatrix;
+import co.uk.logging.CollectedLogEntry;
+import co.uk.logging.ConsoleLogCollector;
+import co.uk.session.BrowserSessionPool;
+import co.uk.session.PooledSession;
 import lombok.extern.slf4j.Slf4j;
-import org.junit.jupiter.api.AfterEach;
-import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import org.openqa.selenium.chrome.ChromeDriver;
 
-import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.v126.log.model.LogEntry;
 
-import org.openqa.selenium.devtools.v126.log.Log;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
 
 import static org.assertj.core.api.SoftAssertions.assertSoftly;
+
+/**
+ * Runs in parallel: every test gets its own browser context and DevTools session
+ * from {@link ParallelChromeExtension}, so there is no shared driver field.
+ */
 @Slf4j
+@ParallelChrome
 public class EmulateDevice {
-    public ChromeDriver driver;
-    /**
-     * Initialize the WebDriverManager and EdgeDriver.
-     * Go to the website under Test and maximize the browser window.
-     */
-    @BeforeEach
-    public void setupUrl() {
-        WebDriverManager.chromedriver().setup();
-         driver = new ChromeDriver(); // Create driver instance
-    }
 
-    /**
-     * Close the browser window.
-     */
-    @AfterEach
-    public void tearDown() {
-        driver.quit();
-    }
+    private static final DeviceProfileRegistry PROFILES = DeviceProfileRegistry.withDefaults();
 
     @Test
+    public void emulateDeviceWithSend(ChromeDriver driver, PooledSession session) {
 
-    public void emulateDeviceWithSend() throws InterruptedException {
-
-        DevTools devTool = driver.getDevTools(); // Create devTool instance
-
-        devTool.createSession();
-        // Simulating Device Mode
-        HashMap deviceMetrics = new HashMap() {{
-            put("width", 500);
-            put("height", 600);
-            put("mobile", true);
-            put("deviceScaleFactor", 50);
-            put("screenOrientation", new HashMap() {{
-                put("type", "portraitPrimary");
-                put("angle", 20);
-            }});
-        }};
-        driver.executeCdpCommand("Emulation.setDeviceMetricsOverride", deviceMetrics);
+        // Simulating Device Mode: metrics, user agent and touch are applied as one pipelined batch
+        PROFILES.get("pixel-7").applyTo(session.getAsyncDevTools());
 
         driver.get("https://ecommerce-playground.lambdatest.io");
-
+        assertSoftly(softly -> softly.assertThat(driver.executeScript("return window.innerWidth")).isEqualTo(412L));
     }
-    @Test
-
-    public void getConsoleLogs() {
-
-
-
-
-        DevTools devTool = driver.getDevTools();
 
-        devTool.createSession();
-
-       /* Browser.GetVersionResponse browser = devTool.send(Browser.getVersion());
-
-        System.out.println("Browser Version => "+browser.getProduct());
-
-        System.out.println("User Agent => "+browser.getUserAgent());*/
-        devTool.send(Log.enable());
-        devTool.addListener(Log.entryAdded(),
-                logEntry -> {
-                    System.out.println("log: "+logEntry.getText());
-                    System.out.println("level: "+logEntry.getLevel());
+    /**
+     * The same flow on every built-in profile, each in its own browser context, in parallel. The sessions
+     * come from the run's shared pool, so the matrix stays within the same browser limit as the other tests.
+     */
+    @Test
+    public void runAcrossDeviceMatrix(BrowserSessionPool pool) throws InterruptedException {
+        List<MatrixResult> results = new ProfileMatrix(pool, 4).run(PROFILES.get(PROFILES.names()),
+                (matrixSession, profile) -> {
+                    matrixSession.getDriver().get("https://ecommerce-playground.lambdatest.io");
+                    Object width = matrixSession.getDriver().executeScript("return window.innerWidth");
+                    if (((Number) width).intValue() != profile.getWidth()) {
+                        throw new AssertionError(profile.getName() + " rendered " + width + " px wide");
+                    }
                 });
+        ProfileMatrix.assertAllPassed(results);
+    }
 
-        driver.get("https://ecommerce-playground.lambdatest.io");
-
+    /**
+     * Console entries are collected in memory and only written out if the test fails. The page requests an
+     * image from a closed local port, so there is a network error to collect.
+     */
+    @Test
+    public void getConsoleLogs(ChromeDriver driver, ConsoleLogCollector consoleLogs) throws InterruptedException {
+        driver.get(testPage("<main><img alt='missing' src='http://127.0.0.1:9/missing.png'></main>"));
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (consoleLogs.getCount(LogEntry.Level.ERROR) == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(50);
+        }
+        log.info("Console: " + consoleLogs.summary());
+        assertSoftly(softly -> {
+            softly.assertThat(consoleLogs.getCount(LogEntry.Level.ERROR)).isPositive();
+            softly.assertThat(consoleLogs.getEntries()).extracting(CollectedLogEntry::getSource)
+                    .contains(LogEntry.Source.NETWORK);
+        });
+    }
 
+    /**
+     * axe runs on every step, but only on the regions that changed since the previous scan;
+     * header and footer of the second page come from the cache.
+     */
+    @Test
+    public void scanAccessibilityIncrementally(ChromeDriver driver, AccessibilityScanner accessibility) {
+        driver.get(testPage("<main><h1>Checkout</h1><input type='text'></main>"));
+        AccessibilityReport form = accessibility.scan("form");
+        driver.executeScript("document.querySelector('main').insertAdjacentHTML('beforeend', \"<img src='card.png'>\")");
+        AccessibilityReport formWithImage = accessibility.scan("form with image");
+        driver.get(testPage("<main><h1>Thank you</h1></main>"));
+        AccessibilityReport confirmation = accessibility.scan("confirmation");
+        accessibility.getReports().forEach(report -> log.info(report.toString()));
+
+        assertSoftly(softly -> {
+            softly.assertThat(form.getScannedRegions()).isEqualTo(3);
+            softly.assertThat(form.getViolations()).extracting(AxeViolation::getRuleId).contains("label");
+            softly.assertThat(formWithImage.getScannedRegions()).isEqualTo(1);
+            softly.assertThat(formWithImage.getViolations()).extracting(AxeViolation::getRuleId).contains("label", "image-alt");
+            softly.assertThat(confirmation.getScannedRegions()).isEqualTo(1);
+            softly.assertThat(confirmation.isViolationFree()).isTrue();
+        });
     }
 
+    private static String testPage(String main) {
+        String html = "<!doctype html><html lang='en'><head><title>Shop</title></head><body>"
+                + "<header><nav><a href='/'>Home</a></nav></header>" + main + "<footer>Contact us</footer></body></html>";
+        return "data:text/html," + URLEncoder.encode(html, StandardCharsets.UTF_8).replace("+", "%20");
+    }
 }
@@ -0,0 +1,128 @@
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openqa.selenium.devtools.Connection;
+import org.openqa.selenium.remote.http.HttpClient;
+import org.openqa.selenium.remote.http.HttpRequest;
+import org.openqa.selenium.remote.http.HttpResponse;
+import org.openqa.selenium.remote.http.Message;
+import org.openqa.selenium.remote.http.TextMessage;
+import org.openqa.selenium.remote.http.WebSocket;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * A Selenium {@link Connection} backed by a scripted browser: commands get an empty result, the result
+ * built by {@link #replying}, an error for methods registered with {@link #failing}, no reply at all
+ * for {@link #silent} ones, or a reply after a pause for {@link #delayed} ones. Events are pushed with {@link #emit}.
+ */
+final class FakeCdpConnection {
+
+    private static final ObjectMapper JSON = new ObjectMapper();
+
+    private final List<String> sentMethods = new CopyOnWriteArrayList<>();
+    private final Map<String, String> errors = new ConcurrentHashMap<>();
+    private final Map<String, Function<JsonNode, String>> results = new ConcurrentHashMap<>();
+    private final Set<String> silent = ConcurrentHashMap.newKeySet();
+    private final Map<String, Duration> delays = new ConcurrentHashMap<>();
+    private final Connection connection;
+    private WebSocket.Listener listener;
+
+    FakeCdpConnection() {
+        connection = new Connection(new HttpClient() {
+            @Override
+            public WebSocket openSocket(HttpRequest request, WebSocket.Listener socketListener) {
+                listener = socketListener;
+                return new WebSocket() {
+                    @Override
+                    public WebSocket send(Message message) {
+                        reply(((TextMessage) message).text());
+                        return this;
+                    }
+
+                    @Override
+                    public void close() {
+                    }
+                };
+            }
+
+            @Override
+            public HttpResponse execute(HttpRequest request) {
+                throw new UnsupportedOperationException();
+            }
+        }, "ws://fake/devtools/browser");
+    }
+
+    FakeCdpConnection failing(String method, String message) {
+        errors.put(method, message);
+        return this;
+    }
+
+    /**
+     * Answers {@code method} with the JSON result object that {@code result} builds from the command's params.
+     */
+    FakeCdpConnection replying(String method, Function<JsonNode, String> result) {
+        results.put(method, result);
+        return this;
+    }
+
+    FakeCdpConnection silent(String method) {
+        silent.add(method);
+        return this;
+    }
+
+    FakeCdpConnection delayed(String method, Duration delay) {
+        delays.put(method, delay);
+        return this;
+    }
+
+    Connection connection() {
+        return connection;
+    }
+
+    List<String> sentMethods() {
+        return sentMethods;
+    }
+
+    /**
+     * Delivers an event as if the browser had sent it; {@code params} is the JSON object of its parameters.
+     */
+    void emit(String method, String params) {
+        listener.onText("{\"method\":\"" + method + "\",\"params\":" + params + "}");
+    }
+
+    private void reply(String text) {
+        try {
+            JsonNode command = JSON.readTree(text);
+            String method = command.path("method").asText();
+            sentMethods.add(method);
+            if (silent.contains(method)) {
+                return;
+            }
+            long id = command.path("id").asLong();
+            String error = errors.get(method);
+            Function<JsonNode, String> result = results.get(method);
+            String answer = error != null
+                    ? "{\"id\":" + id + ",\"error\":{\"code\":-32000,\"message\":\"" + error + "\"}}"
+                    : "{\"id\":" + id + ",\"result\":" + (result == null ? "{}" : result.apply(command.path("params"))) + "}";
+            Duration delay = delays.get(method);
+            if (delay == null) {
+                listener.onText(answer);
+            } else {
+                CompletableFuture.delayedExecutor(delay.toMillis(), TimeUnit.MILLISECONDS)
+                        .execute(() -> listener.onText(answer));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
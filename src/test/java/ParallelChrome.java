@@ -0,0 +1,19 @@
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Runs the tests of a class concurrently, each with its own injected
+ * {@code ChromeDriver} / {@code DevTools} pair from {@link ParallelChromeExtension}.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@ExtendWith(ParallelChromeExtension.class)
+@Execution(ExecutionMode.CONCURRENT)
+public @interface ParallelChrome {
+}
@@ -0,0 +1,265 @@
+import co.uk.accessibility.AccessibilityScanner;
+import co.uk.accessibility.AxeResultCache;
+import co.uk.accessibility.AxeScanConfig;
+import co.uk.logging.ConsoleLogCollector;
+import co.uk.screencast.ScreencastRecorder;
+import co.uk.session.BrowserCapacity;
+import co.uk.session.BrowserSessionPool;
+import co.uk.session.ListenerTrackingDevTools;
+import co.uk.session.PooledSession;
+import co.uk.session.SessionPoolConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ParameterContext;
+import org.junit.jupiter.api.extension.ParameterResolutionException;
+import org.junit.jupiter.api.extension.ParameterResolver;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chrome.ChromeDriver;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.v126.log.Log;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Gives every test its own {@link ChromeDriver} / {@link DevTools} pair, injected as parameters.
+ * <p>
+ * The pair is leased from a {@link BrowserSessionPool} shared by the whole run and is confined to
+ * the thread that runs the test. The pool is capped by {@link BrowserCapacity}, so the number of
+ * browsers never exceeds what the machine's memory allows.
+ * <p>
+ * After each test the extension reports DevTools listeners the test registered and never cleared.
+ * Those listeners are muted either way; with {@code -Dchrome.failOnListenerLeak=true} the test fails.
+ * <p>
+ * A {@link ConsoleLogCollector} parameter collects the session's console log; it is written to
+ * {@code target/console-logs} only if the test fails.
+ * <p>
+ * Every session also runs a {@link ScreencastRecorder}; the last seconds before a failure are written
+ * to {@code target/screencasts}, passing tests only pay for the in-memory frames. Turn it off with
+ * {@code -Dchrome.screencast=false}, or inject a {@link ScreencastRecorder} to get one for a single test.
+ * <p>
+ * An {@link AccessibilityScanner} parameter has axe registered on the session before the test starts;
+ * all scanners of the run share one {@link AxeResultCache}.
+ * <p>
+ * A {@link BrowserSessionPool} parameter is the shared pool itself, for tests that lease several sessions
+ * at once. Such a test gets no session of its own, so it cannot hold a browser while waiting for another.
+ */
+@Slf4j
+public class ParallelChromeExtension implements ParameterResolver, AfterEachCallback {
+
+    static final String FAIL_ON_LEAK_PROPERTY = "chrome.failOnListenerLeak";
+    static final String HEADLESS_PROPERTY = "chrome.headless";
+    static final String CONSOLE_LOG_DIRECTORY = "target/console-logs";
+    static final String SCREENCAST_PROPERTY = "chrome.screencast";
+    static final String SCREENCAST_DIRECTORY = "target/screencasts";
+
+    private static final ExtensionContext.Namespace NAMESPACE = ExtensionContext.Namespace.create(ParallelChromeExtension.class);
+
+    @Override
+    public boolean supportsParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        Class<?> type = parameterContext.getParameter().getType();
+        return type == ChromeDriver.class || type == WebDriver.class
+                || type == DevTools.class || type == PooledSession.class || type == ConsoleLogCollector.class
+                || type == ScreencastRecorder.class || type == AccessibilityScanner.class
+                || type == BrowserSessionPool.class;
+    }
+
+    @Override
+    public Object resolveParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        Class<?> type = parameterContext.getParameter().getType();
+        if (type == BrowserSessionPool.class) {
+            return sharedPool(extensionContext);
+        }
+        PooledSession session = lease(extensionContext);
+        if (type == DevTools.class) {
+            return session.getDevTools();
+        }
+        if (type == PooledSession.class) {
+            return session;
+        }
+        if (type == ConsoleLogCollector.class) {
+            return consoleLogs(extensionContext);
+        }
+        if (type == ScreencastRecorder.class) {
+            return screencast(extensionContext);
+        }
+        if (type == AccessibilityScanner.class) {
+            return AccessibilityScanner.install(session.getAsyncDevTools(), sharedAxeCache(extensionContext),
+                    AxeScanConfig.builder().build());
+        }
+        return session.getDriver();
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) {
+        ThreadSession threadSession = context.getStore(NAMESPACE).get(ThreadSession.class, ThreadSession.class);
+        if (threadSession == null) {
+            return;
+        }
+        if (threadSession.screencast != null) {
+            // Closing the recorder removes its frame listener before the leak check.
+            writeScreencastOnFailure(context, threadSession.screencast);
+        }
+        List<String> leaked = ((ListenerTrackingDevTools) threadSession.session.getDevTools()).retire();
+        if (threadSession.consoleLogs != null) {
+            // The collector's listener belongs to the extension, not to the test.
+            leaked.remove(Log.entryAdded().getMethod());
+            writeConsoleLogsOnFailure(context, threadSession.consoleLogs);
+        }
+        if (leaked.isEmpty()) {
+            return;
+        }
+        String message = context.getDisplayName() + " left " + leaked.size() + " DevTools listener(s) registered: " + leaked;
+        if (Boolean.getBoolean(FAIL_ON_LEAK_PROPERTY)) {
+            throw new IllegalStateException(message);
+        }
+        log.warn(message);
+    }
+
+    private PooledSession lease(ExtensionContext context) {
+        ThreadSession threadSession = context.getStore(NAMESPACE).getOrComputeIfAbsent(ThreadSession.class,
+                key -> new ThreadSession(sharedPool(context)), ThreadSession.class);
+        if (threadSession.owner != Thread.currentThread()) {
+            throw new ParameterResolutionException("Session of " + context.getDisplayName()
+                    + " belongs to " + threadSession.owner.getName() + ", not " + Thread.currentThread().getName());
+        }
+        if (threadSession.screencast == null && Boolean.parseBoolean(System.getProperty(SCREENCAST_PROPERTY, "true"))) {
+            startScreencast(threadSession);
+        }
+        return threadSession.session;
+    }
+
+    private ConsoleLogCollector consoleLogs(ExtensionContext context) {
+        ThreadSession threadSession = context.getStore(NAMESPACE).get(ThreadSession.class, ThreadSession.class);
+        if (threadSession.consoleLogs == null) {
+            threadSession.consoleLogs = new ConsoleLogCollector(threadSession.session.getDevTools()).start();
+        }
+        return threadSession.consoleLogs;
+    }
+
+    private ScreencastRecorder screencast(ExtensionContext context) {
+        ThreadSession threadSession = context.getStore(NAMESPACE).get(ThreadSession.class, ThreadSession.class);
+        if (threadSession.screencast == null) {
+            threadSession.screencast = new ScreencastRecorder(threadSession.session.getAsyncDevTools()).start();
+        }
+        return threadSession.screencast;
+    }
+
+    /**
+     * A screencast that does not start must not fail the test it is only there to explain.
+     */
+    private static void startScreencast(ThreadSession threadSession) {
+        ScreencastRecorder screencast = new ScreencastRecorder(threadSession.session.getAsyncDevTools());
+        threadSession.screencast = screencast;
+        try {
+            screencast.start();
+        } catch (RuntimeException e) {
+            log.warn("Could not start the screencast", e);
+        }
+    }
+
+    /**
+     * Stops the recorder and, only if the test failed, writes its frames next to the surefire reports.
+     */
+    private static void writeScreencastOnFailure(ExtensionContext context, ScreencastRecorder screencast) {
+        screencast.close();
+        if (context.getExecutionException().isEmpty()) {
+            return;
+        }
+        Path directory = Path.of(SCREENCAST_DIRECTORY,
+                context.getRequiredTestClass().getSimpleName() + "." + context.getRequiredTestMethod().getName());
+        try {
+            int frames = screencast.writeFrames(directory);
+            log.info("Screencast of failed test written to " + directory.toAbsolutePath() + ": " + frames + " frames, "
+                    + screencast.summary());
+        } catch (IOException e) {
+            log.warn("Could not write screencast " + directory, e);
+        }
+    }
+
+    /**
+     * Passing tests leave no trace; a failing one gets its console log next to the surefire reports.
+     */
+    private static void writeConsoleLogsOnFailure(ExtensionContext context, ConsoleLogCollector consoleLogs) {
+        consoleLogs.close();
+        if (context.getExecutionException().isEmpty()) {
+            return;
+        }
+        Path report = Path.of(CONSOLE_LOG_DIRECTORY,
+                context.getRequiredTestClass().getSimpleName() + "." + context.getRequiredTestMethod().getName() + ".log");
+        try {
+            consoleLogs.writeReport(report);
+            log.info("Console log of failed test written to " + report.toAbsolutePath());
+        } catch (IOException e) {
+            log.warn("Could not write console log report " + report, e);
+        }
+    }
+
+    private static BrowserSessionPool sharedPool(ExtensionContext context) {
+        return context.getRoot().getStore(NAMESPACE)
+                .getOrComputeIfAbsent(SharedPool.class, key -> new SharedPool(), SharedPool.class).pool;
+    }
+
+    private static AxeResultCache sharedAxeCache(ExtensionContext context) {
+        return context.getRoot().getStore(NAMESPACE)
+                .getOrComputeIfAbsent(AxeResultCache.class, key -> new AxeResultCache(), AxeResultCache.class);
+    }
+
+    private static ChromeDriver startDriver() {
+        ChromeOptions options = new ChromeOptions();
+        if (Boolean.parseBoolean(System.getProperty(HEADLESS_PROPERTY, "true"))) {
+            options.addArguments("--headless=new");
+        }
+        return new ChromeDriver(options);
+    }
+
+    /**
+     * Lives in the root store, so JUnit closes it once the whole run is over.
+     */
+    private static class SharedPool implements ExtensionContext.Store.CloseableResource {
+        final BrowserSessionPool pool;
+
+        SharedPool() {
+            int browsers = BrowserCapacity.maxParallelBrowsers();
+            log.info("Running with up to " + browsers + " parallel browsers");
+            pool = new BrowserSessionPool(SessionPoolConfig.builder()
+                    .driverFactory(ParallelChromeExtension::startDriver)
+                    .devToolsFactory(ListenerTrackingDevTools::new)
+                    .warmBrowsers(0)
+                    .maxBrowsers(browsers)
+                    .build());
+        }
+
+        @Override
+        public void close() {
+            pool.close();
+        }
+    }
+
+    /**
+     * Lives in the test method's store, so the lease goes back to the pool when the test ends.
+     */
+    private static class ThreadSession implements ExtensionContext.Store.CloseableResource {
+        final Thread owner = Thread.currentThread();
+        final PooledSession session;
+        ConsoleLogCollector consoleLogs;
+        ScreencastRecorder screencast;
+
+        ThreadSession(BrowserSessionPool pool) {
+            try {
+                session = pool.lease();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ParameterResolutionException("Interrupted while waiting for a browser", e);
+            }
+        }
+
+        @Override
+        public void close() {
+            session.close();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A local web site for tests: fixed responses per path on a free loopback port, optionally delayed.
+ * Unknown paths get a 404.
+ */
+final class StaticHttpServer implements AutoCloseable {
+
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "static-http");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Map<String, Resource> resources = new ConcurrentHashMap<>();
+
+    private StaticHttpServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+    }
+
+    static StaticHttpServer start() {
+        try {
+            return new StaticHttpServer();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    StaticHttpServer html(String path, String body) {
+        return resource(path, "text/html; charset=utf-8", body.getBytes(StandardCharsets.UTF_8), Duration.ZERO);
+    }
+
+    StaticHttpServer resource(String path, String contentType, byte[] body, Duration delay) {
+        resources.put(path, new Resource(contentType, body, delay));
+        return this;
+    }
+
+    String url(String path) {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + path;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            Resource resource = resources.get(exchange.getRequestURI().getPath());
+            if (resource == null) {
+                byte[] notFound = "<!doctype html><title>Not found</title>".getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "text/html; charset=utf-8");
+                exchange.sendResponseHeaders(404, notFound.length);
+                exchange.getResponseBody().write(notFound);
+                return;
+            }
+            if (!resource.delay.isZero()) {
+                Thread.sleep(resource.delay.toMillis());
+            }
+            exchange.getResponseHeaders().set("Content-Type", resource.contentType);
+            exchange.sendResponseHeaders(200, resource.body.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(resource.body);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            exchange.close();
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private static final class Resource {
+        final String contentType;
+        final byte[] body;
+        final Duration delay;
+
+        Resource(String contentType, byte[] body, Duration delay) {
+            this.contentType = contentType;
+            this.body = body;
+            this.delay = delay;
+        }
+    }
+}
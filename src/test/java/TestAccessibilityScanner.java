@@ -0,0 +1,171 @@
+import co.uk.accessibility.AccessibilityReport;
+import co.uk.accessibility.AccessibilityScanner;
+import co.uk.accessibility.AxePage;
+import co.uk.accessibility.AxeResultCache;
+import co.uk.accessibility.AxeScanConfig;
+import co.uk.accessibility.AxeViolation;
+import co.uk.accessibility.PageRegions;
+import co.uk.accessibility.RegionResults;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.SoftAssertions.assertSoftly;
+
+/**
+ * What {@link AccessibilityScanner} sends to axe on each scan: only the regions missing from the
+ * cache, page-level rules only for new or mutated documents, and cached results across sessions with
+ * the same styles.
+ */
+public class TestAccessibilityScanner {
+
+    private static final AxeViolation MISSING_LABEL = violation("label", "main > input");
+    private static final AxeViolation MISSING_ALT = violation("image-alt", "main > img");
+    private static final AxeViolation NO_TITLE = violation("document-title", "html");
+
+    /**
+     * Unchanged regions come from the cache and page-level rules only rerun after a mutation.
+     */
+    @Test
+    void rescansOnlyChangedRegions() {
+        ScriptedPage page = new ScriptedPage()
+                .region("header-1", List.of())
+                .region("main-1", List.of(MISSING_LABEL))
+                .region("main-2", List.of(MISSING_LABEL, MISSING_ALT))
+                .region("footer-1", List.of())
+                .pageViolations(List.of(NO_TITLE));
+        AccessibilityScanner scanner = new AccessibilityScanner(page, new AxeResultCache(), AxeScanConfig.builder().build());
+
+        page.document("doc-1", true, "header-1", "main-1", "footer-1");
+        AccessibilityReport first = scanner.scan("form");
+        page.document("doc-1", false, "header-1", "main-1", "footer-1");
+        AccessibilityReport unchanged = scanner.scan("form again");
+        page.document("doc-1", true, "header-1", "main-2", "footer-1");
+        AccessibilityReport mutated = scanner.scan("form with image");
+
+        assertSoftly(softly -> {
+            softly.assertThat(page.scans).containsExactly(List.of(0, 1, 2), List.of(1));
+            softly.assertThat(first.getViolations()).containsExactly(NO_TITLE, MISSING_LABEL.inRegion(regionPath(1)));
+            softly.assertThat(first.isPageRulesScanned()).isTrue();
+            softly.assertThat(unchanged.getScannedRegions()).isZero();
+            softly.assertThat(unchanged.isPageRulesScanned()).isFalse();
+            softly.assertThat(unchanged.getViolations()).containsExactly(NO_TITLE, MISSING_LABEL.inRegion(regionPath(1)));
+            softly.assertThat(mutated.getScannedRegions()).isEqualTo(1);
+            softly.assertThat(mutated.getViolations())
+                    .containsExactly(NO_TITLE, MISSING_LABEL.inRegion(regionPath(1)), MISSING_ALT.inRegion(regionPath(1)));
+            softly.assertThat(scanner.getReports()).hasSize(3);
+        });
+    }
+
+    /**
+     * A second session on the same content scans only the page-level rules. Identical regions share a
+     * cache entry but are still reported apart.
+     */
+    @Test
+    void sharesTheCacheAcrossSessions() {
+        AxeResultCache cache = new AxeResultCache();
+        AxeScanConfig config = AxeScanConfig.builder().tag("wcag2a").build();
+        ScriptedPage firstTab = new ScriptedPage().region("card", List.of(MISSING_ALT)).pageViolations(List.of());
+        ScriptedPage secondTab = new ScriptedPage().region("card", List.of(MISSING_ALT)).pageViolations(List.of());
+
+        firstTab.document("a", true, "card", "card");
+        new AccessibilityScanner(firstTab, cache, config).scan("list");
+        secondTab.document("b", true, "card", "card");
+        AccessibilityReport second = new AccessibilityScanner(secondTab, cache, config).scan("list");
+        secondTab.document("b", false, "card");
+        AccessibilityReport otherTags = new AccessibilityScanner(secondTab, cache, AxeScanConfig.builder().build()).scan("list");
+
+        assertSoftly(softly -> {
+            softly.assertThat(firstTab.scans).containsExactly(List.of(0, 1));
+            softly.assertThat(second.getScannedRegions()).isZero();
+            softly.assertThat(second.isPageRulesScanned()).isTrue();
+            softly.assertThat(second.getViolations()).containsExactly(MISSING_ALT.inRegion(regionPath(0)), MISSING_ALT.inRegion(regionPath(1)));
+            softly.assertThat(otherTags.getScannedRegions()).isEqualTo(1);
+            softly.assertThat(cache.getHits()).isEqualTo(2);
+        });
+    }
+
+    /**
+     * The same markup under another origin or other stylesheets is scanned again, since colour contrast may differ.
+     */
+    @Test
+    void keysResultsByStyles() {
+        AxeResultCache cache = new AxeResultCache();
+        AxeScanConfig config = AxeScanConfig.builder().build();
+        ScriptedPage lightTheme = new ScriptedPage().region("card", List.of()).pageViolations(List.of());
+        ScriptedPage darkTheme = new ScriptedPage().styles("dark-styles")
+                .region("card", List.of(MISSING_ALT)).pageViolations(List.of());
+
+        lightTheme.document("a", true, "card");
+        new AccessibilityScanner(lightTheme, cache, config).scan("card");
+        darkTheme.document("b", true, "card");
+        AccessibilityReport dark = new AccessibilityScanner(darkTheme, cache, config).scan("card");
+
+        assertSoftly(softly -> {
+            softly.assertThat(dark.getScannedRegions()).isEqualTo(1);
+            softly.assertThat(dark.getViolations()).containsExactly(MISSING_ALT.inRegion(regionPath(0)));
+            softly.assertThat(cache.size()).isEqualTo(2);
+        });
+    }
+
+    private static AxeViolation violation(String ruleId, String target) {
+        return new AxeViolation(ruleId, "serious", ruleId + " help", "https://dequeuniversity.com/rules/axe/4.9/" + ruleId,
+                target, null, "<" + target + ">", null);
+    }
+
+    private static String regionPath(int index) {
+        return "body > section:nth-of-type(" + (index + 1) + ")";
+    }
+
+    /**
+     * Serves the regions set up by {@link #document} and answers scans from fixed results per hash.
+     */
+    private static class ScriptedPage implements AxePage {
+        final List<List<Integer>> scans = new ArrayList<>();
+        private final Map<String, List<AxeViolation>> results = new LinkedHashMap<>();
+        private List<AxeViolation> pageViolations;
+        private String styles = "shop.test-styles";
+        private PageRegions current;
+
+        ScriptedPage region(String hash, List<AxeViolation> violations) {
+            results.put(hash, violations);
+            return this;
+        }
+
+        ScriptedPage pageViolations(List<AxeViolation> violations) {
+            pageViolations = violations;
+            return this;
+        }
+
+        ScriptedPage styles(String digest) {
+            styles = digest;
+            return this;
+        }
+
+        void document(String document, boolean changed, String... hashes) {
+            List<String> paths = new ArrayList<>();
+            for (int i = 0; i < hashes.length; i++) {
+                paths.add(regionPath(i));
+            }
+            current = new PageRegions(document, "https://shop.test/" + document, styles, changed, List.of(hashes), paths);
+        }
+
+        @Override
+        public PageRegions regions() {
+            return current;
+        }
+
+        @Override
+        public RegionResults scan(List<Integer> regions, boolean pageRules) {
+            if (!regions.isEmpty()) {
+                scans.add(List.copyOf(regions));
+            }
+            Map<Integer, List<AxeViolation>> scanned = new LinkedHashMap<>();
+            regions.forEach(index -> scanned.put(index, results.get(current.getHashes().get(index))));
+            return new RegionResults(scanned, pageRules ? pageViolations : null);
+        }
+    }
+}
@@ -0,0 +1,113 @@
+import co.uk.cdp.AsyncDevTools;
+import co.uk.cdp.BatchResult;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.devtools.DevToolsException;
+import org.openqa.selenium.devtools.idealized.target.model.SessionID;
+import org.openqa.selenium.devtools.v126.network.Network;
+import org.openqa.selenium.devtools.v126.security.Security;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.SoftAssertions.assertSoftly;
+
+/**
+ * Batches and per-command timeouts of {@link AsyncDevTools}, with replies, errors and missing replies
+ * scripted per CDP method.
+ */
+public class TestAsyncDevTools {
+
+    /**
+     * A batch is sent in order and reports each command's outcome, failed ones included.
+     */
+    @Test
+    void batchReportsEveryOutcomeInOrder() {
+        FakeCdpConnection fake = new FakeCdpConnection().failing("Network.clearBrowserCache", "Not allowed");
+        AsyncDevTools devTools = new AsyncDevTools(fake.connection(), new SessionID("session"), Duration.ofSeconds(5));
+
+        BatchResult result = devTools.batch()
+                .add(Network.enable(Optional.empty(), Optional.empty(), Optional.empty()))
+                .add(Network.setCacheDisabled(true))
+                .add(Network.clearBrowserCache())
+                .add(Network.setBlockedURLs(List.of("*.png")))
+                .send().join();
+
+        assertSoftly(softly -> {
+            softly.assertThat(fake.sentMethods()).containsExactly("Network.enable", "Network.setCacheDisabled",
+                    "Network.clearBrowserCache", "Network.setBlockedURLs");
+            softly.assertThat(result.getOutcomes()).extracting("success").containsExactly(true, true, false, true);
+            softly.assertThat(result.getFailures().get(0).getError()).hasMessageContaining("Network.clearBrowserCache failed");
+        });
+        assertThatThrownBy(result::throwIfFailed)
+                .isInstanceOf(DevToolsException.class)
+                .hasMessageContaining("1 of 4 commands failed: #2 Network.clearBrowserCache failed");
+    }
+
+    /**
+     * A command without a reply times out on its own without holding up the others.
+     */
+    @Test
+    void timesOutPerCommand() {
+        FakeCdpConnection fake = new FakeCdpConnection().silent("Security.setIgnoreCertificateErrors");
+        AsyncDevTools devTools = new AsyncDevTools(fake.connection(), new SessionID("session"), Duration.ofSeconds(5));
+
+        BatchResult result = devTools.batch()
+                .add(Security.enable())
+                .add(Security.setIgnoreCertificateErrors(true),
+                        Duration.ofMillis(200))
+                .send().join();
+
+        assertSoftly(softly -> {
+            softly.assertThat(result.getOutcomes().get(0).isSuccess()).isTrue();
+            softly.assertThat(result.getOutcomes().get(1).getError())
+                    .hasMessageContaining("Security.setIgnoreCertificateErrors timed out after 200 ms");
+        });
+        assertThatThrownBy(() -> devTools.send(Security.setIgnoreCertificateErrors(true), Duration.ofMillis(50)).join())
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(DevToolsException.class);
+    }
+
+    /**
+     * A reply that arrives after its command timed out is recognised, and commands stop going out
+     * once too many replies are missing.
+     */
+    @Test
+    void tracksCommandsThatTimedOut() throws InterruptedException {
+        FakeCdpConnection fake = new FakeCdpConnection()
+                .delayed("Network.enable", Duration.ofMillis(300))
+                .silent("Security.setIgnoreCertificateErrors");
+        AsyncDevTools devTools = new AsyncDevTools(fake.connection(), new SessionID("session"), Duration.ofSeconds(5));
+
+        assertThatThrownBy(() -> devTools.send(Network.enable(Optional.empty(), Optional.empty(), Optional.empty()),
+                Duration.ofMillis(50)).join())
+                .hasCauseInstanceOf(DevToolsException.class);
+        int unansweredAfterTimeout = devTools.getUnansweredCommands();
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (devTools.getLateReplies() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        long lateReplies = devTools.getLateReplies();
+
+        List<CompletableFuture<Void>> silent = new ArrayList<>();
+        for (int i = 0; i < AsyncDevTools.MAX_UNANSWERED; i++) {
+            silent.add(devTools.send(Security.setIgnoreCertificateErrors(true), Duration.ofMillis(20)));
+        }
+        silent.forEach(future -> future.exceptionally(error -> null).join());
+
+        assertSoftly(softly -> {
+            softly.assertThat(unansweredAfterTimeout).isEqualTo(1);
+            softly.assertThat(lateReplies).isEqualTo(1);
+            softly.assertThat(devTools.getUnansweredCommands()).isEqualTo(AsyncDevTools.MAX_UNANSWERED);
+            softly.assertThat(devTools.send(Security.enable()))
+                    .failsWithin(Duration.ZERO)
+                    .withThrowableOfType(ExecutionException.class)
+                    .withMessageContaining("earlier commands never got a reply");
+        });
+    }
+}
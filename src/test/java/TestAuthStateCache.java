@@ -0,0 +1,147 @@
+import co.uk.auth.AuthCacheConfig;
+import co.uk.auth.AuthSnapshot;
+import co.uk.auth.AuthStateCache;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.v126.network.model.CookieParam;
+import org.openqa.selenium.devtools.v126.network.model.CookieSameSite;
+import org.openqa.selenium.devtools.v126.network.model.TimeSinceEpoch;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.assertj.core.api.SoftAssertions.assertSoftly;
+
+/**
+ * The login cache per role, its expiry and failure handling, and the round trip of an
+ * {@link AuthSnapshot} through its file and back into a session.
+ */
+public class TestAuthStateCache {
+
+    private static final Instant CAPTURED = Instant.parse("2026-10-16T09:00:00Z");
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Parallel sessions share one login; a second run reads the file and an expired snapshot logs in again.
+     */
+    @Test
+    void logsInOncePerRoleUntilExpiry() throws Exception {
+        AtomicInteger logins = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        AuthStateCache cache = new AuthStateCache(config(CAPTURED.plusSeconds(60)));
+        ExecutorService sessions = Executors.newFixedThreadPool(8);
+        List<Future<AuthSnapshot>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(sessions.submit(() -> {
+                start.await();
+                return cache.get("admin", role -> {
+                    logins.incrementAndGet();
+                    Thread.sleep(50);
+                    return snapshot(role);
+                });
+            }));
+        }
+        start.countDown();
+        for (Future<AuthSnapshot> result : results) {
+            result.get();
+        }
+        sessions.shutdown();
+
+        AuthStateCache nextRun = new AuthStateCache(config(CAPTURED.plusSeconds(120)));
+        AuthSnapshot fromDisk = nextRun.get("admin", role -> {
+            throw new AssertionError("Should come from the snapshot file");
+        });
+        AuthStateCache afterExpiry = new AuthStateCache(config(CAPTURED.plus(Duration.ofHours(1))));
+        afterExpiry.get("admin", role -> snapshot(role));
+
+        assertSoftly(softly -> {
+            softly.assertThat(logins).hasValue(1);
+            softly.assertThat(cache.getLogins()).isEqualTo(1);
+            softly.assertThat(nextRun.getLogins()).isZero();
+            softly.assertThat(fromDisk.getCookies()).hasSize(2);
+            softly.assertThat(afterExpiry.getLogins()).isEqualTo(1);
+        });
+    }
+
+    /**
+     * A login that fails with an Error reaches its caller and does not leave the role stuck; the next call logs in.
+     */
+    @Test
+    void retriesAfterLoginThrowsError() {
+        AuthStateCache cache = new AuthStateCache(config(CAPTURED.plusSeconds(60)));
+        Throwable failure = catchThrowable(() -> cache.get("admin", role -> {
+            throw new AssertionError("login page changed");
+        }));
+        AuthSnapshot retried = cache.get("admin", role -> snapshot(role));
+
+        assertSoftly(softly -> {
+            softly.assertThat(failure).isInstanceOf(AssertionError.class).hasMessage("login page changed");
+            softly.assertThat(retried.getRole()).isEqualTo("admin");
+            softly.assertThat(cache.getLogins()).isEqualTo(2);
+        });
+    }
+
+    /**
+     * A file round trip keeps every cookie attribute and the storage; expired cookies are not restored.
+     */
+    @Test
+    void restoresCookiesInBulkAndInjectsStorage() throws IOException {
+        Path file = tempDir.resolve("shopper.json.gz");
+        snapshot("shopper").write(file);
+        AuthSnapshot read = AuthSnapshot.read(file);
+        List<Command<?>> commands = read.restoreCommands(CAPTURED.plus(Duration.ofDays(2)));
+
+        CookieParam session = read.getCookies().get(0);
+        assertSoftly(softly -> {
+            softly.assertThat(session.getName()).isEqualTo("session");
+            softly.assertThat(session.getDomain()).contains("shop.test");
+            softly.assertThat(session.getHttpOnly()).contains(true);
+            softly.assertThat(session.getSameSite()).contains(CookieSameSite.LAX);
+            softly.assertThat(session.getExpires()).isEmpty();
+            softly.assertThat(read.getLocalStorage()).containsEntry("cart", "{\"items\":[1,2]}");
+            softly.assertThat(read.getSessionStorage()).containsEntry("tab", "1");
+            softly.assertThat(commands).extracting(Command::getMethod)
+                    .containsExactly("Network.setCookies", "Page.addScriptToEvaluateOnNewDocument");
+            softly.assertThat((List<?>) commands.get(0).getParams().get("cookies")).hasSize(1);
+            softly.assertThat(String.valueOf(commands.get(1).getParams().get("source")))
+                    .contains("https://shop.test", "\"cart\":\"{\\\"items\\\":[1,2]}\"");
+        });
+    }
+
+    private AuthCacheConfig config(Instant now) {
+        return AuthCacheConfig.builder()
+                .directory(tempDir)
+                .timeToLive(Duration.ofMinutes(30))
+                .clock(Clock.fixed(now, ZoneOffset.UTC))
+                .build();
+    }
+
+    private static AuthSnapshot snapshot(String role) {
+        CookieParam session = new CookieParam("session", "abc123", Optional.empty(), Optional.of("shop.test"),
+                Optional.of("/"), Optional.of(true), Optional.of(true), Optional.of(CookieSameSite.LAX),
+                Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty());
+        CookieParam promo = new CookieParam("promo", "spring", Optional.empty(), Optional.of("shop.test"),
+                Optional.of("/"), Optional.of(false), Optional.of(false), Optional.empty(),
+                Optional.of(new TimeSinceEpoch(CAPTURED.plus(Duration.ofDays(1)).getEpochSecond())),
+                Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty(), Optional.empty());
+        return new AuthSnapshot(role, "https://shop.test", CAPTURED, List.of(session, promo),
+                Map.of("cart", "{\"items\":[1,2]}"), Map.of("tab", "1"));
+    }
+}
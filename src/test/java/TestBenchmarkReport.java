@@ -0,0 +1,71 @@
+import co.uk.benchmark.BenchmarkReport;
+import co.uk.benchmark.CacheMode;
+import co.uk.benchmark.SampleStatistics;
+import co.uk.benchmark.ScenarioResult;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.SoftAssertions.assertSoftly;
+import static org.assertj.core.data.Offset.offset;
+
+/**
+ * Sample statistics of a benchmark run and the comparison of a {@link BenchmarkReport} against a
+ * baseline, from fixed load times.
+ */
+public class TestBenchmarkReport {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Mean, sample standard deviation and a 95% Student-t interval.
+     */
+    @Test
+    void computesConfidenceInterval() {
+        SampleStatistics stats = SampleStatistics.of(new double[]{100, 110, 90, 105, 95, 100, 102, 98, 101, 99}, 0.95);
+
+        assertSoftly(softly -> {
+            softly.assertThat(stats.getMean()).isEqualTo(100.0);
+            softly.assertThat(stats.getStandardDeviation()).isCloseTo(5.3748, offset(1e-3));
+            // t(0.975, 9) = 2.2622, half width = 2.2622 * 5.3748 / sqrt(10)
+            softly.assertThat(stats.getConfidenceLow()).isCloseTo(96.155, offset(1e-2));
+            softly.assertThat(stats.getConfidenceHigh()).isCloseTo(103.845, offset(1e-2));
+            softly.assertThat(stats.getMedian()).isEqualTo(100.0);
+        });
+    }
+
+    /**
+     * Only a slowdown beyond the tolerance whose interval clears the baseline interval is a regression.
+     */
+    @Test
+    void flagsSignificantRegressionsOnly() throws IOException {
+        Path baseline = tempDir.resolve("baseline.json");
+        report(new double[]{100, 101, 99, 100, 100}, new double[]{50, 51, 49, 50, 50}).writeJson(baseline);
+
+        BenchmarkReport noisy = report(new double[]{95, 130, 100, 125, 110}, new double[]{50, 50, 51, 49, 50});
+        BenchmarkReport slower = report(new double[]{130, 131, 129, 130, 130}, new double[]{50, 50, 51, 49, 50});
+
+        List<String> noisyRegressions = noisy.compareTo(baseline, 0.10);
+        List<String> slowerRegressions = slower.compareTo(baseline, 0.10);
+        assertSoftly(softly -> {
+            softly.assertThat(noisyRegressions).isEmpty();
+            softly.assertThat(slowerRegressions).singleElement().asString().startsWith("home/COLD load: 130.0 ms");
+        });
+        assertThatThrownBy(() -> slower.assertNoRegressions(baseline, 0.10))
+                .isInstanceOf(AssertionError.class)
+                .hasMessageContaining("+30%");
+    }
+
+    private static BenchmarkReport report(double[] load, double[] domContentLoaded) {
+        return new BenchmarkReport(List.of(new ScenarioResult("home", "https://site.test/", CacheMode.COLD,
+                Map.of("load", SampleStatistics.of(load, 0.95),
+                        "domContentLoaded", SampleStatistics.of(domContentLoaded, 0.95)),
+                List.of())));
+    }
+}
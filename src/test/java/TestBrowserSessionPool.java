@@ -0,0 +1,81 @@
+import co.uk.session.BrowserSessionPool;
+import co.uk.session.PooledSession;
+import co.uk.session.SessionPoolConfig;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.Cookie;
+import org.openqa.selenium.devtools.v126.network.Network;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.SoftAssertions.assertSoftly;
+
+@Slf4j
+public class TestBrowserSessionPool {
+
+    private static BrowserSessionPool pool;
+
+    private PooledSession session;
+
+    /**
+     * Start the warm browsers once for the whole class.
+     */
+    @BeforeAll
+    public static void startPool() {
+        pool = new BrowserSessionPool(SessionPoolConfig.builder()
+                .warmBrowsers(1)
+                .maxBrowsers(1)
+                .maxUsesPerBrowser(10)
+                .build());
+    }
+
+    /**
+     * Lease a fresh browser context for every test.
+     */
+    @BeforeEach
+    public void leaseSession() throws InterruptedException {
+        session = pool.lease();
+    }
+
+    /**
+     * Dispose the context and give the browser back to the pool.
+     */
+    @AfterEach
+    public void releaseSession() {
+        session.close();
+    }
+
+    @AfterAll
+    public static void stopPool() {
+        pool.close();
+    }
+
+    /**
+     * A cookie written in one lease must not be visible in the next one.
+     */
+    @Test
+    void cookiesDoNotLeakBetweenLeases() throws InterruptedException {
+        session.getDriver().get("https://ecommerce-playground.lambdatest.io");
+        session.getDriver().manage().addCookie(new Cookie("pool-marker", "1"));
+        session.close();
+
+        session = pool.lease();
+        session.getDriver().get("https://ecommerce-playground.lambdatest.io");
+        assertSoftly(softly -> softly.assertThat(session.getDriver().manage().getCookieNamed("pool-marker")).isNull());
+    }
+
+    /**
+     * The leased DevTools session is attached to the context's page and ready to use.
+     */
+    @Test
+    void devToolsSessionIsAttached() {
+        session.getDevTools().send(Network.enable(Optional.empty(), Optional.empty(), Optional.empty()));
+        session.getDriver().get("https://ecommerce-playground.lambdatest.io");
+        assertSoftly(softly -> softly.assertThat(session.getDriver().getTitle()).contains("Your Store"));
+        log.info("Pool so far: " + pool.getStats());
+    }
+}
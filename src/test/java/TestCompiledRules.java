@@ -0,0 +1,97 @@
+import co.uk.interception.CompiledRules;
+import co.uk.interception.InterceptRule;
+import co.uk.interception.RuleAction;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.devtools.v126.fetch.model.RequestStage;
+import org.openqa.selenium.devtools.v126.network.model.ResourceType;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.SoftAssertions.assertSoftly;
+
+/**
+ * Which interception rules {@link CompiledRules} pushes to the browser's URL blocklist and which stay
+ * Fetch patterns, and the glob syntax and first-match order of the rules that stay.
+ */
+public class TestCompiledRules {
+
+    /**
+     * Plain URL blocks go to Network.setBlockedURLs, the rest become Fetch patterns.
+     */
+    @Test
+    void pushesPlainBlocksToTheBrowser() {
+        CompiledRules rules = CompiledRules.compile(List.of(
+                InterceptRule.block("*.png"),
+                InterceptRule.block("*/ads/*").forResourceType(ResourceType.SCRIPT),
+                InterceptRule.mock("*/api/cart*", 200, "application/json", "{}")));
+
+        assertSoftly(softly -> {
+            softly.assertThat(rules.getBlockedUrls()).containsExactly("*.png");
+            softly.assertThat(rules.getFetchPatterns()).hasSize(2);
+            softly.assertThat(rules.getFetchPatterns().get(0).getResourceType()).contains(ResourceType.SCRIPT);
+        });
+    }
+
+    /**
+     * The first rule in declaration order wins, resource type and stage must agree.
+     */
+    @Test
+    void firstMatchingRuleWins() {
+        InterceptRule passCheckout = InterceptRule.pass("https://shop.test/api/checkout*");
+        InterceptRule mockApi = InterceptRule.mock("https://shop.test/api/*", 200, "application/json", "{}");
+        InterceptRule blockImages = InterceptRule.block("*").forResourceType(ResourceType.IMAGE);
+        CompiledRules rules = CompiledRules.compile(List.of(passCheckout, mockApi, blockImages));
+
+        assertSoftly(softly -> {
+            softly.assertThat(rules.match("https://shop.test/api/checkout?step=1", ResourceType.XHR, RequestStage.REQUEST))
+                    .contains(passCheckout);
+            softly.assertThat(rules.match("https://shop.test/api/cart", ResourceType.XHR, RequestStage.REQUEST))
+                    .contains(mockApi);
+            softly.assertThat(rules.match("https://cdn.test/logo.svg", ResourceType.IMAGE, RequestStage.REQUEST))
+                    .contains(blockImages);
+            softly.assertThat(rules.match("https://cdn.test/app.js", ResourceType.SCRIPT, RequestStage.REQUEST))
+                    .isEqualTo(Optional.empty());
+            softly.assertThat(rules.match("https://shop.test/api/cart", ResourceType.XHR, RequestStage.RESPONSE))
+                    .isEqualTo(Optional.empty());
+        });
+    }
+
+    /**
+     * A block that an earlier pass rule overlaps stays on the Fetch path so the pass rule still wins.
+     */
+    @Test
+    void keepsShadowedBlocksOnTheFetchPath() {
+        InterceptRule keep = InterceptRule.pass("https://a.test/keep.png");
+        InterceptRule blockPng = InterceptRule.block("*.png");
+        InterceptRule blockGif = InterceptRule.block("*.gif");
+        CompiledRules rules = CompiledRules.compile(List.of(keep, blockPng, blockGif));
+
+        assertSoftly(softly -> {
+            softly.assertThat(rules.getBlockedUrls()).containsExactly("*.gif");
+            softly.assertThat(rules.match("https://a.test/keep.png", ResourceType.IMAGE, RequestStage.REQUEST))
+                    .contains(keep);
+            softly.assertThat(rules.match("https://a.test/other.png", ResourceType.IMAGE, RequestStage.REQUEST))
+                    .contains(blockPng);
+        });
+    }
+
+    /**
+     * '?' matches exactly one character and a backslash escapes a wildcard.
+     */
+    @Test
+    void supportsFetchGlobSyntax() {
+        InterceptRule single = InterceptRule.block("https://a.test/v?/items");
+        InterceptRule literalStar = InterceptRule.builder().action(RuleAction.CONTINUE)
+                .urlGlob("https://a.test/\\*literal").build();
+        CompiledRules rules = CompiledRules.compile(List.of(single, literalStar));
+
+        assertSoftly(softly -> {
+            softly.assertThat(rules.getBlockedUrls()).isEmpty();
+            softly.assertThat(rules.match("https://a.test/v1/items", ResourceType.XHR, RequestStage.REQUEST)).contains(single);
+            softly.assertThat(rules.match("https://a.test/v10/items", ResourceType.XHR, RequestStage.REQUEST)).isEmpty();
+            softly.assertThat(rules.match("https://a.test/*literal", ResourceType.XHR, RequestStage.REQUEST)).contains(literalStar);
+            softly.assertThat(rules.match("https://a.test/xliteral", ResourceType.XHR, RequestStage.REQUEST)).isEmpty();
+        });
+    }
+}
@@ -0,0 +1,115 @@
+import co.uk.logging.CollectedLogEntry;
+import co.uk.logging.ConsoleLogCollector;
+import co.uk.logging.LogCollectorConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openqa.selenium.devtools.v126.log.model.LogEntry;
+import org.openqa.selenium.devtools.v126.runtime.model.Timestamp;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.SoftAssertions.assertSoftly;
+
+/**
+ * Filtering, deduplication and the ring buffer of {@link ConsoleLogCollector}, fed with hand-built
+ * Log.entryAdded entries.
+ */
+public class TestConsoleLogCollector {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Filtered entries are counted but not kept, repeats only raise the count.
+     */
+    @Test
+    void filtersAndDeduplicates() throws IOException {
+        ConsoleLogCollector collector = new ConsoleLogCollector(null, LogCollectorConfig.builder()
+                .level(LogEntry.Level.ERROR)
+                .level(LogEntry.Level.WARNING)
+                .build());
+        for (int i = 0; i < 3; i++) {
+            collector.onEntryAdded(entry(LogEntry.Level.ERROR, LogEntry.Source.JAVASCRIPT, "Uncaught TypeError"));
+        }
+        collector.onEntryAdded(entry(LogEntry.Level.VERBOSE, LogEntry.Source.NETWORK, "noise"));
+        collector.onEntryAdded(entry(LogEntry.Level.WARNING, LogEntry.Source.VIOLATION, "'setTimeout' handler took 74ms"));
+        Path report = tempDir.resolve("logs/console.log");
+        collector.writeReport(report);
+
+        List<CollectedLogEntry> entries = collector.getEntries();
+        List<String> lines = Files.readAllLines(report);
+        assertSoftly(softly -> {
+            softly.assertThat(entries).extracting(CollectedLogEntry::getText)
+                    .containsExactly("Uncaught TypeError", "'setTimeout' handler took 74ms");
+            softly.assertThat(entries.get(0).getCount()).isEqualTo(3);
+            softly.assertThat(collector.getReceived()).isEqualTo(5);
+            softly.assertThat(collector.getFiltered()).isEqualTo(1);
+            softly.assertThat(collector.getCount(LogEntry.Level.ERROR)).isEqualTo(3);
+            softly.assertThat(lines.get(1)).isEqualTo("[error] javascript x3: Uncaught TypeError (https://site.test/app.js:7)");
+        });
+    }
+
+    /**
+     * Writers on many threads share the ring; it keeps the newest distinct messages up to its capacity.
+     */
+    @Test
+    void keepsNewestEntriesUnderConcurrentWrites() throws InterruptedException {
+        ConsoleLogCollector collector = new ConsoleLogCollector(null, LogCollectorConfig.builder()
+                .capacity(64)
+                .maxDistinctMessages(100)
+                .build());
+        ExecutorService writers = Executors.newFixedThreadPool(4);
+        for (int thread = 0; thread < 4; thread++) {
+            int offset = thread * 1000;
+            writers.execute(() -> {
+                for (int i = 0; i < 500; i++) {
+                    collector.onEntryAdded(entry(LogEntry.Level.INFO, LogEntry.Source.OTHER, "message " + (offset + i)));
+                }
+            });
+        }
+        writers.shutdown();
+        writers.awaitTermination(10, TimeUnit.SECONDS);
+
+        assertSoftly(softly -> {
+            softly.assertThat(collector.getReceived()).isEqualTo(2000);
+            softly.assertThat(collector.getEntries()).hasSize(64);
+            softly.assertThat(collector.getOverwritten()).isEqualTo(2000 - 64);
+        });
+    }
+
+    /**
+     * A message pushed out of the ring is stored again when it repeats, instead of counting into the lost entry.
+     */
+    @Test
+    void storesRepeatsOfOverwrittenMessagesAgain() {
+        ConsoleLogCollector collector = new ConsoleLogCollector(null, LogCollectorConfig.builder()
+                .capacity(4)
+                .build());
+        collector.onEntryAdded(entry(LogEntry.Level.ERROR, LogEntry.Source.NETWORK, "Failed to load resource"));
+        for (String text : List.of("a", "b", "c", "d")) {
+            collector.onEntryAdded(entry(LogEntry.Level.INFO, LogEntry.Source.OTHER, text));
+        }
+        for (int i = 0; i < 5; i++) {
+            collector.onEntryAdded(entry(LogEntry.Level.ERROR, LogEntry.Source.NETWORK, "Failed to load resource"));
+        }
+
+        List<CollectedLogEntry> entries = collector.getEntries();
+        assertSoftly(softly -> {
+            softly.assertThat(entries).extracting(CollectedLogEntry::getText).containsExactly("b", "c", "d", "Failed to load resource");
+            softly.assertThat(entries.get(3).getCount()).isEqualTo(5);
+        });
+    }
+
+    private static LogEntry entry(LogEntry.Level level, LogEntry.Source source, String text) {
+        return new LogEntry(source, level, text, Optional.empty(), new Timestamp(1_700_000_000_000.0),
+                Optional.of("https://site.test/app.js"), Optional.of(7), Optional.empty(), Optional.empty(),
+                Optional.empty(), Optional.empty());
+    }
+}
@@ -0,0 +1,201 @@
+import co.uk.events.BackpressurePolicy;
+import co.uk.events.DevToolsEventBus;
+import co.uk.events.EventBusConfig;
+import co.uk.events.EventBusMetrics;
+import co.uk.events.ListenerStats;
+import co.uk.session.ListenerTrackingDevTools;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.v126.network.Network;
+import org.openqa.selenium.devtools.v126.network.model.LoadingFinished;
+import org.openqa.selenium.devtools.v126.v126Domains;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.SoftAssertions.assertSoftly;
+
+/**
+ * Overflow handling of {@link DevToolsEventBus}: one lane of four slots is held up by a blocked
+ * listener while the fake connection keeps sending Network.loadingFinished events, then released.
+ * Also checks that a lane puts events back into browser order and that closing removes the listeners.
+ */
+public class TestDevToolsEventBus {
+
+    private static final int LANE_CAPACITY = 4;
+
+    /**
+     * DROP_OLDEST keeps the newest events and counts the evicted ones as dropped.
+     */
+    @Test
+    public void dropOldestKeepsTheNewestEvents() throws InterruptedException {
+        FakeCdpConnection fake = new FakeCdpConnection();
+        List<String> handled = new CopyOnWriteArrayList<>();
+        CountDownLatch release = new CountDownLatch(1);
+        DevToolsEventBus bus = bus(fake, BackpressurePolicy.DROP_OLDEST);
+        subscribeBlocked(bus, handled, release);
+
+        publish(fake, bus, handled, 11);
+        release.countDown();
+        boolean idle = bus.awaitIdle(Duration.ofSeconds(5));
+        EventBusMetrics metrics = bus.getMetrics();
+        bus.close();
+
+        assertSoftly(softly -> {
+            softly.assertThat(idle).isTrue();
+            softly.assertThat(handled).containsExactly("1", "8", "9", "10", "11");
+            softly.assertThat(metrics.getPublished()).isEqualTo(11);
+            softly.assertThat(metrics.getDropped()).isEqualTo(6);
+            softly.assertThat(metrics.getMaxQueueDepth()).isEqualTo(LANE_CAPACITY);
+            softly.assertThat(metrics.getQueueDepth()).isZero();
+            softly.assertThat(metrics.getListeners()).extracting(ListenerStats::getDelivered).containsExactly(5L);
+        });
+    }
+
+    /**
+     * BLOCK holds the publishing thread up to the block timeout and only then drops the event.
+     */
+    @Test
+    public void blockWaitsForSpaceThenDrops() throws InterruptedException {
+        FakeCdpConnection fake = new FakeCdpConnection();
+        List<String> handled = new CopyOnWriteArrayList<>();
+        CountDownLatch release = new CountDownLatch(1);
+        DevToolsEventBus bus = bus(fake, BackpressurePolicy.BLOCK);
+        subscribeBlocked(bus, handled, release);
+
+        long start = System.nanoTime();
+        publish(fake, bus, handled, 7);
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        boolean idleWhileBlocked = bus.awaitIdle(Duration.ofMillis(100));
+        release.countDown();
+        boolean idle = bus.awaitIdle(Duration.ofSeconds(5));
+        EventBusMetrics metrics = bus.getMetrics();
+        bus.close();
+
+        assertSoftly(softly -> {
+            softly.assertThat(elapsedMillis).isGreaterThanOrEqualTo(2 * 50);
+            softly.assertThat(idleWhileBlocked).isFalse();
+            softly.assertThat(idle).isTrue();
+            softly.assertThat(handled).containsExactly("1", "2", "3", "4", "5");
+            softly.assertThat(metrics.getPublished()).isEqualTo(7);
+            softly.assertThat(metrics.getDropped()).isEqualTo(2);
+        });
+    }
+
+    /**
+     * SAMPLE accepts everything until the lane is half full, then keeps one event in every sampleRate.
+     */
+    @Test
+    public void sampleThinsOutEventsUnderPressure() throws InterruptedException {
+        FakeCdpConnection fake = new FakeCdpConnection();
+        List<String> handled = new CopyOnWriteArrayList<>();
+        CountDownLatch release = new CountDownLatch(1);
+        DevToolsEventBus bus = bus(fake, BackpressurePolicy.SAMPLE);
+        subscribeBlocked(bus, handled, release);
+
+        publish(fake, bus, handled, 8);
+        release.countDown();
+        boolean idle = bus.awaitIdle(Duration.ofSeconds(5));
+        EventBusMetrics metrics = bus.getMetrics();
+        bus.close();
+
+        // 1 is held by the listener and 2-4 fill the lane past half. Then 5 is sampled in, 6 and 7 are
+        // sampled out, and 8 is sampled in but finds the lane full.
+        assertSoftly(softly -> {
+            softly.assertThat(idle).isTrue();
+            softly.assertThat(handled).containsExactly("1", "2", "3", "4", "5");
+            softly.assertThat(metrics.getSampledOut()).isEqualTo(2);
+            softly.assertThat(metrics.getDropped()).isEqualTo(1);
+        });
+    }
+
+    /**
+     * Selenium dispatches each message on its own pool thread; the lane still hands them over in the
+     * order they left the browser.
+     */
+    @Test
+    public void laneDeliversInBrowserOrder() throws InterruptedException {
+        FakeCdpConnection fake = new FakeCdpConnection();
+        ListenerTrackingDevTools devTools = new ListenerTrackingDevTools(fake.connection());
+        DevToolsEventBus bus = new DevToolsEventBus(devTools, EventBusConfig.builder()
+                .workers(1)
+                .reorderWindow(Duration.ofMillis(200))
+                .build());
+        List<Integer> handled = new CopyOnWriteArrayList<>();
+        bus.subscribe(Network.loadingFinished(),
+                (LoadingFinished event) -> handled.add(Integer.parseInt(event.getRequestId().toString())));
+
+        int count = 500;
+        for (int i = 1; i <= count; i++) {
+            fake.emit("Network.loadingFinished", "{\"requestId\":\"" + i + "\",\"timestamp\":" + i + ",\"encodedDataLength\":0}");
+        }
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (handled.size() < count && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        EventBusMetrics metrics = bus.getMetrics();
+        bus.close();
+
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 1; i <= count; i++) {
+            expected.add(i);
+        }
+        assertSoftly(softly -> {
+            softly.assertThat(handled).containsExactlyElementsOf(expected);
+            softly.assertThat(metrics.getLateEvents()).isZero();
+            softly.assertThat(devTools.getRegisteredListeners()).isEmpty();
+        });
+    }
+
+    /**
+     * No reorder window, so events are handed over as soon as they are queued and each step's outcome is fixed.
+     */
+    private static DevToolsEventBus bus(FakeCdpConnection fake, BackpressurePolicy policy) {
+        return new DevToolsEventBus(new DevTools(v126Domains::new, fake.connection()), EventBusConfig.builder()
+                .workers(1)
+                .capacity(LANE_CAPACITY)
+                .policy(policy)
+                .blockTimeout(Duration.ofMillis(50))
+                .sampleRate(3)
+                .reorderWindow(Duration.ZERO)
+                .build());
+    }
+
+    /**
+     * The listener holds on to the first event until {@code release} opens, so every later one has to queue.
+     */
+    private static void subscribeBlocked(DevToolsEventBus bus, List<String> handled, CountDownLatch release) {
+        bus.subscribe(Network.loadingFinished(), (LoadingFinished event) -> {
+            handled.add(event.getRequestId().toString());
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+    }
+
+    /**
+     * Emits events one at a time and waits until the bus has queued, dropped or handed over each one,
+     * so their order is fixed.
+     */
+    private static void publish(FakeCdpConnection fake, DevToolsEventBus bus, List<String> handled, int count)
+            throws InterruptedException {
+        for (int i = 1; i <= count; i++) {
+            fake.emit("Network.loadingFinished", "{\"requestId\":\"" + i + "\",\"timestamp\":" + i + ",\"encodedDataLength\":0}");
+            long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+            while (settled(bus, handled) < i && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+        }
+    }
+
+    private static long settled(DevToolsEventBus bus, List<String> handled) {
+        EventBusMetrics metrics = bus.getMetrics();
+        return metrics.getQueueDepth() + metrics.getDropped() + metrics.getSampledOut() + handled.size();
+    }
+}
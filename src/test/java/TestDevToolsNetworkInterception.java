@@ -1,18 +1,54 @@
+import co.uk.auth.AuthSnapshot;
+import co.uk.auth.AuthStateCache;
+import co.uk.benchmark.BenchmarkConfig;
+import co.uk.benchmark.BenchmarkReport;
+import co.uk.benchmark.PageLoadBenchmark;
+import co.uk.cdp.AsyncDevTools;
+import co.uk.cdp.BatchResult;
+import co.uk.emulation.DeviceProfileRegistry;
+import co.uk.emulation.DeviceProfiles;
+import co.uk.events.DevToolsEventBus;
+import co.uk.logging.ConsoleLogCollector;
+import co.uk.logging.LogCollectorConfig;
+import co.uk.memory.HeapLeakDetector;
+import co.uk.memory.LeakDetectorConfig;
+import co.uk.memory.LeakReport;
+import co.uk.interception.FetchRuleEngine;
+import co.uk.interception.InterceptRule;
+import co.uk.network.BodyCaptureConfig;
+import co.uk.network.CapturedBody;
+import co.uk.network.HarRecorder;
+import co.uk.network.PageWeightAnalyzer;
+import co.uk.network.PageWeightBudget;
+import co.uk.network.PageWeightReport;
+import co.uk.network.ResponseBodyCapture;
+import co.uk.performance.MetricThreshold;
+import co.uk.performance.PerformanceSampler;
+import co.uk.performance.Statistic;
+import co.uk.replay.RecordReplayInterceptor;
+import co.uk.replay.ReplayConfig;
+import co.uk.replay.ReplayMode;
+import co.uk.session.PooledSession;
+import co.uk.streams.FrameRecorder;
+import co.uk.streams.FrameRecorderConfig;
+import co.uk.tracing.StepTiming;
+import co.uk.tracing.TraceAnalyzer;
+import co.uk.tracing.TraceCapture;
+import co.uk.tracing.TraceFile;
 import com.google.common.collect.ImmutableList;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.JsonParser;
 import lombok.extern.slf4j.Slf4j;
-import org.junit.jupiter.api.AfterEach;
-import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.openqa.selenium.By;
 import org.openqa.selenium.chrome.ChromeDriver;
 import org.openqa.selenium.devtools.DevTools;
 import org.openqa.selenium.devtools.NetworkInterceptor;
-import org.openqa.selenium.devtools.v126.emulation.Emulation;
-import org.openqa.selenium.devtools.v124.log.Log;
 import org.openqa.selenium.devtools.v126.fetch.Fetch;
+import org.openqa.selenium.devtools.v126.log.model.LogEntry;
+import org.openqa.selenium.devtools.v126.log.model.ViolationSetting;
 import org.openqa.selenium.devtools.v126.network.Network;
 import org.openqa.selenium.devtools.v126.network.model.*;
 import org.openqa.selenium.devtools.v126.performance.Performance;
@@ -23,7 +59,12 @@ import org.openqa.selenium.interactions.Actions;
 import org.openqa.selenium.remote.http.HttpResponse;
 import org.openqa.selenium.remote.http.Route;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.*;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import static org.assertj.core.api.SoftAssertions.assertSoftly;
@@ -31,32 +72,26 @@ import static org.bouncycastle.oer.its.ieee1609dot2.basetypes.Duration.milliseco
 import static org.openqa.selenium.devtools.v126.network.Network.*;
 import static org.openqa.selenium.remote.http.Contents.utf8String;
 
+/**
+ * Runs in parallel: every test gets its own browser context and DevTools session
+ * from {@link ParallelChromeExtension}, which also records the screencast of failed tests.
+ */
 @Slf4j
+@ParallelChrome
 public class TestDevToolsNetworkInterception {
 
     private static final Integer PAUSE_TIME = 5000;
+    private static final Gson PRETTY_GSON = new GsonBuilder().setPrettyPrinting().create();
+    /** Logged-in state shared by every test in the run, one login per role. */
+    private static final AuthStateCache AUTH_STATE = new AuthStateCache();
+    /** Derived device profiles, validated and compiled once for the whole run. */
+    private static final DeviceProfileRegistry PROFILES = new DeviceProfileRegistry();
 
-    public ChromeDriver driver;
-    DevTools devTools;
-
-    /**
-     * Initialize the WebDriverManager and EdgeDriver.
-     * Go to the website under Test and maximize the browser window.
-     */
-    @BeforeEach
-    public void setupUrl() {
-        driver = new ChromeDriver();
-        driver.manage().window().maximize();
-        devTools = driver.getDevTools();
-        devTools.createSession();
-    }
-
-    /**
-     * Close the browser window.
-     */
-    @AfterEach
-    public void tearDown() {
-        driver.quit();
+    static {
+        PROFILES.register(DeviceProfiles.PIXEL_7.toBuilder().name("pixel-7-600x1000").width(600).height(1000).build());
+        // Eiffel Tower on a desktop browser
+        PROFILES.register(DeviceProfiles.DESKTOP_1080P.toBuilder().name("desktop-paris")
+                .latitude(48.8584).longitude(2.2945).locationAccuracyMeters(100).build());
     }
 
     /**
@@ -65,10 +100,7 @@ public class TestDevToolsNetworkInterception {
      * The website under test should go after the 'Route.matching' method.
      */
     @Test
-    void interceptNetworkRequests() {
-        // Get The DevTools & Create A Session with the ChromeDriver.
-        DevTools devTools = driver.getDevTools();
-        devTools.createSession();
+    void interceptNetworkRequests(ChromeDriver driver) {
         // Enables network tracking, network events will now be delivered to the client
         NetworkInterceptor networkInterceptor = new NetworkInterceptor(driver,
                 // Intercepts all network requests.
@@ -76,10 +108,44 @@ public class TestDevToolsNetworkInterception {
                         .to(() -> request -> new HttpResponse().setStatus(200).addHeader("Content-Type", "text/html")
                                 .addHeader("Accept-Encoding", "gzip, deflate")
                                 .setContent(utf8String("Network Intercepted!"))));
-        // Go to the website
-        driver.get("https://linkedin.com");
-        String pageSource = driver.getPageSource();
-        assertSoftly(softly -> softly.assertThat(pageSource).contains("Network Intercepted!"));
+        try {
+            // Go to the website
+            driver.get("https://linkedin.com");
+            String pageSource = driver.getPageSource();
+            assertSoftly(softly -> softly.assertThat(pageSource).contains("Network Intercepted!"));
+        } finally {
+            networkInterceptor.close();
+            releaseDriverDevTools(driver);
+        }
+    }
+
+    /**
+     * Record and replay network traffic using Selenium 4.0.
+     * The first visit saves every response to disk, the second one is served from that recording without network.
+     */
+    @Test
+    void recordAndReplayNetwork(ChromeDriver driver) throws IOException {
+        Path recording = Files.createTempDirectory("ecommerce-playground-recording");
+        RecordReplayInterceptor replayer;
+        try {
+            RecordReplayInterceptor recorder = new RecordReplayInterceptor(driver, ReplayConfig.builder()
+                    .mode(ReplayMode.RECORD).directory(recording).build());
+            driver.get("https://ecommerce-playground.lambdatest.io");
+            recorder.close();
+
+            replayer = new RecordReplayInterceptor(driver, ReplayConfig.builder()
+                    .mode(ReplayMode.REPLAY).directory(recording).build());
+            long startTime = System.nanoTime();
+            driver.get("https://ecommerce-playground.lambdatest.io");
+            log.info("Replayed page loaded in " + (System.nanoTime() - startTime) / 1_000_000 + " milliseconds");
+            replayer.close();
+        } finally {
+            releaseDriverDevTools(driver);
+        }
+        assertSoftly(softly -> {
+            softly.assertThat(driver.getTitle()).contains("Your Store");
+            softly.assertThat(replayer.getHits()).isPositive();
+        });
     }
 
     /**
@@ -88,10 +154,7 @@ public class TestDevToolsNetworkInterception {
      * The website under test should go after the 'Network Listener' method.
      */
     @Test
-    void networkFetchTracking() {
-        // Get The DevTools & Create A Session with the ChromeDriver.
-        DevTools devTools = driver.getDevTools();
-        devTools.createSession();
+    void networkFetchTracking(ChromeDriver driver, DevTools devTools) {
         // Enables network tracking with the 'Fetch' method, network events will now be delivered to the client
         devTools.send(Fetch.enable(Optional.empty(), Optional.empty()));
         // Add a new network request listener
@@ -112,44 +175,46 @@ public class TestDevToolsNetworkInterception {
         });
     }
 
+    /**
+     * Declarative interception using Selenium 4.0.
+     * Plain blocks are handled by the browser, only requests a rule can match are paused by 'Fetch'.
+     */
+    @Test
+    void interceptWithRuleEngine(ChromeDriver driver, DevTools devTools) {
+        InterceptRule blockLogo = InterceptRule.block("*/image/catalog/opencart-logo.png");
+        InterceptRule blockFonts = InterceptRule.block("*").forResourceType(ResourceType.FONT);
+        InterceptRule mockSearch = InterceptRule.mock("*route=product/search*", 200, "text/html",
+                "<html><head><title>Mocked search</title></head></html>");
+        FetchRuleEngine ruleEngine = new FetchRuleEngine(devTools, List.of(blockLogo, blockFonts, mockSearch));
+        ruleEngine.start();
+        // Go to the website
+        driver.get("https://ecommerce-playground.lambdatest.io");
+        assertSoftly(softly -> softly.assertThat(driver.getTitle()).contains("Your Store"));
+        driver.get("https://ecommerce-playground.lambdatest.io/index.php?route=product/search&search=phone");
+        assertSoftly(softly -> {
+            softly.assertThat(driver.getTitle()).isEqualTo("Mocked search");
+            softly.assertThat(ruleEngine.getHits(mockSearch)).isEqualTo(1);
+        });
+        ruleEngine.close();
+    }
+
     /**
      * Network Block Patterns using Selenium 4.0.
      * DevTools has a method to intercept network requests and block patterns: 'setBlockedURLs'
      * The website under test should go after the 'Network Listener' method.
      */
     @Test
-    void networkBlockPatterns() {
-        // Get The DevTools & Create A Session with the ChromeDriver.
-        DevTools devTools = driver.getDevTools();
-        devTools.createSession();
+    void networkBlockPatterns(ChromeDriver driver, DevTools devTools) {
         // Enables security tracking with the 'Security' method, security events will now be delivered to the client
         devTools.send(Security.setIgnoreCertificateErrors(true));
         // Block all requests patterns
         devTools.send(Network.enable(Optional.empty(), Optional.empty(), Optional.empty()));
         devTools.send(Network.setBlockedURLs(ImmutableList.of("*")));
         // Add a new request listener
+        Set<ResourceType> checkedTypes = EnumSet.of(ResourceType.STYLESHEET, ResourceType.IMAGE, ResourceType.SCRIPT,
+                ResourceType.XHR, ResourceType.MEDIA, ResourceType.WEBSOCKET);
         devTools.addListener(loadingFailed(), loadingFailed -> {
-            if (loadingFailed.getType().equals(ResourceType.STYLESHEET)) {
-                log.info("Blocking reason: " + loadingFailed.getBlockedReason());
-                assertSoftly(softly -> softly.assertThat(loadingFailed.getBlockedReason())
-                        .isEqualTo(Optional.of(BlockedReason.INSPECTOR)));
-            } else if (loadingFailed.getType().equals(ResourceType.IMAGE)) {
-                log.info("Blocking reason: " + loadingFailed.getBlockedReason());
-                assertSoftly(softly -> softly.assertThat(loadingFailed.getBlockedReason())
-                        .isEqualTo(Optional.of(BlockedReason.INSPECTOR)));
-            } else if (loadingFailed.getType().equals(ResourceType.SCRIPT)) {
-                log.info("Blocking reason: " + loadingFailed.getBlockedReason());
-                assertSoftly(softly -> softly.assertThat(loadingFailed.getBlockedReason())
-                        .isEqualTo(Optional.of(BlockedReason.INSPECTOR)));
-            } else if (loadingFailed.getType().equals(ResourceType.XHR)) {
-                log.info("Blocking reason: " + loadingFailed.getBlockedReason());
-                assertSoftly(softly -> softly.assertThat(loadingFailed.getBlockedReason())
-                        .isEqualTo(Optional.of(BlockedReason.INSPECTOR)));
-            } else if (loadingFailed.getType().equals(ResourceType.MEDIA)) {
-                log.info("Blocking reason: " + loadingFailed.getBlockedReason());
-                assertSoftly(softly -> softly.assertThat(loadingFailed.getBlockedReason())
-                        .isEqualTo(Optional.of(BlockedReason.INSPECTOR)));
-            } else if (loadingFailed.getType().equals(ResourceType.WEBSOCKET)) {
+            if (checkedTypes.contains(loadingFailed.getType())) {
                 log.info("Blocking reason: " + loadingFailed.getBlockedReason());
                 assertSoftly(softly -> softly.assertThat(loadingFailed.getBlockedReason())
                         .isEqualTo(Optional.of(BlockedReason.INSPECTOR)));
@@ -172,71 +237,58 @@ public class TestDevToolsNetworkInterception {
     /**
      * WebSocket Listener using Selenium 4.0.
      * DevTools has a method to intercept WebSocket requests and create a listener: 'webSocketCreated'
-     * The website under test should go after the 'webSocketClosed' method.
+     * The frame recorder follows each socket until 'webSocketClosed' and writes its frames to a binary file.
      */
     @Test
-    public void verifyWebSocketOperationTest() {
-        // Get The DevTools & Create A Session with the ChromeDriver.
-        DevTools devTools = driver.getDevTools();
-        devTools.createSession();
+    public void verifyWebSocketOperationTest(ChromeDriver driver, DevTools devTools, @TempDir Path directory)
+            throws IOException {
+        Path frameFile = directory.resolve("websocket-frames.bin");
         // Enables network tracking with the 'Enable' method, network events will now be delivered to the client
         devTools.send(enable(Optional.empty(), Optional.empty(), Optional.empty()));
-        // Add a new WebSocket listener
-        devTools.addListener(webSocketCreated(), ws -> {
-            log.info("WebSocket created: " + ws.getUrl());
-            log.info("WebSocket id: " + ws.getRequestId());
-            log.info("WebSocket type: " + ws.getInitiator().stream().findFirst().get().getType());
-        });
-        // Received WebSocket listener
-        devTools.addListener(webSocketFrameReceived(), e -> {
-            log.info("WebSocket frame received: " + e.getRequestId());
-            log.info(e.getResponse().getPayloadData());
-            log.info(e.getResponse().getOpcode().toString());
-            log.info(String.valueOf(e.getResponse().getMask()));
-        });
-        // Get WebSocket error listener
-        devTools.addListener(webSocketFrameError(), e -> {
-            log.info("WebSocket error: " + e.getErrorMessage());
-        });
-        // Close WebSocket listener
-        devTools.addListener(webSocketClosed(), c -> {
-            log.info("WebSocket Closed");
-            log.info(String.valueOf(c.getTimestamp()));
-        });
+        DevToolsEventBus eventBus = new DevToolsEventBus(devTools);
+        FrameRecorder frameRecorder = new FrameRecorder(FrameRecorderConfig.builder().file(frameFile).build());
+        frameRecorder.subscribe(eventBus);
         // Go to the website and open a WebSocket connection
         driver.get("https://www.piesocket.com/websocket-tester");
         var button = driver.findElement(By.xpath("//button[@type='submit']"));
         button.click();
-        setPause();
+        setPause(driver);
         var closeButton = driver.findElement(By.xpath("//button[normalize-space()='Disconnect']"));
         closeButton.click();
-        setPause();
-        assertSoftly(softly -> softly.assertThat(driver.getTitle()).contains("Online WebSocket"));
+        setPause(driver);
+        eventBus.close();
+        frameRecorder.close();
+        frameRecorder.getStats().forEach(stats -> log.info(stats.toString()));
+        log.info("WebSocket frames written to " + frameFile);
+        assertSoftly(softly -> {
+            softly.assertThat(driver.getTitle()).contains("Online WebSocket");
+            softly.assertThat(frameRecorder.getStats()).isNotEmpty();
+        });
     }
 
     /**
      * Event Message Listener using Selenium 4.0.
      * DevTools has a method to intercept Event source and create a listener: 'eventSourceMessageReceived'
-     * The website under test should go after the 'addListener' method.
+     * Only every tenth message keeps its payload, the stats still count all of them.
      */
     @Test
-    void verifyEventSourceMessagesTest() {
-        // Get The DevTools & Create A Session with the ChromeDriver.
-        DevTools devTools = driver.getDevTools();
-        devTools.createSession();
+    void verifyEventSourceMessagesTest(ChromeDriver driver, DevTools devTools, @TempDir Path directory)
+            throws IOException {
+        Path frameFile = directory.resolve("event-source-messages.bin");
         // Enables network tracking with the 'Enable' method, network events will now be delivered to the client
         devTools.send(Network.enable(Optional.empty(), Optional.empty(), Optional.empty()));
-        // Add a new Event Source listener
-        devTools.addListener(eventSourceMessageReceived(), e -> {
-            log.info("Event Source event data received: " + e.getData());
-            log.info("Event Source event name: " + e.getEventName());
-            log.info("Event Source event id: " + e.getEventId());
-            log.info("Event Source message id: " + e.getRequestId());
-            log.info("Event Source event time: " + e.getTimestamp());
-        });
+        DevToolsEventBus eventBus = new DevToolsEventBus(devTools);
+        FrameRecorder frameRecorder = new FrameRecorder(FrameRecorderConfig.builder()
+                .file(frameFile)
+                .sampleRate(10)
+                .build());
+        frameRecorder.subscribe(eventBus);
         // Go to the website and open an Event Source connection
         driver.get("https://www.w3schools.com/html/tryit.asp?filename=tryhtml5_sse");
-        setPause();
+        setPause(driver);
+        eventBus.close();
+        frameRecorder.close();
+        frameRecorder.getStats().forEach(stats -> log.info(stats.toString()));
         assertSoftly(softly -> softly.assertThat(driver.getTitle()).contains("Editor"));
     }
 
@@ -246,14 +298,13 @@ public class TestDevToolsNetworkInterception {
      * The website under test should go after the 'addListener' method.
      */
     @Test
-    void getHttpTrafficTest() {
-        // Get The DevTools & Create A Session with the ChromeDriver.
-        DevTools devTools = driver.getDevTools();
-        devTools.createSession();
+    void getHttpTrafficTest(ChromeDriver driver, DevTools devTools) {
         // Enables network tracking with the 'Enable' method, network events will now be delivered to the client
         devTools.send(Network.enable(Optional.empty(), Optional.empty(), Optional.empty()));
+        // Listeners run on the event bus workers, so logging does not hold up the CDP reader thread
+        DevToolsEventBus eventBus = new DevToolsEventBus(devTools);
         // Add a new HTTP listener
-        devTools.addListener(responseReceived(), e -> {
+        eventBus.subscribe(responseReceived(), e -> {
             log.info("HTTP response received: " + e.getRequestId());
             log.info("HTTP response url: " + e.getResponse().getUrl());
             log.info("HTTP response status: " + e.getResponse().getStatus());
@@ -269,44 +320,87 @@ public class TestDevToolsNetworkInterception {
         // Go to the website
         driver.get("https://ecommerce-playground.lambdatest.io");
         assertSoftly(softly -> softly.assertThat(driver.getTitle()).contains("Your Store"));
+        eventBus.close();
+        log.info("Event bus metrics: " + eventBus.getMetrics());
+    }
+
+    /**
+     * Record HTTP traffic to a HAR file using Selenium 4.0.
+     * The recorder joins the Network events by RequestId and streams each finished entry to disk.
+     */
+    @Test
+    void recordHarTest(ChromeDriver driver, DevTools devTools, @TempDir Path directory) throws IOException {
+        Path harFile = directory.resolve("ecommerce-playground.har");
+        // Enables network tracking with the 'Enable' method, network events will now be delivered to the client
+        devTools.send(Network.enable(Optional.empty(), Optional.empty(), Optional.empty()));
+        DevToolsEventBus eventBus = new DevToolsEventBus(devTools);
+        HarRecorder harRecorder = new HarRecorder(harFile);
+        harRecorder.subscribe(eventBus);
+        // Go to the website
+        driver.get("https://ecommerce-playground.lambdatest.io");
+        eventBus.close();
+        harRecorder.close();
+        log.info("HAR written to " + harFile);
+        assertSoftly(softly -> softly.assertThat(harRecorder.getWrittenEntries()).isPositive());
     }
 
     /**
      * Get Request served from Cache using Selenium 4.0.
      * DevTools has a method to intercept network requests: 'requestServedFromCache'
-     * The website under test should go after the 'addListener' method.
+     * The page weight analyzer counts a cold and a warm load per resource type and checks both against budgets.
      */
     @Test
-    void getRequestServedFromCacheTest() {
-        // Get The DevTools & Create A Session with the ChromeDriver.
-        DevTools devTools = driver.getDevTools();
-        devTools.createSession();
+    void getRequestServedFromCacheTest(ChromeDriver driver, DevTools devTools) throws InterruptedException {
         // Enables network tracking with the 'Enable' method, network events will now be delivered to the client
         devTools.send(Network.enable(Optional.empty(), Optional.empty(), Optional.empty()));
-        // Clear Browser Cache
-        devTools.send(Network.setCacheDisabled(true));
+        // Start from an empty cache, but leave caching on so the second load can use it
         devTools.send(Network.clearBrowserCache());
         devTools.send(Network.clearBrowserCookies());
-        // Add a new HTTP listener
-        devTools.addListener(requestServedFromCache(), cacheRequest -> {
-            log.info("HTTP request served from cache: " + cacheRequest);
-        });
-        // Go to the website
+        DevToolsEventBus eventBus = new DevToolsEventBus(devTools);
+        PageWeightAnalyzer pageWeight = new PageWeightAnalyzer();
+        pageWeight.subscribe(eventBus);
+        // Cold load: everything comes from the network and must stay within the page weight budget
         driver.get("https://ecommerce-playground.lambdatest.io");
+        eventBus.awaitIdle(Duration.ofSeconds(5));
+        PageWeightReport cold = pageWeight.report();
+        pageWeight.reset();
+        // Warm load: static resources are expected from the memory or disk cache
+        driver.navigate().refresh();
+        eventBus.awaitIdle(Duration.ofSeconds(5));
+        PageWeightReport warm = pageWeight.report();
+        eventBus.close();
+        log.info("Cold load:\n" + cold);
+        log.info("Warm load:\n" + warm);
         assertSoftly(softly -> softly.assertThat(driver.getTitle()).contains("Your Store"));
+        cold.assertWithin(PageWeightBudget.builder()
+                .maxTransferredBytes(10L * 1024 * 1024)
+                .maxTransferredBytesFor(ResourceType.IMAGE, 5L * 1024 * 1024)
+                .build());
+        warm.assertWithin(PageWeightBudget.builder()
+                .minCacheHitRatioFor(ResourceType.STYLESHEET, 0.9)
+                .minCacheHitRatioFor(ResourceType.SCRIPT, 0.9)
+                .build());
+    }
+
+    /**
+     * NetworkInterceptor attaches the driver's own DevTools to the current page, which is disposed with the
+     * lease; detach it so the next test on this browser attaches to its own page.
+     */
+    private static void releaseDriverDevTools(ChromeDriver driver) {
+        driver.getDevTools().disconnectSession();
     }
 
     /**
      * Sets a pause on the page load.
      */
-    private void setPause() {
+    private static void setPause(ChromeDriver driver) {
         Actions actions = new Actions(driver);
         actions.pause(PAUSE_TIME).perform();
     }
 
 
     @Test
-    public void accessURLNormal() {
+    public void accessURLNormal(ChromeDriver driver) {
         long startTime = System.currentTimeMillis();
         driver.get("https://www.qed42.com");
         long endTime = System.currentTimeMillis();
@@ -314,13 +408,35 @@ public class TestDevToolsNetworkInterception {
         System.out.println("Normal Way: Page loaded in " + (endTime - startTime) + " milliseconds");
     }
 
+    /**
+     * Page load benchmark with warmup, repeated cold and warm cache loads and confidence intervals.
+     * Pass '-Dbenchmark.baseline=path' to gate on a previous report; without it the report becomes the baseline.
+     */
     @Test
-    public void captureNetworkCalls() {
+    public void benchmarkPageLoad(ChromeDriver driver, DevTools devTools) throws IOException, InterruptedException {
+        BenchmarkReport report;
+        try (PageLoadBenchmark benchmark = new PageLoadBenchmark(driver, devTools, BenchmarkConfig.builder()
+                .warmupIterations(1)
+                .measuredIterations(5)
+                .build())) {
+            report = benchmark.run(Map.of("qed42-home", "https://www.qed42.com"));
+        }
+        Path baseline = Path.of(System.getProperty("benchmark.baseline", "target/page-load-baseline.json"));
+        if (Files.exists(baseline)) {
+            report.assertNoRegressions(baseline, 0.10);
+        } else {
+            report.writeJson(baseline);
+        }
+    }
+
+    @Test
+    public void captureNetworkCalls(ChromeDriver driver, DevTools devTools) {
 
         /* Monitoring HTTP Requests*/
         devTools.send(Network.enable(Optional.empty(), Optional.empty(), Optional.empty()));
+        DevToolsEventBus eventBus = new DevToolsEventBus(devTools);
         /*Network.requestWillBeSent to the listener. This event is fired when the page is about to send an HTTP request*/
-        devTools.addListener(Network.requestWillBeSent(),
+        eventBus.subscribe(Network.requestWillBeSent(),
                 entry -> {
                     RequestId requestid = entry.getRequestId();
                     System.out.println("Request Method : " + entry.getRequest().getMethod());
@@ -328,20 +444,22 @@ public class TestDevToolsNetworkInterception {
                     System.out.println("Request headers:");
                     entry.getRequest().getHeaders().toJson().forEach((k, v) -> System.out.println((k + ":" + v)));
                     Optional<String> postData = entry.getRequest().getPostData();
-                    Gson gson = new GsonBuilder().setPrettyPrinting().create();
-                    postData.ifPresentOrElse(p -> System.out.println("Request Body: \n" + gson.toJson(JsonParser.parseString(p)) + "\n"),
+                    postData.ifPresentOrElse(p -> System.out.println("Request Body: \n" + PRETTY_GSON.toJson(JsonParser.parseString(p)) + "\n"),
                             () -> System.out.println("Not request body found \n"));
 
                 });
         driver.get("https://www.booking.com");
         driver.findElement(By.xpath("(//span[contains(text(), \"Search\")])[1]")).click();
+        eventBus.close();
     }
 
     @Test
-    public void validateResponse() {
+    public void validateResponse(ChromeDriver driver, DevTools devTools) {
         final RequestId[] requestIds = new RequestId[1];
         devTools.send(Network.enable(Optional.of(100000000), Optional.empty(), Optional.empty()));
-        devTools.addListener(Network.responseReceived(), responseReceived -> {
+        // getResponseBody blocks until the browser answers, so it must not run on the CDP reader thread
+        DevToolsEventBus eventBus = new DevToolsEventBus(devTools);
+        eventBus.subscribe(Network.responseReceived(), responseReceived -> {
             if (responseReceived.getResponse().getUrl().contains("api.zoomcar.com")) {
                 System.out.println("URL: " + responseReceived.getResponse().getUrl());
                 System.out.println("Status: " + responseReceived.getResponse().getStatus());
@@ -353,9 +471,33 @@ public class TestDevToolsNetworkInterception {
         });
         driver.get("https://www.zoomcar.com/bangalore");
        // driver.findElement(By.className("search")).click();
+        eventBus.close();
+    }
+    /**
+     * Capture only the API response bodies, fetched off the listener thread and stored outside the heap when large.
+     */
+    @Test
+    public void captureApiResponseBodies(ChromeDriver driver, DevTools devTools) throws InterruptedException {
+        devTools.send(Network.enable(Optional.empty(), Optional.empty(), Optional.empty()));
+        DevToolsEventBus eventBus = new DevToolsEventBus(devTools);
+        ResponseBodyCapture bodyCapture = new ResponseBodyCapture(devTools, BodyCaptureConfig.builder()
+                .urlPattern(Pattern.compile("api\\.zoomcar\\.com"))
+                .mimeType("application/json")
+                .build());
+        bodyCapture.subscribe(eventBus);
+        driver.get("https://www.zoomcar.com/bangalore");
+        boolean done = bodyCapture.awaitAll(Duration.ofSeconds(30));
+        List<CapturedBody> bodies = bodyCapture.getBodies();
+        assertSoftly(softly -> {
+            softly.assertThat(done).isTrue();
+            softly.assertThat(bodies).isNotEmpty();
+            bodies.forEach(body -> softly.assertThat(body.asString()).isNotBlank());
+        });
+        eventBus.close();
+        bodyCapture.close();
     }
     @Test
-    public void blockUrl() {
+    public void blockUrl(ChromeDriver driver, DevTools devTools) {
         String urlToBlock = "https://medium.com/_/graphql";
         devTools.send(Network.enable(Optional.of(100000000), Optional.empty(), Optional.empty()));
         devTools.send(Network.setBlockedURLs(ImmutableList.of(urlToBlock)));
@@ -368,8 +510,28 @@ public class TestDevToolsNetworkInterception {
         driver.get("https://medium.com");
     }
 
+    /**
+     * Pipelined setup: the commands are sent back to back and share one round trip,
+     * the browser still runs them in order and each one reports its own error.
+     */
+    @Test
+    public void blockUrlWithPipelinedSetup(ChromeDriver driver, PooledSession session) {
+        AsyncDevTools asyncDevTools = session.getAsyncDevTools();
+        BatchResult setup = asyncDevTools.batch()
+                .add(Network.enable(Optional.empty(), Optional.empty(), Optional.empty()))
+                .add(Network.setCacheDisabled(true))
+                .add(Network.clearBrowserCache())
+                .add(Network.clearBrowserCookies())
+                .add(Network.setBlockedURLs(ImmutableList.of("https://medium.com/_/graphql")))
+                .execute();
+        log.info("Network setup took " + setup.getElapsedNanos() / 1_000_000 + " ms");
+        session.getDevTools().addListener(Network.loadingFailed(), loadingFailed ->
+                log.info("Blocking reason: " + loadingFailed.getBlockedReason().orElse(null)));
+        driver.get("https://medium.com");
+    }
+
     @Test
-    public void getAllCookies() {
+    public void getAllCookies(ChromeDriver driver, DevTools devTools) {
         devTools.send(Network.enable(Optional.empty(), Optional.empty(), Optional.empty()));
         driver.get("https://google.com");
 
@@ -389,44 +551,57 @@ public class TestDevToolsNetworkInterception {
 
     }
 
+    /**
+     * The first test to need the role logs in through the UI and snapshots the state; every later
+     * session restores it with one bulk setCookies before navigating and lands on the secure page directly.
+     */
     @Test
-    public void loadInsecureWebsite() {
+    public void restoreLoggedInState(ChromeDriver driver, DevTools devTools) {
+        String origin = "https://the-internet.herokuapp.com";
+        AuthSnapshot snapshot = AUTH_STATE.get("tomsmith", role -> {
+            driver.get(origin + "/login");
+            driver.findElement(By.id("username")).sendKeys(role);
+            driver.findElement(By.id("password")).sendKeys("SuperSecretPassword!");
+            driver.findElement(By.cssSelector("button[type='submit']")).click();
+            return AuthSnapshot.capture(devTools, role, origin, AUTH_STATE.now());
+        });
+        devTools.send(Network.clearBrowserCookies());
+        snapshot.restore(devTools, AUTH_STATE.now());
+        driver.get(origin + "/secure");
+        assertSoftly(softly -> softly.assertThat(driver.findElement(By.tagName("h2")).getText()).contains("Secure Area"));
+    }
+
+    @Test
+    public void loadInsecureWebsite(ChromeDriver driver, DevTools devTools) {
         devTools.send(Security.enable());
         devTools.send(Security.setIgnoreCertificateErrors(true));
         driver.get("https://untrusted-root.badssl.com/");
     }
     @Test
-    public void consoleLogs(){
-        devTools.send(Log.enable());
-        devTools.addListener(Log.entryAdded(),
-                logEntry -> {
-                    System.out.println("log: "+logEntry.getText());
-                    System.out.println("level: "+logEntry.getLevel());
-                });
+    public void consoleLogs(ChromeDriver driver, DevTools devTools) {
+        // Warnings and errors only, plus long tasks and forced layouts over 50 ms
+        ConsoleLogCollector consoleLogs = new ConsoleLogCollector(devTools, LogCollectorConfig.builder()
+                .level(LogEntry.Level.WARNING)
+                .level(LogEntry.Level.ERROR)
+                .violation(ViolationSetting.Name.LONGTASK, 50.0)
+                .violation(ViolationSetting.Name.LONGLAYOUT, 50.0)
+                .build()).start();
         driver.get("https://www.zoomcar.com/bangalore");
        // driver.findElement(By.className("search")).click();
-        devTools.send(Log.clear());
-        devTools.send(Log.disable());
+        consoleLogs.close();
+        log.info("Console: " + consoleLogs.summary());
+        consoleLogs.getEntries().forEach(entry -> log.info(entry.toString()));
     }
 
     @Test
-    public void simulateDeviceDimensions(){
-        Map deviceMetrics = new HashMap()
-        {{
-            put("width", 600);
-            put("height", 1000);
-            put("mobile", true);
-            put("deviceScaleFactor", 50);
-        }};
-        ((ChromeDriver)driver).executeCdpCommand("Emulation.setDeviceMetricsOverride", deviceMetrics);
-        driver.get("https://www.zoomcar.com"); //set device first and then launch
+    public void simulateDeviceDimensions(ChromeDriver driver, PooledSession session){
+        // Set device first and then launch; the whole profile goes out as one pipelined batch
+        PROFILES.get("pixel-7-600x1000").applyTo(session.getAsyncDevTools());
+        driver.get("https://www.zoomcar.com");
     }
     @Test
-    public void mockLocation(){
-        devTools.send(Emulation.setGeolocationOverride(
-                Optional.of(48.8584),
-                Optional.of(2.2945),
-                Optional.of(100)));
+    public void mockLocation(ChromeDriver driver, PooledSession session){
+        PROFILES.get("desktop-paris").applyTo(session.getAsyncDevTools());
         driver.get("https://www.booking.com");
         try {
             Thread.sleep(3000);
@@ -435,10 +610,75 @@ public class TestDevToolsNetworkInterception {
         }
     }
     @Test
-    public void getPerformanceMetrics(){
+    public void getPerformanceMetrics(ChromeDriver driver, DevTools devTools){
         devTools.send(Performance.enable(Optional.empty()));
         driver.get("https://www.booking.com");
         List<Metric> metrics = devTools.send(Performance.getMetrics());
         metrics.forEach(metric-> System.out.println(metric.getName() +" : "+ metric.getValue() ));
     }
-}
\ No newline at end of file
+
+    /**
+     * Sample Performance metrics in the background while a flow runs.
+     * Each phase gets per-metric percentiles and deltas, exported to CSV/JSON and checked against thresholds.
+     */
+    @Test
+    public void samplePerformanceDuringFlow(ChromeDriver driver, DevTools devTools, @TempDir Path directory)
+            throws IOException {
+        try (PerformanceSampler sampler = new PerformanceSampler(devTools, Duration.ofMillis(250))) {
+            sampler.start();
+            PerformanceSampler.Phase home = sampler.phase("home");
+            driver.get("https://ecommerce-playground.lambdatest.io");
+            home.close();
+            PerformanceSampler.Phase search = sampler.phase("search");
+            driver.get("https://ecommerce-playground.lambdatest.io/index.php?route=product/search&search=iphone");
+            search.close();
+            sampler.writeCsv(directory.resolve("performance.csv"));
+            sampler.writeJson(directory.resolve("performance.json"));
+            sampler.assertThresholds(List.of(
+                    MetricThreshold.everyPhase("JSHeapUsedSize", Statistic.MAX, 200_000_000),
+                    MetricThreshold.of("search", "LayoutCount", Statistic.DELTA, 500)));
+        }
+    }
+
+    /**
+     * Full Chrome trace of a flow, streamed to a gzip file chunk by chunk, then split into steps
+     * with long tasks, script, style, layout and paint time per step.
+     */
+    @Test
+    public void captureTraceDuringFlow(ChromeDriver driver, DevTools devTools, @TempDir Path directory) throws IOException {
+        Path traceFile = directory.resolve("flow-trace.json.gz");
+        TraceFile trace;
+        try (TraceCapture capture = new TraceCapture(devTools)) {
+            capture.start();
+            capture.step("home");
+            driver.get("https://ecommerce-playground.lambdatest.io");
+            capture.step("search");
+            driver.get("https://ecommerce-playground.lambdatest.io/index.php?route=product/search&search=iphone");
+            trace = capture.stop(traceFile);
+        }
+        List<StepTiming> steps = new TraceAnalyzer().analyze(trace.getPath());
+        steps.forEach(step -> log.info(step.toString()));
+        assertSoftly(softly -> {
+            softly.assertThat(trace.isDataLossOccurred()).isFalse();
+            softly.assertThat(steps).extracting(StepTiming::getName).contains("home", "search");
+        });
+    }
+
+    /**
+     * Runs a route change repeatedly with a forced GC after each pass and fits a growth trend to the
+     * retained heap and DOM counters; a confirmed leak leaves a heap snapshot under target/heap-snapshots.
+     */
+    @Test
+    public void detectHeapLeakAcrossNavigation(ChromeDriver driver, PooledSession session) throws Exception {
+        HeapLeakDetector detector = new HeapLeakDetector(session.getAsyncDevTools(), LeakDetectorConfig.builder()
+                .iterations(6)
+                .snapshotOnLeak(true)
+                .build());
+        LeakReport report = detector.run("search-and-back", iteration -> {
+            driver.get("https://ecommerce-playground.lambdatest.io/index.php?route=product/search&search=iphone");
+            driver.navigate().back();
+        });
+        report.getSamples().forEach(sample -> log.info(sample.toString()));
+        report.assertNoLeak();
+    }
+}
@@ -0,0 +1,56 @@
+import co.uk.emulation.CompiledProfile;
+import co.uk.emulation.DeviceProfile;
+import co.uk.emulation.DeviceProfileRegistry;
+import co.uk.emulation.DeviceProfiles;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.devtools.Command;
+
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.SoftAssertions.assertSoftly;
+
+/**
+ * The built-in device profiles, the commands a profile compiles to, and validation of hand-made ones.
+ */
+public class TestDeviceProfiles {
+
+    /**
+     * Every built-in profile is valid; the throttled one compiles to the full batch.
+     */
+    @Test
+    public void compilesBuiltInProfiles() {
+        DeviceProfileRegistry registry = DeviceProfileRegistry.withDefaults();
+        CompiledProfile throttled = registry.get("moto-g-power-slow-4g");
+
+        assertSoftly(softly -> {
+            softly.assertThat(registry.names()).hasSize(DeviceProfiles.ALL.size());
+            softly.assertThat(throttled.getCommands().stream().map(Command::getMethod).collect(Collectors.toList()))
+                    .containsExactly("Emulation.setDeviceMetricsOverride", "Emulation.setTouchEmulationEnabled",
+                            "Emulation.setUserAgentOverride", "Emulation.setCPUThrottlingRate",
+                            "Network.enable", "Network.emulateNetworkConditions");
+            softly.assertThat(throttled.getCommands().get(0).getParams())
+                    .containsEntry("width", 412).containsEntry("deviceScaleFactor", 1.75).containsEntry("mobile", true);
+            softly.assertThat(registry.get("desktop-1080p").getCommands()).hasSize(2);
+        });
+    }
+
+    /**
+     * Impossible values are rejected with every problem listed.
+     */
+    @Test
+    public void rejectsInvalidProfiles() {
+        DeviceProfile zoomedIn = DeviceProfile.builder()
+                .name("legacy-emulate-device").width(500).height(600).deviceScaleFactor(50).mobile(true)
+                .latitude(48.8584)
+                .build();
+
+        assertThatThrownBy(() -> new DeviceProfileRegistry().register(zoomedIn))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("deviceScaleFactor must be in (0, 5], got 50.0")
+                .hasMessageContaining("a mobile profile needs touch")
+                .hasMessageContaining("latitude and longitude must be set together");
+        assertThatThrownBy(() -> DeviceProfileRegistry.withDefaults().get("nokia-3310"))
+                .hasMessageContaining("Unknown device profile nokia-3310");
+    }
+}
@@ -0,0 +1,44 @@
+import co.uk.interception.FetchRuleEngine;
+import co.uk.interception.InterceptRule;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.v126.network.model.BlockedReason;
+import org.openqa.selenium.devtools.v126.network.model.ResourceType;
+import org.openqa.selenium.devtools.v126.v126Domains;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.SoftAssertions.assertSoftly;
+
+/**
+ * Hit counts of {@link FetchRuleEngine} for rules the browser blocks itself, which never reach Fetch.
+ */
+public class TestFetchRuleEngine {
+
+    /**
+     * A blocked loadingFailed counts for the first matching rule, whichever of it and its request arrives first.
+     */
+    @Test
+    void countsRequestsBlockedByTheBrowser() {
+        InterceptRule blockPng = InterceptRule.block("*.png");
+        InterceptRule blockAds = InterceptRule.block("*/ads/*");
+        FetchRuleEngine engine = new FetchRuleEngine(new DevTools(v126Domains::new, new FakeCdpConnection().connection()),
+                List.of(blockPng, blockAds));
+
+        engine.onRequestWillBeSent(CdpEvents.requestWillBeSent("1", "GET", "https://a.test/logo.png", 1.0));
+        engine.onLoadingFailed(CdpEvents.loadingFailed("1", 1.1, ResourceType.IMAGE,
+                "net::ERR_BLOCKED_BY_CLIENT", Optional.of(BlockedReason.INSPECTOR)));
+        engine.onLoadingFailed(CdpEvents.loadingFailed("2", 1.2, ResourceType.SCRIPT,
+                "net::ERR_BLOCKED_BY_CLIENT", Optional.of(BlockedReason.INSPECTOR)));
+        engine.onRequestWillBeSent(CdpEvents.requestWillBeSent("2", "GET", "https://a.test/ads/banner.png", 1.15));
+        engine.onRequestWillBeSent(CdpEvents.requestWillBeSent("3", "GET", "https://a.test/ads/slow.js", 1.3));
+        engine.onLoadingFailed(CdpEvents.loadingFailed("3", 1.4, ResourceType.SCRIPT,
+                "net::ERR_TIMED_OUT", Optional.empty()));
+
+        assertSoftly(softly -> {
+            softly.assertThat(engine.getHits(blockPng)).isEqualTo(2);
+            softly.assertThat(engine.getHits(blockAds)).isZero();
+        });
+    }
+}
@@ -0,0 +1,151 @@
+import co.uk.streams.CaptureMode;
+import co.uk.streams.FrameFile;
+import co.uk.streams.FrameRecorder;
+import co.uk.streams.FrameRecorderConfig;
+import co.uk.streams.RecordedFrame;
+import co.uk.streams.StreamStats;
+import co.uk.streams.StreamType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openqa.selenium.devtools.v126.network.model.EventSourceMessageReceived;
+import org.openqa.selenium.devtools.v126.network.model.MonotonicTime;
+import org.openqa.selenium.devtools.v126.network.model.RequestId;
+import org.openqa.selenium.devtools.v126.network.model.WebSocketClosed;
+import org.openqa.selenium.devtools.v126.network.model.WebSocketCreated;
+import org.openqa.selenium.devtools.v126.network.model.WebSocketFrame;
+import org.openqa.selenium.devtools.v126.network.model.WebSocketFrameError;
+import org.openqa.selenium.devtools.v126.network.model.WebSocketFrameReceived;
+import org.openqa.selenium.devtools.v126.network.model.WebSocketFrameSent;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.SoftAssertions.assertSoftly;
+import static org.assertj.core.data.Offset.offset;
+
+/**
+ * WebSocket and EventSource events through {@link FrameRecorder}: per-stream stats, the frame file it
+ * writes, payload sampling and frames that arrive out of order.
+ */
+public class TestFrameRecorder {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * A socket's lifetime, both directions and its errors end up in the stats and in the file.
+     */
+    @Test
+    void recordsWebSocketLifecycle() throws IOException {
+        Path file = tempDir.resolve("frames/ws.bin");
+        FrameRecorder recorder = new FrameRecorder(FrameRecorderConfig.builder().file(file).build());
+        RequestId id = new RequestId("ws-1");
+        recorder.onWebSocketCreated(new WebSocketCreated(id, "wss://feed.test/live", Optional.empty()));
+        recorder.onFrameSent(new WebSocketFrameSent(id, time(10.0), new WebSocketFrame(1, true, "subscribe")));
+        recorder.onFrameReceived(new WebSocketFrameReceived(id, time(10.5),
+                new WebSocketFrame(2, false, Base64.getEncoder().encodeToString(new byte[300]))));
+        recorder.onFrameReceived(new WebSocketFrameReceived(id, time(11.0), new WebSocketFrame(1, false, "prix €")));
+        recorder.onFrameError(new WebSocketFrameError(id, time(11.5), "Invalid frame header"));
+        recorder.onWebSocketClosed(new WebSocketClosed(id, time(12.0)));
+        recorder.close();
+
+        StreamStats stats = recorder.getStats("ws-1").orElseThrow();
+        List<RecordedFrame> frames = FrameFile.read(file);
+        assertSoftly(softly -> {
+            softly.assertThat(stats.getUrl()).isEqualTo("wss://feed.test/live");
+            softly.assertThat(stats.isOpen()).isFalse();
+            softly.assertThat(stats.getFramesSent()).isEqualTo(1);
+            softly.assertThat(stats.getFramesReceived()).isEqualTo(2);
+            softly.assertThat(stats.getBytes()).isEqualTo(9 + 300 + 8);
+            softly.assertThat(stats.getErrors()).isEqualTo(1);
+            softly.assertThat(stats.getLastError()).isEqualTo("Invalid frame header");
+            softly.assertThat(stats.getDurationSeconds()).isEqualTo(2.0);
+            softly.assertThat(stats.getFramesPerSecond()).isEqualTo(1.5);
+            softly.assertThat(stats.getMeanGapMillis()).isEqualTo(500.0);
+            softly.assertThat(stats.getSizeHistogram()[4]).isEqualTo(2);
+            softly.assertThat(stats.getSizeHistogram()[9]).isEqualTo(1);
+            softly.assertThat(frames).extracting(RecordedFrame::getKind).containsExactly(RecordedFrame.Kind.OPENED,
+                    RecordedFrame.Kind.SENT, RecordedFrame.Kind.RECEIVED, RecordedFrame.Kind.RECEIVED,
+                    RecordedFrame.Kind.ERROR, RecordedFrame.Kind.CLOSED);
+            softly.assertThat(frames.get(0).payloadText()).isEqualTo("wss://feed.test/live");
+            softly.assertThat(frames.get(2).getPayload()).hasSize(300);
+            softly.assertThat(frames.get(3).payloadText()).isEqualTo("prix €");
+        });
+    }
+
+    /**
+     * Sampling keeps every n-th payload, metadata-only mode keeps none; the stats count every frame.
+     */
+    @Test
+    void samplesPayloadsAndKeepsMetadata() throws IOException {
+        Path sampled = tempDir.resolve("sampled.bin");
+        Path metadata = tempDir.resolve("metadata.bin");
+        FrameRecorder sampling = new FrameRecorder(FrameRecorderConfig.builder()
+                .file(sampled).sampleRate(10).maxPayloadBytes(4).build());
+        FrameRecorder headersOnly = new FrameRecorder(FrameRecorderConfig.builder()
+                .file(metadata).captureMode(CaptureMode.METADATA_ONLY).build());
+        RequestId id = new RequestId("sse-1");
+        for (int i = 0; i < 100; i++) {
+            EventSourceMessageReceived message = new EventSourceMessageReceived(id, time(i / 100.0), "tick",
+                    String.valueOf(i), "{\"price\":" + i + "}");
+            sampling.onEventSourceMessage(message);
+            headersOnly.onEventSourceMessage(message);
+        }
+        sampling.close();
+        headersOnly.close();
+
+        List<RecordedFrame> sampledFrames = FrameFile.read(sampled);
+        List<RecordedFrame> metadataFrames = FrameFile.read(metadata);
+        StreamStats stats = sampling.getStats().get(0);
+        assertSoftly(softly -> {
+            softly.assertThat(stats.getType()).isEqualTo(StreamType.EVENT_SOURCE);
+            softly.assertThat(stats.getFramesReceived()).isEqualTo(100);
+            softly.assertThat(stats.getFramesPerSecond()).isCloseTo(100.0, offset(1.1));
+            softly.assertThat(sampledFrames).hasSize(101);
+            softly.assertThat(sampledFrames.stream().filter(RecordedFrame::hasPayload)).hasSize(10);
+            softly.assertThat(sampledFrames.get(1).payloadText()).isEqualTo("{\"pr");
+            softly.assertThat(sampledFrames.get(1).getLength()).isEqualTo(11);
+            softly.assertThat(metadataFrames).hasSize(101);
+            softly.assertThat(metadataFrames.stream().filter(RecordedFrame::hasPayload)).isEmpty();
+            softly.assertThat(headersOnly.getRecordedBytes()).isLessThan(sampling.getRecordedBytes());
+        });
+    }
+
+    /**
+     * Frames that arrive out of order are measured between their real neighbours, and a creation event
+     * that comes after the first frame still gives the stream its URL.
+     */
+    @Test
+    void measuresGapsInTimestampOrder() throws IOException {
+        Path file = tempDir.resolve("late.bin");
+        FrameRecorder recorder = new FrameRecorder(FrameRecorderConfig.builder().file(file).build());
+        RequestId id = new RequestId("ws-2");
+        recorder.onFrameReceived(new WebSocketFrameReceived(id, time(1.0), new WebSocketFrame(1, false, "a")));
+        recorder.onWebSocketCreated(new WebSocketCreated(id, "wss://feed.test/late", Optional.empty()));
+        recorder.onFrameReceived(new WebSocketFrameReceived(id, time(1.3), new WebSocketFrame(1, false, "c")));
+        recorder.onFrameReceived(new WebSocketFrameReceived(id, time(1.1), new WebSocketFrame(1, false, "b")));
+        recorder.onFrameReceived(new WebSocketFrameReceived(id, time(1.4), new WebSocketFrame(1, false, "d")));
+        recorder.close();
+
+        StreamStats stats = recorder.getStats("ws-2").orElseThrow();
+        List<RecordedFrame> frames = FrameFile.read(file);
+        assertSoftly(softly -> {
+            softly.assertThat(stats.getUrl()).isEqualTo("wss://feed.test/late");
+            softly.assertThat(stats.getMinGapMillis()).isCloseTo(100.0, offset(0.001));
+            softly.assertThat(stats.getMaxGapMillis()).isCloseTo(200.0, offset(0.001));
+            softly.assertThat(stats.getMeanGapMillis()).isCloseTo(400.0 / 3, offset(0.001));
+            softly.assertThat(stats.getLateFrames()).isZero();
+            softly.assertThat(frames.get(0).getKind()).isEqualTo(RecordedFrame.Kind.OPENED);
+            softly.assertThat(frames.get(0).hasPayload()).isFalse();
+            softly.assertThat(frames.get(2).getKind()).isEqualTo(RecordedFrame.Kind.OPENED);
+            softly.assertThat(frames.get(2).payloadText()).isEqualTo("wss://feed.test/late");
+        });
+    }
+
+    private static MonotonicTime time(double seconds) {
+        return new MonotonicTime(seconds);
+    }
+}
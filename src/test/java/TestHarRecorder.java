@@ -0,0 +1,127 @@
+import co.uk.network.HarRecorder;
+import co.uk.network.HarRecorderConfig;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openqa.selenium.devtools.v126.network.model.BlockedReason;
+import org.openqa.selenium.devtools.v126.network.model.ResourceType;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.SoftAssertions.assertSoftly;
+
+/**
+ * How {@link HarRecorder} turns Network events into HAR entries: joining them by RequestId, redirect
+ * chains, failed requests, events that arrive before their request and eviction of requests that never finish.
+ */
+public class TestHarRecorder {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Request, response and loadingFinished with the same RequestId become one entry.
+     */
+    @Test
+    void joinsEventsByRequestId() throws IOException {
+        Path har = tempDir.resolve("joined.har");
+        try (HarRecorder recorder = new HarRecorder(har)) {
+            recorder.onRequestWillBeSent(CdpEvents.requestWillBeSent("1", "POST", "https://api.test/items?page=2",
+                    10.0, Optional.of("{\"a\":1}"), Optional.empty()));
+            recorder.onResponseReceived(CdpEvents.responseReceived("1", ResourceType.XHR,
+                    CdpEvents.response("https://api.test/items?page=2", 201, "application/json", Map.of()), 10.2));
+            recorder.onLoadingFinished(CdpEvents.loadingFinished("1", 10.5, 1234));
+            assertSoftly(softly -> softly.assertThat(recorder.getPendingEntries()).isZero());
+        }
+
+        JsonNode entries = new ObjectMapper().readTree(har.toFile()).path("log").path("entries");
+        assertSoftly(softly -> {
+            softly.assertThat(entries.size()).isEqualTo(1);
+            softly.assertThat(entries.get(0).path("request").path("method").asText()).isEqualTo("POST");
+            softly.assertThat(entries.get(0).path("request").path("queryString").get(0).path("value").asText()).isEqualTo("2");
+            softly.assertThat(entries.get(0).path("request").path("postData").path("text").asText()).isEqualTo("{\"a\":1}");
+            softly.assertThat(entries.get(0).path("response").path("status").asInt()).isEqualTo(201);
+            softly.assertThat(entries.get(0).path("response").path("bodySize").asLong()).isEqualTo(1234);
+            softly.assertThat(entries.get(0).path("time").asLong()).isEqualTo(500);
+        });
+    }
+
+    /**
+     * A redirect closes the previous hop, a failure is recorded with its reason.
+     */
+    @Test
+    void recordsRedirectsAndFailures() throws IOException {
+        Path har = tempDir.resolve("redirect.har");
+        try (HarRecorder recorder = new HarRecorder(har)) {
+            recorder.onRequestWillBeSent(CdpEvents.requestWillBeSent("1", "GET", "http://site.test/", 1.0));
+            recorder.onRequestWillBeSent(CdpEvents.requestWillBeSent("1", "GET", "https://site.test/", 1.1,
+                    Optional.empty(), Optional.of(CdpEvents.response("http://site.test/", 301, "text/html",
+                            Map.of("location", "https://site.test/")))));
+            recorder.onLoadingFailed(CdpEvents.loadingFailed("1", 1.3, ResourceType.DOCUMENT,
+                    "net::ERR_BLOCKED_BY_CLIENT", Optional.of(BlockedReason.INSPECTOR)));
+        }
+
+        JsonNode entries = new ObjectMapper().readTree(har.toFile()).path("log").path("entries");
+        assertSoftly(softly -> {
+            softly.assertThat(entries.size()).isEqualTo(2);
+            softly.assertThat(entries.get(0).path("response").path("status").asInt()).isEqualTo(301);
+            softly.assertThat(entries.get(0).path("response").path("redirectURL").asText()).isEqualTo("https://site.test/");
+            softly.assertThat(entries.get(1).path("_error").asText()).contains("ERR_BLOCKED_BY_CLIENT");
+        });
+    }
+
+    /**
+     * Requests that never finish are evicted once the pending map is full.
+     */
+    @Test
+    void evictsOldestPendingEntries() throws IOException {
+        Path har = tempDir.resolve("evicted.har");
+        try (HarRecorder recorder = new HarRecorder(har, HarRecorderConfig.builder().maxPendingEntries(2).build())) {
+            for (int i = 0; i < 5; i++) {
+                recorder.onRequestWillBeSent(CdpEvents.requestWillBeSent(String.valueOf(i), "GET", "https://site.test/" + i, i));
+            }
+            assertSoftly(softly -> {
+                softly.assertThat(recorder.getPendingEntries()).isEqualTo(2);
+                softly.assertThat(recorder.getWrittenEntries()).isEqualTo(3);
+            });
+        }
+
+        JsonNode entries = new ObjectMapper().readTree(har.toFile()).path("log").path("entries");
+        assertSoftly(softly -> {
+            softly.assertThat(entries.size()).isEqualTo(5);
+            softly.assertThat(entries.get(0).path("_error").asText()).isEqualTo("Evicted before completion");
+        });
+    }
+
+    /**
+     * A response and completion seen before their request are joined once it arrives; one that never
+     * gets a request is counted as orphaned.
+     */
+    @Test
+    void joinsEventsThatArriveBeforeTheirRequest() throws IOException {
+        Path har = tempDir.resolve("early.har");
+        long orphaned;
+        try (HarRecorder recorder = new HarRecorder(har)) {
+            recorder.onLoadingFinished(CdpEvents.loadingFinished("1", 2.5, 900));
+            recorder.onResponseReceived(CdpEvents.responseReceived("1", ResourceType.SCRIPT,
+                    CdpEvents.response("https://site.test/app.js", 200, "text/javascript", Map.of()), 2.2));
+            recorder.onRequestWillBeSent(CdpEvents.requestWillBeSent("1", "GET", "https://site.test/app.js", 2.0));
+            recorder.onLoadingFinished(CdpEvents.loadingFinished("2", 3.0, 10));
+            assertSoftly(softly -> softly.assertThat(recorder.getPendingEntries()).isZero());
+            orphaned = recorder.getOrphanedEvents();
+        }
+
+        JsonNode entries = new ObjectMapper().readTree(har.toFile()).path("log").path("entries");
+        assertSoftly(softly -> {
+            softly.assertThat(entries.size()).isEqualTo(1);
+            softly.assertThat(entries.get(0).path("response").path("status").asInt()).isEqualTo(200);
+            softly.assertThat(entries.get(0).path("response").path("bodySize").asLong()).isEqualTo(900);
+            softly.assertThat(entries.get(0).path("time").asLong()).isEqualTo(500);
+            softly.assertThat(orphaned).isEqualTo(1);
+        });
+    }
+}
@@ -0,0 +1,63 @@
+import co.uk.memory.LeakDetectorConfig;
+import co.uk.memory.LeakReport;
+import co.uk.memory.LinearTrend;
+import co.uk.memory.MemorySample;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.SoftAssertions.assertSoftly;
+import static org.assertj.core.data.Offset.offset;
+
+/**
+ * The linear trend fit and the leak decision of {@link LeakReport}, on memory samples made up for each case.
+ */
+public class TestLeakReport {
+
+    private static final LeakDetectorConfig CONFIG = LeakDetectorConfig.builder().build();
+
+    /**
+     * The fitted line recovers slope and intercept and counts the rising steps.
+     */
+    @Test
+    void fitsLinearTrend() {
+        LinearTrend exact = LinearTrend.fit(new double[]{10, 12, 14, 16, 18});
+        LinearTrend flat = LinearTrend.fit(new double[]{5, 5, 5, 5});
+
+        assertSoftly(softly -> {
+            softly.assertThat(exact.getSlope()).isCloseTo(2.0, offset(1e-9));
+            softly.assertThat(exact.getIntercept()).isCloseTo(10.0, offset(1e-9));
+            softly.assertThat(exact.getRSquared()).isCloseTo(1.0, offset(1e-9));
+            softly.assertThat(exact.getIncreasingShare()).isEqualTo(1.0);
+            softly.assertThat(flat.getSlope()).isZero();
+            softly.assertThat(flat.getIncreasingShare()).isZero();
+        });
+    }
+
+    /**
+     * Steady growth of heap and listeners is a leak; one big allocation followed by a plateau is not.
+     */
+    @Test
+    void flagsSteadyGrowthOnly() {
+        List<MemorySample> leaking = new ArrayList<>();
+        List<MemorySample> plateau = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            leaking.add(new MemorySample(i, 20_000_000 + i * 400_000L + (i % 2) * 50_000L, 40_000_000, 1,
+                    1500, 200 + 10 * i));
+            plateau.add(new MemorySample(i, i < 2 ? 20_000_000 : 28_000_000, 40_000_000, 1, 1500, 200));
+        }
+        LeakReport leak = LeakReport.evaluate("route-change", leaking, CONFIG);
+        LeakReport noLeak = LeakReport.evaluate("cache-warmup", plateau, CONFIG);
+
+        assertSoftly(softly -> {
+            softly.assertThat(leak.isLeaking()).isTrue();
+            softly.assertThat(leak.getReasons()).hasSize(2);
+            softly.assertThat(leak.getReasons().get(0)).startsWith("retained heap: +");
+            softly.assertThat(leak.getReasons().get(1)).startsWith("JS event listeners: +10 listeners per iteration");
+            softly.assertThat(noLeak.isLeaking()).isFalse();
+        });
+        assertThatThrownBy(leak::assertNoLeak).hasMessageContaining("Flow route-change leaks");
+    }
+}
@@ -0,0 +1,121 @@
+import co.uk.network.PageWeightAnalyzer;
+import co.uk.network.PageWeightBudget;
+import co.uk.network.PageWeightReport;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.devtools.v126.network.model.BlockedReason;
+import org.openqa.selenium.devtools.v126.network.model.RequestId;
+import org.openqa.selenium.devtools.v126.network.model.ResourceType;
+
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.SoftAssertions.assertSoftly;
+
+/**
+ * Per-type byte and request counts of {@link PageWeightAnalyzer}, split by where each response came
+ * from, its in-flight table under many overlapping requests, and events that arrive after their request settled.
+ */
+public class TestPageWeightAnalyzer {
+
+    /**
+     * Network, memory cache, disk cache, blocked and failed requests each land in their type's counters.
+     */
+    @Test
+    void countsWeightAndCacheUsePerType() {
+        PageWeightAnalyzer analyzer = new PageWeightAnalyzer();
+        load(analyzer, "1", ResourceType.DOCUMENT, false, false, 5_000, 20_000);
+        load(analyzer, "2", ResourceType.SCRIPT, true, false, 0, 80_000);
+        load(analyzer, "3", ResourceType.IMAGE, false, true, 0, 30_000);
+        load(analyzer, "4", ResourceType.IMAGE, false, false, 12_000, 12_000);
+        analyzer.onLoadingFailed(CdpEvents.loadingFailed("5", 1.0, ResourceType.IMAGE, "net::ERR_BLOCKED_BY_CLIENT",
+                Optional.of(BlockedReason.INSPECTOR)));
+        analyzer.onLoadingFailed(CdpEvents.loadingFailed("6", 1.0, ResourceType.XHR, "net::ERR_ABORTED", Optional.empty()));
+        PageWeightReport report = analyzer.report();
+
+        assertSoftly(softly -> {
+            softly.assertThat(report.getRequests(ResourceType.IMAGE)).isEqualTo(3);
+            softly.assertThat(report.getTransferredBytes(ResourceType.IMAGE)).isEqualTo(12_000);
+            softly.assertThat(report.getDecodedBytes(ResourceType.SCRIPT)).isEqualTo(80_000);
+            softly.assertThat(report.getMemoryCacheHits(ResourceType.SCRIPT)).isEqualTo(1);
+            softly.assertThat(report.getDiskCacheHits(ResourceType.IMAGE)).isEqualTo(1);
+            softly.assertThat(report.getBlocked(ResourceType.IMAGE)).isEqualTo(1);
+            softly.assertThat(report.getFailed(ResourceType.XHR)).isEqualTo(1);
+            softly.assertThat(report.getCacheHitRatio(ResourceType.IMAGE)).isEqualTo(0.5);
+            softly.assertThat(report.getCacheHitRatio()).isEqualTo(0.5);
+            softly.assertThat(report.getTotalTransferredBytes()).isEqualTo(17_000);
+            softly.assertThat(analyzer.getInFlight()).isZero();
+            softly.assertThat(report.violations(PageWeightBudget.builder()
+                    .maxTransferredBytes(16_000)
+                    .maxTransferredBytesFor(ResourceType.IMAGE, 10_000L)
+                    .minCacheHitRatioFor(ResourceType.SCRIPT, 1.0)
+                    .minCacheHitRatio(0.75)
+                    .build())).hasSize(3);
+        });
+        assertThatThrownBy(() -> report.assertWithin(PageWeightBudget.builder().maxRequests(5).build()))
+                .isInstanceOf(AssertionError.class)
+                .hasMessageContaining("requests 6 > 5");
+    }
+
+    /**
+     * Thousands of overlapping requests grow the in-flight table and settle out of order.
+     */
+    @Test
+    void tracksManyRequestsInFlight() {
+        PageWeightAnalyzer analyzer = new PageWeightAnalyzer();
+        int count = 5_000;
+        for (int i = 0; i < count; i++) {
+            analyzer.onResponseReceived(CdpEvents.responseReceived("r" + i, ResourceType.FETCH,
+                    CdpEvents.response("https://api.test/" + i, 200, "application/json", Map.of()), 1.0));
+        }
+        for (int i = count - 1; i >= 0; i -= 2) {
+            analyzer.onLoadingFinished(CdpEvents.loadingFinished("r" + i, 2.0, 100));
+        }
+        int halfway = analyzer.getInFlight();
+        for (int i = 0; i < count; i += 2) {
+            analyzer.onRequestServedFromCache(new RequestId("r" + i));
+            analyzer.onLoadingFinished(CdpEvents.loadingFinished("r" + i, 2.0, 0));
+        }
+        PageWeightReport report = analyzer.report();
+
+        assertSoftly(softly -> {
+            softly.assertThat(halfway).isEqualTo(count / 2);
+            softly.assertThat(analyzer.getInFlight()).isZero();
+            softly.assertThat(report.getRequests(ResourceType.FETCH)).isEqualTo(count);
+            softly.assertThat(report.getMemoryCacheHits(ResourceType.FETCH)).isEqualTo(count / 2);
+            softly.assertThat(report.getTransferredBytes(ResourceType.FETCH)).isEqualTo(100L * count / 2);
+        });
+    }
+
+    /**
+     * A response or cache hit reported after loadingFinished is ignored instead of staying in flight.
+     */
+    @Test
+    void ignoresEventsAfterTheRequestSettled() {
+        PageWeightAnalyzer analyzer = new PageWeightAnalyzer();
+        load(analyzer, "1", ResourceType.IMAGE, false, false, 2_000, 4_000);
+        analyzer.onRequestServedFromCache(new RequestId("1"));
+        analyzer.onResponseReceived(CdpEvents.responseReceived("1", ResourceType.IMAGE,
+                CdpEvents.response("https://site.test/1", 200, "image/png", Map.of()), 1.3));
+        analyzer.onDataReceived(CdpEvents.dataReceived("1", 1.4, 500));
+        PageWeightReport report = analyzer.report();
+
+        assertSoftly(softly -> {
+            softly.assertThat(analyzer.getInFlight()).isZero();
+            softly.assertThat(analyzer.getLateEvents()).isEqualTo(3);
+            softly.assertThat(report.getRequests(ResourceType.IMAGE)).isEqualTo(1);
+            softly.assertThat(report.getDecodedBytes(ResourceType.IMAGE)).isEqualTo(4_000);
+        });
+    }
+
+    private static void load(PageWeightAnalyzer analyzer, String id, ResourceType type, boolean memoryCache,
+                             boolean diskCache, long transferred, int decoded) {
+        if (memoryCache) {
+            analyzer.onRequestServedFromCache(new RequestId(id));
+        }
+        analyzer.onResponseReceived(CdpEvents.responseReceived(id, type,
+                CdpEvents.response("https://site.test/" + id, 200, "text/plain", Map.of(), diskCache), 1.0));
+        analyzer.onDataReceived(CdpEvents.dataReceived(id, 1.1, decoded));
+        analyzer.onLoadingFinished(CdpEvents.loadingFinished(id, 1.2, transferred));
+    }
+}
@@ -0,0 +1,117 @@
+import co.uk.performance.MetricThreshold;
+import co.uk.performance.PerformanceSampler;
+import co.uk.performance.PhaseSummary;
+import co.uk.performance.Statistic;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.v126.performance.model.Metric;
+import org.openqa.selenium.devtools.v126.v126Domains;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.SoftAssertions.assertSoftly;
+
+/**
+ * Phase summaries, thresholds and CSV export of {@link PerformanceSampler}. Samples inside a phase are
+ * recorded directly; the samples it takes at phase boundaries are answered from a queue of Nodes values.
+ */
+public class TestPerformanceSampler {
+
+    @TempDir
+    Path tempDir;
+
+    private final Queue<Double> boundaryNodes = new ConcurrentLinkedQueue<>();
+    private final FakeCdpConnection fake = new FakeCdpConnection()
+            .replying("Performance.getMetrics", params -> "{\"metrics\":[{\"name\":\"Nodes\",\"value\":"
+                    + boundaryNodes.remove() + "}]}");
+
+    /**
+     * Samples recorded between a phase's start and end make up its percentiles and delta.
+     */
+    @Test
+    public void summarizesSamplesPerPhase() {
+        try (PerformanceSampler sampler = new PerformanceSampler(devTools(), Duration.ofSeconds(1), 8)) {
+            PerformanceSampler.Phase phase = phaseOf(sampler, "load", 1, 2, 3, 4, 5, 6, 7, 8, 9, 10);
+            PhaseSummary summary = sampler.summarize(phase);
+
+            assertSoftly(softly -> {
+                // Capacity is 8, so the first two samples have been overwritten.
+                softly.assertThat(summary.getMetrics().get("Nodes").getSamples()).isEqualTo(8);
+                softly.assertThat(summary.getMetrics().get("Nodes").getMin()).isEqualTo(3);
+                softly.assertThat(summary.getMetrics().get("Nodes").getP50()).isEqualTo(6);
+                softly.assertThat(summary.getMetrics().get("Nodes").getP95()).isEqualTo(10);
+                softly.assertThat(summary.getMetrics().get("Nodes").getDelta()).isEqualTo(7);
+                softly.assertThat(summary.getStartMillis()).isEqualTo(3000);
+                // The closing boundary sample is taken at the current time.
+                softly.assertThat(summary.getEndMillis()).isGreaterThan(9000);
+            });
+        }
+    }
+
+    /**
+     * Every violated threshold is reported, thresholds for other phases are ignored.
+     */
+    @Test
+    public void reportsAllThresholdViolations() {
+        try (PerformanceSampler sampler = new PerformanceSampler(devTools(), Duration.ofSeconds(1))) {
+            phaseOf(sampler, "home", 10, 20, 30);
+            phaseOf(sampler, "checkout", 100, 400, 900);
+
+            assertThatThrownBy(() -> sampler.assertThresholds(List.of(
+                    MetricThreshold.everyPhase("Nodes", Statistic.MAX, 50),
+                    MetricThreshold.of("home", "Nodes", Statistic.DELTA, 100))))
+                    .isInstanceOf(AssertionError.class)
+                    .hasMessageContaining("checkout: Nodes MAX = 900.0 > 50.0")
+                    .hasMessageNotContaining("home:");
+        }
+    }
+
+    /**
+     * The CSV has one column per metric and leaves metrics missing from a sample empty.
+     */
+    @Test
+    public void writesCsvTimeSeries() throws IOException {
+        Path csv = tempDir.resolve("metrics.csv");
+        try (PerformanceSampler sampler = new PerformanceSampler(devTools(), Duration.ofSeconds(1))) {
+            sampler.record(1000, List.of(new Metric("Nodes", 10), new Metric("JSHeapUsedSize", 2048)));
+            sampler.record(2000, List.of(new Metric("Nodes", 12)));
+            sampler.writeCsv(csv);
+        }
+
+        List<String> lines = Files.readAllLines(csv);
+        assertSoftly(softly -> {
+            softly.assertThat(lines).containsExactly(
+                    "timestamp,Nodes,JSHeapUsedSize",
+                    "1000,10.0,2048.0",
+                    "2000,12.0,");
+            softly.assertThat(fake.sentMethods()).containsExactly("Performance.disable");
+        });
+    }
+
+    private DevTools devTools() {
+        return new DevTools(v126Domains::new, fake.connection());
+    }
+
+    /**
+     * The first and last value come from the boundary samples of the phase, the rest are recorded
+     * with their value in seconds as the timestamp.
+     */
+    private PerformanceSampler.Phase phaseOf(PerformanceSampler sampler, String name, double... nodes) {
+        boundaryNodes.add(nodes[0]);
+        PerformanceSampler.Phase phase = sampler.phase(name);
+        for (int i = 1; i < nodes.length - 1; i++) {
+            sampler.record((long) nodes[i] * 1000, List.of(new Metric("Nodes", nodes[i])));
+        }
+        boundaryNodes.add(nodes[nodes.length - 1]);
+        phase.close();
+        return phase;
+    }
+}
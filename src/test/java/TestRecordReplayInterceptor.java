@@ -0,0 +1,155 @@
+import co.uk.replay.RecordReplayInterceptor;
+import co.uk.replay.ReplayConfig;
+import co.uk.replay.ReplayMode;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.devtools.v126.v126Domains;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.SoftAssertions.assertSoftly;
+
+/**
+ * A recording made by {@link RecordReplayInterceptor} is written to disk, loaded again and replayed.
+ * The browser side is a scripted connection: requests arrive as Fetch.requestPaused events and the
+ * responses the interceptor hands back are read from Fetch.fulfillRequest.
+ */
+public class TestRecordReplayInterceptor {
+
+    private static final String TARGETS = "{\"targetInfos\":[{\"targetId\":\"page-1\",\"type\":\"page\",\"title\":\"\","
+            + "\"url\":\"about:blank\",\"attached\":false,\"canAccessOpener\":false}]}";
+    private static final String CART_JSON = "{\"items\":[{\"sku\":\"iphone\",\"quantity\":1}]}";
+
+    @TempDir
+    Path recording;
+
+    /**
+     * The replayed responses carry the recorded status, headers and body; a request that was not
+     * recorded gets a 404 instead of reaching the network.
+     */
+    @Test
+    public void replaysTheResponsesOfASavedRecording() throws InterruptedException {
+        BlockingQueue<JsonNode> recordedResponses = new LinkedBlockingQueue<>();
+        FakeCdpConnection recordingBrowser = browser(recordedResponses)
+                .replying("Fetch.getResponseBody", params -> "{\"body\":\"" + base64(CART_JSON) + "\",\"base64Encoded\":true}");
+        RecordReplayInterceptor recorder = new RecordReplayInterceptor(driver(recordingBrowser), config(ReplayMode.RECORD));
+        recordingBrowser.emit("Fetch.requestPaused", requestPaused("https://shop.test/api/cart?_=1", ""));
+        // Once the request has gone on to the network, it pauses again at the response stage.
+        awaitSent(recordingBrowser, "Fetch.continueRequest");
+        recordingBrowser.emit("Fetch.requestPaused", requestPaused("https://shop.test/api/cart?_=1",
+                ",\"responseStatusCode\":200,\"responseHeaders\":[{\"name\":\"Content-Type\",\"value\":\"application/json\"},"
+                        + "{\"name\":\"Content-Length\",\"value\":\"47\"}]"));
+        JsonNode recorded = recordedResponses.poll(5, TimeUnit.SECONDS);
+        recorder.close();
+
+        BlockingQueue<JsonNode> replayedResponses = new LinkedBlockingQueue<>();
+        FakeCdpConnection replayingBrowser = browser(replayedResponses);
+        RecordReplayInterceptor replayer = new RecordReplayInterceptor(driver(replayingBrowser), config(ReplayMode.REPLAY));
+        replayingBrowser.emit("Fetch.requestPaused", requestPaused("https://shop.test/api/cart?_=2", ""));
+        JsonNode replayed = replayedResponses.poll(5, TimeUnit.SECONDS);
+        replayingBrowser.emit("Fetch.requestPaused", requestPaused("https://shop.test/api/orders", ""));
+        JsonNode missing = replayedResponses.poll(5, TimeUnit.SECONDS);
+        replayer.close();
+
+        assertSoftly(softly -> {
+            softly.assertThat(recorder.getRecorded()).isEqualTo(1);
+            softly.assertThat(recorded).isNotNull();
+            softly.assertThat(replayed).isNotNull();
+            softly.assertThat(missing).isNotNull();
+            if (recorded == null || replayed == null || missing == null) {
+                return;
+            }
+            softly.assertThat(decode(recorded.path("body").asText())).isEqualTo(CART_JSON);
+            softly.assertThat(replayed.path("responseCode").asInt()).isEqualTo(200);
+            softly.assertThat(decode(replayed.path("body").asText())).isEqualTo(CART_JSON);
+            softly.assertThat(headers(replayed)).containsEntry("Content-Type", "application/json")
+                    .doesNotContainKey("Content-Length");
+            softly.assertThat(replayer.getHits()).isEqualTo(1);
+            softly.assertThat(replayer.getMisses()).isEqualTo(1);
+            softly.assertThat(missing.path("responseCode").asInt()).isEqualTo(404);
+        });
+    }
+
+    private ReplayConfig config(ReplayMode mode) {
+        return ReplayConfig.builder().mode(mode).directory(recording).ignoredQueryParameter("_").build();
+    }
+
+    /**
+     * A page target to attach to, with every Fetch.fulfillRequest handed to {@code responses}.
+     */
+    private static FakeCdpConnection browser(BlockingQueue<JsonNode> responses) {
+        return new FakeCdpConnection()
+                .replying("Target.getTargets", params -> TARGETS)
+                .replying("Target.attachToTarget", params -> "{\"sessionId\":\"session-1\"}")
+                .replying("Fetch.fulfillRequest", params -> {
+                    responses.add(params);
+                    return "{}";
+                });
+    }
+
+    /**
+     * Just enough of a driver for Selenium's NetworkInterceptor: a window handle and DevTools.
+     */
+    private static WebDriver driver(FakeCdpConnection browser) {
+        DevTools devTools = new DevTools(v126Domains::new, browser.connection());
+        return (WebDriver) Proxy.newProxyInstance(TestRecordReplayInterceptor.class.getClassLoader(),
+                new Class<?>[]{WebDriver.class, HasDevTools.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getWindowHandle":
+                            return "page-1";
+                        case "getDevTools":
+                            return devTools;
+                        case "maybeGetDevTools":
+                            return Optional.of(devTools);
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    /**
+     * Events are dispatched on a thread pool, so the next one is only emitted once this command shows the
+     * previous one was handled.
+     */
+    private static void awaitSent(FakeCdpConnection browser, String method) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!browser.sentMethods().contains(method) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private static String requestPaused(String url, String responseFields) {
+        return "{\"requestId\":\"interception-1\",\"request\":{\"url\":\"" + url + "\",\"method\":\"GET\","
+                + "\"headers\":{\"Accept\":\"application/json\"},\"initialPriority\":\"High\","
+                + "\"referrerPolicy\":\"no-referrer\"},\"frameId\":\"frame-1\",\"resourceType\":\"XHR\""
+                + responseFields + "}";
+    }
+
+    private static Map<String, String> headers(JsonNode fulfilled) {
+        Map<String, String> headers = new LinkedHashMap<>();
+        fulfilled.path("responseHeaders").forEach(header -> headers.put(header.path("name").asText(),
+                header.path("value").asText()));
+        return headers;
+    }
+
+    private static String base64(String text) {
+        return Base64.getEncoder().encodeToString(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decode(String base64) {
+        return new String(Base64.getDecoder().decode(base64), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,55 @@
+import co.uk.replay.ReplayConfig;
+import co.uk.replay.ReplayMode;
+import co.uk.replay.RequestFingerprint;
+import org.junit.jupiter.api.Test;
+import org.openqa.selenium.remote.http.HttpMethod;
+import org.openqa.selenium.remote.http.HttpRequest;
+
+import java.util.Set;
+
+import static org.assertj.core.api.SoftAssertions.assertSoftly;
+import static org.openqa.selenium.remote.http.Contents.utf8String;
+
+/**
+ * URL normalization and the parts of a request that go into a {@link RequestFingerprint}: method,
+ * the configured headers and the body, but not ignored query parameters.
+ */
+public class TestRequestFingerprint {
+
+    private static final ReplayConfig CONFIG = ReplayConfig.builder()
+            .mode(ReplayMode.REPLAY)
+            .fingerprintHeader("Accept")
+            .ignoredQueryParameter("_")
+            .build();
+
+    @Test
+    void normalizesEquivalentUrls() {
+        assertSoftly(softly -> {
+            softly.assertThat(RequestFingerprint.normalizeUrl("HTTPS://Shop.Test:443/a?b=2&a=1#top", Set.of()))
+                    .isEqualTo("https://shop.test/a?a=1&b=2");
+            softly.assertThat(RequestFingerprint.normalizeUrl("http://shop.test:8080", Set.of()))
+                    .isEqualTo("http://shop.test:8080/");
+            softly.assertThat(RequestFingerprint.normalizeUrl("https://shop.test/a?_=1712&q=x", Set.of("_")))
+                    .isEqualTo("https://shop.test/a?q=x");
+        });
+    }
+
+    @Test
+    void keysOnMethodHeadersAndBody() {
+        String get = RequestFingerprint.of(new HttpRequest(HttpMethod.GET, "https://shop.test/api?_=1"), CONFIG);
+        String getOtherBuster = RequestFingerprint.of(new HttpRequest(HttpMethod.GET, "https://shop.test/api?_=2"), CONFIG);
+        String getJson = RequestFingerprint.of(new HttpRequest(HttpMethod.GET, "https://shop.test/api")
+                .addHeader("Accept", "application/json"), CONFIG);
+        String postA = RequestFingerprint.of(new HttpRequest(HttpMethod.POST, "https://shop.test/api")
+                .setContent(utf8String("{\"q\":\"a\"}")), CONFIG);
+        String postB = RequestFingerprint.of(new HttpRequest(HttpMethod.POST, "https://shop.test/api")
+                .setContent(utf8String("{\"q\":\"b\"}")), CONFIG);
+
+        assertSoftly(softly -> {
+            softly.assertThat(get).isEqualTo(getOtherBuster);
+            softly.assertThat(get).isNotEqualTo(getJson);
+            softly.assertThat(postA).isNotEqualTo(postB);
+            softly.assertThat(get).isNotEqualTo(postA);
+        });
+    }
+}
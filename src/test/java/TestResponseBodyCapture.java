@@ -0,0 +1,108 @@
+import co.uk.network.BodyCaptureConfig;
+import co.uk.network.CapturedBody;
+import co.uk.network.ResponseBodyCapture;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.v126.network.model.ResourceType;
+import org.openqa.selenium.devtools.v126.v126Domains;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.SoftAssertions.assertSoftly;
+
+/**
+ * Where {@link ResponseBodyCapture} keeps a body: on the heap, in a spill file, truncated or not,
+ * with Network.getResponseBody answered by a scripted connection.
+ */
+public class TestResponseBodyCapture {
+
+    @TempDir
+    Path spillDirectory;
+
+    private final Map<String, String> responses = new ConcurrentHashMap<>();
+
+    /**
+     * Bodies over the spill threshold are decoded into a file and cut at maxBodyBytes, small ones stay on the heap.
+     */
+    @Test
+    public void spillsAndTruncatesAtTheConfiguredSizes() throws InterruptedException {
+        byte[] image = new byte[3000];
+        for (int i = 0; i < image.length; i++) {
+            image[i] = (byte) i;
+        }
+        respond("small", "{\"ok\":true}", false);
+        respond("image", Base64.getEncoder().encodeToString(image), true);
+        respond("page", "x".repeat(10_000), false);
+        try (ResponseBodyCapture capture = capture(BodyCaptureConfig.builder()
+                .spillThresholdBytes(1024)
+                .maxBodyBytes(1200)
+                .spillDirectory(spillDirectory))) {
+            CapturedBody small = load(capture, "small");
+            CapturedBody spilledImage = load(capture, "image");
+            CapturedBody page = load(capture, "page");
+
+            assertSoftly(softly -> {
+                softly.assertThat(small.asString()).isEqualTo("{\"ok\":true}");
+                softly.assertThat(small.isSpilled()).isFalse();
+                softly.assertThat(small.isTruncated()).isFalse();
+                softly.assertThat(spilledImage.isSpilled()).isTrue();
+                softly.assertThat(spilledImage.isTruncated()).isTrue();
+                softly.assertThat(spilledImage.bytes()).containsExactly(Arrays.copyOf(image, 1200));
+                softly.assertThat(page.isSpilled()).isTrue();
+                softly.assertThat(page.isTruncated()).isTrue();
+                softly.assertThat(page.size()).isEqualTo(1200);
+            });
+        }
+    }
+
+    /**
+     * The heap budget counts UTF-8 bytes: 5 two-byte characters use 10 bytes of it, not 5.
+     */
+    @Test
+    public void heapBudgetCountsEncodedBytes() throws InterruptedException {
+        respond("first", "ééééé", false);
+        respond("second", "é", false);
+        try (ResponseBodyCapture capture = capture(BodyCaptureConfig.builder()
+                .maxHeapBytes(10)
+                .spillDirectory(spillDirectory))) {
+            CapturedBody first = load(capture, "first");
+            CapturedBody second = load(capture, "second");
+
+            assertSoftly(softly -> {
+                softly.assertThat(first.isSpilled()).isFalse();
+                softly.assertThat(first.size()).isEqualTo(10);
+                softly.assertThat(second.isSpilled()).isTrue();
+                softly.assertThat(second.asString()).isEqualTo("é");
+            });
+        }
+    }
+
+    private void respond(String requestId, String body, boolean base64) {
+        responses.put(requestId, "{\"body\":\"" + body.replace("\"", "\\\"") + "\",\"base64Encoded\":" + base64 + "}");
+    }
+
+    private ResponseBodyCapture capture(BodyCaptureConfig.BodyCaptureConfigBuilder config) {
+        FakeCdpConnection fake = new FakeCdpConnection()
+                .replying("Network.getResponseBody", params -> responses.get(params.path("requestId").asText()));
+        return new ResponseBodyCapture(new DevTools(v126Domains::new, fake.connection()),
+                config.maxInFlight(1).fetchTimeout(Duration.ofSeconds(5)).build());
+    }
+
+    /**
+     * Runs one response through the capture and waits for its body, so heap reservations happen in call order.
+     */
+    private static CapturedBody load(ResponseBodyCapture capture, String requestId) throws InterruptedException {
+        String url = "https://shop.test/" + requestId;
+        capture.onResponseReceived(CdpEvents.responseReceived(requestId, ResourceType.XHR,
+                CdpEvents.response(url, 200, "application/json", Map.of()), 1.0));
+        capture.onLoadingFinished(CdpEvents.loadingFinished(requestId, 2.0, 0));
+        capture.awaitAll(Duration.ofSeconds(5));
+        return capture.find(url::equals).get(0);
+    }
+}
@@ -0,0 +1,123 @@
+import co.uk.cdp.AsyncDevTools;
+import co.uk.screencast.CapturedFrame;
+import co.uk.screencast.ScreencastConfig;
+import co.uk.screencast.ScreencastRecorder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.openqa.selenium.devtools.idealized.target.model.SessionID;
+import org.openqa.selenium.devtools.v126.network.model.TimeSinceEpoch;
+import org.openqa.selenium.devtools.v126.page.model.ScreencastFrame;
+import org.openqa.selenium.devtools.v126.page.model.ScreencastFrameMetadata;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Optional;
+
+import static org.assertj.core.api.SoftAssertions.assertSoftly;
+
+/**
+ * The retention window of {@link ScreencastRecorder}, frame acknowledgement under load and frames
+ * that arrive out of order, with Page.screencastFrame events pushed by a scripted connection.
+ */
+public class TestScreencastRecorder {
+
+    /**
+     * Only the retention window is kept, and it is written out with its timing on request.
+     */
+    @Test
+    void keepsTheLastSecondsAndWritesThemOnRequest(@TempDir Path directory) throws IOException {
+        FakeCdpConnection fake = new FakeCdpConnection();
+        ScreencastRecorder recorder = new ScreencastRecorder(devTools(fake),
+                ScreencastConfig.builder().retention(Duration.ofSeconds(5)).build());
+        for (int second = 0; second <= 20; second++) {
+            recorder.onScreencastFrame(frame(second, 1000 + second, ("jpeg-" + second).getBytes(StandardCharsets.US_ASCII)));
+            awaitDecoded(recorder, second);
+        }
+        recorder.close();
+
+        int written = recorder.writeFrames(directory);
+
+        assertSoftly(softly -> {
+            softly.assertThat(fake.sentMethods()).filteredOn("Page.screencastFrameAck"::equals).hasSize(21);
+            softly.assertThat(recorder.getFrames()).extracting(CapturedFrame::getTimestampMillis)
+                    .containsExactly(1_015_000L, 1_016_000L, 1_017_000L, 1_018_000L, 1_019_000L, 1_020_000L);
+            softly.assertThat(recorder.getEvicted()).isEqualTo(15);
+            softly.assertThat(written).isEqualTo(6);
+            softly.assertThat(directory.resolve("frame-00000.jpg")).hasBinaryContent("jpeg-15".getBytes(StandardCharsets.US_ASCII));
+            softly.assertThat(directory.resolve("frames.ffconcat")).content()
+                    .contains("file 'frame-00005.jpg'", "duration 1.000");
+        });
+    }
+
+    /**
+     * A flood of frames is acknowledged in full even when most of it never reaches the decoder.
+     */
+    @Test
+    void acknowledgesEveryFrameWhileDropping() {
+        FakeCdpConnection fake = new FakeCdpConnection();
+        ScreencastRecorder recorder = new ScreencastRecorder(devTools(fake),
+                ScreencastConfig.builder().queueCapacity(1).maxStride(8).build());
+        byte[] jpeg = new byte[256 * 1024];
+        for (int i = 0; i < 500; i++) {
+            recorder.onScreencastFrame(frame(i, 1000 + i / 25.0, jpeg));
+        }
+        recorder.close();
+
+        assertSoftly(softly -> {
+            softly.assertThat(fake.sentMethods()).filteredOn("Page.screencastFrameAck"::equals).hasSize(500);
+            softly.assertThat(recorder.getReceived()).isEqualTo(500);
+            softly.assertThat(recorder.getFrames().size() + recorder.getEvicted() + recorder.getDropped()).isEqualTo(500);
+            softly.assertThat(recorder.getStride()).isBetween(1, 8);
+            softly.assertThat(recorder.getBufferedBytes()).isLessThanOrEqualTo(16L * 1024 * 1024);
+        });
+    }
+
+    /**
+     * Frames decoded out of order are handed out and written by timestamp, so no duration is negative.
+     */
+    @Test
+    void ordersFramesByTimestamp(@TempDir Path directory) throws IOException {
+        FakeCdpConnection fake = new FakeCdpConnection();
+        ScreencastRecorder recorder = new ScreencastRecorder(devTools(fake));
+        double[] timestamps = {10.0, 10.2, 10.1, 10.3};
+        for (int i = 0; i < timestamps.length; i++) {
+            recorder.onScreencastFrame(frame(i, timestamps[i], ("jpeg-" + i).getBytes(StandardCharsets.US_ASCII)));
+            awaitDecoded(recorder, i);
+        }
+        recorder.close();
+
+        recorder.writeFrames(directory);
+
+        assertSoftly(softly -> {
+            softly.assertThat(recorder.getFrames()).extracting(CapturedFrame::getTimestampMillis)
+                    .containsExactly(10_000L, 10_100L, 10_200L, 10_300L);
+            softly.assertThat(directory.resolve("frame-00001.jpg")).hasBinaryContent("jpeg-2".getBytes(StandardCharsets.US_ASCII));
+            softly.assertThat(directory.resolve("frames.ffconcat")).content()
+                    .doesNotContain("duration -").contains("duration 0.100");
+        });
+    }
+
+    private static AsyncDevTools devTools(FakeCdpConnection fake) {
+        return new AsyncDevTools(fake.connection(), new SessionID("session"), Duration.ofSeconds(5));
+    }
+
+    private static ScreencastFrame frame(int sessionId, double timestampSeconds, byte[] jpeg) {
+        ScreencastFrameMetadata metadata = new ScreencastFrameMetadata(0, 1, 800, 600, 0, 0,
+                Optional.of(new TimeSinceEpoch(timestampSeconds)));
+        return new ScreencastFrame(Base64.getEncoder().encodeToString(jpeg), metadata, sessionId);
+    }
+
+    /**
+     * Waits for the decoder, so every frame in the first test is admitted.
+     */
+    private static void awaitDecoded(ScreencastRecorder recorder, int frame) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(5).toNanos();
+        while (recorder.getFrames().size() + recorder.getEvicted() <= frame && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,198 @@
+import co.uk.audit.AuditConfig;
+import co.uk.audit.AuditSummary;
+import co.uk.audit.SiteAuditor;
+import co.uk.audit.UrlSource;
+import co.uk.audit.WorkStealingScheduler;
+import co.uk.audit.WorkerSnapshot;
+import co.uk.audit.WorkerStats;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.SoftAssertions.assertSoftly;
+
+/**
+ * The site auditor's URL sources, scheduler and statistics need no browser and use a local server;
+ * {@link #auditsLocalSiteInParallel} runs the whole auditor against it in headless Chrome.
+ */
+public class TestSiteAuditor {
+
+    private static final String SITEMAP_NS = "http://www.sitemaps.org/schemas/sitemap/0.9";
+
+    /**
+     * Sitemap indexes are followed into plain and gzipped sitemaps, duplicates are dropped.
+     */
+    @Test
+    void readsListsAndNestedSitemaps(@TempDir Path directory) throws IOException {
+        try (StaticHttpServer site = StaticHttpServer.start()) {
+            site.resource("/sitemap.xml", "application/xml", sitemap("sitemapindex", "sitemap",
+                    site.url("/sitemap-pages.xml"), site.url("/sitemap-blog.xml.gz")), Duration.ZERO)
+                    .resource("/sitemap-pages.xml", "application/xml", sitemap("urlset", "url",
+                            site.url("/"), site.url("/about")), Duration.ZERO)
+                    .resource("/sitemap-blog.xml.gz", "application/gzip", gzip(sitemap("urlset", "url",
+                            site.url("/blog/1"), site.url("/about"))), Duration.ZERO);
+            Path list = Files.writeString(directory.resolve("urls.txt"),
+                    "# smoke pages\nhttps://shop.test/\n\n  https://shop.test/cart  \nhttps://shop.test/\n");
+
+            List<String> fromSitemap = UrlSource.read(site.url("/sitemap.xml"));
+            List<String> fromList = UrlSource.read(list.toString());
+
+            assertSoftly(softly -> {
+                softly.assertThat(fromSitemap).containsExactly(site.url("/"), site.url("/about"), site.url("/blog/1"));
+                softly.assertThat(fromList).containsExactly("https://shop.test/", "https://shop.test/cart");
+            });
+        }
+    }
+
+    /**
+     * A worker drains its own share from the front, then steals from the back of the others;
+     * under contention every item is still handed out exactly once.
+     */
+    @Test
+    void idleWorkersStealFromTheBack() throws InterruptedException {
+        WorkStealingScheduler<Integer> scheduler = new WorkStealingScheduler<>(3);
+        scheduler.addAll(IntStream.rangeClosed(1, 9).boxed().collect(Collectors.toList()));
+        List<Integer> order = new ArrayList<>();
+        for (Integer item = scheduler.next(0); item != null; item = scheduler.next(0)) {
+            order.add(item);
+        }
+
+        WorkStealingScheduler<Integer> contended = new WorkStealingScheduler<>(4);
+        contended.addAll(IntStream.range(0, 10_000).boxed().collect(Collectors.toList()));
+        Set<Integer> handedOut = ConcurrentHashMap.newKeySet();
+        List<Integer> duplicates = new ArrayList<>();
+        ExecutorService workers = Executors.newFixedThreadPool(4);
+        for (int worker = 0; worker < 4; worker++) {
+            int id = worker;
+            workers.execute(() -> {
+                for (Integer item = contended.next(id); item != null; item = contended.next(id)) {
+                    if (!handedOut.add(item)) {
+                        synchronized (duplicates) {
+                            duplicates.add(item);
+                        }
+                    }
+                    if (id == 0) {
+                        Thread.onSpinWait();
+                    }
+                }
+            });
+        }
+        workers.shutdown();
+        workers.awaitTermination(10, TimeUnit.SECONDS);
+
+        assertSoftly(softly -> {
+            softly.assertThat(order).containsExactly(1, 4, 7, 8, 5, 2, 9, 6, 3);
+            softly.assertThat(scheduler.getSteals()).isEqualTo(6);
+            softly.assertThat(handedOut).hasSize(10_000);
+            softly.assertThat(duplicates).isEmpty();
+            softly.assertThat(contended.remaining()).isZero();
+        });
+    }
+
+    /**
+     * Nearest-rank percentiles and throughput over the pages a tab has finished.
+     */
+    @Test
+    void reportsPercentilesPerWorker() {
+        WorkerStats stats = new WorkerStats("tab-1", 0);
+        for (int millis = 1; millis <= 100; millis++) {
+            stats.record(millis, millis % 10 != 0);
+        }
+
+        WorkerSnapshot snapshot = stats.snapshot(TimeUnit.SECONDS.toNanos(60));
+
+        assertSoftly(softly -> {
+            softly.assertThat(snapshot.getPages()).isEqualTo(100);
+            softly.assertThat(snapshot.getFailed()).isEqualTo(10);
+            softly.assertThat(snapshot.getP50Millis()).isEqualTo(50);
+            softly.assertThat(snapshot.getP95Millis()).isEqualTo(95);
+            softly.assertThat(snapshot.getP99Millis()).isEqualTo(99);
+            softly.assertThat(snapshot.getMaxMillis()).isEqualTo(100);
+            softly.assertThat(snapshot.getPagesPerHour()).isEqualTo(6000.0);
+        });
+    }
+
+    /**
+     * Three tabs in one headless browser audit a local site; a slow page times out and a missing
+     * one is reported with its status, without holding up the rest.
+     */
+    @Test
+    void auditsLocalSiteInParallel(@TempDir Path directory) throws IOException, InterruptedException {
+        try (StaticHttpServer site = StaticHttpServer.start()) {
+            List<String> urls = new ArrayList<>();
+            for (int page = 1; page <= 12; page++) {
+                site.html("/page/" + page, "<!doctype html><title>Page " + page + "</title><h1>Page " + page + "</h1>"
+                        + "<script>if (" + page + " % 4 === 0) { console.error('broken widget'); }</script>");
+                urls.add(site.url("/page/" + page));
+            }
+            site.resource("/slow", "text/html", "<title>Slow</title>".getBytes(StandardCharsets.UTF_8), Duration.ofSeconds(6));
+            urls.add(site.url("/slow"));
+            urls.add(site.url("/missing"));
+            Path output = directory.resolve("audit.jsonl");
+
+            AuditSummary summary = new SiteAuditor(AuditConfig.builder()
+                    .browsers(1)
+                    .tabsPerBrowser(3)
+                    .navigationTimeout(Duration.ofSeconds(3))
+                    .networkQuietPeriod(Duration.ofMillis(100))
+                    .reportInterval(Duration.ofSeconds(1))
+                    .output(output)
+                    .build()).run(urls);
+
+            ObjectMapper json = new ObjectMapper();
+            Map<String, JsonNode> results = new ConcurrentHashMap<>();
+            for (String line : Files.readAllLines(output)) {
+                JsonNode result = json.readTree(line);
+                results.put(result.path("url").asText(), result);
+            }
+            Function<String, String> status = path -> results.get(site.url(path)).path("status").asText();
+            assertSoftly(softly -> {
+                softly.assertThat(summary.getPages()).isEqualTo(14);
+                softly.assertThat(summary.getWorkers()).hasSize(3);
+                softly.assertThat(results).hasSize(14);
+                softly.assertThat(status.apply("/page/1")).isEqualTo("OK");
+                softly.assertThat(status.apply("/slow")).isEqualTo("TIMEOUT");
+                softly.assertThat(status.apply("/missing")).isEqualTo("HTTP_ERROR");
+                softly.assertThat(results.get(site.url("/page/1")).path("metrics").has("Nodes")).isTrue();
+                softly.assertThat(results.get(site.url("/page/1")).path("requests").asLong()).isPositive();
+                softly.assertThat(summary.getFailed()).isEqualTo(2);
+            });
+        }
+    }
+
+    private static byte[] sitemap(String root, String entry, String... locations) {
+        StringBuilder xml = new StringBuilder("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<" + root + " xmlns=\"" + SITEMAP_NS + "\">");
+        for (String location : locations) {
+            xml.append("<").append(entry).append("><loc>").append(location).append("</loc></").append(entry).append(">");
+        }
+        return xml.append("</").append(root).append(">").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] gzip(byte[] content) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(content);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,101 @@
+import co.uk.tracing.StepTiming;
+import co.uk.tracing.TraceAnalyzer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.SoftAssertions.assertSoftly;
+
+/**
+ * Step timings {@link TraceAnalyzer} reads from small gzipped traces, in the object form with metadata
+ * and step marks and as a bare event array.
+ */
+public class TestTraceAnalyzer {
+
+    @TempDir
+    Path tempDir;
+
+    /**
+     * Main-thread events are split by the step marks; other threads and short tasks do not count.
+     */
+    @Test
+    void splitsMainThreadWorkBySteps() throws IOException {
+        Path trace = write("flow.json.gz", "{\"traceEvents\":["
+                + event("X", "FunctionCall", 10, 500_000, 2_000)
+                + "," + mark(1_000_000, "home")
+                + "," + event("X", "RunTask", 10, 1_100_000, 120_000)
+                + "," + event("X", "EvaluateScript", 10, 1_110_000, 40_000)
+                + "," + event("X", "RunTask", 10, 1_300_000, 30_000)
+                + "," + event("X", "RunTask", 20, 1_400_000, 200_000)
+                + "," + mark(3_000_000, "search")
+                + "," + event("X", "UpdateLayoutTree", 10, 3_100_000, 3_000)
+                + "," + event("X", "Layout", 10, 3_104_000, 12_000)
+                + "," + event("X", "Paint", 10, 3_500_000, 5_000)
+                + ",{\"ph\":\"M\",\"name\":\"thread_name\",\"pid\":1,\"tid\":10,\"args\":{\"name\":\"CrRendererMain\"}}"
+                + ",{\"ph\":\"M\",\"name\":\"thread_name\",\"pid\":1,\"tid\":20,\"args\":{\"name\":\"Compositor\"}}"
+                + "],\"metadata\":{\"cpu-brand\":\"test\"}}");
+
+        List<StepTiming> steps = new TraceAnalyzer().analyze(trace);
+
+        assertSoftly(softly -> {
+            softly.assertThat(steps).extracting(StepTiming::getName)
+                    .containsExactly(TraceAnalyzer.BEFORE_FIRST_STEP, "home", "search");
+            softly.assertThat(steps.get(0).getScriptMillis()).isEqualTo(2.0);
+            softly.assertThat(steps.get(1).getDurationMillis()).isEqualTo(2_000.0);
+            softly.assertThat(steps.get(1).getLongTasks()).isEqualTo(1);
+            softly.assertThat(steps.get(1).getLongestTaskMillis()).isEqualTo(120.0);
+            softly.assertThat(steps.get(1).getBlockingMillis()).isEqualTo(70.0);
+            softly.assertThat(steps.get(1).getScriptMillis()).isEqualTo(40.0);
+            softly.assertThat(steps.get(2).getDurationMillis()).isEqualTo(505.0);
+            softly.assertThat(steps.get(2).getStyleMillis()).isEqualTo(3.0);
+            softly.assertThat(steps.get(2).getLayoutMillis()).isEqualTo(12.0);
+            softly.assertThat(steps.get(2).getPaintMillis()).isEqualTo(5.0);
+        });
+    }
+
+    /**
+     * A bare event array without thread names or marks is one step over every thread.
+     */
+    @Test
+    void readsBareArrayWithoutMetadata() throws IOException {
+        Path trace = write("bare.json.gz", "["
+                + event("X", "RunTask", 10, 0, 30_000) + ","
+                + event("X", "RunTask", 20, 50_000, 45_000) + ","
+                + event("B", "RunTask", 10, 60_000, 0) + "]");
+
+        List<StepTiming> steps = new TraceAnalyzer(Duration.ofMillis(25)).analyze(trace);
+
+        assertSoftly(softly -> {
+            softly.assertThat(steps).hasSize(1);
+            softly.assertThat(steps.get(0).getLongTasks()).isEqualTo(2);
+            softly.assertThat(steps.get(0).getLongTaskMillis()).isEqualTo(75.0);
+            softly.assertThat(steps.get(0).getBlockingMillis()).isZero();
+        });
+    }
+
+    private static String event(String phase, String name, int tid, long ts, long dur) {
+        return "{\"ph\":\"" + phase + "\",\"cat\":\"devtools.timeline\",\"name\":\"" + name + "\",\"pid\":1,\"tid\":" + tid
+                + ",\"ts\":" + ts + ",\"dur\":" + dur + ",\"args\":{}}";
+    }
+
+    private static String mark(long ts, String step) {
+        return "{\"ph\":\"R\",\"cat\":\"blink.user_timing\",\"name\":\"flow-step:" + step
+                + "\",\"pid\":1,\"tid\":10,\"ts\":" + ts + ",\"args\":{}}";
+    }
+
+    private Path write(String name, String json) throws IOException {
+        Path file = tempDir.resolve(name);
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(file))) {
+            out.write(json.getBytes(StandardCharsets.UTF_8));
+        }
+        return file;
+    }
+}